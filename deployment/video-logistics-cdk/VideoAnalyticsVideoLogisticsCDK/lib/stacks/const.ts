@@ -27,6 +27,10 @@ export const DENSITY_UPDATE_LAMBDA_HANDLER_PATH =
   "com.amazonaws.videoanalytics.videologistics.timeline.VideoDensityUpdateLambda::handleRequest";
 export const EXPORT_LAMBDA_HANDLER_PATH =
   "com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineS3ExportLambda::handleRequest";
+export const EVENT_EXPORT_LAMBDA_HANDLER_PATH =
+  "com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineS3EventExportLambda::handleRequest";
+export const COMPACTION_LAMBDA_HANDLER_PATH =
+  "com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineCompactionLambda::handleRequest";
 export const LAMBDA_SERVICE_PRINCIPAL = 'lambda.amazonaws.com';
 export const LAMBDA_MANAGED_POLICY_NAME = 'service-role/AWSLambdaBasicExecutionRole';
 export const TIMELINE_FORWARDER_HANDLER_PATH =
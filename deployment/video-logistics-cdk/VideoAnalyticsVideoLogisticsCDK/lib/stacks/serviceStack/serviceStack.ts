@@ -518,6 +518,7 @@ export class ServiceStack extends Stack {
           "dynamodb:Query",
           "dynamodb:BatchGetItem",
           "dynamodb:PutItem",
+          "dynamodb:BatchWriteItem",
           "dynamodb:DescribeTable"
         ],
         resources: [
@@ -532,6 +533,8 @@ export class ServiceStack extends Stack {
     const listDetailedVideoTimelineRole = createLambdaRole(this, "ListDetailedVideoTimelineRole", videoTimelineBaseRole);
     const listVideoTimelinesRole = createLambdaRole(this, "ListVideoTimelinesRole", videoTimelineBaseRole);
     const putVideoTimelineRole = createLambdaRole(this, "PutVideoTimelineRole", videoTimelineBaseRole);
+    const seekVideoRecordingRole = createLambdaRole(this, "SeekVideoRecordingRole", videoTimelineBaseRole);
+    const batchListVideoTimelinesRole = createLambdaRole(this, "BatchListVideoTimelinesRole", videoTimelineBaseRole);
 
     const listDetailedVideoTimelineLambda = new Function(this, "ListDetailedVideoTimelineActivity", {
       runtime: Runtime.JAVA_17,
@@ -554,6 +557,49 @@ export class ServiceStack extends Stack {
       principal: new ServicePrincipal('apigateway.amazonaws.com'),
     })
 
+    const seekVideoRecordingLambda = new Function(this, "SeekVideoRecordingActivity", {
+      runtime: Runtime.JAVA_17,
+      tracing: Tracing.ACTIVE,
+      handler: `${VL_ACTIVITY_JAVA_PATH_PREFIX}.SeekVideoRecordingActivity::handleRequest`,
+      code: Code.fromAsset(LAMBDA_ASSET_PATH),
+      memorySize: 512,
+      timeout: Duration.minutes(5),
+      environment: {
+        ACCOUNT_ID: this.account
+      },
+      role: seekVideoRecordingRole,
+      logGroup: new LogGroup(this, "SeekVideoRecordingActivityLogGroup", {
+          retention: RetentionDays.TEN_YEARS,
+          logGroupName: "/aws/lambda/SeekVideoRecordingActivity",
+      }),
+    });
+
+    seekVideoRecordingLambda.addPermission('seekVideoRecordingApiGatewayPermission', {
+      principal: new ServicePrincipal('apigateway.amazonaws.com'),
+    })
+
+    // more memory for the vCPU share of the concurrent device queries
+    const batchListVideoTimelinesLambda = new Function(this, "BatchListVideoTimelinesActivity", {
+      runtime: Runtime.JAVA_17,
+      tracing: Tracing.ACTIVE,
+      handler: `${VL_ACTIVITY_JAVA_PATH_PREFIX}.BatchListVideoTimelinesActivity::handleRequest`,
+      code: Code.fromAsset(LAMBDA_ASSET_PATH),
+      memorySize: 1024,
+      timeout: Duration.minutes(5),
+      environment: {
+        ACCOUNT_ID: this.account
+      },
+      role: batchListVideoTimelinesRole,
+      logGroup: new LogGroup(this, "BatchListVideoTimelinesActivityLogGroup", {
+          retention: RetentionDays.TEN_YEARS,
+          logGroupName: "/aws/lambda/BatchListVideoTimelinesActivity",
+      }),
+    });
+
+    batchListVideoTimelinesLambda.addPermission('batchListVideoTimelinesApiGatewayPermission', {
+      principal: new ServicePrincipal('apigateway.amazonaws.com'),
+    })
+
     const listVideoTimelinesLambda = new Function(this, "ListVideoTimelinesActivity", {
       runtime: Runtime.JAVA_17,
       tracing: Tracing.ACTIVE,
@@ -816,16 +862,22 @@ export class ServiceStack extends Stack {
     listVideoTimelinesCfnLambda.overrideLogicalId("ListVideoTimelinesActivity");
     const putVideoTimelineCfnLambda = putVideoTimelineLambda.node.defaultChild as CfnFunction;
     putVideoTimelineCfnLambda.overrideLogicalId("PutVideoTimelineActivity");
+    const seekVideoRecordingCfnLambda = seekVideoRecordingLambda.node.defaultChild as CfnFunction;
+    seekVideoRecordingCfnLambda.overrideLogicalId("SeekVideoRecordingActivity");
+    const batchListVideoTimelinesCfnLambda = batchListVideoTimelinesLambda.node.defaultChild as CfnFunction;
+    batchListVideoTimelinesCfnLambda.overrideLogicalId("BatchListVideoTimelinesActivity");
 
     // configure auth type for all methods (workaround since Smithy does not support x-amazon-apigateway-auth trait)
     // create-snapshot-upload-path and put-video-timeline are not invoked through API GW
     const APIS = [
+      "/batch-list-video-timelines",
       "/create-livestream-session",
       "/create-playback-session",
       "/get-vl-register-device-status/{jobId}",
       "/import-media-object",
       "/list-detailed-video-timeline",
       "/list-video-timelines",
+      "/seek-video-recording",
       "/start-vl-register-device/{deviceId}"
     ]
     const data = JSON.parse(fs.readFileSync(OPEN_API_SPEC_PATH, 'utf8'));
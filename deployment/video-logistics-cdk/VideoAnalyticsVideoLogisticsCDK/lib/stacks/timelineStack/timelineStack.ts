@@ -14,16 +14,18 @@ import {
 import { Stream, StreamEncryption, StreamMode } from 'aws-cdk-lib/aws-kinesis';
 import { Key } from 'aws-cdk-lib/aws-kms';
 import { Code, Function, IFunction, Runtime, StartingPosition, Tracing } from 'aws-cdk-lib/aws-lambda';
-import { DynamoEventSource, KinesisEventSource, SqsDlq } from 'aws-cdk-lib/aws-lambda-event-sources';
+import { DynamoEventSource, KinesisEventSource, SqsDlq, SqsEventSource } from 'aws-cdk-lib/aws-lambda-event-sources';
 import { LogGroup, RetentionDays } from 'aws-cdk-lib/aws-logs';
-import { BlockPublicAccess, Bucket, BucketEncryption, ObjectOwnership } from 'aws-cdk-lib/aws-s3';
+import { BlockPublicAccess, Bucket, BucketEncryption, CfnBucket, EventType, ObjectOwnership } from 'aws-cdk-lib/aws-s3';
 import { Queue, QueueEncryption } from 'aws-cdk-lib/aws-sqs';
 
 
 import type { Construct } from 'constructs';
 import { AWSRegion, createTable } from 'video_analytics_common_construct';
 import {
+    COMPACTION_LAMBDA_HANDLER_PATH,
     DENSITY_UPDATE_LAMBDA_HANDLER_PATH,
+    EVENT_EXPORT_LAMBDA_HANDLER_PATH,
     EXPORT_LAMBDA_HANDLER_PATH,
     LAMBDA_ASSET_PATH,
     LAMBDA_MANAGED_POLICY_NAME,
@@ -56,6 +58,8 @@ export class TimelineStack extends Stack {
     private airportCode: string;
     public readonly videoDensityUpdateLambda: IFunction;
     public readonly videoTimelineExportLambda: IFunction;
+    public readonly videoTimelineEventExportLambda: IFunction;
+    public readonly videoTimelineCompactionLambda: IFunction;
 
     constructor(scope: Construct, id: string, props: TimelineStackProps) {
         super(scope, id, props);
@@ -176,7 +180,7 @@ export class TimelineStack extends Stack {
         forwarderLambdaRole.addToPolicy(
             new PolicyStatement({
                 effect: Effect.ALLOW,
-                actions: ['kinesis:PutRecord'],
+                actions: ['kinesis:PutRecord', 'kinesis:PutRecords'],
                 resources: ['*']
             })
         );
@@ -237,15 +241,15 @@ export class TimelineStack extends Stack {
             })
         );
 
-        // S3ExporterScheduledLambda
-        const exporterPeriodInMinutes = 1;
+        // S3ExporterScheduledLambda, sweeps batches the notification driven export below missed
+        const exporterPeriodInMinutes = 10;
         const bucketName = `${TIMELINE_BUCKET_NAME}-${this.region}-${this.account}`;
         const role = getExportLambdaRole(
             this,
             rawVideoTimelineTable,
         );
 
-        this.videoTimelineExportLambda = createExportLambda(this, role, props);
+        this.videoTimelineExportLambda = createExportLambda(this, role, exporterPeriodInMinutes);
 
         const eventRule = new Rule(this, 'S3Exporter-XMinutesRule', {
             // https://docs.aws.amazon.com/eventbridge/latest/userguide/eb-cron-expressions.html
@@ -259,6 +263,42 @@ export class TimelineStack extends Stack {
             })
         );
 
+        // VideoTimelineCompactionLambda, rolls closed hours of raw timelines into one item per device and hour
+        const compactionPeriodInMinutes = 10;
+        const compactionLambdaRole = new Role(this, 'VideoTimelineCompactionLambdaRole', {
+            assumedBy: new ServicePrincipal(LAMBDA_SERVICE_PRINCIPAL)
+        });
+        compactionLambdaRole.addManagedPolicy(
+            ManagedPolicy.fromAwsManagedPolicyName(LAMBDA_MANAGED_POLICY_NAME)
+        );
+        compactionLambdaRole.addToPolicy(this.kmsPolicy);
+        compactionLambdaRole.addToPolicy(this.tablePolicy);
+        this.videoTimelineCompactionLambda = new Function(this, 'VideoTimelineCompactionLambda', {
+            code: Code.fromAsset(LAMBDA_ASSET_PATH),
+            description: 'Lambda responsible for compacting closed hours of video timelines',
+            runtime: Runtime.JAVA_17,
+            tracing: Tracing.ACTIVE,
+            handler: COMPACTION_LAMBDA_HANDLER_PATH,
+            memorySize: 2048,
+            role: compactionLambdaRole,
+            timeout: Duration.minutes(compactionPeriodInMinutes),
+            logGroup: new LogGroup(this, 'VideoTimelineCompactionLambdaLogGroup', {
+                retention: RetentionDays.TEN_YEARS,
+                logGroupName: 'VideoTimelineCompactionLambdaLogGroup'
+            })
+        });
+
+        const compactionRule = new Rule(this, 'VideoTimelineCompaction-XMinutesRule', {
+            schedule: Schedule.cron({ minute: `0/${compactionPeriodInMinutes}` })
+        });
+
+        compactionRule.addTarget(
+            new LambdaFunction(this.videoTimelineCompactionLambda, {
+                retryAttempts: 1,
+                maxEventAge: Duration.minutes(compactionPeriodInMinutes)
+            })
+        );
+
         const bucketEncryptionKey = new Key(this, 'TimelineBucketEncryptionKey', {
             enableKeyRotation: true,
             admins: [new AccountRootPrincipal()]
@@ -269,7 +309,8 @@ export class TimelineStack extends Stack {
             new PolicyStatement({
                 effect: Effect.ALLOW,
                 resources: [bucketEncryptionKey.keyArn],
-                actions: ['kms:Decrypt']
+                // the sweeper writes its checkpoint into the bucket
+                actions: ['kms:Decrypt', 'kms:GenerateDataKey']
             })
         );
 
@@ -302,6 +343,83 @@ export class TimelineStack extends Stack {
                 }
             ]
         });
+
+        // S3ExporterEventLambda, exports each batch as soon as S3 announces it
+        const eventExportTimeoutInMinutes = 2;
+        const exportQueueEncryptionKey = new Key(this, 'TimelineExportQueueEncryptionKey', {
+            enableKeyRotation: true,
+            admins: [new AccountRootPrincipal()]
+        });
+        const exportDeadLetter = new Queue(this, 'TimelineExportDLQ', {
+            encryption: QueueEncryption.KMS,
+            encryptionMasterKey: exportQueueEncryptionKey
+        });
+        const exportQueue = new Queue(this, 'TimelineExportQueue', {
+            encryption: QueueEncryption.KMS,
+            encryptionMasterKey: exportQueueEncryptionKey,
+            // https://docs.aws.amazon.com/lambda/latest/dg/with-sqs.html#events-sqs-queueconfig
+            visibilityTimeout: Duration.minutes(6 * eventExportTimeoutInMinutes),
+            deadLetterQueue: {
+                queue: exportDeadLetter,
+                maxReceiveCount: 5
+            }
+        });
+        // S3 checks that it may send to the queue when the notification is put, so the queue policy comes first.
+        // Configured on the bucket itself instead of through addEventNotification, which deploys a custom
+        // resource lambda to put the configuration.
+        const s3Principal = new ServicePrincipal('s3.amazonaws.com');
+        const exportQueuePolicy = exportQueue.addToResourcePolicy(
+            new PolicyStatement({
+                effect: Effect.ALLOW,
+                principals: [s3Principal],
+                resources: [exportQueue.queueArn],
+                actions: ['sqs:SendMessage', 'sqs:GetQueueAttributes', 'sqs:GetQueueUrl'],
+                conditions: {
+                    ArnLike: { 'aws:SourceArn': `arn:aws:s3:::${bucketName}` }
+                }
+            })
+        );
+        exportQueueEncryptionKey.addToResourcePolicy(
+            new PolicyStatement({
+                effect: Effect.ALLOW,
+                principals: [s3Principal],
+                resources: ['*'],
+                actions: ['kms:GenerateDataKey*', 'kms:Decrypt']
+            })
+        );
+        const cfnBucket = bucket.node.defaultChild as CfnBucket;
+        cfnBucket.notificationConfiguration = {
+            queueConfigurations: [{ event: EventType.OBJECT_CREATED, queue: exportQueue.queueArn }]
+        };
+        if (exportQueuePolicy.policyDependable !== undefined) {
+            cfnBucket.node.addDependency(exportQueuePolicy.policyDependable);
+        }
+
+        this.videoTimelineEventExportLambda = new Function(this, 'VideoTimelineS3EventExportLambda', {
+            code: Code.fromAsset(LAMBDA_ASSET_PATH),
+            description: 'Lambda responsible for exporting newly created timeline objects from S3 to DDB',
+            runtime: Runtime.JAVA_17,
+            tracing: Tracing.ACTIVE,
+            handler: EVENT_EXPORT_LAMBDA_HANDLER_PATH,
+            memorySize: 2048,
+            role: role,
+            environment: {
+                ACCOUNT_ID: this.account
+            },
+            timeout: Duration.minutes(eventExportTimeoutInMinutes),
+            logGroup: new LogGroup(this, 'VideoTimelineS3EventExportLambdaLogGroup', {
+                retention: RetentionDays.TEN_YEARS,
+                logGroupName: 'VideoTimelineS3EventExportLambdaLogGroup'
+            })
+        });
+
+        this.videoTimelineEventExportLambda.addEventSource(
+            new SqsEventSource(exportQueue, {
+                batchSize: 100,
+                maxBatchingWindow: Duration.seconds(5),
+                reportBatchItemFailures: true
+            })
+        );
     }
 }
 
@@ -346,7 +464,7 @@ function getExportLambdaRole(
     const ddbPolicy = new PolicyStatement({
         effect: Effect.ALLOW,
         resources: [table.tableArn],
-        actions: ['dynamodb:GetItem', 'dynamodb:PutItem', 'dynamodb:UpdateItem']
+        actions: ['dynamodb:GetItem', 'dynamodb:PutItem', 'dynamodb:UpdateItem', 'dynamodb:BatchWriteItem']
     });
 
     const lambdaRole = new Role(stack, 'S3ExporterLambdaRole', {
@@ -373,7 +491,7 @@ function getExportLambdaRole(
     return lambdaRole;
 }
 
-function createExportLambda(stack: Stack, role: Role, props: TimelineStackProps) {
+function createExportLambda(stack: Stack, role: Role, periodInMinutes: number) {
     return new Function(stack, 'VideoTimelineS3ExportLambda', {
         code: Code.fromAsset(LAMBDA_ASSET_PATH),
         description: 'Lambda responsible for exporting timeline information from S3 to DDB',
@@ -385,7 +503,8 @@ function createExportLambda(stack: Stack, role: Role, props: TimelineStackProps)
         environment: {
             ACCOUNT_ID: stack.account
         },
-        timeout: Duration.minutes(12),
+        // a run stops before the next one starts, resuming from its checkpoint
+        timeout: Duration.minutes(periodInMinutes),
         logGroup: new LogGroup(stack, 'VideoTimelineS3ExportLambdaLogGroup', {
             retention: RetentionDays.TEN_YEARS,
             logGroupName: 'VideoTimelineS3ExportLambdaLogGroup'
@@ -0,0 +1,52 @@
+package com.amazonaws.videoanalytics.videologistics.inference;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Trajectory model inferences shaped like the ones devices send: one tracked object per frame, with a ~4KB JPEG
+ * thumbnail inlined as base64.
+ */
+public final class InferenceFixtures {
+    public static final String TRAJECTORY_MODEL_NAME = "Trajectory";
+    public static final String TRAJECTORY_MODEL_VERSION = "1.0";
+    public static final int TRAJECTORY_OBJECT_COUNT = 100;
+    private static final int THUMBNAIL_SIZE_BYTES = 4248;
+    private static final String TRAJECTORY_FRAME = "{\"MetadataStream\":{\"VideoAnalytics\":{\"Frame\":{"
+            + "\"Source\":\"VA_TRAJ\",\"UtcTime\":\"2024-04-16T20:15:%02d\","
+            + "\"Transformation\":{\"Translate\":{\"x\":-1.0,\"y\":1.0},\"Scale\":{\"x\":1.0,\"y\":1.0}},"
+            + "\"Object\":{\"ObjectId\":%d,\"Appearance\":{"
+            + "\"Shape\":{\"BoundingBox\":{\"left\":%.6f,\"right\":%.6f,\"top\":%.6f,\"bottom\":%.6f},"
+            + "\"CenterOfGravity\":{\"x\":%.6f,\"y\":%.6f}},"
+            + "\"Class\":{\"Type\":{\"Likelihood\":%.6f,\"txt\":\"Person\"}}},"
+            + "\"Extension\":{\"timeText\":\"2024-04-17T05:15:06+09:00\","
+            + "\"TriggerDateTime\":\"2024-04-17T05:15:06.837+0900\","
+            + "\"BestThumbnailCapDateTimeMs\":\"2024-04-17T05:15:00.615+0900\","
+            + "\"BestThumbnailCapDateTime\":\"2024-04-17T05:15:00+09:00\"}},"
+            + "\"Extension\":{\"Image\":{\"ImageId\":%d,\"data_size\":%d,\"data\":\"%s\"}}}}}}";
+
+    private InferenceFixtures() {
+    }
+
+    /**
+     * Returns the model output of a Trajectory inference for each of {@link #TRAJECTORY_OBJECT_COUNT} tracked objects
+     */
+    public static List<String> getTrajectoryInferences() {
+        Random random = new Random(42L);
+        List<String> inferences = new ArrayList<>(TRAJECTORY_OBJECT_COUNT);
+        for (int objectId = 0; objectId < TRAJECTORY_OBJECT_COUNT; objectId++) {
+            double left = random.nextDouble() / 2;
+            double top = random.nextDouble() / 2;
+            double right = left + random.nextDouble() / 2;
+            double bottom = top + random.nextDouble() / 2;
+            byte[] thumbnail = new byte[THUMBNAIL_SIZE_BYTES];
+            random.nextBytes(thumbnail);
+            inferences.add(String.format(TRAJECTORY_FRAME, objectId % 60, objectId, left, right, top, bottom,
+                    (left + right) / 2, (top + bottom) / 2, random.nextDouble(), objectId, THUMBNAIL_SIZE_BYTES,
+                    Base64.getEncoder().encodeToString(thumbnail)));
+        }
+        return inferences;
+    }
+}
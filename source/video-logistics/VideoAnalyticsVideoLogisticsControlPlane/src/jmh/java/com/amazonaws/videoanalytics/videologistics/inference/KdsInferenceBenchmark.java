@@ -0,0 +1,48 @@
+package com.amazonaws.videoanalytics.videologistics.inference;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.amazonaws.videoanalytics.videologistics.inference.InferenceFixtures.TRAJECTORY_MODEL_NAME;
+import static com.amazonaws.videoanalytics.videologistics.inference.InferenceFixtures.TRAJECTORY_MODEL_VERSION;
+import static com.amazonaws.videoanalytics.videologistics.inference.InferenceFixtures.TRAJECTORY_OBJECT_COUNT;
+
+/**
+ * Computes the event digest used in the OpenSearch document id of every inference, results are per inference
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class KdsInferenceBenchmark {
+    private final List<KdsInference> kdsInferences = new ArrayList<>();
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (String inference : InferenceFixtures.getTrajectoryInferences()) {
+            KdsMetadata kdsMetadata = new KdsMetadata("benchmark-device", TRAJECTORY_MODEL_NAME,
+                    TRAJECTORY_MODEL_VERSION, "2024-04-16T20:15:06Z", List.of());
+            kdsInferences.add(new KdsInference(kdsMetadata, objectMapper.readTree(inference)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRAJECTORY_OBJECT_COUNT)
+    public void getEventDigest(Blackhole blackhole) {
+        for (KdsInference kdsInference : kdsInferences) {
+            blackhole.consume(kdsInference.getEventDigest());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.amazonaws.videoanalytics.videologistics.schema.util;
+
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoDensity;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoTimeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.CLOUD_DENSITY_IN_MILLIS;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.CREATED_AT;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.DEVICE_DENSITY_IN_MILLIS;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.EXPIRATION_TIMESTAMP;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.LAST_UPDATED;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.TIME_INCREMENT_UNIT;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.UNIT_TIMESTAMP;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.VIDEO_TIMELINE_PARTITION_KEY;
+
+/**
+ * Maps a video timeline bucket read by ListVideoTimelines: the full item through the bean schema, as before
+ * projection, against the projected item through the hand written schema
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AggregateVideoDensityTableSchemaBenchmark {
+    private final TableSchema<AggregateVideoTimeline> beanTableSchema =
+            TableSchema.fromBean(AggregateVideoTimeline.class);
+    private final TableSchema<AggregateVideoDensity> densityTableSchema = new AggregateVideoDensityTableSchema();
+    private Map<String, AttributeValue> item;
+    private Map<String, AttributeValue> projectedItem;
+
+    @Setup
+    public void setup() {
+        projectedItem = Map.of(
+                UNIT_TIMESTAMP, AttributeValue.fromN("1696444405000"),
+                CLOUD_DENSITY_IN_MILLIS, AttributeValue.fromN("4000"),
+                DEVICE_DENSITY_IN_MILLIS, AttributeValue.fromN("1000"));
+        item = new HashMap<>(projectedItem);
+        item.put(VIDEO_TIMELINE_PARTITION_KEY, AttributeValue.fromS("benchmark-device#SECONDS"));
+        item.put(TIME_INCREMENT_UNIT, AttributeValue.fromS("SECONDS"));
+        item.put(EXPIRATION_TIMESTAMP, AttributeValue.fromN("1697049205"));
+        item.put(CREATED_AT, AttributeValue.fromS("2023-10-04T18:33:25.123Z"));
+        item.put(LAST_UPDATED, AttributeValue.fromS("2023-10-04T18:33:29.456Z"));
+    }
+
+    @Benchmark
+    public AggregateVideoTimeline mapBeanItem() {
+        return beanTableSchema.mapToItem(item);
+    }
+
+    @Benchmark
+    public AggregateVideoDensity mapProjectedItem() {
+        return densityTableSchema.mapToItem(projectedItem);
+    }
+}
@@ -0,0 +1,71 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.videoanalytics.videologistics.dagger.modules.AWSVideoAnalyticsVLControlPlaneModule;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoDensityLocation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.amazonaws.videoanalytics.videologistics.timeline.TimelineFixtures.DEVICE_ID;
+import static com.amazonaws.videoanalytics.videologistics.timeline.TimelineFixtures.FRAGMENT_DURATION_MILLIS;
+
+/**
+ * Serializes and deserializes a batch of an hour of fragments, as written to S3 by PutVideoTimeline, in the binary
+ * format and in the JSON format it replaced
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BatchTimelineMapperBenchmark {
+    private final ObjectMapper objectMapper = new AWSVideoAnalyticsVLControlPlaneModule().provideObjectMapper();
+    private final BatchTimelineMapper batchTimelineMapper = new BatchTimelineMapper(objectMapper);
+    private BatchTimeline batchTimeline;
+    private byte[] binaryBatchTimeline;
+    private byte[] jsonBatchTimeline;
+
+    @Setup
+    public void setup() throws IOException {
+        List<TimestampInfo> timestamps = new ArrayList<>();
+        for (long timestamp = 1696444408000L; timestamp < 1696444408000L + 60 * 60 * 1000L;
+             timestamp += FRAGMENT_DURATION_MILLIS) {
+            timestamps.add(new TimestampInfo(timestamp, FRAGMENT_DURATION_MILLIS));
+        }
+        batchTimeline = BatchTimeline.builder()
+                .deviceId(DEVICE_ID)
+                .location(VideoDensityLocation.CLOUD.name())
+                .timestamps(timestamps)
+                .build();
+        binaryBatchTimeline = batchTimelineMapper.serialize(batchTimeline);
+        jsonBatchTimeline = objectMapper.writeValueAsBytes(batchTimeline);
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return batchTimelineMapper.serialize(batchTimeline);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() throws IOException {
+        return objectMapper.writeValueAsBytes(batchTimeline);
+    }
+
+    @Benchmark
+    public BatchTimeline deserializeBinary() throws IOException {
+        return batchTimelineMapper.deserialize(binaryBatchTimeline);
+    }
+
+    @Benchmark
+    public BatchTimeline deserializeJson() throws IOException {
+        return batchTimelineMapper.deserialize(jsonBatchTimeline);
+    }
+}
@@ -0,0 +1,92 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.CompactedVideoTimelineDAO;
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.RawVideoTimelineDAO;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.CompactedVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.DetailedTimelinePaginatedResponse;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.PaginatedListResponse;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.RawVideoTimeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.amazonaws.videoanalytics.videologistics.timeline.CompactedTimelineCodec.MILLIS_PER_HOUR;
+import static com.amazonaws.videoanalytics.videologistics.timeline.TimelineFixtures.DEVICE_ID;
+import static com.amazonaws.videoanalytics.videologistics.timeline.TimelineFixtures.WEEK_MILLIS;
+import static com.amazonaws.videoanalytics.videologistics.timeline.TimelineFixtures.WEEK_START;
+
+/**
+ * Stitches a week of 4s fragments into the cloud and device intervals of the detailed timeline, from the raw
+ * timelines and from the hours compacted out of them. Both are served from memory, so only the stitching is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DetailedVideoTimelineBenchmark {
+    private DetailedVideoTimelineGenerator detailedVideoTimelineGenerator;
+    private DetailedVideoTimelineGenerator compactedDetailedVideoTimelineGenerator;
+
+    @Setup
+    public void setup() {
+        List<RawVideoTimeline> fragments = TimelineFixtures.getWeekOfFragments();
+        RawVideoTimelineDAO rawVideoTimelineDAO = new RawVideoTimelineDAO(null, null, new VideoTimelineUtils(), null) {
+            @Override
+            public PaginatedListResponse<RawVideoTimeline> listRawVideoTimelines(final String deviceId,
+                                                                                 final Long startTimeInMillis,
+                                                                                 final Long endTimeInMillis,
+                                                                                 final String nextToken) {
+                return new PaginatedListResponse<>(fragments.stream()
+                        .filter(fragment -> fragment.getTimestamp() >= startTimeInMillis
+                                && fragment.getTimestamp() <= endTimeInMillis)
+                        .collect(Collectors.toList()), null);
+            }
+        };
+        detailedVideoTimelineGenerator = new DetailedVideoTimelineGenerator(rawVideoTimelineDAO,
+                new InMemoryCompactedVideoTimelineDAO(List.of()));
+
+        List<CompactedVideoTimeline> compactedHours = new ArrayList<>();
+        for (long hourStartTime = WEEK_START; hourStartTime < WEEK_START + WEEK_MILLIS;
+             hourStartTime += MILLIS_PER_HOUR) {
+            compactedHours.add(detailedVideoTimelineGenerator.compact(DEVICE_ID, hourStartTime));
+        }
+        compactedDetailedVideoTimelineGenerator = new DetailedVideoTimelineGenerator(rawVideoTimelineDAO,
+                new InMemoryCompactedVideoTimelineDAO(compactedHours));
+    }
+
+    @Benchmark
+    public DetailedTimelinePaginatedResponse getDetailedVideoTimeLine() {
+        return detailedVideoTimelineGenerator.getDetailedVideoTimeLine(DEVICE_ID, WEEK_START,
+                WEEK_START + WEEK_MILLIS, null);
+    }
+
+    @Benchmark
+    public DetailedTimelinePaginatedResponse getCompactedDetailedVideoTimeLine() {
+        return compactedDetailedVideoTimelineGenerator.getDetailedVideoTimeLine(DEVICE_ID, WEEK_START,
+                WEEK_START + WEEK_MILLIS, null);
+    }
+
+    private static final class InMemoryCompactedVideoTimelineDAO extends CompactedVideoTimelineDAO {
+        private final List<CompactedVideoTimeline> compactedHours;
+
+        private InMemoryCompactedVideoTimelineDAO(final List<CompactedVideoTimeline> compactedHours) {
+            super(null, null, new VideoTimelineUtils(), null);
+            this.compactedHours = compactedHours;
+        }
+
+        @Override
+        public List<CompactedVideoTimeline> listCompactedVideoTimelines(final String deviceId,
+                                                                        final long firstHourStartTime,
+                                                                        final long lastHourStartTime) {
+            return compactedHours;
+        }
+    }
+}
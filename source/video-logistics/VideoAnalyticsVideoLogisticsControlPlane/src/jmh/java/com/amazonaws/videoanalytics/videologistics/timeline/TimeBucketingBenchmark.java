@@ -0,0 +1,112 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares splitting video fragments into time buckets with the previous Instant based implementation against
+ * {@link VideoTimelineAggregator#getTimeBuckets} and a reused {@link TimeBucketCursor}. Each operation buckets one
+ * batch of fragments, run with the gc profiler to compare allocations per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TimeBucketingBenchmark {
+    private static final int FRAGMENTS = 256;
+    // KVS fragments are typically 2-10s
+    private static final int MAX_FRAGMENT_DURATION_MILLIS = 10_000;
+
+    @Param({"SECONDS", "HOURS"})
+    public TimeIncrementUnits timeIncrementUnits;
+
+    private final VideoTimelineUtils videoTimelineUtils = new VideoTimelineUtils();
+    private final VideoTimelineAggregator videoTimelineAggregator = new VideoTimelineAggregator(videoTimelineUtils);
+    private final TimeBucketCursor cursor = new TimeBucketCursor();
+    private final long[] timestamps = new long[FRAGMENTS];
+    private final long[] durations = new long[FRAGMENTS];
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42L);
+        long timestamp = 1696444404000L;
+        for (int i = 0; i < FRAGMENTS; i++) {
+            timestamps[i] = timestamp;
+            durations[i] = 1 + random.nextInt(MAX_FRAGMENT_DURATION_MILLIS);
+            timestamp += durations[i];
+        }
+    }
+
+    @Benchmark
+    public void instantBasedBuckets(Blackhole blackhole) {
+        for (int i = 0; i < FRAGMENTS; i++) {
+            blackhole.consume(getInstantBasedTimeBuckets(timeIncrementUnits, timestamps[i], durations[i]));
+        }
+    }
+
+    @Benchmark
+    public void getTimeBuckets(Blackhole blackhole) {
+        for (int i = 0; i < FRAGMENTS; i++) {
+            blackhole.consume(videoTimelineAggregator.getTimeBuckets(timeIncrementUnits, timestamps[i], durations[i]));
+        }
+    }
+
+    @Benchmark
+    public void timeBucketCursor(Blackhole blackhole) {
+        for (int i = 0; i < FRAGMENTS; i++) {
+            cursor.reset(timeIncrementUnits, timestamps[i], durations[i]);
+            while (cursor.next()) {
+                blackhole.consume(cursor.getBucketStartDate());
+                blackhole.consume(cursor.getDurationToBeStored());
+            }
+        }
+    }
+
+    // VideoTimelineAggregator.getTimeBuckets before it was moved to epoch millisecond arithmetic
+    private List<TimelineStorage> getInstantBasedTimeBuckets(TimeIncrementUnits timeIncrementUnits,
+                                                             Long timestampToBeStored, Long durationInMillis) {
+        Long rangeStart = getInstantBasedUnitTime(timeIncrementUnits, timestampToBeStored);
+        Instant rangeStartInstant = Instant.ofEpochMilli(rangeStart);
+        Long rangeEnd = getInstantBasedUnitTime(timeIncrementUnits, timestampToBeStored + durationInMillis);
+        List<TimelineStorage> timestampList = new ArrayList<>();
+        ChronoUnit timeUnit = ChronoUnit.valueOf(timeIncrementUnits.getChronoUnit().name());
+        long durationStep = timeUnit == ChronoUnit.SECONDS ? 5L : 1L;
+        long bucketDurationMillis = videoTimelineUtils.getBucketDuration(timeUnit);
+        int numberOfBuckets = (int) (rangeStartInstant.until(Instant.ofEpochMilli(rangeEnd), timeUnit) / durationStep) + 1;
+
+        for (int i = 0; i < numberOfBuckets; i++) {
+            long bucketStartDate = rangeStartInstant.plus(i * durationStep, timeUnit).toEpochMilli();
+            long bucketEndDate = bucketStartDate + bucketDurationMillis;
+            long timeInBucket = Math.min(bucketEndDate - timestampToBeStored, durationInMillis);
+            timestampList.add(
+                    TimelineStorage.builder().bucketStartDate(bucketStartDate).durationToBeStored(timeInBucket).build()
+            );
+            durationInMillis -= timeInBucket;
+            timestampToBeStored = bucketEndDate;
+            if (durationInMillis <= 0 || timestampToBeStored > rangeEnd) break;
+        }
+        return timestampList;
+    }
+
+    private static Long getInstantBasedUnitTime(TimeIncrementUnits timeIncrementUnits, Long timestamp) {
+        if (timeIncrementUnits == TimeIncrementUnits.SECONDS) {
+            return (long) (5000 * (Math.floor((double) timestamp / 5000)));
+        }
+        ChronoUnit chronoUnit = ChronoUnit.valueOf(timeIncrementUnits.getChronoUnit().name());
+        return Instant.ofEpochMilli(timestamp).truncatedTo(chronoUnit).toEpochMilli();
+    }
+}
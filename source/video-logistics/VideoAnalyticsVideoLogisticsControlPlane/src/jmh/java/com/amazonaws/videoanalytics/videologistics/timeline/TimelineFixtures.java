@@ -0,0 +1,70 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoDensity;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.RawVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoDensityLocation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Timeline data shaped like a device recording continuously for a week: 4s KVS fragments, stored on the device for
+ * the first hour of every 6 and in the cloud otherwise, with a 30s gap in recording every 10 minutes.
+ */
+final class TimelineFixtures {
+    static final String DEVICE_ID = "benchmark-device";
+    static final long WEEK_START = 1696377600000L; // 2023-10-04T00:00:00Z
+    static final long WEEK_MILLIS = 7 * 24 * 60 * 60 * 1000L;
+    static final long FRAGMENT_DURATION_MILLIS = 4000L;
+    private static final long GAP_INTERVAL_MILLIS = 10 * 60 * 1000L;
+    private static final long GAP_DURATION_MILLIS = 30 * 1000L;
+
+    private TimelineFixtures() {
+    }
+
+    static List<RawVideoTimeline> getWeekOfFragments() {
+        List<RawVideoTimeline> fragments = new ArrayList<>();
+        long timestamp = WEEK_START;
+        while (timestamp < WEEK_START + WEEK_MILLIS) {
+            if ((timestamp - WEEK_START) % GAP_INTERVAL_MILLIS < FRAGMENT_DURATION_MILLIS && timestamp > WEEK_START) {
+                timestamp += GAP_DURATION_MILLIS;
+            }
+            fragments.add(RawVideoTimeline.builder()
+                    .deviceId(DEVICE_ID)
+                    .timestamp(timestamp)
+                    .durationInMillis(FRAGMENT_DURATION_MILLIS)
+                    .location(getLocation(timestamp))
+                    .build());
+            timestamp += FRAGMENT_DURATION_MILLIS;
+        }
+        return fragments;
+    }
+
+    /**
+     * Aggregates the week of fragments into buckets of the given unit, as VideoDensityUpdateLambda would
+     */
+    static List<AggregateVideoDensity> getWeekOfBuckets(TimeIncrementUnits timeIncrementUnits) {
+        // cloud and device densities of each bucket, by bucket start date
+        Map<Long, long[]> buckets = new LinkedHashMap<>();
+        TimeBucketCursor cursor = new TimeBucketCursor();
+        for (RawVideoTimeline fragment : getWeekOfFragments()) {
+            cursor.reset(timeIncrementUnits, fragment.getTimestamp(), fragment.getDurationInMillis());
+            while (cursor.next()) {
+                long[] densities = buckets.computeIfAbsent(cursor.getBucketStartDate(), bucketStartDate -> new long[2]);
+                densities[fragment.getLocation() == VideoDensityLocation.CLOUD ? 0 : 1] += cursor.getDurationToBeStored();
+            }
+        }
+        List<AggregateVideoDensity> aggregateVideoDensities = new ArrayList<>(buckets.size());
+        buckets.forEach((bucketStartDate, densities) ->
+                aggregateVideoDensities.add(new AggregateVideoDensity(bucketStartDate, densities[0], densities[1])));
+        return aggregateVideoDensities;
+    }
+
+    private static VideoDensityLocation getLocation(long timestamp) {
+        long hour = (timestamp - WEEK_START) / (60 * 60 * 1000L);
+        return hour % 6 == 0 ? VideoDensityLocation.DEVICE : VideoDensityLocation.CLOUD;
+    }
+}
@@ -0,0 +1,49 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.videoanalytics.videologistics.dagger.modules.AWSVideoAnalyticsVLControlPlaneModule;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoDensityLocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.amazonaws.videoanalytics.videologistics.timeline.TimelineFixtures.DEVICE_ID;
+import static com.amazonaws.videoanalytics.videologistics.timeline.TimelineFixtures.FRAGMENT_DURATION_MILLIS;
+
+/**
+ * Serializes and deserializes the KDS record sent for every SECONDS bucket of a fragment
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TimelineKDSMetadataSerDeBenchmark {
+    private final TimelineKDSMetadataSerDe timelineKDSMetadataSerDe = 
+            new TimelineKDSMetadataSerDe(new AWSVideoAnalyticsVLControlPlaneModule().provideObjectMapper());
+    private TimelineKDSMetadata timelineKDSMetadata;
+    private String timelineKDSMetadataJson;
+
+    @Setup
+    public void setup() {
+        long timestamp = 1696444408000L;
+        timelineKDSMetadata = new TimelineKDSMetadata(DEVICE_ID, TimeIncrementUnits.SECONDS,
+                TimeIncrementUnits.SECONDS.getBucketStart(timestamp), timestamp, FRAGMENT_DURATION_MILLIS,
+                VideoDensityLocation.CLOUD, false);
+        timelineKDSMetadataJson = timelineKDSMetadataSerDe.serialize(timelineKDSMetadata);
+    }
+
+    @Benchmark
+    public String serialize() {
+        return timelineKDSMetadataSerDe.serialize(timelineKDSMetadata);
+    }
+
+    @Benchmark
+    public TimelineKDSMetadata deserialize() {
+        return timelineKDSMetadataSerDe.deserialize(timelineKDSMetadataJson);
+    }
+}
@@ -0,0 +1,64 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.videoanalytics.videologistics.dagger.modules.AWSVideoAnalyticsVLControlPlaneModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.amazonaws.videoanalytics.videologistics.timeline.TimelineFixtures.FRAGMENT_DURATION_MILLIS;
+
+/**
+ * Decodes the timestamps of a PutVideoTimeline request carrying an hour of fragments, as a JSON array and as Base64
+ * encoded epochs
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TimestampListDeserializerBenchmark {
+    private final TimestampListDeserializer timestampListDeserializer =
+            new TimestampListDeserializer(new AWSVideoAnalyticsVLControlPlaneModule().provideObjectMapper());
+    private final VideoTimelineUtils videoTimelineUtils = new VideoTimelineUtils();
+    private String timestampListJson;
+    private String encodedTimestamps;
+
+    @Setup
+    public void setup() {
+        StringBuilder json = new StringBuilder("[");
+        StringBuilder epochs = new StringBuilder();
+        for (long timestamp = 1696444408000L; timestamp < 1696444408000L + 60 * 60 * 1000L;
+             timestamp += FRAGMENT_DURATION_MILLIS) {
+            if (epochs.length() > 0) {
+                json.append(',');
+                epochs.append(',');
+            }
+            json.append(String.format("{\"timestamp\":%d,\"duration\":%d}", timestamp, FRAGMENT_DURATION_MILLIS));
+            epochs.append(timestamp);
+        }
+        timestampListJson = json.append(']').toString();
+        encodedTimestamps = Base64.getEncoder().encodeToString(epochs.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public List<TimestampInfo> deserialize() {
+        return timestampListDeserializer.deserialize(timestampListJson);
+    }
+
+    @Benchmark
+    public long[] deserializeToArray() {
+        return timestampListDeserializer.deserializeToArray(timestampListJson);
+    }
+
+    @Benchmark
+    public List<Long> encodedTimestampsToList() {
+        return videoTimelineUtils.encodedTimestampsToList(encodedTimestamps);
+    }
+}
@@ -0,0 +1,52 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.videoanalytics.videologistics.ColumnarVideoTimelines;
+import com.amazonaws.videoanalytics.videologistics.VideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoDensity;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.amazonaws.videoanalytics.videologistics.timeline.TimelineFixtures.WEEK_MILLIS;
+import static com.amazonaws.videoanalytics.videologistics.timeline.TimelineFixtures.WEEK_START;
+
+/**
+ * Builds the ListVideoTimelines response for a week of aggregated buckets, at an hourly increment
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class VideoTimelineListBenchmark {
+    private static final long ONE_HOUR_MILLIS = 60 * 60 * 1000L;
+
+    @Param({"SECONDS", "MINUTES", "HOURS"})
+    public TimeIncrementUnits bucketUnit;
+
+    private List<AggregateVideoDensity> aggregateVideoDensities;
+
+    @Setup
+    public void setup() {
+        aggregateVideoDensities = TimelineFixtures.getWeekOfBuckets(bucketUnit);
+    }
+
+    @Benchmark
+    public List<VideoTimeline> buildVideoTimelineList() {
+        return VideoTimelineListGenerator.buildVideoTimelineList(aggregateVideoDensities, WEEK_START,
+                WEEK_START + WEEK_MILLIS, ONE_HOUR_MILLIS);
+    }
+
+    @Benchmark
+    public ColumnarVideoTimelines buildColumnarVideoTimelines() {
+        return VideoTimelineListGenerator.buildColumnarVideoTimelines(aggregateVideoDensities, WEEK_START,
+                WEEK_START + WEEK_MILLIS, ONE_HOUR_MILLIS);
+    }
+}
@@ -0,0 +1,43 @@
+package com.amazonaws.videoanalytics.videologistics.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marshalls and unmarshalls the next token of a paginated timeline query, ie. a LastEvaluatedKey made of a device id
+ * partition key and a timestamp sort key
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class GsonDDBNextTokenMarshallerBenchmark {
+    private Map<String, AttributeValue> lastEvaluatedKey;
+    private String nextToken;
+
+    @Setup
+    public void setup() {
+        lastEvaluatedKey = Map.of(
+                "DeviceId", AttributeValue.fromS("benchmark-device"),
+                "Timestamp", AttributeValue.fromN("1696444408000"));
+        nextToken = GsonDDBNextTokenMarshaller.marshall(lastEvaluatedKey);
+    }
+
+    @Benchmark
+    public String marshall() {
+        return GsonDDBNextTokenMarshaller.marshall(lastEvaluatedKey);
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> unmarshall() {
+        return GsonDDBNextTokenMarshaller.unmarshall(nextToken);
+    }
+}
@@ -0,0 +1,46 @@
+package com.amazonaws.videoanalytics.videologistics.validator;
+
+import com.amazonaws.videoanalytics.videologistics.inference.InferenceFixtures;
+import com.amazonaws.videoanalytics.videologistics.inference.SchemaRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.amazonaws.videoanalytics.videologistics.inference.InferenceFixtures.TRAJECTORY_MODEL_NAME;
+import static com.amazonaws.videoanalytics.videologistics.inference.InferenceFixtures.TRAJECTORY_MODEL_VERSION;
+import static com.amazonaws.videoanalytics.videologistics.inference.InferenceFixtures.TRAJECTORY_OBJECT_COUNT;
+
+/**
+ * Validates Trajectory inferences against the bundled model schema, results are per inference
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class InferenceValidatorBenchmark {
+    private InferenceValidator inferenceValidator;
+    private List<String> inferences;
+
+    @Setup
+    public void setup() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        inferenceValidator = new InferenceValidator(objectMapper, new SchemaRepository(objectMapper));
+        inferences = InferenceFixtures.getTrajectoryInferences();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRAJECTORY_OBJECT_COUNT)
+    public void validate() {
+        for (String inference : inferences) {
+            inferenceValidator.validate(TRAJECTORY_MODEL_NAME, TRAJECTORY_MODEL_VERSION, inference);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.amazonaws.videoanalytics.videologistics.activity;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.videoanalytics.videologistics.BatchListVideoTimelinesRequestContent;
+import com.amazonaws.videoanalytics.videologistics.BatchListVideoTimelinesResponseContent;
+import com.amazonaws.videoanalytics.videologistics.DeviceVideoTimelines;
+import com.amazonaws.videoanalytics.videologistics.ValidationExceptionResponseContent;
+import com.amazonaws.videoanalytics.videologistics.dagger.AWSVideoAnalyticsVLControlPlaneComponent;
+import com.amazonaws.videoanalytics.videologistics.dagger.DaggerAWSVideoAnalyticsVLControlPlaneComponent;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineBatchLister;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineQueryPlanner;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import javax.inject.Inject;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import static com.amazonaws.videoanalytics.videologistics.utils.LambdaProxyUtils.parseRequestBody;
+import static com.amazonaws.videoanalytics.videologistics.utils.LambdaProxyUtils.serializeResponse;
+import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.INVALID_INPUT;
+
+public class BatchListVideoTimelinesActivity implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+
+    private static final Logger LOG = LogManager.getLogger(BatchListVideoTimelinesActivity.class);
+    private static final int MAX_DEVICE_IDS = 64;
+    private final VideoTimelineBatchLister videoTimelineBatchLister;
+    private final VideoTimelineUtils videoTimelineUtils;
+    private final VideoTimelineQueryPlanner videoTimelineQueryPlanner;
+
+    @Inject
+    public BatchListVideoTimelinesActivity(
+        final VideoTimelineBatchLister videoTimelineBatchLister,
+        final VideoTimelineUtils videoTimelineUtils,
+        final VideoTimelineQueryPlanner videoTimelineQueryPlanner) {
+        this.videoTimelineBatchLister = videoTimelineBatchLister;
+        this.videoTimelineUtils = videoTimelineUtils;
+        this.videoTimelineQueryPlanner = videoTimelineQueryPlanner;
+    }
+
+    public BatchListVideoTimelinesActivity() {
+        AWSVideoAnalyticsVLControlPlaneComponent component = DaggerAWSVideoAnalyticsVLControlPlaneComponent.create();
+        component.inject(this);
+        this.videoTimelineBatchLister = component.getVideoTimelineBatchLister();
+        this.videoTimelineUtils = component.getVideoTimelineUtils();
+        this.videoTimelineQueryPlanner = component.getVideoTimelineQueryPlanner();
+    }
+
+    private Map<String, Object> createErrorResponse(String errorMessage) {
+        ValidationExceptionResponseContent exception = ValidationExceptionResponseContent.builder()
+                .message(errorMessage)
+                .build();
+        return serializeResponse(400, exception.toJson());
+    }
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+        LOG.info("Entered BatchListVideoTimelines method");
+
+        if (input == null) {
+            return createErrorResponse(INVALID_INPUT);
+        }
+
+        try {
+            BatchListVideoTimelinesRequestContent request =
+                    parseRequestBody(input, BatchListVideoTimelinesRequestContent.class);
+
+            List<String> deviceIds = request.getDeviceIds();
+            String deviceIdsError = VideoTimelineRequestValidator.validateDeviceIds(deviceIds, MAX_DEVICE_IDS);
+            if (deviceIdsError != null) {
+                return createErrorResponse(deviceIdsError);
+            }
+
+            Date startTimeInMillis = request.getStartTime();
+            Date endTimeInMillis = request.getEndTime();
+            TimeIncrementUnits timeIncrementUnits = TimeIncrementUnits.valueOf(request.getTimeIncrementUnits().name());
+            Integer timeIncrement = request.getTimeIncrement().intValue();
+            TimeIncrementUnits validationUnits = VideoTimelineRequestValidator.getValidationUnits(timeIncrementUnits);
+
+            String validationError = VideoTimelineRequestValidator.validate(videoTimelineUtils, timeIncrementUnits,
+                    timeIncrement, startTimeInMillis, endTimeInMillis);
+            if (validationError != null) {
+                return createErrorResponse(validationError);
+            }
+
+            // convert given time increment to milliseconds using schema version
+            Long timeIncrementInMillis = Duration.of(timeIncrement, timeIncrementUnits.getChronoUnit()).toMillis();
+
+            // every device is read with the same plan, as the range and increment are shared
+            TimeIncrementUnits storageUnits = videoTimelineQueryPlanner.getStorageUnits(validationUnits,
+                    startTimeInMillis.getTime(), endTimeInMillis.getTime(), timeIncrementInMillis);
+            LOG.info("Listing {} aggregate timelines of {} devices for a time increment of {} {}", storageUnits,
+                    deviceIds.size(), timeIncrement, timeIncrementUnits);
+
+            List<DeviceVideoTimelines> deviceVideoTimelines = videoTimelineBatchLister.listVideoTimelines(deviceIds,
+                    startTimeInMillis, endTimeInMillis, timeIncrementInMillis, storageUnits);
+
+            BatchListVideoTimelinesResponseContent response = BatchListVideoTimelinesResponseContent.builder()
+                    .startTime(request.getStartTime())
+                    .endTime(request.getEndTime())
+                    .timeIncrement(BigDecimal.valueOf(timeIncrement))
+                    .timeIncrementUnits(request.getTimeIncrementUnits())
+                    .deviceVideoTimelines(deviceVideoTimelines)
+                    .build();
+            return serializeResponse(200, response.toJson());
+        } catch (Exception e) {
+            LOG.error("Error processing BatchListVideoTimelines request", e);
+            return serializeResponse(500, e.getMessage());
+        }
+    }
+}
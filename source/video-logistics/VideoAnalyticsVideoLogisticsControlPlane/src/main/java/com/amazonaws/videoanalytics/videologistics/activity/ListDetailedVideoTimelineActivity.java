@@ -20,10 +20,12 @@ import javax.inject.Inject;
 import java.util.Map;
 import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.TIME_CHRONOLOGY_MISMATCH;
 import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.INVALID_INPUT;
+import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.INVALID_MAX_RESULTS;
 
 public class ListDetailedVideoTimelineActivity implements RequestHandler<Map<String, Object>, Map<String, Object>> {
 
     private static final Logger LOG = LogManager.getLogger(ListDetailedVideoTimelineActivity.class);
+    private static final int MAX_RESULTS_LIMIT = 1000;
     private final DetailedVideoTimelineGenerator detailedVideoTimelineGenerator;
 
     @Inject
@@ -64,11 +66,17 @@ public class ListDetailedVideoTimelineActivity implements RequestHandler<Map<Str
                 return createErrorResponse(TIME_CHRONOLOGY_MISMATCH);
             }
 
+            Integer maxResults = request.getMaxResults() == null ? null : request.getMaxResults().intValue();
+            if (maxResults != null && (maxResults < 1 || maxResults > MAX_RESULTS_LIMIT)) {
+                return createErrorResponse(String.format(INVALID_MAX_RESULTS, MAX_RESULTS_LIMIT));
+            }
+
             DetailedTimelinePaginatedResponse timelinePaginatedResponse =
                 detailedVideoTimelineGenerator.getDetailedVideoTimeLine(deviceId,
                         startTimeInMillis,
                         endTimeInMillis,
-                        request.getNextToken());
+                        request.getNextToken(),
+                        maxResults);
 
             DetailedVideoTimeline detailedVideoTimeline = DetailedVideoTimeline.builder()
                 .device(timelinePaginatedResponse.getDeviceTimeline())
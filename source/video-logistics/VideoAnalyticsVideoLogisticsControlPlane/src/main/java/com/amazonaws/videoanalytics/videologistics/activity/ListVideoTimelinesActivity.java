@@ -2,10 +2,13 @@ package com.amazonaws.videoanalytics.videologistics.activity;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.videoanalytics.videologistics.ColumnarVideoTimelines;
 import com.amazonaws.videoanalytics.videologistics.ListVideoTimelinesRequestContent;
 import com.amazonaws.videoanalytics.videologistics.ListVideoTimelinesResponseContent;
 import com.amazonaws.videoanalytics.videologistics.ValidationExceptionResponseContent;
+import com.amazonaws.videoanalytics.videologistics.VideoTimelineFormat;
 import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.VideoTimelineDAO;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineQueryPlanner;
 import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineUtils;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
 import com.amazonaws.videoanalytics.videologistics.dagger.AWSVideoAnalyticsVLControlPlaneComponent;
@@ -13,18 +16,20 @@ import com.amazonaws.videoanalytics.videologistics.dagger.DaggerAWSVideoAnalytic
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import javax.inject.Inject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.time.Duration;
 import java.util.Date;
+import java.util.zip.GZIPOutputStream;
 import static com.amazonaws.videoanalytics.videologistics.utils.LambdaProxyUtils.parseRequestBody;
 import static com.amazonaws.videoanalytics.videologistics.utils.LambdaProxyUtils.serializeResponse;
 import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.INVALID_INPUT;
-import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.SECONDS_INCREMENT_ERROR;
-import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.TIME_CHRONOLOGY_MISMATCH;
-import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.TIME_UNIT_ERROR;
-import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.SECONDS_UNIT_ERROR;
+import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.TIMELINE_COMPRESSION_ERROR;
 import java.util.List;
 import com.amazonaws.videoanalytics.videologistics.VideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.ColumnarTimelinePaginatedResponse;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.PaginatedListResponse;
 import java.math.BigDecimal;
 
@@ -33,14 +38,16 @@ public class ListVideoTimelinesActivity implements RequestHandler<Map<String, Ob
     private static final Logger LOG = LogManager.getLogger(ListVideoTimelinesActivity.class);
     private final VideoTimelineDAO videoTimelineDAO;
     private final VideoTimelineUtils videoTimelineUtils;
-    public static final Integer HOURS_IN_DAY = 24;
+    private final VideoTimelineQueryPlanner videoTimelineQueryPlanner;
 
     @Inject
     public ListVideoTimelinesActivity(
         final VideoTimelineDAO videoTimelineDAO,
-        final VideoTimelineUtils videoTimelineUtils) {
+        final VideoTimelineUtils videoTimelineUtils,
+        final VideoTimelineQueryPlanner videoTimelineQueryPlanner) {
         this.videoTimelineDAO = videoTimelineDAO;
         this.videoTimelineUtils = videoTimelineUtils;
+        this.videoTimelineQueryPlanner = videoTimelineQueryPlanner;
     }
 
     public ListVideoTimelinesActivity() {
@@ -48,6 +55,7 @@ public class ListVideoTimelinesActivity implements RequestHandler<Map<String, Ob
         component.inject(this);
         this.videoTimelineDAO = component.getVideoTimelineDAO();
         this.videoTimelineUtils = component.getVideoTimelineUtils();
+        this.videoTimelineQueryPlanner = component.getVideoTimelineQueryPlanner();
     }
 
     private Map<String, Object> createErrorResponse(String errorMessage) {
@@ -57,25 +65,6 @@ public class ListVideoTimelinesActivity implements RequestHandler<Map<String, Ob
         return serializeResponse(400, exception.toJson());
     }
 
-    private Map<String, Object> validateTime(TimeIncrementUnits timeIncrementUnits, Date startTime, Date endTime) {
-        if (endTime.compareTo(startTime) <= 0) {
-            return createErrorResponse(TIME_CHRONOLOGY_MISMATCH);
-        }
-    
-        Long startTimeMillis = startTime.getTime();
-        Long endTimeMillis = endTime.getTime();
-    
-        if (!(videoTimelineUtils.getUnitTime(timeIncrementUnits, startTimeMillis).equals(startTimeMillis) &&
-                videoTimelineUtils.getUnitTime(timeIncrementUnits, endTimeMillis).equals(endTimeMillis))) {
-            String validationError = String.format(TIME_UNIT_ERROR, timeIncrementUnits.name().toLowerCase());
-            if (timeIncrementUnits.equals(TimeIncrementUnits.SECONDS)) {
-                validationError = SECONDS_UNIT_ERROR;
-            }
-            return createErrorResponse(validationError);
-        }
-        return null;
-    }
-
     @Override
     public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
         LOG.info("Entered ListVideoTimelines method");
@@ -92,47 +81,76 @@ public class ListVideoTimelinesActivity implements RequestHandler<Map<String, Ob
             String deviceId = request.getDeviceId();
             TimeIncrementUnits timeIncrementUnits = TimeIncrementUnits.valueOf(request.getTimeIncrementUnits().name());
             Integer timeIncrement = request.getTimeIncrement().intValue();
-            if(timeIncrementUnits.equals(TimeIncrementUnits.DAYS)) {
-                timeIncrementUnits = TimeIncrementUnits.HOURS;
-                timeIncrement = HOURS_IN_DAY*timeIncrement;
-            }
+            TimeIncrementUnits validationUnits = VideoTimelineRequestValidator.getValidationUnits(timeIncrementUnits);
 
-            Map<String, Object> validationResult = validateTime(timeIncrementUnits, startTimeInMillis, endTimeInMillis);
-            if (validationResult != null) {
-                return validationResult;
-            }
-
-            if(timeIncrementUnits.equals(TimeIncrementUnits.SECONDS) && timeIncrement % 5 != 0) {
-                return createErrorResponse(String.format(SECONDS_INCREMENT_ERROR, timeIncrement));
+            String validationError = VideoTimelineRequestValidator.validate(videoTimelineUtils, timeIncrementUnits,
+                    timeIncrement, startTimeInMillis, endTimeInMillis);
+            if (validationError != null) {
+                return createErrorResponse(validationError);
             }
 
             // convert given time increment to milliseconds using schema version
             Long timeIncrementInMillis = Duration.of(timeIncrement, timeIncrementUnits.getChronoUnit()).toMillis();
 
-            PaginatedListResponse<VideoTimeline> paginatedListTimelineResponse =
-                videoTimelineDAO.listVideoTimelines(deviceId,
-                        startTimeInMillis,
-                        endTimeInMillis,
-                        timeIncrementInMillis,
-                        timeIncrementUnits,
-                        request.getNextToken());
-
-            List<VideoTimeline> videoTimelineList = paginatedListTimelineResponse.getResults();
-            String nextToken = paginatedListTimelineResponse.getNextToken();
-
-            ListVideoTimelinesResponseContent response = ListVideoTimelinesResponseContent.builder()
-                .deviceId(deviceId)
-                .startTime(request.getStartTime())
-                .endTime(request.getEndTime())
-                .timeIncrement(BigDecimal.valueOf(timeIncrement))
-                .timeIncrementUnits(request.getTimeIncrementUnits())
-                .videoTimelines(videoTimelineList)
-                .nextToken(nextToken)
-                .build();
-            return serializeResponse(200, response.toJson());
+            // read the fewest aggregate timelines that can be summed into the requested periods
+            TimeIncrementUnits storageUnits = videoTimelineQueryPlanner.getStorageUnits(validationUnits,
+                    startTimeInMillis.getTime(), endTimeInMillis.getTime(), timeIncrementInMillis);
+            LOG.info("Listing {} aggregate timelines for a time increment of {} {}", storageUnits, timeIncrement,
+                    timeIncrementUnits);
+
+            ListVideoTimelinesResponseContent.ListVideoTimelinesResponseContentBuilder response =
+                ListVideoTimelinesResponseContent.builder()
+                    .deviceId(deviceId)
+                    .startTime(request.getStartTime())
+                    .endTime(request.getEndTime())
+                    .timeIncrement(BigDecimal.valueOf(timeIncrement))
+                    .timeIncrementUnits(request.getTimeIncrementUnits());
+
+            VideoTimelineFormat timelineFormat = request.getTimelineFormat() == null ?
+                    VideoTimelineFormat.DENSITY_LIST : request.getTimelineFormat();
+            if (timelineFormat.equals(VideoTimelineFormat.DENSITY_LIST)) {
+                PaginatedListResponse<VideoTimeline> paginatedListTimelineResponse =
+                    videoTimelineDAO.listVideoTimelines(deviceId,
+                            startTimeInMillis,
+                            endTimeInMillis,
+                            timeIncrementInMillis,
+                            storageUnits,
+                            request.getNextToken());
+
+                List<VideoTimeline> videoTimelineList = paginatedListTimelineResponse.getResults();
+                response.videoTimelines(videoTimelineList)
+                        .nextToken(paginatedListTimelineResponse.getNextToken());
+            } else {
+                ColumnarTimelinePaginatedResponse columnarTimelineResponse =
+                    videoTimelineDAO.listColumnarVideoTimelines(deviceId,
+                            startTimeInMillis,
+                            endTimeInMillis,
+                            timeIncrementInMillis,
+                            storageUnits,
+                            request.getNextToken());
+
+                ColumnarVideoTimelines columnarVideoTimelines = columnarTimelineResponse.getColumnarVideoTimelines();
+                if (timelineFormat.equals(VideoTimelineFormat.COLUMNAR_GZIP)) {
+                    response.compressedColumnarVideoTimelines(gzip(columnarVideoTimelines.toJson()));
+                } else {
+                    response.columnarVideoTimelines(columnarVideoTimelines);
+                }
+                response.nextToken(columnarTimelineResponse.getNextToken());
+            }
+            return serializeResponse(200, response.build().toJson());
         } catch (Exception e) {
             LOG.error("Error processing ListVideoTimelines request", e);
             return serializeResponse(500, e.getMessage());
         }
     }
+
+    private static byte[] gzip(String json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+            gzipOutputStream.write(json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException(TIMELINE_COMPRESSION_ERROR, e);
+        }
+        return compressed.toByteArray();
+    }
 }
@@ -0,0 +1,80 @@
+package com.amazonaws.videoanalytics.videologistics.activity;
+
+import com.amazonaws.videoanalytics.videologistics.SeekVideoRecordingRequestContent;
+import com.amazonaws.videoanalytics.videologistics.SeekVideoRecordingResponseContent;
+import com.amazonaws.videoanalytics.videologistics.Timeline;
+import com.amazonaws.videoanalytics.videologistics.ValidationExceptionResponseContent;
+import com.amazonaws.videoanalytics.videologistics.dagger.AWSVideoAnalyticsVLControlPlaneComponent;
+import com.amazonaws.videoanalytics.videologistics.dagger.DaggerAWSVideoAnalyticsVLControlPlaneComponent;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoRecordingSeeker;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import static com.amazonaws.videoanalytics.videologistics.utils.LambdaProxyUtils.parseRequestBody;
+import static com.amazonaws.videoanalytics.videologistics.utils.LambdaProxyUtils.serializeResponse;
+import javax.inject.Inject;
+import java.util.Map;
+import java.util.Optional;
+import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.INVALID_INPUT;
+import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.INVALID_INPUT_EXCEPTION;
+
+public class SeekVideoRecordingActivity implements RequestHandler<Map<String, Object>, Map<String, Object>> {
+
+    private static final Logger LOG = LogManager.getLogger(SeekVideoRecordingActivity.class);
+    private final VideoRecordingSeeker videoRecordingSeeker;
+
+    @Inject
+    public SeekVideoRecordingActivity(VideoRecordingSeeker videoRecordingSeeker) {
+        this.videoRecordingSeeker = videoRecordingSeeker;
+    }
+
+    public SeekVideoRecordingActivity() {
+        AWSVideoAnalyticsVLControlPlaneComponent component = DaggerAWSVideoAnalyticsVLControlPlaneComponent.create();
+        component.inject(this);
+        this.videoRecordingSeeker = component.getVideoRecordingSeeker();
+    }
+
+    private Map<String, Object> createErrorResponse(String errorMessage) {
+        ValidationExceptionResponseContent exception = ValidationExceptionResponseContent.builder()
+                .message(errorMessage)
+                .build();
+        return serializeResponse(400, exception.toJson());
+    }
+
+    @Override
+    public Map<String, Object> handleRequest(Map<String, Object> input, Context context) {
+        LOG.info("Entered SeekVideoRecording method");
+
+        if (input == null) {
+            return createErrorResponse(INVALID_INPUT);
+        }
+
+        try {
+            SeekVideoRecordingRequestContent request = parseRequestBody(input, SeekVideoRecordingRequestContent.class);
+
+            if (request.getDeviceId() == null || request.getTimestamp() == null || request.getDirection() == null) {
+                return createErrorResponse(INVALID_INPUT_EXCEPTION);
+            }
+
+            Optional<Timeline> recording = videoRecordingSeeker.seek(request.getDeviceId(),
+                    request.getTimestamp().longValue(),
+                    request.getDirection());
+
+            SeekVideoRecordingResponseContent response = SeekVideoRecordingResponseContent.builder()
+                .deviceId(request.getDeviceId())
+                .timestamp(request.getTimestamp())
+                .direction(request.getDirection())
+                .recording(recording.orElse(null))
+                .build();
+
+            return serializeResponse(200, response.toJson());
+
+        } catch (Exception e) {
+            LOG.error("Error processing SeekVideoRecording request", e);
+            return serializeResponse(500, e.getMessage());
+        }
+
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.amazonaws.videoanalytics.videologistics.activity;
+
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.INVALID_INPUT_EXCEPTION;
+import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.SECONDS_INCREMENT_ERROR;
+import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.SECONDS_UNIT_ERROR;
+import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.TIME_CHRONOLOGY_MISMATCH;
+import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.TIME_UNIT_ERROR;
+
+/**
+ * Validates the devices, time range and increment of video timeline list requests
+ */
+final class VideoTimelineRequestValidator {
+    private VideoTimelineRequestValidator() {
+    }
+
+    /**
+     * Days may start at any hour, eg. midnight in the caller's time zone, so DAYS periods are validated against HOURS
+     */
+    static TimeIncrementUnits getValidationUnits(final TimeIncrementUnits timeIncrementUnits) {
+        return timeIncrementUnits.equals(TimeIncrementUnits.DAYS) ? TimeIncrementUnits.HOURS : timeIncrementUnits;
+    }
+
+    /**
+     * @return validation error message, or null if the device ids are valid
+     */
+    static String validateDeviceIds(final List<String> deviceIds, final int maxDeviceIds) {
+        if (deviceIds == null || deviceIds.isEmpty() || deviceIds.size() > maxDeviceIds) {
+            return INVALID_INPUT_EXCEPTION;
+        }
+        return null;
+    }
+
+    /**
+     * @return validation error message, or null if the request is valid
+     */
+    static String validate(final VideoTimelineUtils videoTimelineUtils,
+                           final TimeIncrementUnits timeIncrementUnits,
+                           final Integer timeIncrement,
+                           final Date startTime,
+                           final Date endTime) {
+        if (endTime.compareTo(startTime) <= 0) {
+            return TIME_CHRONOLOGY_MISMATCH;
+        }
+
+        Long startTimeMillis = startTime.getTime();
+        Long endTimeMillis = endTime.getTime();
+        TimeIncrementUnits validationUnits = getValidationUnits(timeIncrementUnits);
+        if (!(videoTimelineUtils.getUnitTime(validationUnits, startTimeMillis).equals(startTimeMillis) &&
+                videoTimelineUtils.getUnitTime(validationUnits, endTimeMillis).equals(endTimeMillis))) {
+            if (validationUnits.equals(TimeIncrementUnits.SECONDS)) {
+                return SECONDS_UNIT_ERROR;
+            }
+            return String.format(TIME_UNIT_ERROR, validationUnits.name().toLowerCase());
+        }
+
+        if (timeIncrementUnits.equals(TimeIncrementUnits.SECONDS) && timeIncrement % 5 != 0) {
+            return String.format(SECONDS_INCREMENT_ERROR, timeIncrement);
+        }
+        return null;
+    }
+}
@@ -1,26 +1,58 @@
 package com.amazonaws.videoanalytics.videologistics.client.s3;
 
 import java.io.IOException;
-import java.net.HttpURLConnection;
+import java.net.URISyntaxException;
 import java.net.URL;
 
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.http.HttpExecuteRequest;
+import software.amazon.awssdk.http.HttpExecuteResponse;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpMethod;
+import software.amazon.awssdk.http.SdkHttpRequest;
+
+/**
+ * Uploads images to presigned S3 URLs through a pooled HTTP client, so that concurrent uploads reuse connections
+ * instead of opening one per image. The client is thread safe.
+ */
 public class ImageUploader {
+    private final SdkHttpClient httpClient;
+
+    public ImageUploader(final SdkHttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
 
     public void upload(final URL uploadPath, final byte[] payload) throws IOException {
+        final SdkHttpRequest request;
+        try {
+            request = SdkHttpRequest.builder()
+                    .method(SdkHttpMethod.PUT)
+                    .uri(uploadPath.toURI())
+                    .putHeader("Content-Type", "image/jpeg")
+                    .putHeader("Content-Length", String.valueOf(payload.length))
+                    .putHeader("x-amz-checksum-sha256", S3ChecksumCalculator.checksum256(payload))
+                    .build();
+        } catch (URISyntaxException e) {
+            throw new IOException(String.format("Invalid upload path %s", uploadPath), e);
+        }
 
-        // Create the connection and use it to upload the new object by using the presigned URL.
-        final HttpURLConnection connection = (HttpURLConnection) uploadPath.openConnection();
-        connection.setDoOutput(true);
-        connection.setRequestProperty("Content-Type","image/jpeg");
-        connection.setRequestProperty("x-amz-checksum-sha256", S3ChecksumCalculator.checksum256(payload));
-        connection.setRequestMethod("PUT");
-        connection.getOutputStream().write(payload);
+        final HttpExecuteResponse response = httpClient.prepareRequest(HttpExecuteRequest.builder()
+                .request(request)
+                .contentStreamProvider(RequestBody.fromBytes(payload).contentStreamProvider())
+                .build()).call();
+        // the response body has to be consumed for the connection to go back to the pool
+        if (response.responseBody().isPresent()) {
+            try (AbortableInputStream responseBody = response.responseBody().get()) {
+                responseBody.readAllBytes();
+            }
+        }
 
-        final int responseCode = connection.getResponseCode();
+        final int responseCode = response.httpResponse().statusCode();
         if (responseCode != 200) {
             throw new IOException(String.format("Failed to upload to path %s due to ERROR CODE: %s, ERROR MESSAGE: %s",
-                    uploadPath, connection.getResponseCode(), connection.getResponseMessage()));
+                    uploadPath, responseCode, response.httpResponse().statusText().orElse("")));
         }
     }
 
-}
\ No newline at end of file
+}
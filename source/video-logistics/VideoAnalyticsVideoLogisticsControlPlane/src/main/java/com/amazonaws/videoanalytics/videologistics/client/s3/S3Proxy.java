@@ -9,6 +9,8 @@ import software.amazon.awssdk.services.s3.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.InputStream;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.S3_BUCKET_CREATION_ERROR;
 
@@ -182,6 +184,15 @@ public class S3Proxy {
         return s3Client.listObjectsV2(listObjectsRequest);
     }
 
+    public ListObjectsV2Response listS3Objects(String bucketName, String continuationToken, String startAfter) {
+        ListObjectsV2Request listObjectsRequest = ListObjectsV2Request.builder()
+                .bucket(bucketName)
+                .continuationToken(continuationToken)
+                .startAfter(startAfter)
+                .build();
+        return s3Client.listObjectsV2(listObjectsRequest);
+    }
+
     public void deleteObject(final String bucketName, final String keyPrefix) {
         LOG.info("Start to delete object from bucket {} and path {}", bucketName, keyPrefix);
 
@@ -191,4 +202,27 @@ public class S3Proxy {
                 .build());
         LOG.info("Object deleted successfully for bucket {} and path {}", bucketName, keyPrefix);
     }
-}
\ No newline at end of file
+
+    /**
+     * Deletes up to 1000 keys in a single DeleteObjects request.
+     *
+     * @return keys S3 failed to delete
+     */
+    public List<String> deleteObjects(final String bucketName, final List<String> keys) {
+        LOG.info("Start to delete {} objects from bucket {}", keys.size(), bucketName);
+
+        DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                .bucket(bucketName)
+                .delete(Delete.builder()
+                        .objects(keys.stream()
+                                .map(key -> ObjectIdentifier.builder().key(key).build())
+                                .collect(Collectors.toList()))
+                        .quiet(true)
+                        .build())
+                .build());
+        for (S3Error error : response.errors()) {
+            LOG.warn("Failed to delete object for bucket {} and path {}: {}", bucketName, error.key(), error.message());
+        }
+        return response.errors().stream().map(S3Error::key).collect(Collectors.toList());
+    }
+}
@@ -29,9 +29,13 @@ import com.amazonaws.videoanalytics.videologistics.dao.VLRegisterDeviceJobDAO;
 import com.amazonaws.videoanalytics.videologistics.workflow.KVSResourceCreateLambda;
 import com.amazonaws.videoanalytics.videologistics.workflow.FailAndCleanupVLDeviceRegistrationHandler;
 import static com.amazonaws.videoanalytics.videologistics.utils.AWSVideoAnalyticsServiceLambdaConstants.ACCOUNT_ID;
+import static com.amazonaws.videoanalytics.videologistics.utils.AWSVideoAnalyticsServiceLambdaConstants.VIDEO_TIMELINE_EXPORT_EXECUTOR;
+import static com.amazonaws.videoanalytics.videologistics.utils.AWSVideoAnalyticsServiceLambdaConstants.THUMBNAIL_UPLOAD_EXECUTOR;
 import com.amazonaws.videoanalytics.videologistics.dependency.apig.ApigService;
 import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.VideoTimelineDAO;
 import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.RawVideoTimelineDAO;
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.VideoCoverageDAO;
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.CompactedVideoTimelineDAO;
 
 import dagger.Component;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
@@ -39,6 +43,7 @@ import software.amazon.awssdk.regions.Region;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
+import java.util.concurrent.ExecutorService;
 
 import software.amazon.awssdk.services.kinesisvideo.KinesisVideoClient;
 import software.amazon.awssdk.services.kinesis.KinesisClient;
@@ -46,17 +51,26 @@ import software.amazon.awssdk.services.kinesis.KinesisClient;
 import com.amazonaws.videoanalytics.videologistics.client.s3.S3Proxy;
 import com.amazonaws.videoanalytics.videologistics.timeline.TimestampListDeserializer;
 import com.amazonaws.videoanalytics.videologistics.timeline.BatchTimelineMapper;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineQueryPlanner;
 import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineUtils;
 import com.amazonaws.videoanalytics.videologistics.utils.S3BucketRegionalizer;
 import com.amazonaws.videoanalytics.videologistics.timeline.PutVideoTimelineHandler;
 import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineAggregator;
 import com.amazonaws.videoanalytics.videologistics.timeline.TimelineKDSMetadataSerDe;
+import com.amazonaws.videoanalytics.videologistics.timeline.RawVideoTimelineStreamImageDecoder;
 
 import com.amazonaws.videoanalytics.videologistics.activity.PutVideoTimelineActivity;
 import com.amazonaws.videoanalytics.videologistics.activity.ListVideoTimelinesActivity;
 import com.amazonaws.videoanalytics.videologistics.activity.ListDetailedVideoTimelineActivity;
+import com.amazonaws.videoanalytics.videologistics.activity.SeekVideoRecordingActivity;
+import com.amazonaws.videoanalytics.videologistics.activity.BatchListVideoTimelinesActivity;
 import com.amazonaws.videoanalytics.videologistics.timeline.DetailedVideoTimelineGenerator;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoRecordingSeeker;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineBatchLister;
 import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineS3ExportLambda;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineS3EventExportLambda;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineS3Exporter;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineCompactionLambda;
 import com.amazonaws.videoanalytics.videologistics.timeline.VideoDensityUpdateLambda;
 import com.amazonaws.videoanalytics.videologistics.timeline.TimelineForwarderLambda;
 @Component(
@@ -80,8 +94,12 @@ public interface AWSVideoAnalyticsVLControlPlaneComponent {
     void inject(PutVideoTimelineActivity lambda);
     void inject(ListVideoTimelinesActivity lambda);
     void inject(ListDetailedVideoTimelineActivity lambda);
+    void inject(SeekVideoRecordingActivity lambda);
+    void inject(BatchListVideoTimelinesActivity lambda);
     void inject(VideoTimelineS3ExportLambda lambda);
+    void inject(VideoTimelineS3EventExportLambda lambda);
     void inject(VideoDensityUpdateLambda lambda);
+    void inject(VideoTimelineCompactionLambda lambda);
     void inject(TimelineForwarderLambda lambda);
     KvsService getKvsService();
     DeviceValidator getDeviceValidator();
@@ -95,11 +113,14 @@ public interface AWSVideoAnalyticsVLControlPlaneComponent {
     ImportMediaObjectHandler getImportMediaObjectHandler();
     VideoTimelineDAO getVideoTimelineDAO();
     RawVideoTimelineDAO getRawVideoTimelineDAO();
+    VideoCoverageDAO getVideoCoverageDAO();
+    CompactedVideoTimelineDAO getCompactedVideoTimelineDAO();
     OpenSearchClientProvider getOpenSearchClientProvider();
     InferenceSerializer getInferenceSerializer();
     InferenceDeserializer getInferenceDeserializer();
     ThumbnailS3PresignerFactory getThumbnailS3PresignerFactory();
     ImageUploader getImageUploader();
+    @Named(THUMBNAIL_UPLOAD_EXECUTOR) ExecutorService getThumbnailUploadExecutor();
     @Named(ACCOUNT_ID) String getAccountId();
     ApigService apigService();
     S3Proxy getS3Proxy();
@@ -109,7 +130,13 @@ public interface AWSVideoAnalyticsVLControlPlaneComponent {
     VideoTimelineUtils getVideoTimelineUtils();
     PutVideoTimelineHandler getPutVideoTimelineHandler();
     VideoTimelineAggregator getVideoTimelineAggregator();
+    VideoTimelineQueryPlanner getVideoTimelineQueryPlanner();
     TimelineKDSMetadataSerDe getTimelineKDSMetadataSerDe();
+    RawVideoTimelineStreamImageDecoder getRawVideoTimelineStreamImageDecoder();
     KinesisClient getKinesisClient();
     DetailedVideoTimelineGenerator getDetailedVideoTimelineGenerator();
+    VideoRecordingSeeker getVideoRecordingSeeker();
+    VideoTimelineBatchLister getVideoTimelineBatchLister();
+    @Named(VIDEO_TIMELINE_EXPORT_EXECUTOR) ExecutorService getVideoTimelineExportExecutor();
+    VideoTimelineS3Exporter getVideoTimelineS3Exporter();
 }
@@ -1,6 +1,14 @@
 package com.amazonaws.videoanalytics.videologistics.dagger.modules;
 
 import static com.amazonaws.videoanalytics.videologistics.utils.AWSVideoAnalyticsServiceLambdaConstants.ACCOUNT_ID;
+import static com.amazonaws.videoanalytics.videologistics.utils.AWSVideoAnalyticsServiceLambdaConstants.HTTP_CLIENT;
+import static com.amazonaws.videoanalytics.videologistics.utils.AWSVideoAnalyticsServiceLambdaConstants.THUMBNAIL_UPLOAD_EXECUTOR;
+import static com.amazonaws.videoanalytics.videologistics.utils.AWSVideoAnalyticsServiceLambdaConstants.VIDEO_TIMELINE_QUERY_EXECUTOR;
+import static com.amazonaws.videoanalytics.videologistics.utils.AWSVideoAnalyticsServiceLambdaConstants.VIDEO_TIMELINE_BATCH_EXECUTOR;
+import static com.amazonaws.videoanalytics.videologistics.utils.AWSVideoAnalyticsServiceLambdaConstants.VIDEO_TIMELINE_EXPORT_EXECUTOR;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -9,34 +17,47 @@ import com.amazonaws.videoanalytics.videologistics.client.opensearch.OpenSearchC
 import com.amazonaws.videoanalytics.videologistics.client.opensearch.OpenSearchClientProvider;
 import com.amazonaws.videoanalytics.videologistics.client.s3.ImageUploader;
 import com.amazonaws.videoanalytics.videologistics.client.s3.ThumbnailS3PresignerFactory;
+import com.amazonaws.videoanalytics.videologistics.client.s3.S3Proxy;
 import com.amazonaws.videoanalytics.videologistics.dao.VLRegisterDeviceJobDAO;
 import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.RawVideoTimelineDAO;
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.VideoCoverageDAO;
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.CompactedVideoTimelineDAO;
 import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.VideoTimelineDAO;
 import com.amazonaws.videoanalytics.videologistics.inference.InferenceDeserializer;
 import com.amazonaws.videoanalytics.videologistics.inference.InferenceSerializer;
 import com.amazonaws.videoanalytics.videologistics.inference.SchemaRepository;
 import com.amazonaws.videoanalytics.videologistics.schema.SchemaConst;
 import com.amazonaws.videoanalytics.videologistics.schema.VLRegisterDeviceJob;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoDensity;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoTimeline;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.RawVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.util.AggregateVideoDensityTableSchema;
 import com.amazonaws.videoanalytics.videologistics.timeline.BatchTimelineMapper;
 import com.amazonaws.videoanalytics.videologistics.timeline.DetailedVideoTimelineGenerator;
 import com.amazonaws.videoanalytics.videologistics.timeline.TimelineKDSMetadataSerDe;
 import com.amazonaws.videoanalytics.videologistics.timeline.TimestampListDeserializer;
 import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineAggregator;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineS3Exporter;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoRecordingSeeker;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineBatchLister;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineQueryPlanner;
 import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineUtils;
 import com.amazonaws.videoanalytics.videologistics.utils.S3BucketRegionalizer;
+import com.amazonaws.videoanalytics.videologistics.utils.Sleeper;
 import com.amazonaws.videoanalytics.videologistics.validator.InferenceValidator;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import dagger.Module;
 import dagger.Provides;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.http.SdkHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
 @Module
 public class AWSVideoAnalyticsVLControlPlaneModule {
@@ -97,6 +118,12 @@ public class AWSVideoAnalyticsVLControlPlaneModule {
                 TableSchema.fromBean(AggregateVideoTimeline.class));
     }
 
+    @Provides
+    @Singleton
+    public DynamoDbTable<AggregateVideoDensity> provideAggregateVideoDensityTable(DynamoDbEnhancedClient enhancedClient) {
+        return enhancedClient.table(SchemaConst.VIDEO_TIMELINE_TABLE_NAME, new AggregateVideoDensityTableSchema());
+    }
+
     @Provides
     @Singleton
     public InferenceDeserializer provideInferenceDeserializer(final ObjectMapper objectMapper) {
@@ -130,8 +157,19 @@ public class AWSVideoAnalyticsVLControlPlaneModule {
 
     @Provides
     @Singleton
-    public ImageUploader provideImageUploader() {
-        return new ImageUploader();
+    public ImageUploader provideImageUploader(@Named(HTTP_CLIENT) final SdkHttpClient httpClient) {
+        return new ImageUploader(httpClient);
+    }
+
+    @Provides
+    @Singleton
+    @Named(THUMBNAIL_UPLOAD_EXECUTOR)
+    public ExecutorService provideThumbnailUploadExecutor() {
+        // sized below the connection pool of the shared HTTP client, so that uploads never wait for a connection
+        return Executors.newFixedThreadPool(16, new ThreadFactoryBuilder()
+                .setNameFormat("thumbnail-upload-%d")
+                .setDaemon(true)
+                .build());
     }
 
     @Provides
@@ -157,9 +195,17 @@ public class AWSVideoAnalyticsVLControlPlaneModule {
     @Provides
     @Singleton
     public RawVideoTimelineDAO provideRawVideoTimelineDAO(
+            final DynamoDbEnhancedClient ddbClient,
             final DynamoDbTable<RawVideoTimeline> rawVideoTimelineTable,
-            final VideoTimelineUtils videoTimelineUtils) {
-        return new RawVideoTimelineDAO(rawVideoTimelineTable, videoTimelineUtils);
+            final VideoTimelineUtils videoTimelineUtils,
+            final Sleeper sleeper) {
+        return new RawVideoTimelineDAO(ddbClient, rawVideoTimelineTable, videoTimelineUtils, sleeper);
+    }
+
+    @Provides
+    @Singleton
+    public Sleeper provideSleeper() {
+        return Sleeper.THREAD_SLEEPER;
     }
 
     @Provides
@@ -169,14 +215,56 @@ public class AWSVideoAnalyticsVLControlPlaneModule {
         return new VideoTimelineAggregator(videoTimelineUtils);
     }
 
+    @Provides
+    @Singleton
+    public VideoTimelineQueryPlanner provideVideoTimelineQueryPlanner() {
+        return new VideoTimelineQueryPlanner();
+    }
+
+    @Provides
+    @Singleton
+    @Named(VIDEO_TIMELINE_QUERY_EXECUTOR)
+    public ExecutorService provideVideoTimelineQueryExecutor() {
+        // daemon threads so an idle pool never keeps a lambda sandbox from freezing
+        return Executors.newFixedThreadPool(8, new ThreadFactoryBuilder()
+                .setNameFormat("video-timeline-query-%d")
+                .setDaemon(true)
+                .build());
+    }
+
     @Provides
     @Singleton
     public VideoTimelineDAO provideVideoTimelineDAO(
             final DynamoDbEnhancedClient ddbClient,
+            final DynamoDbClient dynamoDbClient,
+            final DynamoDbTable<AggregateVideoTimeline> videoTimelineTable,
+            final DynamoDbTable<AggregateVideoDensity> videoDensityTable,
+            final VideoTimelineUtils videoTimelineUtils,
+            final VideoTimelineAggregator videoTimelineAggregator,
+            @Named(VIDEO_TIMELINE_QUERY_EXECUTOR) final ExecutorService queryExecutor) {
+        return new VideoTimelineDAO(ddbClient, dynamoDbClient, videoTimelineTable, videoDensityTable,
+                videoTimelineUtils, videoTimelineAggregator, queryExecutor);
+    }
+
+    @Provides
+    @Singleton
+    public VideoCoverageDAO provideVideoCoverageDAO(
+            final DynamoDbClient dynamoDbClient,
+            final DynamoDbTable<AggregateVideoTimeline> videoTimelineTable,
+            final VideoTimelineUtils videoTimelineUtils,
+            final VideoTimelineAggregator videoTimelineAggregator) {
+        return new VideoCoverageDAO(dynamoDbClient, videoTimelineTable, videoTimelineUtils, videoTimelineAggregator);
+    }
+
+    @Provides
+    @Singleton
+    public CompactedVideoTimelineDAO provideCompactedVideoTimelineDAO(
+            final DynamoDbClient dynamoDbClient,
             final DynamoDbTable<AggregateVideoTimeline> videoTimelineTable,
             final VideoTimelineUtils videoTimelineUtils,
             final VideoTimelineAggregator videoTimelineAggregator) {
-        return new VideoTimelineDAO(ddbClient, videoTimelineTable, videoTimelineUtils, videoTimelineAggregator);
+        return new CompactedVideoTimelineDAO(dynamoDbClient, videoTimelineTable, videoTimelineUtils,
+                videoTimelineAggregator);
     }
 
     @Provides
@@ -188,7 +276,54 @@ public class AWSVideoAnalyticsVLControlPlaneModule {
 
     @Provides
     @Singleton
-    public DetailedVideoTimelineGenerator provideDetailedVideoTimelineGenerator(RawVideoTimelineDAO rawVideoTimelineDAO) {
-        return new DetailedVideoTimelineGenerator(rawVideoTimelineDAO);
+    public DetailedVideoTimelineGenerator provideDetailedVideoTimelineGenerator(RawVideoTimelineDAO rawVideoTimelineDAO,
+            CompactedVideoTimelineDAO compactedVideoTimelineDAO) {
+        return new DetailedVideoTimelineGenerator(rawVideoTimelineDAO, compactedVideoTimelineDAO);
+    }
+
+    @Provides
+    @Singleton
+    public VideoRecordingSeeker provideVideoRecordingSeeker(VideoCoverageDAO videoCoverageDAO,
+                                                            RawVideoTimelineDAO rawVideoTimelineDAO) {
+        return new VideoRecordingSeeker(videoCoverageDAO, rawVideoTimelineDAO);
+    }
+
+    @Provides
+    @Singleton
+    @Named(VIDEO_TIMELINE_BATCH_EXECUTOR)
+    public ExecutorService provideVideoTimelineBatchExecutor() {
+        // separate from the query executor, which the devices of a batch fan their time slices out to. Sized like
+        // the query executor, as devices listed beyond its threads would only wait on it
+        return Executors.newFixedThreadPool(8, new ThreadFactoryBuilder()
+                .setNameFormat("video-timeline-batch-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    @Provides
+    @Singleton
+    public VideoTimelineS3Exporter provideVideoTimelineS3Exporter(final RawVideoTimelineDAO rawVideoTimelineDAO,
+                                                                  final BatchTimelineMapper batchTimelineMapper,
+                                                                  final S3Proxy s3Proxy) {
+        return new VideoTimelineS3Exporter(rawVideoTimelineDAO, batchTimelineMapper, s3Proxy);
+    }
+
+    @Provides
+    @Singleton
+    @Named(VIDEO_TIMELINE_EXPORT_EXECUTOR)
+    public ExecutorService provideVideoTimelineExportExecutor() {
+        // threads mostly wait on S3 and DDB, so the pool is sized for I/O rather than the lambda's vCPUs
+        return Executors.newFixedThreadPool(16, new ThreadFactoryBuilder()
+                .setNameFormat("video-timeline-export-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    @Provides
+    @Singleton
+    public VideoTimelineBatchLister provideVideoTimelineBatchLister(
+            final VideoTimelineDAO videoTimelineDAO,
+            @Named(VIDEO_TIMELINE_BATCH_EXECUTOR) final ExecutorService batchExecutor) {
+        return new VideoTimelineBatchLister(videoTimelineDAO, batchExecutor);
     }
 }
@@ -0,0 +1,236 @@
+package com.amazonaws.videoanalytics.videologistics.dao.videotimeline;
+
+import com.amazonaws.videoanalytics.videologistics.Timeline;
+import com.amazonaws.videoanalytics.videologistics.schema.SchemaConst;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.CompactedVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineAggregator;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineUtils;
+import com.amazonaws.videoanalytics.videologistics.utils.logging.DeviceLogSampler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static com.amazonaws.videoanalytics.videologistics.timeline.CompactedTimelineCodec.decode;
+import static com.amazonaws.videoanalytics.videologistics.timeline.CompactedTimelineCodec.encode;
+
+/**
+ * Reads and writes the compacted intervals of a device, one item per closed UTC hour, kept in the video timeline table
+ * next to the aggregate timelines of the device. Hours waiting to be (re)compacted are queued in the same table, one
+ * small item per device and hour, so that queueing costs the same whatever the size of the fleet. Queue items are the
+ * only items carrying a queue shard, and are listed per shard through the sparse compaction queue index.
+ */
+public class CompactedVideoTimelineDAO {
+    public static final int COMPACTION_QUEUE_SHARDS = 8;
+    // a compaction only lands if no raw timeline arrived for the hour since the compaction started reading it
+    private static final String COMPACTED_UPDATE_EXPRESSION = String.format(
+            "SET %s = :cloudIntervals, %s = :deviceIntervals, %s = :compactedAt, %s = if_not_exists(%s, :expiration)",
+            SchemaConst.CLOUD_INTERVALS, SchemaConst.DEVICE_INTERVALS, SchemaConst.COMPACTED_AT,
+            SchemaConst.EXPIRATION_TIMESTAMP, SchemaConst.EXPIRATION_TIMESTAMP);
+    private static final String COMPACTED_CONDITION_EXPRESSION = String.format(
+            "attribute_not_exists(%s) OR %s < :compactedAt", SchemaConst.INVALIDATED_AT, SchemaConst.INVALIDATED_AT);
+    private static final String INVALIDATE_UPDATE_EXPRESSION = String.format(
+            "SET %s = :invalidatedAt, %s = if_not_exists(%s, :expiration)",
+            SchemaConst.INVALIDATED_AT, SchemaConst.EXPIRATION_TIMESTAMP, SchemaConst.EXPIRATION_TIMESTAMP);
+    private static final String HOUR_RANGE_KEY_CONDITION_EXPRESSION = String.format(
+            "%s = :partitionKey AND %s BETWEEN :firstHourStartTime AND :lastHourStartTime",
+            SchemaConst.VIDEO_TIMELINE_PARTITION_KEY, SchemaConst.UNIT_TIMESTAMP);
+    private static final String PENDING_KEY_CONDITION_EXPRESSION = String.format(
+            "%s = :shard AND %s <= :lastHourStartTime", SchemaConst.COMPACTION_QUEUE_SHARD, SchemaConst.UNIT_TIMESTAMP);
+    private static final String PENDING_PROJECTION_EXPRESSION = String.join(",", SchemaConst.UNIT_TIMESTAMP,
+            SchemaConst.DEVICE_ID);
+    private static final String COMPACTED_PROJECTION_EXPRESSION = String.join(",", SchemaConst.UNIT_TIMESTAMP,
+            SchemaConst.CLOUD_INTERVALS, SchemaConst.DEVICE_INTERVALS, SchemaConst.COMPACTED_AT,
+            SchemaConst.INVALIDATED_AT);
+    private static final Logger LOG = LogManager.getLogger(CompactedVideoTimelineDAO.class);
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbTable<AggregateVideoTimeline> videoTimelineTable;
+    private final VideoTimelineUtils videoTimelineUtils;
+    private final VideoTimelineAggregator videoTimelineAggregator;
+
+    @Inject
+    public CompactedVideoTimelineDAO(final DynamoDbClient dynamoDbClient,
+                                     final DynamoDbTable<AggregateVideoTimeline> videoTimelineTable,
+                                     final VideoTimelineUtils videoTimelineUtils,
+                                     final VideoTimelineAggregator videoTimelineAggregator) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.videoTimelineTable = videoTimelineTable;
+        this.videoTimelineUtils = videoTimelineUtils;
+        this.videoTimelineAggregator = videoTimelineAggregator;
+    }
+
+    /**
+     * Returns the compacted (or invalidated) hours of a device between the given hours, both inclusive, in order
+     */
+    public List<CompactedVideoTimeline> listCompactedVideoTimelines(final String deviceId,
+                                                                    final long firstHourStartTime,
+                                                                    final long lastHourStartTime) {
+        DeviceLogSampler.debug(LOG, deviceId,
+                () -> String.format("Listing compacted timelines with firstHour=%d, lastHour=%d",
+                firstHourStartTime, lastHourStartTime));
+        List<CompactedVideoTimeline> compactedVideoTimelines = new ArrayList<>();
+        dynamoDbClient.queryPaginator(QueryRequest.builder()
+                        .tableName(videoTimelineTable.tableName())
+                        .keyConditionExpression(HOUR_RANGE_KEY_CONDITION_EXPRESSION)
+                        .expressionAttributeValues(Map.of(
+                                ":partitionKey", AttributeValue.fromS(getPartitionKey(deviceId)),
+                                ":firstHourStartTime", AttributeValue.fromN(Long.toString(firstHourStartTime)),
+                                ":lastHourStartTime", AttributeValue.fromN(Long.toString(lastHourStartTime))))
+                        .projectionExpression(COMPACTED_PROJECTION_EXPRESSION)
+                        .consistentRead(false)
+                        .build())
+                .items()
+                .forEach(item -> compactedVideoTimelines.add(toCompactedVideoTimeline(deviceId, item)));
+        return compactedVideoTimelines;
+    }
+
+    /**
+     * Method stores the merged intervals of a closed hour
+     * @param compactedAt time in epoch millis at which reading the raw timelines of the hour started
+     * @return false if the hour was invalidated since, in which case nothing is written and it has to be compacted
+     * again
+     */
+    public boolean save(final String deviceId, final long hourStartTime, final List<Timeline> cloudTimeline,
+                        final List<Timeline> deviceTimeline, final long compactedAt) {
+        Map<String, AttributeValue> expressionValues = new HashMap<>();
+        expressionValues.put(":cloudIntervals",
+                AttributeValue.fromB(SdkBytes.fromByteArray(encode(cloudTimeline, hourStartTime))));
+        expressionValues.put(":deviceIntervals",
+                AttributeValue.fromB(SdkBytes.fromByteArray(encode(deviceTimeline, hourStartTime))));
+        expressionValues.put(":compactedAt", AttributeValue.fromN(Long.toString(compactedAt)));
+        expressionValues.put(":expiration", getExpiration(hourStartTime));
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(videoTimelineTable.tableName())
+                    .key(getKey(getPartitionKey(deviceId), hourStartTime))
+                    .updateExpression(COMPACTED_UPDATE_EXPRESSION)
+                    .conditionExpression(COMPACTED_CONDITION_EXPRESSION)
+                    .expressionAttributeValues(expressionValues)
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            LOG.info(() -> String.format("Hour %d of %s was invalidated during compaction, skipping update",
+                    hourStartTime, deviceId));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Method marks the compacted intervals of an hour as stale, so that the hour is read from raw timelines until it
+     * is compacted again
+     */
+    public void invalidate(final String deviceId, final long hourStartTime, final long invalidatedAt) {
+        dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                .tableName(videoTimelineTable.tableName())
+                .key(getKey(getPartitionKey(deviceId), hourStartTime))
+                .updateExpression(INVALIDATE_UPDATE_EXPRESSION)
+                .expressionAttributeValues(Map.of(
+                        ":invalidatedAt", AttributeValue.fromN(Long.toString(invalidatedAt)),
+                        ":expiration", getExpiration(hourStartTime)))
+                .build());
+    }
+
+    public void enqueueCompaction(final String deviceId, final long hourStartTime) {
+        Map<String, AttributeValue> item = new HashMap<>(getKey(getQueuePartitionKey(deviceId), hourStartTime));
+        item.put(SchemaConst.COMPACTION_QUEUE_SHARD, AttributeValue.fromS(getQueueShard(
+                Math.floorMod(deviceId.hashCode(), COMPACTION_QUEUE_SHARDS))));
+        item.put(SchemaConst.DEVICE_ID, AttributeValue.fromS(deviceId));
+        item.put(SchemaConst.EXPIRATION_TIMESTAMP, getExpiration(hourStartTime));
+        dynamoDbClient.putItem(PutItemRequest.builder()
+                .tableName(videoTimelineTable.tableName())
+                .item(item)
+                .build());
+    }
+
+    /**
+     * Returns the devices waiting to be compacted per hour, for the hours up to the given one (inclusive), oldest
+     * first. The index is eventually consistent, so a device dequeued just before may still be listed, in which case
+     * its hour is compacted again.
+     */
+    public SortedMap<Long, List<String>> listPendingCompactions(final long lastHourStartTime) {
+        SortedMap<Long, List<String>> pendingCompactions = new TreeMap<>();
+        for (int shard = 0; shard < COMPACTION_QUEUE_SHARDS; shard++) {
+            dynamoDbClient.queryPaginator(QueryRequest.builder()
+                            .tableName(videoTimelineTable.tableName())
+                            .indexName(SchemaConst.COMPACTION_QUEUE_INDEX)
+                            .keyConditionExpression(PENDING_KEY_CONDITION_EXPRESSION)
+                            .expressionAttributeValues(Map.of(
+                                    ":shard", AttributeValue.fromS(getQueueShard(shard)),
+                                    ":lastHourStartTime", AttributeValue.fromN(Long.toString(lastHourStartTime))))
+                            .projectionExpression(PENDING_PROJECTION_EXPRESSION)
+                            .build())
+                    .items()
+                    .forEach(item -> pendingCompactions.computeIfAbsent(
+                            Long.parseLong(item.get(SchemaConst.UNIT_TIMESTAMP).n()),
+                            hour -> new ArrayList<>()).add(item.get(SchemaConst.DEVICE_ID).s()));
+        }
+        return pendingCompactions;
+    }
+
+    public void dequeueCompaction(final String deviceId, final long hourStartTime) {
+        dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                .tableName(videoTimelineTable.tableName())
+                .key(getKey(getQueuePartitionKey(deviceId), hourStartTime))
+                .build());
+    }
+
+    private static CompactedVideoTimeline toCompactedVideoTimeline(final String deviceId,
+                                                                   final Map<String, AttributeValue> item) {
+        long hourStartTime = Long.parseLong(item.get(SchemaConst.UNIT_TIMESTAMP).n());
+        return new CompactedVideoTimeline(deviceId, hourStartTime,
+                decode(getBytes(item, SchemaConst.CLOUD_INTERVALS), hourStartTime),
+                decode(getBytes(item, SchemaConst.DEVICE_INTERVALS), hourStartTime),
+                getLong(item, SchemaConst.COMPACTED_AT),
+                getLong(item, SchemaConst.INVALIDATED_AT));
+    }
+
+    private static byte[] getBytes(final Map<String, AttributeValue> item, final String attributeName) {
+        AttributeValue attributeValue = item.get(attributeName);
+        return attributeValue == null || attributeValue.b() == null ? null : attributeValue.b().asByteArray();
+    }
+
+    private static Long getLong(final Map<String, AttributeValue> item, final String attributeName) {
+        AttributeValue attributeValue = item.get(attributeName);
+        return attributeValue == null || attributeValue.n() == null ? null : Long.parseLong(attributeValue.n());
+    }
+
+    private AttributeValue getExpiration(final long hourStartTime) {
+        return AttributeValue.fromN(videoTimelineAggregator.getExpirationTimestamp(TimeIncrementUnits.HOURS,
+                hourStartTime).toString());
+    }
+
+    private String getPartitionKey(final String deviceId) {
+        return videoTimelineUtils.generateKeyValues(deviceId, SchemaConst.COMPACTED_TIME_UNIT);
+    }
+
+    private String getQueuePartitionKey(final String deviceId) {
+        return videoTimelineUtils.generateKeyValues(deviceId, SchemaConst.COMPACTION_QUEUE);
+    }
+
+    private String getQueueShard(final int shard) {
+        return videoTimelineUtils.generateKeyValues(SchemaConst.COMPACTION_QUEUE, Integer.toString(shard));
+    }
+
+    private static Map<String, AttributeValue> getKey(final String partitionKey, final long hourStartTime) {
+        return Map.of(
+                SchemaConst.VIDEO_TIMELINE_PARTITION_KEY, AttributeValue.fromS(partitionKey),
+                SchemaConst.UNIT_TIMESTAMP, AttributeValue.fromN(Long.toString(hourStartTime)));
+    }
+}
@@ -7,85 +7,492 @@ import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoDen
 import com.amazonaws.videoanalytics.videologistics.timeline.TimestampInfo;
 import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineUtils;
 import com.amazonaws.videoanalytics.videologistics.utils.GsonDDBNextTokenMarshaller;
+import com.amazonaws.videoanalytics.videologistics.utils.RetryBackoff;
+import com.amazonaws.videoanalytics.videologistics.utils.Sleeper;
+import com.amazonaws.videoanalytics.videologistics.utils.logging.DeviceLogSampler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import com.amazonaws.videoanalytics.videologistics.schema.SchemaConst;
-import com.amazonaws.services.lambda.runtime.LambdaLogger;
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 
 import software.amazon.awssdk.core.pagination.sync.SdkIterable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Expression;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.internal.AttributeValues;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
 import software.amazon.awssdk.enhanced.dynamodb.model.Page;
 import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.TransactPutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.TransactWriteItemsEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.UpdateItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
 import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
 
 import javax.inject.Inject;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
-import static com.amazonaws.services.lambda.runtime.LambdaRuntime.getLogger;
+import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.RAW_TIMELINE_BATCH_WRITE_ERROR;
 
 public class RawVideoTimelineDAO {
     // Hardcoded placeholder for TTL duration for video on KVS in seconds = 3 months in seconds
     public static final Long KVS_TTL_DURATION = 3L * 30 * 24 * 60 * 60;
     private static final String RAW_VIDEO_TYPE = "RAW";
-    private final LambdaLogger logger = getLogger();
+    // BatchWriteItem takes at most 25 put requests and TransactWriteItems at most 100 actions
+    private static final int BATCH_WRITE_MAX_ITEMS = 25;
+    private static final int TRANSACT_WRITE_MAX_ITEMS = 100;
+    private static final int MAX_WRITE_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MILLIS = 50L;
+    private static final long MAX_BACKOFF_MILLIS = 1000L;
+    private static final String CONDITIONAL_CHECK_FAILED = "ConditionalCheckFailed";
+    // CLOUD timelines at most this far apart are saved as one row, rows are bounded so that readers looking back from
+    // the start of a range find every row overlapping it
+    static final long COALESCING_GAP_MILLIS = 1000L;
+    public static final long MAX_RAW_TIMELINE_DURATION_MILLIS = 60 * 1000L;
+    private static final Logger LOG = LogManager.getLogger(RawVideoTimelineDAO.class);
+    private final DynamoDbEnhancedClient ddbClient;
     private final DynamoDbTable<RawVideoTimeline> videoTimelineTable;
     private final VideoTimelineUtils videoTimelineUtils;
+    private final Sleeper sleeper;
 
     @Inject
-    public RawVideoTimelineDAO(final DynamoDbTable<RawVideoTimeline> videoTimelineTable, final VideoTimelineUtils videoTimelineUtils) {
+    public RawVideoTimelineDAO(final DynamoDbEnhancedClient ddbClient,
+                               final DynamoDbTable<RawVideoTimeline> videoTimelineTable,
+                               final VideoTimelineUtils videoTimelineUtils,
+                               final Sleeper sleeper) {
+        this.ddbClient = ddbClient;
         this.videoTimelineTable = videoTimelineTable;
         this.videoTimelineUtils = videoTimelineUtils;
+        this.sleeper = sleeper;
     }
 
     public void save(final String deviceId, final TimestampInfo timestampInfo, final String location) {
-        logger.log(String.format("Starting save for raw timeline for deviceId=%s, timestamp=%d, location=%s",
-                deviceId, timestampInfo.getTimestamp(), location));
-        logger.log(String.format("Timestamp duration: %d ms", timestampInfo.getDuration()));
+        save(deviceId, timestampInfo.getTimestamp(), timestampInfo.getDuration(), location);
+    }
+
+    public void save(final String deviceId, final long timestamp, final long duration, final String location) {
+        DeviceLogSampler.debug(LOG, deviceId,
+                () -> String.format("Saving raw timeline with timestamp=%d, duration=%d, location=%s",
+                timestamp, duration, location));
 
-        Long timestampToBeStored = timestampInfo.getTimestamp();
         Date currentTime = new Date();
         
         String partitionKey = videoTimelineUtils.generateRawPartitionKey(deviceId);
-        
-        logger.log(String.format("Creating RawVideoTimeline with timestamp=%d, currentTime=%s", 
-                timestampToBeStored, currentTime));
 
-        RawVideoTimeline rawTimeline = RawVideoTimeline.builder()
-                .timestamp(timestampToBeStored)
-                .deviceId(partitionKey)
-                .createdAt(currentTime)
-                .lastUpdated(currentTime)
-                .expirationTimestamp(timestampToBeStored / 1000L + KVS_TTL_DURATION)
-                .durationInMillis(timestampInfo.getDuration())
-                .location(VideoDensityLocation.valueOf(location))
-                .build();
-                
-        logger.log(String.format("Built RawVideoTimeline object: %s", rawTimeline.toString()));
+        RawVideoTimeline rawTimeline = buildRawVideoTimeline(partitionKey, timestamp, duration,
+                VideoDensityLocation.valueOf(location), currentTime);
 
         if (VideoDensityLocation.DEVICE.equals(rawTimeline.getLocation())) {
+            if (getTimelinesNotCoveredOnCloud(partitionKey, List.of(rawTimeline)).isEmpty()) {
+                DeviceLogSampler.debug(LOG, deviceId,
+                        () -> String.format("Video already exists on CLOUD for timestamp=%d. " +
+                        "Ignoring this save request.", timestamp));
+                return;
+            }
             try {
-                logger.log("Location is DEVICE, checking for existing raw video timeline on CLOUD...");
                 this.videoTimelineTable.putItem(PutItemEnhancedRequest.builder(RawVideoTimeline.class)
                         .item(rawTimeline)
                         .conditionExpression(createSaveExpressionForDeviceStorage())
                         .build());
-                logger.log("Successfully saved RawVideoTimeline for DEVICE location");
             } catch (ConditionalCheckFailedException e){
-                logger.log(String.format("Conditional check failed: There already exists video for timestamp=%d on CLOUD. " +
-                        "Ignoring this save request.", timestampToBeStored));
+                DeviceLogSampler.debug(LOG, deviceId,
+                        () -> String.format("Conditional check failed: There already exists video for " +
+                        "timestamp=%d on CLOUD. Ignoring this save request.", timestamp));
+            }
+        } else {
+            // coalesced and clipped like a batch, a fragment within an existing CLOUD row is not written again
+            saveCloudTimelines(partitionKey, List.of(rawTimeline), currentTime);
+        }
+    }
+
+    /**
+     * Saves the raw video timelines of a batch of timestamps of a device with as few requests as possible. CLOUD
+     * timestamps are coalesced first, see {@link #saveCloudTimelines}, and written with BatchWriteItem, retrying
+     * unprocessed items with backoff. DEVICE timelines are written with TransactWriteItems, as a BatchWriteItem put
+     * cannot carry the condition of {@link #save}; timelines already on CLOUD are skipped as they are by save.
+     * @param deviceId device id
+     * @param timestampInfos timestamps and durations of the video
+     * @param location CLOUD or DEVICE
+     */
+    public void saveAll(final String deviceId, final List<TimestampInfo> timestampInfos, final String location) {
+        long[] interleavedTimestampInfos = new long[2 * timestampInfos.size()];
+        for (int i = 0; i < timestampInfos.size(); i++) {
+            interleavedTimestampInfos[2 * i] = timestampInfos.get(i).getTimestamp();
+            interleavedTimestampInfos[2 * i + 1] = timestampInfos.get(i).getDuration();
+        }
+        saveAll(deviceId, interleavedTimestampInfos, location);
+    }
+
+    /**
+     * Same as {@link #saveAll(String, List, String)}, for the timestamps and durations as read by
+     * {@link com.amazonaws.videoanalytics.videologistics.timeline.TimestampListDeserializer#deserializeToArray}
+     * @param timestampInfos timestamps and durations of the video, interleaved
+     */
+    public void saveAll(final String deviceId, final long[] timestampInfos, final String location) {
+        String partitionKey = videoTimelineUtils.generateRawPartitionKey(deviceId);
+        VideoDensityLocation videoDensityLocation = VideoDensityLocation.valueOf(location);
+        Date currentTime = new Date();
+
+        // a request cannot write the same item twice, the last duration of a timestamp wins as it would with puts
+        Map<Long, RawVideoTimeline> rawTimelines = new TreeMap<>();
+        for (int i = 0; i + 1 < timestampInfos.length; i += 2) {
+            rawTimelines.put(timestampInfos[i], buildRawVideoTimeline(partitionKey, timestampInfos[i],
+                    timestampInfos[i + 1], videoDensityLocation, currentTime));
+        }
+        if (rawTimelines.isEmpty()) {
+            return;
+        }
+        List<RawVideoTimeline> rawTimelineList = new ArrayList<>(rawTimelines.values());
+
+        if (VideoDensityLocation.DEVICE.equals(videoDensityLocation)) {
+            List<RawVideoTimeline> deviceTimelines = getTimelinesNotCoveredOnCloud(partitionKey, rawTimelineList);
+            for (List<RawVideoTimeline> chunk : Lists.partition(deviceTimelines, TRANSACT_WRITE_MAX_ITEMS)) {
+                transactWriteDeviceTimelines(chunk);
             }
+            LOG.info(() -> String.format("Saved %d raw video timelines of %s on %s",
+                    deviceTimelines.size(), partitionKey, location));
         } else {
-            logger.log(String.format("Saving RawVideoTimeline with location=%s", rawTimeline.getLocation()));
-            this.videoTimelineTable.putItem(rawTimeline);
-            logger.log("Successfully saved RawVideoTimeline");
+            saveCloudTimelines(partitionKey, rawTimelineList, currentTime);
+            LOG.info(() -> String.format("Saved %d raw video timelines of %s on %s",
+                    rawTimelineList.size(), partitionKey, location));
+        }
+    }
+
+    /**
+     * Saves CLOUD timelines as few rows as possible. Timelines that start at most {@link #COALESCING_GAP_MILLIS} after
+     * the previous one ends are merged into rows of up to {@link #MAX_RAW_TIMELINE_DURATION_MILLIS}, clipped to the
+     * time not already on CLOUD, so that saving the same batch twice does not count its video twice. A merged range
+     * right after an existing CLOUD row extends that row in place, conditioned on its duration not having changed.
+     * Timelines with the timestamp of an existing DEVICE row are saved as they are, their put moves that row to CLOUD.
+     * @param partitionKey raw partition key of the device
+     * @param rawTimelines CLOUD timelines in timestamp order, one per timestamp
+     * @param currentTime time of the save
+     */
+    private void saveCloudTimelines(final String partitionKey, final List<RawVideoTimeline> rawTimelines,
+                                    final Date currentTime) {
+        for (int attempt = 1; ; attempt++) {
+            CloudTimelinePlan plan = planCloudTimelines(partitionKey, rawTimelines, currentTime);
+            try {
+                for (Map.Entry<RawVideoTimeline, Long> extension : plan.extendedDurations.entrySet()) {
+                    extendCloudTimeline(extension.getKey(), extension.getValue(), currentTime);
+                }
+            } catch (ConditionalCheckFailedException e) {
+                // another save changed the rows the plan is based on, so it is planned again from the current rows
+                int failedAttempt = attempt;
+                LOG.warn(() -> String.format("Raw video timeline of %s changed concurrently on attempt %d, " +
+                        "planning again", partitionKey, failedAttempt));
+                if (attempt >= MAX_WRITE_ATTEMPTS) {
+                    throw new RuntimeException(String.format(RAW_TIMELINE_BATCH_WRITE_ERROR,
+                            plan.extendedDurations.size(), attempt), e);
+                }
+                RetryBackoff.backoff(sleeper, attempt, BASE_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS);
+                continue;
+            }
+            for (List<RawVideoTimeline> chunk : Lists.partition(plan.newTimelines, BATCH_WRITE_MAX_ITEMS)) {
+                batchWriteTimelines(chunk);
+            }
+            DeviceLogSampler.debug(LOG, partitionKey,
+                    () -> String.format("Coalesced %d raw video timelines into %d new and %d " +
+                    "extended rows", rawTimelines.size(), plan.newTimelines.size(), plan.extendedDurations.size()));
+            return;
+        }
+    }
+
+    private CloudTimelinePlan planCloudTimelines(final String partitionKey, final List<RawVideoTimeline> rawTimelines,
+                                                 final Date currentTime) {
+        long startTime = rawTimelines.get(0).getTimestamp();
+        long endTime = startTime;
+        for (RawVideoTimeline rawTimeline : rawTimelines) {
+            endTime = Math.max(endTime, getEndTime(rawTimeline));
+        }
+        List<RawVideoTimeline> cloudTimelines = new ArrayList<>();
+        Set<Long> deviceTimestamps = new HashSet<>();
+        for (RawVideoTimeline existingTimeline : queryRawVideoTimelines(partitionKey,
+                startTime - MAX_RAW_TIMELINE_DURATION_MILLIS, endTime)) {
+            if (VideoDensityLocation.CLOUD.equals(existingTimeline.getLocation())) {
+                cloudTimelines.add(existingTimeline);
+            } else {
+                deviceTimestamps.add(existingTimeline.getTimestamp());
+            }
+        }
+
+        CloudTimelinePlan plan = new CloudTimelinePlan();
+        List<TimeRange> coveredRanges = new ArrayList<>();
+        cloudTimelines.forEach(cloudTimeline -> coveredRanges.add(new TimeRange(cloudTimeline.getTimestamp(),
+                getEndTime(cloudTimeline))));
+        List<TimeRange> mergedRanges = new ArrayList<>();
+        for (RawVideoTimeline rawTimeline : rawTimelines) {
+            if (deviceTimestamps.contains(rawTimeline.getTimestamp())) {
+                plan.newTimelines.add(rawTimeline);
+                coveredRanges.add(new TimeRange(rawTimeline.getTimestamp(), getEndTime(rawTimeline)));
+                continue;
+            }
+            TimeRange lastRange = mergedRanges.isEmpty() ? null : mergedRanges.get(mergedRanges.size() - 1);
+            if (lastRange != null && rawTimeline.getTimestamp() <= lastRange.endTime + COALESCING_GAP_MILLIS) {
+                lastRange.endTime = Math.max(lastRange.endTime, getEndTime(rawTimeline));
+            } else {
+                mergedRanges.add(new TimeRange(rawTimeline.getTimestamp(), getEndTime(rawTimeline)));
+            }
+        }
+        coveredRanges.sort(Comparator.comparingLong(range -> range.startTime));
+
+        for (TimeRange mergedRange : mergedRanges) {
+            for (TimeRange range : subtract(mergedRange, coveredRanges)) {
+                long rowStartTime = range.startTime;
+                RawVideoTimeline previousTimeline = getExtendableTimeline(cloudTimelines, plan, rowStartTime);
+                if (previousTimeline != null) {
+                    long extendedEndTime = Math.min(range.endTime,
+                            previousTimeline.getTimestamp() + MAX_RAW_TIMELINE_DURATION_MILLIS);
+                    if (extendedEndTime > rowStartTime) {
+                        plan.extendedDurations.put(previousTimeline,
+                                extendedEndTime - previousTimeline.getTimestamp());
+                        rowStartTime = extendedEndTime;
+                    }
+                }
+                if (rowStartTime == range.endTime && range.startTime != range.endTime) {
+                    continue;
+                }
+                do {
+                    long durationInMillis = Math.min(MAX_RAW_TIMELINE_DURATION_MILLIS, range.endTime - rowStartTime);
+                    plan.newTimelines.add(buildRawVideoTimeline(partitionKey, rowStartTime, durationInMillis,
+                            VideoDensityLocation.CLOUD, currentTime));
+                    rowStartTime += durationInMillis;
+                } while (rowStartTime < range.endTime);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Returns the CLOUD row ending at most {@link #COALESCING_GAP_MILLIS} before the given time, if it is still short
+     * enough to be extended up to it
+     */
+    private static RawVideoTimeline getExtendableTimeline(final List<RawVideoTimeline> cloudTimelines,
+                                                          final CloudTimelinePlan plan, final long startTime) {
+        RawVideoTimeline extendableTimeline = null;
+        long extendableEndTime = Long.MIN_VALUE;
+        for (RawVideoTimeline cloudTimeline : cloudTimelines) {
+            long endTime = cloudTimeline.getTimestamp()
+                    + plan.extendedDurations.getOrDefault(cloudTimeline, cloudTimeline.getDurationInMillis());
+            if (endTime <= startTime && endTime >= startTime - COALESCING_GAP_MILLIS
+                    && cloudTimeline.getTimestamp() + MAX_RAW_TIMELINE_DURATION_MILLIS > startTime
+                    && endTime > extendableEndTime) {
+                extendableTimeline = cloudTimeline;
+                extendableEndTime = endTime;
+            }
+        }
+        return extendableTimeline;
+    }
+
+    /**
+     * Returns the parts of the range not overlapped by any of the covered ranges
+     * @param range range to split
+     * @param coveredRanges ranges in start time order
+     */
+    private static List<TimeRange> subtract(final TimeRange range, final List<TimeRange> coveredRanges) {
+        if (range.startTime == range.endTime) {
+            boolean covered = coveredRanges.stream()
+                    .anyMatch(coveredRange -> coveredRange.startTime <= range.startTime
+                            && range.startTime < coveredRange.endTime);
+            return covered ? List.of() : List.of(range);
+        }
+        List<TimeRange> ranges = new ArrayList<>();
+        long startTime = range.startTime;
+        for (TimeRange coveredRange : coveredRanges) {
+            if (coveredRange.startTime >= range.endTime) {
+                break;
+            }
+            if (coveredRange.endTime <= startTime) {
+                continue;
+            }
+            if (coveredRange.startTime > startTime) {
+                ranges.add(new TimeRange(startTime, coveredRange.startTime));
+            }
+            startTime = Math.max(startTime, coveredRange.endTime);
+        }
+        if (startTime < range.endTime) {
+            ranges.add(new TimeRange(startTime, range.endTime));
         }
+        return ranges;
+    }
+
+    private void extendCloudTimeline(final RawVideoTimeline rawTimeline, final long durationInMillis,
+                                     final Date currentTime) {
+        videoTimelineTable.updateItem(UpdateItemEnhancedRequest.builder(RawVideoTimeline.class)
+                .item(RawVideoTimeline.builder()
+                        .deviceId(rawTimeline.getDeviceId())
+                        .timestamp(rawTimeline.getTimestamp())
+                        .durationInMillis(durationInMillis)
+                        .lastUpdated(currentTime)
+                        .build())
+                .ignoreNulls(true)
+                .conditionExpression(createExtendExpression(rawTimeline.getDurationInMillis()))
+                .build());
+    }
+
+    /**
+     * Drops the DEVICE timelines within a CLOUD row that starts before them. A CLOUD row with the same timestamp is
+     * left to the condition of the write.
+     */
+    private List<RawVideoTimeline> getTimelinesNotCoveredOnCloud(final String partitionKey,
+                                                                 final List<RawVideoTimeline> rawTimelines) {
+        long startTime = rawTimelines.get(0).getTimestamp();
+        long endTime = rawTimelines.get(rawTimelines.size() - 1).getTimestamp();
+        List<RawVideoTimeline> cloudTimelines = queryRawVideoTimelines(partitionKey,
+                startTime - MAX_RAW_TIMELINE_DURATION_MILLIS, endTime - 1).stream()
+                .filter(existingTimeline -> VideoDensityLocation.CLOUD.equals(existingTimeline.getLocation()))
+                .collect(Collectors.toList());
+        if (cloudTimelines.isEmpty()) {
+            return rawTimelines;
+        }
+        List<RawVideoTimeline> remainingTimelines = new ArrayList<>();
+        for (RawVideoTimeline rawTimeline : rawTimelines) {
+            boolean covered = cloudTimelines.stream()
+                    .anyMatch(cloudTimeline -> cloudTimeline.getTimestamp() < rawTimeline.getTimestamp()
+                            && getEndTime(cloudTimeline) > rawTimeline.getTimestamp());
+            if (!covered) {
+                remainingTimelines.add(rawTimeline);
+            }
+        }
+        if (remainingTimelines.size() < rawTimelines.size()) {
+            DeviceLogSampler.debug(LOG, partitionKey,
+                    () -> String.format("Video already exists on CLOUD for %d timestamps, " +
+                    "skipping them", rawTimelines.size() - remainingTimelines.size()));
+        }
+        return remainingTimelines;
+    }
+
+    private List<RawVideoTimeline> queryRawVideoTimelines(final String partitionKey, final long startTimeInMillis,
+                                                          final long endTimeInMillis) {
+        QueryConditional condition = QueryConditional.sortBetween(
+                item -> item.partitionValue(partitionKey).sortValue(startTimeInMillis),
+                item -> item.partitionValue(partitionKey).sortValue(endTimeInMillis));
+        return videoTimelineTable.query(QueryEnhancedRequest.builder()
+                        .queryConditional(condition)
+                        .consistentRead(true)
+                        .build())
+                .items()
+                .stream()
+                .collect(Collectors.toList());
+    }
+
+    private static long getEndTime(final RawVideoTimeline rawTimeline) {
+        return rawTimeline.getTimestamp() + rawTimeline.getDurationInMillis();
+    }
+
+    private void batchWriteTimelines(final List<RawVideoTimeline> rawTimelines) {
+        List<RawVideoTimeline> pendingTimelines = rawTimelines;
+        for (int attempt = 1; ; attempt++) {
+            WriteBatch.Builder<RawVideoTimeline> writeBatch = WriteBatch.builder(RawVideoTimeline.class)
+                    .mappedTableResource(videoTimelineTable);
+            pendingTimelines.forEach(writeBatch::addPutItem);
+            BatchWriteResult result = ddbClient.batchWriteItem(BatchWriteItemEnhancedRequest.builder()
+                    .writeBatches(writeBatch.build())
+                    .build());
+
+            List<RawVideoTimeline> unprocessedTimelines = result.unprocessedPutItemsForTable(videoTimelineTable);
+            if (unprocessedTimelines.isEmpty()) {
+                return;
+            }
+            int unprocessedCount = unprocessedTimelines.size();
+            int pendingCount = pendingTimelines.size();
+            int failedAttempt = attempt;
+            LOG.warn(() -> String.format("%d of %d raw video timelines unprocessed on attempt %d",
+                    unprocessedCount, pendingCount, failedAttempt));
+            if (attempt >= MAX_WRITE_ATTEMPTS) {
+                throw new RuntimeException(String.format(RAW_TIMELINE_BATCH_WRITE_ERROR,
+                        unprocessedTimelines.size(), attempt));
+            }
+            pendingTimelines = unprocessedTimelines;
+            RetryBackoff.backoff(sleeper, attempt, BASE_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS);
+        }
+    }
+
+    private void transactWriteDeviceTimelines(final List<RawVideoTimeline> rawTimelines) {
+        List<RawVideoTimeline> pendingTimelines = rawTimelines;
+        int attempt = 1;
+        while (!pendingTimelines.isEmpty()) {
+            TransactWriteItemsEnhancedRequest.Builder request = TransactWriteItemsEnhancedRequest.builder();
+            for (RawVideoTimeline rawTimeline : pendingTimelines) {
+                request.addPutItem(videoTimelineTable, TransactPutItemEnhancedRequest.builder(RawVideoTimeline.class)
+                        .item(rawTimeline)
+                        .conditionExpression(createSaveExpressionForDeviceStorage())
+                        .build());
+            }
+            try {
+                ddbClient.transactWriteItems(request.build());
+                return;
+            } catch (TransactionCanceledException e) {
+                // reasons are returned in the order of the actions, a single failed condition cancels all of them
+                List<RawVideoTimeline> remainingTimelines = getTimelinesWithoutFailedCondition(pendingTimelines,
+                        e.cancellationReasons());
+                if (remainingTimelines.size() < pendingTimelines.size()) {
+                    int skippedTimelines = pendingTimelines.size() - remainingTimelines.size();
+                    DeviceLogSampler.debug(LOG, pendingTimelines.get(0).getDeviceId(),
+                            () -> String.format("Conditional check failed: " +
+                            "video already exists on CLOUD for %d timestamps, retrying without them", skippedTimelines));
+                    pendingTimelines = remainingTimelines;
+                    continue;
+                }
+                int pendingCount = pendingTimelines.size();
+                int failedAttempt = attempt;
+                LOG.warn(() -> String.format("Transaction of %d raw video timelines cancelled on attempt %d: %s",
+                        pendingCount, failedAttempt, e.getMessage()));
+                if (attempt >= MAX_WRITE_ATTEMPTS) {
+                    throw new RuntimeException(String.format(RAW_TIMELINE_BATCH_WRITE_ERROR,
+                            pendingTimelines.size(), attempt), e);
+                }
+                RetryBackoff.backoff(sleeper, attempt++, BASE_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private static List<RawVideoTimeline> getTimelinesWithoutFailedCondition(final List<RawVideoTimeline> rawTimelines,
+                                                                             final List<CancellationReason> reasons) {
+        if (reasons == null || reasons.size() != rawTimelines.size()) {
+            return rawTimelines;
+        }
+        List<RawVideoTimeline> remainingTimelines = new ArrayList<>();
+        for (int i = 0; i < rawTimelines.size(); i++) {
+            if (!CONDITIONAL_CHECK_FAILED.equals(reasons.get(i).code())) {
+                remainingTimelines.add(rawTimelines.get(i));
+            }
+        }
+        return remainingTimelines;
+    }
+
+    private static RawVideoTimeline buildRawVideoTimeline(final String partitionKey,
+                                                          final long timestamp,
+                                                          final long duration,
+                                                          final VideoDensityLocation location,
+                                                          final Date currentTime) {
+        return RawVideoTimeline.builder()
+                .timestamp(timestamp)
+                .deviceId(partitionKey)
+                .createdAt(currentTime)
+                .lastUpdated(currentTime)
+                .expirationTimestamp(timestamp / 1000L + KVS_TTL_DURATION)
+                .durationInMillis(duration)
+                .location(location)
+                .build();
     }
 
     /**
@@ -100,8 +507,21 @@ public class RawVideoTimelineDAO {
                                                                          final Long startTimeInMillis,
                                                                          final Long endTimeInMillis,
                                                                          final String nextToken) {
-        logger.log(String.format("Starting list for raw video timelines for deviceId=%s, " +
-                "startTime=%s, endTime=%s", deviceId, startTimeInMillis, endTimeInMillis));
+        return listRawVideoTimelines(deviceId, startTimeInMillis, endTimeInMillis, nextToken, false);
+    }
+
+    /**
+     * Same as {@link #listRawVideoTimelines(String, Long, Long, String)}, with a strongly consistent read when
+     * consistentRead is true, eg. for a compaction that must not miss a raw timeline written just before it started
+     */
+    public PaginatedListResponse<RawVideoTimeline> listRawVideoTimelines(final String deviceId,
+                                                                         final Long startTimeInMillis,
+                                                                         final Long endTimeInMillis,
+                                                                         final String nextToken,
+                                                                         final boolean consistentRead) {
+        DeviceLogSampler.debug(LOG, deviceId,
+                () -> String.format("Starting list for raw video timelines with startTime=%s, " +
+                "endTime=%s", startTimeInMillis, endTimeInMillis));
 
        String partitionKey = videoTimelineUtils.generateRawPartitionKey(deviceId);
 
@@ -117,7 +537,7 @@ public class RawVideoTimelineDAO {
         SdkIterable<Page<RawVideoTimeline>> results = videoTimelineTable.query(QueryEnhancedRequest.builder()
                 .queryConditional(condition)
                 .exclusiveStartKey(exclusiveStartKey)
-                .consistentRead(false)
+                .consistentRead(consistentRead)
                 .build());
 
         Page<RawVideoTimeline> firstPage = results.stream().findFirst().get();
@@ -126,6 +546,38 @@ public class RawVideoTimelineDAO {
                 GsonDDBNextTokenMarshaller.marshall(firstPage.lastEvaluatedKey()));
     }
 
+    /**
+     * Method to return the earliest RawVideoTimeline in a time range, or the latest one if scanForward is false, with a
+     * single item query
+     * @param deviceId device id
+     * @param startTimeInMillis start time of range, inclusive
+     * @param endTimeInMillis end time of range, inclusive
+     * @param scanForward true for the earliest, false for the latest rawVideoTimeline
+     * @return rawVideoTimeline, or null if there is none in the range
+     */
+    public RawVideoTimeline getFirstRawVideoTimeline(final String deviceId,
+                                                     final Long startTimeInMillis,
+                                                     final Long endTimeInMillis,
+                                                     final boolean scanForward) {
+        String partitionKey = videoTimelineUtils.generateRawPartitionKey(deviceId);
+
+        QueryConditional condition = QueryConditional.sortBetween(
+                item -> item.partitionValue(partitionKey).sortValue(startTimeInMillis),
+                item -> item.partitionValue(partitionKey).sortValue(endTimeInMillis));
+
+        Page<RawVideoTimeline> firstPage = videoTimelineTable.query(QueryEnhancedRequest.builder()
+                        .queryConditional(condition)
+                        .scanIndexForward(scanForward)
+                        .limit(1)
+                        .consistentRead(false)
+                        .build())
+                .stream()
+                .findFirst()
+                .get();
+
+        return firstPage.items().isEmpty() ? null : firstPage.items().get(0);
+    }
+
     /**
      * Method generates conditional expression that checks to make sure that:
      * 1. Raw Video Timeline item does not exist, OR
@@ -145,8 +597,45 @@ public class RawVideoTimelineDAO {
         return Expression.join(videoTimelineNotExists, locationNotCloud, "OR");
     }
 
+    /**
+     * Method generates conditional expression that checks that a CLOUD row still has the duration it was read with
+     * @param durationInMillis duration the row was read with
+     * @return Conditional Expression
+     */
+    private static Expression createExtendExpression(final long durationInMillis) {
+        return Expression.builder()
+                .expression("#duration = :duration AND #location = :location")
+                .putExpressionName("#duration", SchemaConst.DURATION_IN_MILLIS)
+                .putExpressionName("#location", SchemaConst.LOCATION)
+                .putExpressionValue(":duration", AttributeValues.numberValue(durationInMillis))
+                .putExpressionValue(":location", AttributeValues.stringValue(VideoDensityLocation.CLOUD.name()))
+                .build();
+    }
+
+    /**
+     * Start and end time of a range of video, the end is exclusive
+     */
+    private static final class TimeRange {
+        private final long startTime;
+        private long endTime;
+
+        private TimeRange(final long startTime, final long endTime) {
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+    }
+
+    /**
+     * Rows to write for a batch of CLOUD timelines, existing rows to extend are mapped to their new duration
+     */
+    private static final class CloudTimelinePlan {
+        private final List<RawVideoTimeline> newTimelines = new ArrayList<>();
+        private final Map<RawVideoTimeline, Long> extendedDurations = new IdentityHashMap<>();
+    }
+
     public RawVideoTimeline load(String rawPartitionKey, final Long timestamp) {
-        logger.log("Loading the DDB with partitionKey " +  rawPartitionKey + " and sort key value = " + timestamp);
+        DeviceLogSampler.debug(LOG, rawPartitionKey,
+                () -> "Loading raw video timeline with sort key value = " + timestamp);
         return this.videoTimelineTable.getItem(Key.builder()
                 .partitionValue(rawPartitionKey)
                 .sortValue(timestamp)
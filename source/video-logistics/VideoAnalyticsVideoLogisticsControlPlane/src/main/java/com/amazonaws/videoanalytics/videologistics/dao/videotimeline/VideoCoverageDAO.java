@@ -0,0 +1,190 @@
+package com.amazonaws.videoanalytics.videologistics.dao.videotimeline;
+
+import com.amazonaws.videoanalytics.videologistics.schema.SchemaConst;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoCoverage;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoCoverageDelta;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineAggregator;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineUtils;
+import com.amazonaws.videoanalytics.videologistics.utils.logging.DeviceLogSampler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import javax.inject.Inject;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.amazonaws.videoanalytics.videologistics.timeline.VideoCoverageBitmapCodec.decode;
+import static com.amazonaws.videoanalytics.videologistics.timeline.VideoCoverageBitmapCodec.encode;
+
+/**
+ * Reads and writes the per second coverage bitmaps of a device, one item per UTC day with both locations, kept in the
+ * video timeline table next to the aggregate timelines of the device.
+ */
+public class VideoCoverageDAO {
+    // bitmaps cannot be OR-ed by DDB, so they are read, changed and written back under an optimistic lock
+    private static final String COVERAGE_UPDATE_EXPRESSION = String.format(
+            "SET %s = :cloudCoverage, %s = :deviceCoverage, #version = :version, " +
+            "%s = if_not_exists(%s, :expiration), %s = if_not_exists(%s, :now), %s = :now",
+            SchemaConst.CLOUD_COVERAGE, SchemaConst.DEVICE_COVERAGE,
+            SchemaConst.EXPIRATION_TIMESTAMP, SchemaConst.EXPIRATION_TIMESTAMP,
+            SchemaConst.CREATED_AT, SchemaConst.CREATED_AT, SchemaConst.LAST_UPDATED);
+    private static final String NEW_COVERAGE_CONDITION_EXPRESSION = "attribute_not_exists(#version)";
+    private static final String COVERAGE_VERSION_CONDITION_EXPRESSION = "#version = :previousVersion";
+    private static final String LATER_COVERAGE_KEY_CONDITION_EXPRESSION = String.format(
+            "%s = :partitionKey AND %s > :dayStartTime",
+            SchemaConst.VIDEO_TIMELINE_PARTITION_KEY, SchemaConst.UNIT_TIMESTAMP);
+    private static final String EARLIER_COVERAGE_KEY_CONDITION_EXPRESSION = String.format(
+            "%s = :partitionKey AND %s < :dayStartTime",
+            SchemaConst.VIDEO_TIMELINE_PARTITION_KEY, SchemaConst.UNIT_TIMESTAMP);
+    private static final String COVERAGE_PROJECTION_EXPRESSION = String.join(",",
+            SchemaConst.CLOUD_COVERAGE, SchemaConst.DEVICE_COVERAGE, "#version");
+    private static final Logger LOG = LogManager.getLogger(VideoCoverageDAO.class);
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbTable<AggregateVideoTimeline> videoTimelineTable;
+    private final VideoTimelineUtils videoTimelineUtils;
+    private final VideoTimelineAggregator videoTimelineAggregator;
+
+    @Inject
+    public VideoCoverageDAO(final DynamoDbClient dynamoDbClient,
+                            final DynamoDbTable<AggregateVideoTimeline> videoTimelineTable,
+                            final VideoTimelineUtils videoTimelineUtils,
+                            final VideoTimelineAggregator videoTimelineAggregator) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.videoTimelineTable = videoTimelineTable;
+        this.videoTimelineUtils = videoTimelineUtils;
+        this.videoTimelineAggregator = videoTimelineAggregator;
+    }
+
+    /**
+     * Returns the coverage of the UTC day containing the given timestamp with a single item read, empty if no video
+     * was recorded that day
+     */
+    public VideoCoverage getVideoCoverage(final String deviceId, final long timestampInMillis) {
+        long dayStartTime = Instant.ofEpochMilli(timestampInMillis).truncatedTo(ChronoUnit.DAYS).toEpochMilli();
+        return load(deviceId, dayStartTime, false);
+    }
+
+    /**
+     * Returns the coverage of the closest day after (or before) the given day that has a coverage item, with a single
+     * query, so that days without video are skipped
+     * @return null if the device has no coverage item in that direction
+     */
+    public VideoCoverage getAdjacentVideoCoverage(final String deviceId, final long dayStartTime,
+                                                  final boolean scanForward) {
+        QueryResponse response = dynamoDbClient.query(QueryRequest.builder()
+                .tableName(videoTimelineTable.tableName())
+                .keyConditionExpression(scanForward ? LATER_COVERAGE_KEY_CONDITION_EXPRESSION
+                        : EARLIER_COVERAGE_KEY_CONDITION_EXPRESSION)
+                .expressionAttributeValues(Map.of(
+                        ":partitionKey", AttributeValue.fromS(
+                                videoTimelineUtils.generateKeyValues(deviceId, SchemaConst.VIDEO_COVERAGE_TIME_UNIT)),
+                        ":dayStartTime", AttributeValue.fromN(Long.toString(dayStartTime))))
+                .projectionExpression(String.join(",", COVERAGE_PROJECTION_EXPRESSION, SchemaConst.UNIT_TIMESTAMP))
+                .expressionAttributeNames(Map.of("#version", SchemaConst.VERSION))
+                .scanIndexForward(scanForward)
+                .limit(1)
+                .consistentRead(false)
+                .build());
+        if (!response.hasItems() || response.items().isEmpty()) {
+            return null;
+        }
+        Map<String, AttributeValue> item = response.items().get(0);
+        return toVideoCoverage(deviceId, Long.parseLong(item.get(SchemaConst.UNIT_TIMESTAMP).n()), item);
+    }
+
+    /**
+     * Method applies a (possibly merged) coverage change to the coverage of its day
+     * @return false if the coverage was changed concurrently, in which case nothing is written and the update can be
+     * retried
+     */
+    public boolean save(final VideoCoverageDelta videoCoverageDelta) {
+        VideoCoverage videoCoverage = load(videoCoverageDelta.getDeviceId(), videoCoverageDelta.getDayStartTime(), true);
+        VideoCoverage updatedVideoCoverage = videoCoverageDelta.applyTo(videoCoverage);
+        if (updatedVideoCoverage.getCloudCoverage().equals(videoCoverage.getCloudCoverage())
+                && updatedVideoCoverage.getDeviceCoverage().equals(videoCoverage.getDeviceCoverage())) {
+            DeviceLogSampler.debug(LOG, videoCoverageDelta.getDeviceId(),
+                    () -> String.format("Coverage of %s is unchanged, skipping update",
+                    videoCoverageDelta.getCoverageKey()));
+            return true;
+        }
+
+        Map<String, AttributeValue> expressionValues = new HashMap<>();
+        expressionValues.put(":cloudCoverage",
+                AttributeValue.fromB(SdkBytes.fromByteArray(encode(updatedVideoCoverage.getCloudCoverage()))));
+        expressionValues.put(":deviceCoverage",
+                AttributeValue.fromB(SdkBytes.fromByteArray(encode(updatedVideoCoverage.getDeviceCoverage()))));
+        expressionValues.put(":version", AttributeValue.fromN(Long.toString(updatedVideoCoverage.getVersion())));
+        expressionValues.put(":expiration", AttributeValue.fromN(videoTimelineAggregator.getExpirationTimestamp(
+                TimeIncrementUnits.DAYS, videoCoverage.getDayStartTime()).toString()));
+        expressionValues.put(":now", AttributeValue.fromS(Instant.now().toString()));
+        String conditionExpression = NEW_COVERAGE_CONDITION_EXPRESSION;
+        if (videoCoverage.getVersion() > 0) {
+            expressionValues.put(":previousVersion", AttributeValue.fromN(Long.toString(videoCoverage.getVersion())));
+            conditionExpression = COVERAGE_VERSION_CONDITION_EXPRESSION;
+        }
+
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(videoTimelineTable.tableName())
+                    .key(getKey(videoCoverage.getDeviceId(), videoCoverage.getDayStartTime()))
+                    .updateExpression(COVERAGE_UPDATE_EXPRESSION)
+                    .conditionExpression(conditionExpression)
+                    .expressionAttributeNames(Map.of("#version", SchemaConst.VERSION))
+                    .expressionAttributeValues(expressionValues)
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            LOG.info(() -> String.format("Coverage of %s changed since version %d, " +
+                    "skipping update", videoCoverageDelta.getCoverageKey(), videoCoverage.getVersion()));
+            return false;
+        }
+        return true;
+    }
+
+    private VideoCoverage load(final String deviceId, final long dayStartTime, final boolean consistentRead) {
+        GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
+                .tableName(videoTimelineTable.tableName())
+                .key(getKey(deviceId, dayStartTime))
+                .projectionExpression(COVERAGE_PROJECTION_EXPRESSION)
+                .expressionAttributeNames(Map.of("#version", SchemaConst.VERSION))
+                .consistentRead(consistentRead)
+                .build());
+        if (!response.hasItem() || response.item().isEmpty()) {
+            return VideoCoverage.empty(deviceId, dayStartTime);
+        }
+        return toVideoCoverage(deviceId, dayStartTime, response.item());
+    }
+
+    private static VideoCoverage toVideoCoverage(final String deviceId, final long dayStartTime,
+                                                 final Map<String, AttributeValue> item) {
+        return new VideoCoverage(deviceId, dayStartTime,
+                decode(getBytes(item, SchemaConst.CLOUD_COVERAGE)),
+                decode(getBytes(item, SchemaConst.DEVICE_COVERAGE)),
+                Long.parseLong(item.get(SchemaConst.VERSION).n()));
+    }
+
+    private static byte[] getBytes(final Map<String, AttributeValue> item, final String attributeName) {
+        AttributeValue attributeValue = item.get(attributeName);
+        return attributeValue == null || attributeValue.b() == null ? null : attributeValue.b().asByteArray();
+    }
+
+    private Map<String, AttributeValue> getKey(final String deviceId, final long dayStartTime) {
+        return Map.of(
+                SchemaConst.VIDEO_TIMELINE_PARTITION_KEY, AttributeValue.fromS(
+                        videoTimelineUtils.generateKeyValues(deviceId, SchemaConst.VIDEO_COVERAGE_TIME_UNIT)),
+                SchemaConst.UNIT_TIMESTAMP, AttributeValue.fromN(Long.toString(dayStartTime)));
+    }
+}
@@ -2,205 +2,391 @@ package com.amazonaws.videoanalytics.videologistics.dao.videotimeline;
 
 
 import com.amazonaws.videoanalytics.videologistics.VideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoDensity;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.ColumnarTimelinePaginatedResponse;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.PaginatedListResponse;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
 import com.amazonaws.videoanalytics.videologistics.timeline.TimelineKDSMetadata;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoDensityDelta;
 import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineAggregator;
 import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineUtils;
 import com.amazonaws.videoanalytics.videologistics.utils.GsonDDBNextTokenMarshaller;
 import com.amazonaws.videoanalytics.videologistics.schema.SchemaConst;
-import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.amazonaws.videoanalytics.videologistics.schema.util.AggregateVideoDensityTableSchema;
+import com.amazonaws.videoanalytics.videologistics.utils.logging.DeviceLogSampler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import com.google.common.base.Strings;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
-import software.amazon.awssdk.enhanced.dynamodb.model.Page;
-import software.amazon.awssdk.enhanced.dynamodb.model.PageIterable;
-import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
 
 import javax.inject.Inject;
+import javax.inject.Named;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Date;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
+import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.VIDEO_TIMELINE_QUERY_ERROR;
+import static com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineListGenerator.buildColumnarVideoTimelines;
 import static com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineListGenerator.buildVideoTimelineList;
-import static com.amazonaws.services.lambda.runtime.LambdaRuntime.getLogger;
+import static com.amazonaws.videoanalytics.videologistics.utils.AWSVideoAnalyticsServiceLambdaConstants.VIDEO_TIMELINE_QUERY_EXECUTOR;
 
 public class VideoTimelineDAO {
-    private final LambdaLogger logger = getLogger();
+    // both densities are always written so that they exist on newly created buckets, a catch up on a bucket
+    // without device density starts it from the moved time so that it ends at 0 instead of going negative,
+    // TTL and creation metadata are only written by the first update of a bucket
+    private static final String DENSITY_UPDATE_EXPRESSION = String.format(
+            "ADD %s :cloudDelta " +
+            "SET %s = if_not_exists(%s, :deviceBase) + :deviceDelta, " +
+            "%s = if_not_exists(%s, :timeUnit), %s = if_not_exists(%s, :expiration), " +
+            "%s = if_not_exists(%s, :now), %s = :now",
+            SchemaConst.CLOUD_DENSITY_IN_MILLIS,
+            SchemaConst.DEVICE_DENSITY_IN_MILLIS, SchemaConst.DEVICE_DENSITY_IN_MILLIS,
+            SchemaConst.TIME_INCREMENT_UNIT, SchemaConst.TIME_INCREMENT_UNIT,
+            SchemaConst.EXPIRATION_TIMESTAMP, SchemaConst.EXPIRATION_TIMESTAMP,
+            SchemaConst.CREATED_AT, SchemaConst.CREATED_AT, SchemaConst.LAST_UPDATED);
+    // deltas read from KDS record the last applied sequence number of their shard on the bucket,
+    // replayed records at or below it have already been counted
+    private static final String WATERMARK_UPDATE_EXPRESSION = ", #watermark = :lastSequenceNumber";
+    private static final String WATERMARK_CONDITION_EXPRESSION =
+            "attribute_not_exists(#watermark) OR #watermark < :firstSequenceNumber";
+    private static final String DENSITY_TIME_MISMATCH_ERROR =
+            "Time mismatch found for bucket %d. Device density after update: %s, Device density change: %d";
+    // bounds the buckets read for one page of ListVideoTimelines, about 1MB of items
+    private static final long MAX_AGGREGATE_TIMELINES_PER_PAGE = 8000;
+    private static final long MAX_QUERY_SLICES = 8;
+    private static final long MIN_BUCKETS_PER_SLICE = 1000;
+    // buckets ending within this window of now may still receive density updates from the KDS pipeline
+    private static final long OPEN_BUCKET_WINDOW_MILLIS = 15 * 60 * 1000L;
+    private static final Logger LOG = LogManager.getLogger(VideoTimelineDAO.class);
     private final DynamoDbEnhancedClient ddbClient;
+    private final DynamoDbClient dynamoDbClient;
     private final DynamoDbTable<AggregateVideoTimeline> videoTimelineTable;
+    private final DynamoDbTable<AggregateVideoDensity> videoDensityTable;
     private final VideoTimelineUtils videoTimelineUtils;
     private final VideoTimelineAggregator videoTimelineAggregator;
+    private final ExecutorService queryExecutor;
 
     @Inject
-    public VideoTimelineDAO(final DynamoDbEnhancedClient ddbClient, final DynamoDbTable<AggregateVideoTimeline> videoTimelineTable,
-            final VideoTimelineUtils videoTimelineUtils, final VideoTimelineAggregator videoTimelineAggregator) {
+    public VideoTimelineDAO(final DynamoDbEnhancedClient ddbClient, final DynamoDbClient dynamoDbClient,
+            final DynamoDbTable<AggregateVideoTimeline> videoTimelineTable,
+            final DynamoDbTable<AggregateVideoDensity> videoDensityTable,
+            final VideoTimelineUtils videoTimelineUtils, final VideoTimelineAggregator videoTimelineAggregator,
+            @Named(VIDEO_TIMELINE_QUERY_EXECUTOR) final ExecutorService queryExecutor) {
         this.ddbClient = ddbClient;
+        this.dynamoDbClient = dynamoDbClient;
         this.videoTimelineTable = videoTimelineTable;
+        this.videoDensityTable = videoDensityTable;
         this.videoTimelineUtils = videoTimelineUtils;
         this.videoTimelineAggregator = videoTimelineAggregator;
+        this.queryExecutor = queryExecutor;
     }
 
     /**
-     * Method creates/updates density for given aggregated timeline data
+     * Method creates/updates density for given aggregated timeline data. Densities are incremented atomically with a
+     * single UpdateItem so that concurrent updates to the same bucket from different shards are never lost.
      */
     public void save(TimelineKDSMetadata timelineKDSMetadata) {
-        logger.log("Starting transaction write for video timeline");
+        save(VideoDensityDelta.fromTimelineKDSMetadata(timelineKDSMetadata));
+    }
 
+    /**
+     * Method applies a (possibly coalesced) density change to an aggregated timeline bucket with a single UpdateItem
+     * @return false if the delta carries KDS sequence numbers and some of them were already applied to the bucket,
+     * in which case nothing is written
+     */
+    public boolean save(VideoDensityDelta videoDensityDelta) {
         String partitionKey = videoTimelineUtils.generateTimelinePartitionKey(
-                timelineKDSMetadata.getDeviceId(),
-                timelineKDSMetadata.getTimeIncrementUnits()
+                videoDensityDelta.getDeviceId(),
+                videoDensityDelta.getTimeIncrementUnits()
         );
+        long bucketStartTime = videoDensityDelta.getBucketStartTime();
+        long cloudDensityDelta = videoDensityDelta.getCloudDensityDelta();
+        long deviceDensityDelta = videoDensityDelta.getDeviceDensityDelta();
+
+        DeviceLogSampler.debug(LOG, videoDensityDelta.getDeviceId(),
+                () -> String.format("Updating video timeline PK=%s, SK=%d with " +
+                "cloud delta=%d, device delta=%d", partitionKey, bucketStartTime, cloudDensityDelta, deviceDensityDelta));
+
+        String currentTime = Instant.now().toString();
+        Map<String, AttributeValue> expressionValues = new HashMap<>();
+        expressionValues.put(":cloudDelta", AttributeValue.fromN(Long.toString(cloudDensityDelta)));
+        expressionValues.put(":deviceDelta", AttributeValue.fromN(Long.toString(deviceDensityDelta)));
+        expressionValues.put(":deviceBase", AttributeValue.fromN(Long.toString(Math.max(0L, -deviceDensityDelta))));
+        expressionValues.put(":timeUnit", AttributeValue.fromS(videoDensityDelta.getTimeIncrementUnits().name()));
+        expressionValues.put(":expiration", AttributeValue.fromN(videoTimelineAggregator.getExpirationTimestamp(
+                videoDensityDelta.getTimeIncrementUnits(), bucketStartTime).toString()));
+        expressionValues.put(":now", AttributeValue.fromS(currentTime));
+
+        UpdateItemRequest.Builder requestBuilder = UpdateItemRequest.builder()
+                .tableName(videoTimelineTable.tableName())
+                .key(getKey(partitionKey, bucketStartTime))
+                .updateExpression(DENSITY_UPDATE_EXPRESSION)
+                .returnValues(ReturnValue.UPDATED_NEW);
+        if (videoDensityDelta.getShardId() != null) {
+            expressionValues.put(":firstSequenceNumber", AttributeValue.fromS(videoDensityDelta.getFirstSequenceNumber()));
+            expressionValues.put(":lastSequenceNumber", AttributeValue.fromS(videoDensityDelta.getLastSequenceNumber()));
+            requestBuilder.updateExpression(DENSITY_UPDATE_EXPRESSION + WATERMARK_UPDATE_EXPRESSION)
+                    .conditionExpression(WATERMARK_CONDITION_EXPRESSION)
+                    .expressionAttributeNames(Map.of("#watermark",
+                            SchemaConst.SEQUENCE_WATERMARK_PREFIX + videoDensityDelta.getShardId()));
+        }
 
-        // get old aggregate timeline to be updated, null if no timeline exists
-        AggregateVideoTimeline oldAggregateVideoTimeline = load(partitionKey, timelineKDSMetadata.getBucketStartTime());
-
-        AggregateVideoTimeline newAggregateVideoTimeline = videoTimelineAggregator.getUpdatedVideoTimeline(
-                timelineKDSMetadata.getTimeIncrementUnits(),
-                timelineKDSMetadata.getBucketStartTime(),
-                timelineKDSMetadata.getDurationInMillis(),
-                partitionKey,
-                oldAggregateVideoTimeline,
-                timelineKDSMetadata.getVideoDensityLocation(),
-                timelineKDSMetadata.isCatchup()
-        );
+        UpdateItemResponse response;
+        try {
+            response = dynamoDbClient.updateItem(requestBuilder
+                    .expressionAttributeValues(expressionValues)
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            LOG.info(() -> String.format("Sequence watermark of shard %s on PK=%s, " +
+                    "SK=%d is at or past %s, skipping update", videoDensityDelta.getShardId(), partitionKey,
+                    bucketStartTime, videoDensityDelta.getFirstKinesisSequenceNumber()));
+            return false;
+        }
 
-        PutItemEnhancedRequest<AggregateVideoTimeline> request = PutItemEnhancedRequest.builder(AggregateVideoTimeline.class)
-                .item(newAggregateVideoTimeline)
-                .build();
+        AttributeValue deviceDensity = response.attributes().get(SchemaConst.DEVICE_DENSITY_IN_MILLIS);
+        if (deviceDensity != null && Long.parseLong(deviceDensity.n()) < 0) {
+            LOG.warn(() -> String.format(DENSITY_TIME_MISMATCH_ERROR, bucketStartTime, deviceDensity.n(),
+                    deviceDensityDelta));
+        }
+        return true;
+    }
+
+    /**
+     * Returns the (padded) sequence number of the last KDS record of the given shard applied to a bucket
+     */
+    public Optional<String> getSequenceWatermark(final String deviceId, final TimeIncrementUnits timeIncrementUnits,
+                                                 final Long bucketStartTime, final String shardId) {
+        String partitionKey = videoTimelineUtils.generateTimelinePartitionKey(deviceId, timeIncrementUnits);
+        String watermarkAttribute = SchemaConst.SEQUENCE_WATERMARK_PREFIX + shardId;
+        GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
+                .tableName(videoTimelineTable.tableName())
+                .key(getKey(partitionKey, bucketStartTime))
+                .projectionExpression("#watermark")
+                .expressionAttributeNames(Map.of("#watermark", watermarkAttribute))
+                .consistentRead(true)
+                .build());
+        return Optional.ofNullable(response.item())
+                .map(item -> item.get(watermarkAttribute))
+                .map(AttributeValue::s);
+    }
 
-        videoTimelineTable.putItem(request);
+    private static Map<String, AttributeValue> getKey(final String partitionKey, final long bucketStartTime) {
+        return Map.of(
+                SchemaConst.VIDEO_TIMELINE_PARTITION_KEY, AttributeValue.fromS(partitionKey),
+                SchemaConst.UNIT_TIMESTAMP, AttributeValue.fromN(Long.toString(bucketStartTime)));
     }
 
     public AggregateVideoTimeline load(final String partitionKey, final Long bucketStartTime) {
-        logger.log(String.format("Loading forwarding rule for PK=%s, SK=%s", partitionKey, bucketStartTime));
+        LOG.debug(() -> String.format("Loading forwarding rule for PK=%s, SK=%s", partitionKey, bucketStartTime));
         return this.videoTimelineTable.getItem(Key.builder()
                 .partitionValue(partitionKey)
                 .sortValue(bucketStartTime)
                 .build());
     }
 
+    /**
+     * Lists the video timeline of a device, with one density per time increment between start and end time.
+     * A page covers at most MAX_AGGREGATE_TIMELINES_PER_PAGE buckets of the given unit, rounded down to whole periods.
+     * The buckets of a page are read with concurrent queries over time slices, each drained of all its DDB pages,
+     * so a page is always complete and the next token is the last bucket of its last period.
+     */
     public PaginatedListResponse<VideoTimeline> listVideoTimelines(final String deviceId,
                                                                    final Date startTime,
                                                                    final Date endTime,
                                                                    final Long timeIncrementInMillis,
                                                                    final TimeIncrementUnits timeIncrementUnits,
                                                                    final String nextToken) {
-        logger.log("Starting to list video timeline items.");
+        return listVideoTimelines(deviceId, startTime, endTime, timeIncrementInMillis, timeIncrementUnits, nextToken,
+                Long.MAX_VALUE);
+    }
+
+    /**
+     * Same as {@link #listVideoTimelines} with a page of at most maxPeriods periods, so that callers listing several
+     * devices in one response can share a response size between them
+     */
+    public PaginatedListResponse<VideoTimeline> listVideoTimelines(final String deviceId,
+                                                                   final Date startTime,
+                                                                   final Date endTime,
+                                                                   final Long timeIncrementInMillis,
+                                                                   final TimeIncrementUnits timeIncrementUnits,
+                                                                   final String nextToken,
+                                                                   final long maxPeriods) {
+        return listVideoTimelinePage(deviceId, startTime, endTime, timeIncrementInMillis, timeIncrementUnits, nextToken,
+                maxPeriods, (aggregateVideoDensityList, startPeriod, endPeriod, nextPageToken) -> {
+                    List<VideoTimeline> videoTimelineList = buildVideoTimelineList(aggregateVideoDensityList,
+                            startPeriod, endPeriod, timeIncrementInMillis);
+                    DeviceLogSampler.debug(LOG, deviceId,
+                            () -> "Returning " + videoTimelineList.size() + " video timeline items.");
+                    return new PaginatedListResponse<>(videoTimelineList, nextPageToken);
+                });
+    }
+
+    /**
+     * Same as {@link #listVideoTimelines} with the densities of the page in columns, without building an object per
+     * period
+     */
+    public ColumnarTimelinePaginatedResponse listColumnarVideoTimelines(final String deviceId,
+                                                                        final Date startTime,
+                                                                        final Date endTime,
+                                                                        final Long timeIncrementInMillis,
+                                                                        final TimeIncrementUnits timeIncrementUnits,
+                                                                        final String nextToken) {
+        return listVideoTimelinePage(deviceId, startTime, endTime, timeIncrementInMillis, timeIncrementUnits, nextToken,
+                Long.MAX_VALUE, (aggregateVideoDensityList, startPeriod, endPeriod, nextPageToken) ->
+                        new ColumnarTimelinePaginatedResponse(buildColumnarVideoTimelines(aggregateVideoDensityList,
+                                startPeriod, endPeriod, timeIncrementInMillis), nextPageToken));
+    }
+
+    private <T> T listVideoTimelinePage(final String deviceId,
+                                        final Date startTime,
+                                        final Date endTime,
+                                        final Long timeIncrementInMillis,
+                                        final TimeIncrementUnits timeIncrementUnits,
+                                        final String nextToken,
+                                        final long maxPeriods,
+                                        final VideoTimelinePageBuilder<T> pageBuilder) {
         String partitionKey = videoTimelineUtils.generateTimelinePartitionKey(
                 deviceId,
                 timeIncrementUnits
                 );
-        List<VideoTimeline> finalVideoTimelineList = new ArrayList<>();
-        Map<String, AttributeValue> exclusiveStartKey = null;
-
+        long bucketDurationInMillis = timeIncrementUnits.getBucketDurationMillis();
         Long startTimeInMillis = startTime.getTime();
         Long endTimeInMillis = endTime.getTime();
         Long startPeriod = startTimeInMillis;
         if (!Strings.isNullOrEmpty(nextToken)) {
-            exclusiveStartKey = GsonDDBNextTokenMarshaller.unmarshall(nextToken);
+            Map<String, AttributeValue> exclusiveStartKey = GsonDDBNextTokenMarshaller.unmarshall(nextToken);
             Long lastEvaluatedTimestamp = Long.parseLong(exclusiveStartKey.get(SchemaConst.UNIT_TIMESTAMP).n());
             // adjust start period to the next period after the last evaluated timestamp to return accurate results
             startPeriod = videoTimelineUtils.getNextPeriod(startTimeInMillis, timeIncrementInMillis, lastEvaluatedTimestamp);
-            logger.log(String.format("Found next token, last evaluated timestamp = %d, " +
-                    "new timeline information will be returned from %d", lastEvaluatedTimestamp, startPeriod));
+            Long nextStartPeriod = startPeriod;
+            DeviceLogSampler.debug(LOG, deviceId,
+                    () -> String.format("Found next token, last evaluated timestamp = %d, " +
+                    "new timeline information will be returned from %d", lastEvaluatedTimestamp, nextStartPeriod));
+        }
+        if (startPeriod >= endTimeInMillis) {
+            return pageBuilder.build(new ArrayList<>(), endTimeInMillis, endTimeInMillis, null);
         }
 
-        // If end time provided by user is 1500 hours, for time increment hour,
-        // the final time we should get must up t0 1400 hours as BETWEEN includes the end time
-        Long endTimeForQuery = endTimeInMillis - videoTimelineUtils.getBucketDuration(timeIncrementUnits.getChronoUnit());
+        // bucket durations evenly divide the time increment, so every period is made of whole buckets
+        long periodsPerPage = Math.max(1L, Math.min(maxPeriods,
+                MAX_AGGREGATE_TIMELINES_PER_PAGE * bucketDurationInMillis / timeIncrementInMillis));
+        Long endPeriod = Math.min(endTimeInMillis, startPeriod + periodsPerPage * timeIncrementInMillis);
+        Long queryStartPeriod = startPeriod;
+        DeviceLogSampler.debug(LOG, deviceId,
+                () -> String.format("Start time of query = %d, end time of query = %d", queryStartPeriod,
+                endPeriod));
+
+        List<AggregateVideoDensity> aggregateVideoDensityList =
+                queryTimeSlices(partitionKey, timeIncrementUnits, startPeriod, endPeriod);
+
+        Map<String, AttributeValue> lastEvaluatedKey = null;
+        if (endPeriod < endTimeInMillis) {
+            lastEvaluatedKey = getKey(partitionKey, endPeriod - bucketDurationInMillis);
+        }
+        return pageBuilder.build(aggregateVideoDensityList, startPeriod, endPeriod,
+                GsonDDBNextTokenMarshaller.marshall(lastEvaluatedKey));
+    }
 
-        logger.log(String.format("Start time of query = %d, " + "end time of query = %d", startPeriod, endTimeForQuery));
+    /**
+     * Reads all buckets starting in [startTimeInMillis, endTimeInMillis) in order. The range is split into up to
+     * MAX_QUERY_SLICES slices of at least MIN_BUCKETS_PER_SLICE buckets which are queried concurrently. Buckets that
+     * can still be updated by the density pipeline are read in their own, strongly consistent, slice.
+     * Only the sort key and densities of the buckets are read.
+     */
+    private List<AggregateVideoDensity> queryTimeSlices(final String partitionKey,
+                                                         final TimeIncrementUnits timeIncrementUnits,
+                                                         final long startTimeInMillis,
+                                                         final long endTimeInMillis) {
+        long bucketDurationInMillis = timeIncrementUnits.getBucketDurationMillis();
+        long openBucketsStartTime = Math.max(startTimeInMillis, Math.min(endTimeInMillis,
+                timeIncrementUnits.getBucketStart(Instant.now().toEpochMilli() - OPEN_BUCKET_WINDOW_MILLIS)));
+
+        List<Callable<List<AggregateVideoDensity>>> slices = new ArrayList<>();
+        long closedBuckets = (openBucketsStartTime - startTimeInMillis) / bucketDurationInMillis;
+        long sliceCount = Math.min(MAX_QUERY_SLICES, Math.max(1L, closedBuckets / MIN_BUCKETS_PER_SLICE));
+        long bucketsPerSlice = (closedBuckets + sliceCount - 1) / sliceCount;
+        for (long sliceStartTime = startTimeInMillis; sliceStartTime < openBucketsStartTime;
+             sliceStartTime += bucketsPerSlice * bucketDurationInMillis) {
+            long sliceEndTime = Math.min(openBucketsStartTime, sliceStartTime + bucketsPerSlice * bucketDurationInMillis);
+            slices.add(newQuerySlice(partitionKey, sliceStartTime, sliceEndTime, false));
+        }
+        if (openBucketsStartTime < endTimeInMillis) {
+            slices.add(newQuerySlice(partitionKey, openBucketsStartTime, endTimeInMillis, true));
+        }
 
-        // condition for first call to DDB
+        List<AggregateVideoDensity> aggregateVideoDensityList = new ArrayList<>();
+        try {
+            if (slices.size() == 1) {
+                return slices.get(0).call();
+            }
+            for (Future<List<AggregateVideoDensity>> slice : queryExecutor.invokeAll(slices)) {
+                aggregateVideoDensityList.addAll(slice.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(String.format(VIDEO_TIMELINE_QUERY_ERROR, partitionKey, startTimeInMillis,
+                    endTimeInMillis), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(String.format(VIDEO_TIMELINE_QUERY_ERROR, partitionKey, startTimeInMillis,
+                    endTimeInMillis), e.getCause());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(String.format(VIDEO_TIMELINE_QUERY_ERROR, partitionKey, startTimeInMillis,
+                    endTimeInMillis), e);
+        }
+        LOG.debug(() -> String.format("Read %d video timeline items in %d slices", aggregateVideoDensityList.size(),
+                slices.size()));
+        return aggregateVideoDensityList;
+    }
+
+    private Callable<List<AggregateVideoDensity>> newQuerySlice(final String partitionKey,
+                                                                 final long startTimeInMillis,
+                                                                 final long endTimeInMillis,
+                                                                 final boolean consistentRead) {
+        // BETWEEN includes the end, which is the start of the first bucket of the next slice
         QueryConditional condition = QueryConditional.sortBetween(
                 t -> t.partitionValue(partitionKey).sortValue(startTimeInMillis),
-                t -> t.partitionValue(partitionKey).sortValue(endTimeForQuery));
-
-        // paginated query list
-        PageIterable<AggregateVideoTimeline> results = this.videoTimelineTable.query(QueryEnhancedRequest.builder()
+                t -> t.partitionValue(partitionKey).sortValue(endTimeInMillis - 1));
+        QueryEnhancedRequest request = QueryEnhancedRequest.builder()
                 .queryConditional(condition)
-                .exclusiveStartKey(exclusiveStartKey)
-                .consistentRead(true)
-                .build());
-
-        Page<AggregateVideoTimeline> firstPage = results.stream().findFirst().get();
-        List<AggregateVideoTimeline> aggregateVideoTimelineList = firstPage.items();
-        int firstPageCount = firstPage.items().size();
-        Map<String, AttributeValue> lastEvaluatedKey = firstPage.lastEvaluatedKey();
-
-        if (firstPageCount > 0) {
-            // collect items of the query list in a map with key as the unit timestamp
-            // this will help us update density for existing time units for a given increment
-            Long lastTimestampInList = aggregateVideoTimelineList.get(firstPageCount - 1).getUnitTimestamp();
-            // get the end timestamp of the last period for the last timestamp to avoid returning trailing 0s as there
-            // might be more data for next periods
-            Long endPeriod = videoTimelineUtils.getNextPeriod(startTimeInMillis, timeIncrementInMillis, lastTimestampInList);
-
-            // check if last timestamp is the end of a period
-            boolean isLastTimestampMultiple = (lastTimestampInList - startTimeInMillis
-                    + videoTimelineUtils.getBucketDuration(timeIncrementUnits.getChronoUnit())) % timeIncrementInMillis == 0;
-
-            // if we get to the last timestamp, and it is not a multiple of time increment, get the next
-            // remainder values to make it a multiple of the time increment, if they exist
-            if (lastEvaluatedKey != null && !isLastTimestampMultiple) {
-                logger.log("Last timestamp was not a multiple of increment, and more timeline" +
-                        " information for last period might exist, fetching more items...");
-
-                // get next x results till the start of next period or final end time, whichever is smaller
-                // we use endTimeInMillis as LT does not include the time provided
-                long nextMultipleTimestamp = Math.min(
-                        videoTimelineUtils.getNextPeriod(startTimeInMillis, timeIncrementInMillis, lastTimestampInList),
-                        endTimeInMillis
-                );
-
-                logger.log(String.format("Fetching information for time units less than %d", nextMultipleTimestamp));
-
-                condition = QueryConditional.sortLessThan(
-                        t -> t.partitionValue(partitionKey).sortValue(nextMultipleTimestamp));
-
-                // Potential Improvement: Add filter for KVS TTL to make sure we are not returning deleted information
-                results = this.videoTimelineTable.query(QueryEnhancedRequest.builder()
-                        .queryConditional(condition)
-                        .exclusiveStartKey(lastEvaluatedKey)
-                        .consistentRead(true)
-                        .build());
-
-                Page<AggregateVideoTimeline> secondPage = results.stream().findFirst().get();
-                int secondPageCount = secondPage.items().size();
-
-                if (secondPageCount > 0) {
-                    logger.log("Found " + secondPageCount + " more timelines for the last period in this page.");
-                    aggregateVideoTimelineList.addAll(secondPage.items());
-                    AggregateVideoTimeline lastEvaluatedTimeline = secondPage.items().get(secondPageCount - 1);
-
-                    // if there is spillover, and we find more items, we will always return a last evaluated key
-                    // this means that the next page can be potentially empty
-                    lastEvaluatedKey = new HashMap<>();
-                    lastEvaluatedKey.put(SchemaConst.VIDEO_TIMELINE_PARTITION_KEY,
-                            AttributeValue.fromS(lastEvaluatedTimeline.getDeviceIdTimeUnit()));
-                    lastEvaluatedKey.put(SchemaConst.UNIT_TIMESTAMP,
-                            AttributeValue.fromN(lastEvaluatedTimeline.getUnitTimestamp().toString()));
-
-                    // adjust endPeriod to correspond to the period containing the last timestamp of this list
-                    endPeriod = videoTimelineUtils.getNextPeriod(startTimeInMillis, timeIncrementInMillis,
-                            aggregateVideoTimelineList.get(aggregateVideoTimelineList.size() - 1).getUnitTimestamp());
-                }
-            }
-
-            finalVideoTimelineList = buildVideoTimelineList(aggregateVideoTimelineList, startPeriod,
-                    endPeriod, timeIncrementInMillis);
-        }
+                .consistentRead(consistentRead)
+                .attributesToProject(AggregateVideoDensityTableSchema.ATTRIBUTE_NAMES)
+                .build();
+        return () -> {
+            List<AggregateVideoDensity> aggregateVideoDensityList = new ArrayList<>();
+            videoDensityTable.query(request).items().forEach(aggregateVideoDensityList::add);
+            return aggregateVideoDensityList;
+        };
+    }
 
-        logger.log("Returning " + finalVideoTimelineList.size() + " video timeline items.");
-        return new PaginatedListResponse<>(finalVideoTimelineList, GsonDDBNextTokenMarshaller.marshall(lastEvaluatedKey)
-        );
+    @FunctionalInterface
+    private interface VideoTimelinePageBuilder<T> {
+        T build(List<AggregateVideoDensity> aggregateVideoDensityList, Long startPeriod, Long endPeriod,
+                String nextToken);
     }
 }
@@ -36,6 +36,15 @@ public class VideoAnalyticsExceptionMessage {
             " be subtracted = %d. This is unexpected behavior, please check aggregation logic sanity.";
     public static final String NO_PARTITION_KEY_ERROR = "Partition Key cannot be null or empty! This is unexpected behavior.";
     public static final String NO_SORT_KEY_ERROR = "Sort Key cannot be null or empty! This is unexpected behavior.";
+    public static final String DENSITY_UPDATE_ERROR = "Failed to update video density for %s after %d attempts.";
+    public static final String VIDEO_TIMELINE_QUERY_ERROR = "Failed to query video timelines for %s between %d and %d.";
+    public static final String VIDEO_TIMELINE_BATCH_ERROR = "Failed to list video timelines of %d devices.";
+    public static final String COVERAGE_UPDATE_ERROR = "Failed to update video coverage for %s after %d attempts.";
+    public static final String INVALID_COVERAGE_BITMAP = "Invalid video coverage bitmap of format %d.";
+    public static final String INVALID_COMPACTED_TIMELINE = "Invalid compacted timeline for hour %d.";
+    public static final String RAW_TIMELINE_BATCH_WRITE_ERROR = "Failed to write %d raw video timelines after %d attempts.";
+    public static final String TIMELINE_EXPORT_ERROR = "Failed to export %d of %d timeline batches from S3.";
+    public static final String KDS_PUT_RECORDS_ERROR = "Failed to put %d timeline records into KDS after %d attempts.";
     public static final String RESOURCE_NOT_FOUND = "Malformed input, Guidance resource you are trying to get does not exist.";
     public static final String DIFFERENT_QUERY_FROM_ORIGINAL = "Query cannot be different from original query, expected %s, but got %s";
     public static final String INVALID_NEXT_TOKEN = "Invalid next token";
@@ -45,11 +54,14 @@ public class VideoAnalyticsExceptionMessage {
     public static final String ERROR_PARSE_EXCEPTION_MESSAGE = "Error parsing error message cause from step function: %s";
     public static final String TIMELINE_DESERIALIZATION_ERROR = "Failed to deserialize timestamp information for string %s";
     public static final String BATCH_TIMELINE_DESERIALIZATION_ERROR = "Failed to deserialize timeline information";
+    public static final String INVALID_BATCH_TIMELINE = "Timeline batch of device %s has a timestamp without a duration.";
+    public static final String INVALID_BATCH_TIMELINE_ENCODING = "Invalid encoding of timeline batch.";
     public static final String S3_OBJECT_UPLOAD_ERROR = "Error uploading object for bucket %s and key %s";
     public static final String S3_BUCKET_CREATION_ERROR = "Could not create bucket due to inability to set bucket configuration.";
     public static final String S3_BUCKET_NOT_EXIST = "Requested S3 bucket: %s does not exist in the account: %s.";
     public static final String DESERIALIZATION_ERROR = "Failed to deserialize %s object. %s";
     public static final String SERIALIZATION_ERROR = "Failed to serialize %s object. %s";
+    public static final String TIMELINE_COMPRESSION_ERROR = "Failed to compress video timelines.";
     public static final String ZIPPING_ERROR = "Error writing to zip file...";
     public static final String UNZIPPING_ERROR = "Exception when unzipping media object...";
     public static final String NOT_SUPPORT_FLATTEN_NESTED_AGGREGATION = "This aggregation is not supported yet";
@@ -62,6 +74,7 @@ public class VideoAnalyticsExceptionMessage {
     public static final String EMPTY_INCLUSIVE_PROPERTIES = "inclusiveProperties can not be empty!";
     public static final String INVALID_PROPERTY_IN_AGGREGATION = "Invalid property in aggregation: %s!";
     public static final String INVALID_MAX_INFERENCES_PER_BUCKET = "maxInferencesPerBucket must be positive and not larger than %d!";
+    public static final String INVALID_MAX_RESULTS = "maxResults must be positive and not larger than %d!";
     public static final String JOB_ID_NOT_FOUND_MESSAGE = "Job not found for id: %s";
     public static final String NO_VALID_SAMPLE = "No sample found in ACTIVE state for %s. Sample %s is in %s state";
     public static final String NO_VALID_DATASTORE = "No datastore found in ACTIVE state for %s";
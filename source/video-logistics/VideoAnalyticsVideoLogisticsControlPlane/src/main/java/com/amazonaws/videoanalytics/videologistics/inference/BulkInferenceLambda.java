@@ -1,14 +1,23 @@
 package com.amazonaws.videoanalytics.videologistics.inference;
 
 import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.INVALID_INPUT_EXCEPTION;
+import static com.amazonaws.videoanalytics.videologistics.utils.AWSVideoAnalyticsServiceLambdaConstants.THUMBNAIL_UPLOAD_EXECUTOR;
 import static com.amazonaws.videoanalytics.videologistics.utils.AWSVideoAnalyticsServiceLambdaConstants.UPLOAD_BUCKET_FORMAT;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -49,6 +58,7 @@ public class BulkInferenceLambda implements RequestHandler<KinesisEvent, Streams
     private final Region region;
     private final ThumbnailS3PresignerFactory presignerFactory;
     private final ImageUploader imageUploader;
+    private final ExecutorService uploadExecutor;
     private final String accountId;
     private final String endpoint = System.getProperty("opensearchEndpoint", System.getenv("opensearchEndpoint"));
 
@@ -62,6 +72,7 @@ public class BulkInferenceLambda implements RequestHandler<KinesisEvent, Streams
         region = component.getRegion();
         presignerFactory = component.getThumbnailS3PresignerFactory();
         imageUploader = component.getImageUploader();
+        uploadExecutor = component.getThumbnailUploadExecutor();
         accountId = component.getAccountId();
         }
 
@@ -72,7 +83,8 @@ public class BulkInferenceLambda implements RequestHandler<KinesisEvent, Streams
                                final Region region,
                                final String accountId,
                                final ThumbnailS3PresignerFactory presignerFactory,
-                               final ImageUploader imageUploader
+                               final ImageUploader imageUploader,
+                               @Named(THUMBNAIL_UPLOAD_EXECUTOR) final ExecutorService uploadExecutor
                                ) {
 
         this.openSearchClientProvider = openSearchClientProvider;
@@ -81,6 +93,7 @@ public class BulkInferenceLambda implements RequestHandler<KinesisEvent, Streams
         this.region = region;
         this.presignerFactory = presignerFactory;
         this.imageUploader = imageUploader;
+        this.uploadExecutor = uploadExecutor;
         this.accountId = accountId;
     }
 
@@ -100,30 +113,22 @@ public class BulkInferenceLambda implements RequestHandler<KinesisEvent, Streams
         // Construct partial failure info
         populateInvalidInference(inferenceRequest, itemFailures, errorMessageBuilder);
 
-        // Call Open Search API if there are any valid records from KDS
-        if (!inferenceRequest.getValidRecords().isEmpty()) {
-            // handle thumbnails
-            for (Thumbnail thumbnail: inferenceRequest.getThumbnailUploadRequests()) {
+        try {
+            // Call Open Search API if there are any valid records from KDS
+            if (!inferenceRequest.getValidRecords().isEmpty()) {
+                // Bulk index opensearch
                 try {
-                    thumbnail.upload();
+                    BulkResponse response = openSearchClient.bulkIndex(inferenceRequest.getBulkRequest());
+                    // Construct partial failure info
+                    populateOpenSearchPartialFailures(response, inferenceRequest, itemFailures, errorMessageBuilder, logger);
                 } catch (IOException e) {
-                    logger.log(String.format("Failed to upload thumbnail to path: %s due to %s. Adding to list of failures to be retried in next lambda invocation.",
-                            thumbnail.getS3UploadPath(), e.getMessage()));
-                    itemFailures.add(BatchItemFailure.builder()
-                            .withItemIdentifier(thumbnail.getSeqNumberInBatch())
-                            .build());
+                    throw new RuntimeException("bulkIndex API failed, sample partition key: "
+                        + inferenceRequest.getValidRecords().get(0).getKinesis().getPartitionKey(), e);
                 }
             }
-
-            // Bulk index opensearch
-            try {
-                BulkResponse response = openSearchClient.bulkIndex(inferenceRequest.getBulkRequest());
-                // Construct partial failure info
-                populateOpenSearchPartialFailures(response, inferenceRequest, itemFailures, errorMessageBuilder, logger);
-            } catch (IOException e) {
-                throw new RuntimeException("bulkIndex API failed, sample partition key: "
-                    + inferenceRequest.getValidRecords().get(0).getKinesis().getPartitionKey(), e);
-            }
+        } finally {
+            // uploads still in flight must not be left running once the invocation returns
+            populateThumbnailUploadFailures(inferenceRequest, itemFailures, logger);
         }
 
         if (itemFailures.isEmpty()) {
@@ -163,6 +168,40 @@ public class BulkInferenceLambda implements RequestHandler<KinesisEvent, Streams
         }
     }
 
+    /**
+     * Waits for the thumbnail uploads started while parsing the records. A record whose upload failed is reported
+     * as a failure once, so that its thumbnails are uploaded again when the record is retried.
+     */
+    private void populateThumbnailUploadFailures(
+        final InferenceRequest inferenceRequest,
+        final List<BatchItemFailure> itemFailures,
+        final LambdaLogger logger) {
+
+        Set<String> failedSequenceNumbers = new LinkedHashSet<>();
+        for (BatchItemFailure itemFailure : itemFailures) {
+            failedSequenceNumbers.add(itemFailure.getItemIdentifier());
+        }
+        for (Map.Entry<Thumbnail, Future<?>> thumbnailUpload : inferenceRequest.getThumbnailUploads().entrySet()) {
+            Thumbnail thumbnail = thumbnailUpload.getKey();
+            try {
+                thumbnailUpload.getValue().get();
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.log(String.format("Interrupted while uploading thumbnail to path: %s. Adding to list of failures to be retried in next lambda invocation.",
+                        thumbnail.getS3UploadPath()));
+            } catch (ExecutionException e) {
+                logger.log(String.format("Failed to upload thumbnail to path: %s due to %s. Adding to list of failures to be retried in next lambda invocation.",
+                        thumbnail.getS3UploadPath(), e.getCause()));
+            }
+            if (failedSequenceNumbers.add(thumbnail.getSeqNumberInBatch())) {
+                itemFailures.add(BatchItemFailure.builder()
+                        .withItemIdentifier(thumbnail.getSeqNumberInBatch())
+                        .build());
+            }
+        }
+    }
+
     private void populateOpenSearchPartialFailures(
         final BulkResponse response,
         final InferenceRequest inferenceRequest,
@@ -204,7 +243,7 @@ public class BulkInferenceLambda implements RequestHandler<KinesisEvent, Streams
         logger.log(String.format("Received %d inferences from KDS.", kinesisEventRecords.size()));
         BulkRequest bulkOpenSearchIndexRequest = new BulkRequest();
         List<KinesisEventRecord> validRecords = Lists.newArrayList();
-        List<Thumbnail> thumbnailUploadRequests = Lists.newArrayList();
+        Map<Thumbnail, Future<?>> thumbnailUploads = new LinkedHashMap<>();
 
         for (int i = 0; i < kinesisEventRecords.size(); i++) {
             KinesisEvent.Record record = kinesisEventRecords.get(i).getKinesis();
@@ -241,7 +280,11 @@ public class BulkInferenceLambda implements RequestHandler<KinesisEvent, Streams
                                 .build();
                         // inject the S3 path to thumbnails into OpenSearch document
                         inference.addThumbnailS3Path(thumbnail.getS3UploadPath());
-                        thumbnailUploadRequests.add(thumbnail);
+                        // the upload runs while the remaining records are parsed and the bulk request is sent
+                        thumbnailUploads.put(thumbnail, uploadExecutor.submit(() -> {
+                            thumbnail.upload();
+                            return null;
+                        }));
                     }
                 } else {
                     for (String thumbnailS3Path : kdsInference.getThumbnailS3Paths()) {
@@ -267,10 +310,10 @@ public class BulkInferenceLambda implements RequestHandler<KinesisEvent, Streams
                 // skip the processing of onward records
                 logger.log(String.format("Failed to parse inference for partition %s with SeqN %s: %s",
                     record.getPartitionKey(), record.getSequenceNumber(), e.getMessage()));
-                return new InferenceRequest(bulkOpenSearchIndexRequest, kinesisEventRecords, validRecords, i, thumbnailUploadRequests);
+                return new InferenceRequest(bulkOpenSearchIndexRequest, kinesisEventRecords, validRecords, i, thumbnailUploads);
             }
         }
 
-        return new InferenceRequest(bulkOpenSearchIndexRequest, kinesisEventRecords, validRecords, null, thumbnailUploadRequests);
+        return new InferenceRequest(bulkOpenSearchIndexRequest, kinesisEventRecords, validRecords, null, thumbnailUploads);
     }
 }
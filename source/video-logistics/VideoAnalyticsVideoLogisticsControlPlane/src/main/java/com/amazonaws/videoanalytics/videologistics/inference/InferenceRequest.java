@@ -4,6 +4,8 @@ import com.amazonaws.services.lambda.runtime.events.KinesisEvent.KinesisEventRec
 import org.opensearch.action.bulk.BulkRequest;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
 
 public class InferenceRequest {
     private final BulkRequest bulkRequest;
@@ -11,17 +13,18 @@ public class InferenceRequest {
     private final List<KinesisEventRecord> validRecords;
     private final Integer startOfInvalidRecords;
 
-    private final List<Thumbnail> thumbnailUploadRequests;
+    // uploads are started while the bulk request is built, in record order
+    private final Map<Thumbnail, Future<?>> thumbnailUploads;
 
     public InferenceRequest(final BulkRequest bulkRequest, final List<KinesisEventRecord> allRecords,
                             final List<KinesisEventRecord> validRecords, final Integer startOfInvalidRecords,
-                            final List<Thumbnail> thumbnailUploadRequests) {
+                            final Map<Thumbnail, Future<?>> thumbnailUploads) {
 
         this.bulkRequest = bulkRequest;
         this.allRecords = allRecords;
         this.validRecords = validRecords;
         this.startOfInvalidRecords = startOfInvalidRecords;
-        this.thumbnailUploadRequests = thumbnailUploadRequests;
+        this.thumbnailUploads = thumbnailUploads;
     }
 
     public BulkRequest getBulkRequest() {
@@ -40,7 +43,7 @@ public class InferenceRequest {
         return this.startOfInvalidRecords;
     }
 
-    public List<Thumbnail> getThumbnailUploadRequests() {
-        return this.thumbnailUploadRequests;
+    public Map<Thumbnail, Future<?>> getThumbnailUploads() {
+        return this.thumbnailUploads;
     }
 }
\ No newline at end of file
@@ -48,6 +48,22 @@ public class SchemaConst {
     public static final String TIME_INCREMENT_UNIT = "TimeIncrementUnit";
     public static final String DURATION_IN_MILLIS = "DurationInMillis";
     public static final String EXPIRATION_TIMESTAMP = "ExpirationTimestamp";
+    public static final String SEQUENCE_WATERMARK_PREFIX = "SequenceWatermark_";
+    // coverage bitmaps are kept in the video timeline table, one item per device and UTC day
+    public static final String VIDEO_COVERAGE_TIME_UNIT = "COVERAGE";
+    public static final String CLOUD_COVERAGE = "CloudCoverage";
+    public static final String DEVICE_COVERAGE = "DeviceCoverage";
+    public static final String VERSION = "Version";
+    // merged intervals of closed hours are kept in the video timeline table, one item per device and hour, next to an
+    // item per device and hour waiting to be compacted, listed through a sparse index sharded by device
+    public static final String COMPACTED_TIME_UNIT = "COMPACTED";
+    public static final String COMPACTION_QUEUE = "COMPACTION";
+    public static final String COMPACTION_QUEUE_INDEX = "CompactionQueueIndex";
+    public static final String COMPACTION_QUEUE_SHARD = "CompactionQueueShard";
+    public static final String CLOUD_INTERVALS = "CloudIntervals";
+    public static final String DEVICE_INTERVALS = "DeviceIntervals";
+    public static final String COMPACTED_AT = "CompactedAt";
+    public static final String INVALIDATED_AT = "InvalidatedAt";
     public static final String RAW_PARTITION_KEY = "rawPartitionKey";
     public static final String RAW_SORT_KEY = "rawSortKey";
     public static final long SECONDS_BUCKET_DURATION = 5L;
@@ -0,0 +1,20 @@
+package com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Densities of an aggregated video timeline bucket, as read to list video timelines. Only the sort key and the two
+ * densities of a bucket are read, see {@link com.amazonaws.videoanalytics.videologistics.schema.util.AggregateVideoDensityTableSchema}.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class AggregateVideoDensity {
+    private final long unitTimestamp;
+    private final long cloudDensityInMillis;
+    private final long deviceDensityInMillis;
+}
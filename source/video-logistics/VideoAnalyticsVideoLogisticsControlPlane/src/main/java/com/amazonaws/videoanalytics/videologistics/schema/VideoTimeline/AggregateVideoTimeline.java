@@ -13,6 +13,8 @@ import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttri
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbConvertedBy;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
 
 @DynamoDbBean
@@ -25,7 +27,9 @@ public class AggregateVideoTimeline {
     @Getter(onMethod_ = { @DynamoDbPartitionKey, @DynamoDbAttribute(SchemaConst.VIDEO_TIMELINE_PARTITION_KEY) })
     private String deviceIdTimeUnit;
 
-    @Getter(onMethod_ = { @DynamoDbSortKey, @DynamoDbAttribute(SchemaConst.UNIT_TIMESTAMP) })
+    @Getter(onMethod_ = { @DynamoDbSortKey,
+            @DynamoDbSecondarySortKey(indexNames = SchemaConst.COMPACTION_QUEUE_INDEX),
+            @DynamoDbAttribute(SchemaConst.UNIT_TIMESTAMP) })
     private Long unitTimestamp;
 
     @Getter(onMethod_ = { @DynamoDbAttribute(SchemaConst.TIME_INCREMENT_UNIT) })
@@ -50,4 +54,9 @@ public class AggregateVideoTimeline {
 
     @Getter(onMethod_ = { @DynamoDbAttribute(SchemaConst.LAST_UPDATED), @DynamoDbConvertedBy(DateAttributeConverter.class) })
     private Date lastUpdated;
+
+    // only set on the compaction queue items, which makes the index sparse
+    @Getter(onMethod_ = { @DynamoDbSecondaryPartitionKey(indexNames = SchemaConst.COMPACTION_QUEUE_INDEX),
+            @DynamoDbAttribute(SchemaConst.COMPACTION_QUEUE_SHARD) })
+    private String compactionQueueShard;
 }
@@ -0,0 +1,16 @@
+package com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline;
+
+import com.amazonaws.videoanalytics.videologistics.ColumnarVideoTimelines;
+import lombok.Getter;
+
+@Getter
+public class ColumnarTimelinePaginatedResponse {
+    private final ColumnarVideoTimelines columnarVideoTimelines;
+    private final String nextToken;
+
+    public ColumnarTimelinePaginatedResponse(final ColumnarVideoTimelines columnarVideoTimelines,
+                                             final String nextToken) {
+        this.columnarVideoTimelines = columnarVideoTimelines;
+        this.nextToken = nextToken;
+    }
+}
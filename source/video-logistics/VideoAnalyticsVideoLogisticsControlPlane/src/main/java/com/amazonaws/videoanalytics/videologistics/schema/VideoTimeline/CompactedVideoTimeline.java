@@ -0,0 +1,40 @@
+package com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline;
+
+import com.amazonaws.videoanalytics.videologistics.Timeline;
+import com.google.common.collect.ImmutableList;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Merged CLOUD and DEVICE intervals of a device for one closed UTC hour, clipped to the hour. Raw timelines arriving
+ * for the hour after it was compacted invalidate it until it is compacted again.
+ */
+@Getter
+public class CompactedVideoTimeline {
+    private final String deviceId;
+    private final long hourStartTime;
+    private final ImmutableList<Timeline> cloudTimeline;
+    private final ImmutableList<Timeline> deviceTimeline;
+    // epoch millis, null if the hour was never compacted or invalidated
+    private final Long compactedAt;
+    private final Long invalidatedAt;
+
+    public CompactedVideoTimeline(final String deviceId, final long hourStartTime, final List<Timeline> cloudTimeline,
+                                  final List<Timeline> deviceTimeline, final Long compactedAt,
+                                  final Long invalidatedAt) {
+        this.deviceId = deviceId;
+        this.hourStartTime = hourStartTime;
+        this.cloudTimeline = ImmutableList.copyOf(cloudTimeline);
+        this.deviceTimeline = ImmutableList.copyOf(deviceTimeline);
+        this.compactedAt = compactedAt;
+        this.invalidatedAt = invalidatedAt;
+    }
+
+    /**
+     * An hour can be read from its compacted intervals if it was compacted after it was last invalidated
+     */
+    public boolean isValid() {
+        return compactedAt != null && (invalidatedAt == null || invalidatedAt < compactedAt);
+    }
+}
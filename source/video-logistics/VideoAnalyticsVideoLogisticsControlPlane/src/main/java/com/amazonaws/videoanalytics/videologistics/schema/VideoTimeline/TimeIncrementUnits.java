@@ -6,20 +6,40 @@ import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 public enum TimeIncrementUnits {
-    SECONDS(ChronoUnit.SECONDS),
-    MINUTES(ChronoUnit.MINUTES),
-    HOURS(ChronoUnit.HOURS),
-    DAYS(ChronoUnit.DAYS);
+    // SECONDS buckets are 5s, a reasonable next unit greater than the pre-configured 4s fragment
+    SECONDS(ChronoUnit.SECONDS, 5_000L),
+    MINUTES(ChronoUnit.MINUTES, 60_000L),
+    HOURS(ChronoUnit.HOURS, 3_600_000L),
+    DAYS(ChronoUnit.DAYS, 86_400_000L);
 
     private final ChronoUnit chronoUnit;
+    private final long bucketDurationMillis;
 
-    TimeIncrementUnits(ChronoUnit chronoUnit) {
+    TimeIncrementUnits(ChronoUnit chronoUnit, long bucketDurationMillis) {
         this.chronoUnit = chronoUnit;
+        this.bucketDurationMillis = bucketDurationMillis;
     }
 
     public ChronoUnit getChronoUnit() {
-        return ChronoUnit.valueOf(chronoUnit.name());
+        return chronoUnit;
+    }
+
+    /**
+     * Returns the length of a bucket of this unit in milliseconds
+     */
+    public long getBucketDurationMillis() {
+        return bucketDurationMillis;
+    }
+
+    /**
+     * Returns the start of the bucket of this unit containing the given time. Every unit divides a UTC day evenly,
+     * so this is the same as truncating the instant to the unit.
+     * @param epochMillis time in epoch milliseconds
+     * @return bucket start in epoch milliseconds
+     */
+    public long getBucketStart(long epochMillis) {
+        return Math.floorDiv(epochMillis, bucketDurationMillis) * bucketDurationMillis;
     }
 
     public static final List<TimeIncrementUnits> TIME_INCREMENT_UNITS_LIST = ImmutableList.of(SECONDS, MINUTES, HOURS, DAYS);
-}
\ No newline at end of file
+}
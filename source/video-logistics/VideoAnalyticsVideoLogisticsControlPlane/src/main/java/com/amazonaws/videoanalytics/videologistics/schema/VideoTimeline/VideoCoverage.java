@@ -0,0 +1,127 @@
+package com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline;
+
+import com.amazonaws.videoanalytics.videologistics.Timeline;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static com.amazonaws.videoanalytics.videologistics.timeline.VideoCoverageBitmapCodec.SECONDS_PER_DAY;
+
+/**
+ * Seconds of a UTC day for which a device has video in the cloud and on the device. A second counts as recorded if
+ * any part of it is. Queries are answered from the bitmaps in memory and are limited to the day.
+ */
+@Getter
+@SuppressFBWarnings
+public class VideoCoverage {
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private final String deviceId;
+    private final long dayStartTime;
+    private final BitSet cloudCoverage;
+    private final BitSet deviceCoverage;
+    // incremented by every update, 0 if the day has no coverage item yet
+    private final long version;
+
+    public VideoCoverage(final String deviceId, final long dayStartTime, final BitSet cloudCoverage,
+                         final BitSet deviceCoverage, final long version) {
+        this.deviceId = deviceId;
+        this.dayStartTime = dayStartTime;
+        this.cloudCoverage = cloudCoverage;
+        this.deviceCoverage = deviceCoverage;
+        this.version = version;
+    }
+
+    public static VideoCoverage empty(final String deviceId, final long dayStartTime) {
+        return new VideoCoverage(deviceId, dayStartTime, new BitSet(SECONDS_PER_DAY), new BitSet(SECONDS_PER_DAY), 0L);
+    }
+
+    /**
+     * Seconds with video in either location
+     */
+    public BitSet getCoverage() {
+        BitSet coverage = (BitSet) cloudCoverage.clone();
+        coverage.or(deviceCoverage);
+        return coverage;
+    }
+
+    public BitSet getCoverage(final VideoDensityLocation location) {
+        return location == VideoDensityLocation.CLOUD ? cloudCoverage : deviceCoverage;
+    }
+
+    public boolean isRecordedAt(final long timestampInMillis) {
+        long second = toSecondOfDay(timestampInMillis);
+        return second >= 0 && second < SECONDS_PER_DAY
+                && (cloudCoverage.get((int) second) || deviceCoverage.get((int) second));
+    }
+
+    public long getRecordedMillis(final long startTimeInMillis, final long endTimeInMillis) {
+        BitSet coverage = getCoverage();
+        int startSecond = toStartSecond(startTimeInMillis);
+        int endSecond = toEndSecond(endTimeInMillis);
+        if (startSecond >= endSecond) {
+            return 0L;
+        }
+        return coverage.get(startSecond, endSecond).cardinality() * MILLIS_PER_SECOND;
+    }
+
+    /**
+     * Percentage of the seconds between start and end time (within this day) that have video in either location
+     */
+    public float getRecordedPercentage(final long startTimeInMillis, final long endTimeInMillis) {
+        int startSecond = toStartSecond(startTimeInMillis);
+        int endSecond = toEndSecond(endTimeInMillis);
+        if (startSecond >= endSecond) {
+            return 0F;
+        }
+        return 100F * getRecordedMillis(startTimeInMillis, endTimeInMillis)
+                / ((endSecond - startSecond) * MILLIS_PER_SECOND);
+    }
+
+    /**
+     * Intervals between start and end time (within this day) without video in either location, in epoch millis
+     */
+    public List<Timeline> getGaps(final long startTimeInMillis, final long endTimeInMillis) {
+        BitSet coverage = getCoverage();
+        int endSecond = toEndSecond(endTimeInMillis);
+        List<Timeline> gaps = new ArrayList<>();
+        int second = toStartSecond(startTimeInMillis);
+        while (second < endSecond) {
+            int gapStart = coverage.nextClearBit(second);
+            if (gapStart >= endSecond) {
+                break;
+            }
+            int gapEnd = Math.min(endSecond, nextSetBit(coverage, gapStart));
+            gaps.add(Timeline.builder()
+                    .startTime((double) toTimestamp(gapStart))
+                    .endTime((double) toTimestamp(gapEnd))
+                    .build());
+            second = gapEnd;
+        }
+        return gaps;
+    }
+
+    private static int nextSetBit(final BitSet coverage, final int fromSecond) {
+        int nextSetBit = coverage.nextSetBit(fromSecond);
+        return nextSetBit < 0 ? SECONDS_PER_DAY : nextSetBit;
+    }
+
+    private long toSecondOfDay(final long timestampInMillis) {
+        return Math.floorDiv(timestampInMillis - dayStartTime, MILLIS_PER_SECOND);
+    }
+
+    private int toStartSecond(final long startTimeInMillis) {
+        return (int) Math.max(0, Math.min(SECONDS_PER_DAY, toSecondOfDay(startTimeInMillis)));
+    }
+
+    private int toEndSecond(final long endTimeInMillis) {
+        long endSecond = Math.floorDiv(endTimeInMillis - dayStartTime + MILLIS_PER_SECOND - 1, MILLIS_PER_SECOND);
+        return (int) Math.max(0, Math.min(SECONDS_PER_DAY, endSecond));
+    }
+
+    private long toTimestamp(final int second) {
+        return dayStartTime + second * MILLIS_PER_SECOND;
+    }
+}
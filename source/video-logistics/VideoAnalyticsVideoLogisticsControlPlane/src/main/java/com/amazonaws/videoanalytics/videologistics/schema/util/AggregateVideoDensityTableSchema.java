@@ -0,0 +1,95 @@
+package com.amazonaws.videoanalytics.videologistics.schema.util;
+
+import com.amazonaws.videoanalytics.videologistics.schema.SchemaConst;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoDensity;
+import software.amazon.awssdk.enhanced.dynamodb.AttributeValueType;
+import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
+import software.amazon.awssdk.enhanced.dynamodb.TableMetadata;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableMetadata;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the items of the video timeline table to {@link AggregateVideoDensity} by hand, parsing the numbers straight
+ * into primitives. Unlike the bean schema of AggregateVideoTimeline there is no introspection of getters, no boxing
+ * through attribute converters and no parsing of the CreatedAt and LastUpdated dates. Queries are expected to project
+ * {@link #ATTRIBUTE_NAMES}; a density missing from an item is read as 0.
+ */
+public class AggregateVideoDensityTableSchema implements TableSchema<AggregateVideoDensity> {
+    public static final List<String> ATTRIBUTE_NAMES = List.of(SchemaConst.UNIT_TIMESTAMP,
+            SchemaConst.CLOUD_DENSITY_IN_MILLIS, SchemaConst.DEVICE_DENSITY_IN_MILLIS);
+    private static final TableMetadata TABLE_METADATA = StaticTableMetadata.builder()
+            .addIndexPartitionKey(TableMetadata.primaryIndexName(), SchemaConst.VIDEO_TIMELINE_PARTITION_KEY,
+                    AttributeValueType.S)
+            .addIndexSortKey(TableMetadata.primaryIndexName(), SchemaConst.UNIT_TIMESTAMP, AttributeValueType.N)
+            .build();
+
+    @Override
+    public AggregateVideoDensity mapToItem(final Map<String, AttributeValue> attributeMap) {
+        return new AggregateVideoDensity(
+                getLong(attributeMap, SchemaConst.UNIT_TIMESTAMP),
+                getLong(attributeMap, SchemaConst.CLOUD_DENSITY_IN_MILLIS),
+                getLong(attributeMap, SchemaConst.DEVICE_DENSITY_IN_MILLIS));
+    }
+
+    @Override
+    public Map<String, AttributeValue> itemToMap(final AggregateVideoDensity item, final boolean ignoreNulls) {
+        return itemToMap(item, ATTRIBUTE_NAMES);
+    }
+
+    @Override
+    public Map<String, AttributeValue> itemToMap(final AggregateVideoDensity item, final Collection<String> attributes) {
+        Map<String, AttributeValue> attributeMap = new HashMap<>();
+        for (String attributeName : attributes) {
+            AttributeValue attributeValue = attributeValue(item, attributeName);
+            if (attributeValue != null) {
+                attributeMap.put(attributeName, attributeValue);
+            }
+        }
+        return attributeMap;
+    }
+
+    @Override
+    public AttributeValue attributeValue(final AggregateVideoDensity item, final String attributeName) {
+        switch (attributeName) {
+            case SchemaConst.UNIT_TIMESTAMP:
+                return AttributeValue.fromN(Long.toString(item.getUnitTimestamp()));
+            case SchemaConst.CLOUD_DENSITY_IN_MILLIS:
+                return AttributeValue.fromN(Long.toString(item.getCloudDensityInMillis()));
+            case SchemaConst.DEVICE_DENSITY_IN_MILLIS:
+                return AttributeValue.fromN(Long.toString(item.getDeviceDensityInMillis()));
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public TableMetadata tableMetadata() {
+        return TABLE_METADATA;
+    }
+
+    @Override
+    public EnhancedType<AggregateVideoDensity> itemType() {
+        return EnhancedType.of(AggregateVideoDensity.class);
+    }
+
+    @Override
+    public List<String> attributeNames() {
+        return ATTRIBUTE_NAMES;
+    }
+
+    @Override
+    public boolean isAbstract() {
+        return false;
+    }
+
+    private static long getLong(final Map<String, AttributeValue> attributeMap, final String attributeName) {
+        AttributeValue attributeValue = attributeMap.get(attributeName);
+        return attributeValue == null || attributeValue.n() == null ? 0L : Long.parseLong(attributeValue.n());
+    }
+}
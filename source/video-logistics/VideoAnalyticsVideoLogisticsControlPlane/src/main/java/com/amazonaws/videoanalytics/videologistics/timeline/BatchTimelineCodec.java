@@ -0,0 +1,158 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.INVALID_BATCH_TIMELINE;
+import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.INVALID_BATCH_TIMELINE_ENCODING;
+
+/**
+ * Binary format of the timeline batches stored in S3. After a magic byte and the format version, the header holds the
+ * customer id, device id and location as varint length prefixed UTF-8, where a length of 0 is null and every other
+ * length is one more than the byte count. It is followed by the varint number of timestamps, then every timestamp and
+ * duration as the zigzag varint difference to the previous one, eg. a fragment every 2s of 2s each takes 3 bytes. The
+ * magic byte is a UTF-8 continuation byte, which no JSON document starts with.
+ */
+public final class BatchTimelineCodec {
+    static final byte MAGIC = (byte) 0xB7;
+    static final byte DELTA_FORMAT = 1;
+
+    private BatchTimelineCodec() {
+    }
+
+    public static boolean isEncoded(final byte[] encoded) {
+        return encoded != null && encoded.length > 0 && encoded[0] == MAGIC;
+    }
+
+    public static byte[] encode(final BatchTimeline batchTimeline) {
+        List<TimestampInfo> timestamps = batchTimeline.getTimestamps();
+        long[] timestampInfos = new long[2 * timestamps.size()];
+        for (int i = 0; i < timestamps.size(); i++) {
+            TimestampInfo timestampInfo = timestamps.get(i);
+            if (timestampInfo.getTimestamp() == null || timestampInfo.getDuration() == null) {
+                throw new IllegalArgumentException(String.format(INVALID_BATCH_TIMELINE, batchTimeline.getDeviceId()));
+            }
+            timestampInfos[2 * i] = timestampInfo.getTimestamp();
+            timestampInfos[2 * i + 1] = timestampInfo.getDuration();
+        }
+        return encode(batchTimeline.getCustomerId(), batchTimeline.getDeviceId(), batchTimeline.getLocation(),
+                timestampInfos);
+    }
+
+    /**
+     * Encodes a batch from the timestamps and durations as read by {@link TimestampListDeserializer#deserializeToArray}
+     * @param timestampInfos timestamps and durations, interleaved
+     */
+    public static byte[] encode(final String customerId, final String deviceId, final String location,
+                                final long[] timestampInfos) {
+        int count = timestampInfos.length / 2;
+        // about 3 bytes per fragment of a continuous recording
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + 4 * count);
+        out.write(MAGIC);
+        out.write(DELTA_FORMAT);
+        writeString(out, customerId);
+        writeString(out, deviceId);
+        writeString(out, location);
+        writeVarLong(out, count);
+        long previousTimestamp = 0;
+        long previousDuration = 0;
+        for (int i = 0; i < 2 * count; i += 2) {
+            long timestamp = timestampInfos[i];
+            long duration = timestampInfos[i + 1];
+            writeVarLong(out, zigzag(timestamp - previousTimestamp));
+            writeVarLong(out, zigzag(duration - previousDuration));
+            previousTimestamp = timestamp;
+            previousDuration = duration;
+        }
+        return out.toByteArray();
+    }
+
+    public static BatchTimeline decode(final byte[] encoded) {
+        if (!isEncoded(encoded) || encoded.length < 2 || encoded[1] != DELTA_FORMAT) {
+            throw new IllegalArgumentException(INVALID_BATCH_TIMELINE_ENCODING);
+        }
+        int[] position = {2};
+        String customerId = readString(encoded, position);
+        String deviceId = readString(encoded, position);
+        String location = readString(encoded, position);
+        long count = readVarLong(encoded, position);
+        // every timestamp takes at least two bytes, which bounds the list before it is allocated
+        if (count < 0 || count > (encoded.length - position[0]) / 2) {
+            throw new IllegalArgumentException(INVALID_BATCH_TIMELINE_ENCODING);
+        }
+        List<TimestampInfo> timestamps = new ArrayList<>((int) count);
+        long timestamp = 0;
+        long duration = 0;
+        for (int i = 0; i < count; i++) {
+            timestamp += unzigzag(readVarLong(encoded, position));
+            duration += unzigzag(readVarLong(encoded, position));
+            timestamps.add(new TimestampInfo(timestamp, duration));
+        }
+        if (position[0] != encoded.length) {
+            throw new IllegalArgumentException(INVALID_BATCH_TIMELINE_ENCODING);
+        }
+        return BatchTimeline.builder()
+                .customerId(customerId)
+                .deviceId(deviceId)
+                .location(location)
+                .timestamps(timestamps)
+                .build();
+    }
+
+    private static void writeString(final ByteArrayOutputStream out, final String value) {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(final byte[] encoded, final int[] position) {
+        long length = readVarLong(encoded, position);
+        if (length == 0) {
+            return null;
+        }
+        if (length < 0 || length - 1 > encoded.length - position[0]) {
+            throw new IllegalArgumentException(INVALID_BATCH_TIMELINE_ENCODING);
+        }
+        String value = new String(encoded, position[0], (int) (length - 1), StandardCharsets.UTF_8);
+        position[0] += (int) (length - 1);
+        return value;
+    }
+
+    static long zigzag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeVarLong(final ByteArrayOutputStream out, final long value) {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            out.write((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        out.write((int) remaining);
+    }
+
+    static long readVarLong(final byte[] encoded, final int[] position) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position[0] >= encoded.length) {
+                break;
+            }
+            byte b = encoded[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException(INVALID_BATCH_TIMELINE_ENCODING);
+    }
+}
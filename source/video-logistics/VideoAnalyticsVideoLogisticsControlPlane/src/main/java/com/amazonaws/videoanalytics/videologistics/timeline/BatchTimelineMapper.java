@@ -1,7 +1,6 @@
 package com.amazonaws.videoanalytics.videologistics.timeline;
 
 import com.amazonaws.videoanalytics.videologistics.ValidationExceptionResponseContent;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import javax.inject.Inject;
@@ -16,24 +15,45 @@ public class BatchTimelineMapper {
         this.objectMapper = objectMapper;
     }
 
+    /**
+     * Maps a batch timeline stored in S3 back to an object. Batches written before {@link BatchTimelineCodec} are
+     * JSON, and are still read until they have been exported.
+     * @throws IOException if the batch cannot be decoded
+     */
     public BatchTimeline deserialize(final byte[] batchTimeline) throws IOException {
+        if (BatchTimelineCodec.isEncoded(batchTimeline)) {
+            try {
+                return BatchTimelineCodec.decode(batchTimeline);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(BATCH_TIMELINE_DESERIALIZATION_ERROR, e);
+            }
+        }
         return objectMapper.readValue(batchTimeline, BatchTimeline.class);
     }
 
     /**
      * Maps batch timeline object to a byte array
      * @param batchTimeline batch timeline object to be serialized
-     * @return byte array representation of batch timeline
+     * @return byte array representation of batch timeline, see {@link BatchTimelineCodec}
      * @throws RuntimeException if serialization fails
      */
     public byte[] serialize(final BatchTimeline batchTimeline) {
         try {
-            return objectMapper.writeValueAsBytes(batchTimeline);
-        } catch (JsonProcessingException e) {
+            return BatchTimelineCodec.encode(batchTimeline);
+        } catch (IllegalArgumentException e) {
             ValidationExceptionResponseContent exception = ValidationExceptionResponseContent.builder()
                 .message(BATCH_TIMELINE_DESERIALIZATION_ERROR)
                 .build();
             throw new RuntimeException(exception.getMessage(), e);
         }
     }
+
+    /**
+     * Maps the timestamps of a device to a batch timeline byte array, without building the batch timeline object
+     * @param timestampInfos timestamps and durations, interleaved
+     * @return byte array representation of batch timeline, see {@link BatchTimelineCodec}
+     */
+    public byte[] serialize(final String deviceId, final String location, final long[] timestampInfos) {
+        return BatchTimelineCodec.encode(null, deviceId, location, timestampInfos);
+    }
 }
\ No newline at end of file
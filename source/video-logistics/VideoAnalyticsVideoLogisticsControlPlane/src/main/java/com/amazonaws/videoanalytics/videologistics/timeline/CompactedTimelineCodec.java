@@ -0,0 +1,66 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.videoanalytics.videologistics.Timeline;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.INVALID_COMPACTED_TIMELINE;
+import static com.amazonaws.videoanalytics.videologistics.timeline.VideoCoverageBitmapCodec.readVarint;
+import static com.amazonaws.videoanalytics.videologistics.timeline.VideoCoverageBitmapCodec.writeVarint;
+
+/**
+ * Compresses the merged intervals of one hour for storage. Intervals are sorted and disjoint, so each one is stored as
+ * the varint gap since the end of the previous one (or the start of the hour) followed by its varint length, both in
+ * millis, eg. an hour recorded from 01:00:00.250 to 01:30:00 is [250, 1799750]. An hour of continuous video takes 6
+ * bytes.
+ */
+public final class CompactedTimelineCodec {
+    public static final long MILLIS_PER_HOUR = 60 * 60 * 1000L;
+    private static final byte DELTA_FORMAT = 0;
+
+    private CompactedTimelineCodec() {
+    }
+
+    /**
+     * @param intervals sorted, disjoint intervals within the hour, in epoch millis
+     */
+    public static byte[] encode(final List<Timeline> intervals, final long hourStartTime) {
+        ByteArrayOutputStream deltas = new ByteArrayOutputStream();
+        deltas.write(DELTA_FORMAT);
+        long previousEndTime = hourStartTime;
+        for (Timeline interval : intervals) {
+            long startTime = interval.getStartTime().longValue();
+            long endTime = interval.getEndTime().longValue();
+            if (startTime < previousEndTime || endTime < startTime || endTime > hourStartTime + MILLIS_PER_HOUR) {
+                throw new IllegalArgumentException(String.format(INVALID_COMPACTED_TIMELINE, hourStartTime));
+            }
+            writeVarint(deltas, (int) (startTime - previousEndTime));
+            writeVarint(deltas, (int) (endTime - startTime));
+            previousEndTime = endTime;
+        }
+        return deltas.toByteArray();
+    }
+
+    public static List<Timeline> decode(final byte[] encoded, final long hourStartTime) {
+        List<Timeline> intervals = new ArrayList<>();
+        if (encoded == null || encoded.length == 0) {
+            return intervals;
+        }
+        if (encoded[0] != DELTA_FORMAT) {
+            throw new IllegalArgumentException(String.format(INVALID_COMPACTED_TIMELINE, hourStartTime));
+        }
+        int[] position = {1};
+        long endTime = hourStartTime;
+        while (position[0] < encoded.length) {
+            long startTime = endTime + readVarint(encoded, position);
+            endTime = startTime + readVarint(encoded, position);
+            intervals.add(Timeline.builder()
+                    .startTime((double) startTime)
+                    .endTime((double) endTime)
+                    .build());
+        }
+        return intervals;
+    }
+}
@@ -1,98 +1,372 @@
 package com.amazonaws.videoanalytics.videologistics.timeline;
 
 import com.amazonaws.videoanalytics.videologistics.Timeline;
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.CompactedVideoTimelineDAO;
 import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.RawVideoTimelineDAO;
+import com.amazonaws.videoanalytics.videologistics.schema.SchemaConst;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.CompactedVideoTimeline;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.PaginatedListResponse;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.RawVideoTimeline;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.DetailedTimelinePaginatedResponse;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoDensityLocation;
+import com.amazonaws.videoanalytics.videologistics.utils.GsonDDBNextTokenMarshaller;
+import com.google.common.base.Strings;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
 import javax.inject.Inject;
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import static com.amazonaws.videoanalytics.videologistics.timeline.CompactedTimelineCodec.MILLIS_PER_HOUR;
+
+/**
+ * Builds the detailed timeline of a device from its raw timelines. Closed hours that were compacted are read from
+ * their merged intervals instead, so that raw timelines only need to be read for the still open hour and for hours
+ * that are not (or no longer) compacted. Pages hold a number of merged intervals rather than of raw timelines, and
+ * resume from the time the previous page stopped at. A page also stops after a number of raw pages, as continuous
+ * recording merges into a single interval however many raw timelines are read.
+ */
 public class DetailedVideoTimelineGenerator {
     private static final Logger LOG = LogManager.getLogger(DetailedVideoTimelineGenerator.class);
 
     private final RawVideoTimelineDAO rawVideoTimelineDAO;
-    // Max fragment duration allowed by KVS is 20s. This helps us determine how far to look back in time to get accurate
-    // detailed timeline information.
-    public static final Long MAX_KVS_FRAGMENT_DURATION_BUFFER = 20*1000L;
+    private final CompactedVideoTimelineDAO compactedVideoTimelineDAO;
+    // Max fragment duration allowed by KVS is 20s, and CLOUD fragments are coalesced into raw timelines of up to 60s.
+    // This helps us determine how far to look back in time to get accurate detailed timeline information.
+    public static final Long MAX_KVS_FRAGMENT_DURATION_BUFFER = RawVideoTimelineDAO.MAX_RAW_TIMELINE_DURATION_MILLIS;
+    public static final int DEFAULT_MAX_RESULTS = 100;
+    // a raw page is up to 1MB, reading this many keeps a response well within the 29s API Gateway timeout
+    public static final int MAX_RAW_PAGES_PER_RESPONSE = 10;
+    // the next token carries the intervals that were still open when the page stopped, per location
+    private static final String OPEN_INTERVAL_START_TIME = "OpenIntervalStartTime_";
+    private static final String OPEN_INTERVAL_END_TIME = "OpenIntervalEndTime_";
 
     @Inject
-    public DetailedVideoTimelineGenerator(final RawVideoTimelineDAO rawVideoTimelineDAO) {
+    public DetailedVideoTimelineGenerator(final RawVideoTimelineDAO rawVideoTimelineDAO,
+                                          final CompactedVideoTimelineDAO compactedVideoTimelineDAO) {
         this.rawVideoTimelineDAO = rawVideoTimelineDAO;
+        this.compactedVideoTimelineDAO = compactedVideoTimelineDAO;
     }
 
     public DetailedTimelinePaginatedResponse getDetailedVideoTimeLine(String deviceId,
                                                                     Long startTimeInMillis,
                                                                     Long endTimeInMillis,
                                                                     String nextToken) {
-        // Remove MAX_KVS_FRAGMENT_DURATION from start time in order to look back to fragments that might have overlap
-        // with query range
-        Long startTimeWithBuffer = startTimeInMillis - MAX_KVS_FRAGMENT_DURATION_BUFFER;
-        PaginatedListResponse<RawVideoTimeline> paginatedListTimelineResponse =
-                rawVideoTimelineDAO.listRawVideoTimelines(deviceId, startTimeWithBuffer, endTimeInMillis, nextToken);
-
-        List<RawVideoTimeline> rawVideoTimelineList = paginatedListTimelineResponse.getResults();
-        List<Timeline> cloudTimelineList = new ArrayList<>();
-        List<Timeline> deviceTimelineList = new ArrayList<>();
-
-        for (RawVideoTimeline rawVideoTimeline : rawVideoTimelineList) {
-            long startTime = rawVideoTimeline.getTimestamp();
-            long endTime = startTime + rawVideoTimeline.getDurationInMillis() > endTimeInMillis ?
-                    endTimeInMillis : startTime + rawVideoTimeline.getDurationInMillis();
-            
-            // only include timestamps in the list for which end time is greater than start time
-            if (endTime > startTimeInMillis) {
-                // if start time of a timeline object is smaller than query start time, adjust it
-                if (startTime < startTimeInMillis) {
-                    startTime = startTimeInMillis;
-                }
-                
-                Timeline timeline = Timeline.builder()
-                        .startTime(Double.valueOf(startTime))
-                        .endTime(Double.valueOf(endTime))
-                        .build();
-
-                List<Timeline> targetList = VideoDensityLocation.CLOUD.equals(rawVideoTimeline.getLocation()) ?
-                        cloudTimelineList : deviceTimelineList;
-
-                // check to see if the timestamps are adjacent
-                boolean doStitchTimeline = !targetList.isEmpty() &&
-                        timestampsAreAdjacent(targetList.get(targetList.size() - 1).getEndTime().longValue(), startTime);
-
-                if (doStitchTimeline) {
-                    targetList.get(targetList.size() - 1).setEndTime(Double.valueOf(endTime));
-                } else {
-                    targetList.add(timeline);
+        return getDetailedVideoTimeLine(deviceId, startTimeInMillis, endTimeInMillis, nextToken, DEFAULT_MAX_RESULTS);
+    }
+
+    /**
+     * Returns up to maxResults merged intervals of the range, the page may hold one more interval when the only one
+     * that could be returned is still open. The next token holds the time to resume from and the open intervals, so
+     * that intervals are stitched across pages the same way as within a page.
+     */
+    public DetailedTimelinePaginatedResponse getDetailedVideoTimeLine(String deviceId,
+                                                                    Long startTimeInMillis,
+                                                                    Long endTimeInMillis,
+                                                                    String nextToken,
+                                                                    Integer maxResults) {
+        DetailedTimelinePage page = new DetailedTimelinePage(maxResults == null ? DEFAULT_MAX_RESULTS : maxResults,
+                MAX_RAW_PAGES_PER_RESPONSE);
+        long resumeTime = startTimeInMillis;
+        if (!Strings.isNullOrEmpty(nextToken)) {
+            resumeTime = Math.max(startTimeInMillis, page.resume(GsonDDBNextTokenMarshaller.unmarshall(nextToken)));
+        }
+        Map<Long, CompactedVideoTimeline> compactedHours = listCompactedHours(deviceId, resumeTime, endTimeInMillis);
+
+        long segmentStartTime = resumeTime;
+        while (segmentStartTime < endTimeInMillis) {
+            long hourStartTime = toHourStartTime(segmentStartTime);
+            CompactedVideoTimeline compactedVideoTimeline = compactedHours.get(hourStartTime);
+            long segmentEndTime = hourStartTime + MILLIS_PER_HOUR;
+            if (compactedVideoTimeline == null) {
+                // consecutive hours that are not compacted are read with a single query
+                while (segmentEndTime < endTimeInMillis && !compactedHours.containsKey(segmentEndTime)) {
+                    segmentEndTime += MILLIS_PER_HOUR;
                 }
             }
+            segmentEndTime = Math.min(segmentEndTime, endTimeInMillis);
+
+            boolean pageFull;
+            if (compactedVideoTimeline != null) {
+                pageFull = !addCompactedTimelines(page, compactedVideoTimeline, segmentStartTime, segmentEndTime);
+            } else {
+                pageFull = !addRawVideoTimelines(deviceId, segmentStartTime, segmentEndTime,
+                        segmentEndTime == endTimeInMillis, false, page);
+            }
+            if (pageFull) {
+                return page.toResponse();
+            }
+            segmentStartTime = segmentEndTime;
         }
+        return page.toResponse();
+    }
+
+    /**
+     * Merges the raw timelines of a closed hour into intervals clipped to the hour, reading all pages. Raw timelines are
+     * read consistently, as one written before compactedAt but missed by the read could have its invalidation land
+     * before compactedAt too, which would leave the compacted hour valid without it.
+     * @return compacted timeline, with compactedAt set to the time before the raw timelines were read
+     */
+    public CompactedVideoTimeline compact(final String deviceId, final long hourStartTime) {
+        long compactedAt = Instant.now().toEpochMilli();
+        DetailedTimelinePage page = new DetailedTimelinePage(Integer.MAX_VALUE, Integer.MAX_VALUE);
+        addRawVideoTimelines(deviceId, hourStartTime, hourStartTime + MILLIS_PER_HOUR, false, true, page);
+        LOG.info(String.format("Compacted hour %d of %s into %d CLOUD and %d DEVICE intervals", hourStartTime,
+                deviceId, page.cloudTimelineList.size(), page.deviceTimelineList.size()));
+        return new CompactedVideoTimeline(deviceId, hourStartTime, page.cloudTimelineList, page.deviceTimelineList,
+                compactedAt, null);
+    }
+
+    /**
+     * Returns the valid compacted hours of the range by hour start time. The still open hour is never compacted, so it
+     * is not looked up.
+     */
+    private Map<Long, CompactedVideoTimeline> listCompactedHours(final String deviceId, final long startTimeInMillis,
+                                                                 final long endTimeInMillis) {
+        Map<Long, CompactedVideoTimeline> compactedHours = new HashMap<>();
+        long firstHourStartTime = toHourStartTime(startTimeInMillis);
+        long lastHourStartTime = Math.min(toHourStartTime(endTimeInMillis - 1),
+                toHourStartTime(Instant.now().toEpochMilli()) - MILLIS_PER_HOUR);
+        if (endTimeInMillis <= startTimeInMillis || lastHourStartTime < firstHourStartTime) {
+            return compactedHours;
+        }
+        for (CompactedVideoTimeline compactedVideoTimeline : compactedVideoTimelineDAO.listCompactedVideoTimelines(
+                deviceId, firstHourStartTime, lastHourStartTime)) {
+            if (compactedVideoTimeline.isValid()) {
+                compactedHours.put(compactedVideoTimeline.getHourStartTime(), compactedVideoTimeline);
+            }
+        }
+        LOG.info(String.format("Found %d compacted hours for %s", compactedHours.size(), deviceId));
+        return compactedHours;
+    }
+
+    /**
+     * Adds the raw timelines overlapping the segment, clipped to it, reading pages until the segment is done, the
+     * page is full or the page read its maximum number of raw pages
+     * @param lastSegment true if the segment ends the query range, in which case raw timelines starting at its end time
+     *                    are included
+     * @param consistentRead true to read raw timelines with strongly consistent reads
+     * @return false if the page stops before the end of the segment
+     */
+    private boolean addRawVideoTimelines(final String deviceId, final long segmentStartTime, final long segmentEndTime,
+                                         final boolean lastSegment, final boolean consistentRead,
+                                         final DetailedTimelinePage page) {
+        // Remove MAX_KVS_FRAGMENT_DURATION_BUFFER from start time in order to look back to raw timelines that might
+        // overlap with query range
+        Long startTimeWithBuffer = segmentStartTime - MAX_KVS_FRAGMENT_DURATION_BUFFER;
+        String rawNextToken = null;
+        long lastTimestamp = startTimeWithBuffer;
+        do {
+            PaginatedListResponse<RawVideoTimeline> paginatedListTimelineResponse =
+                    rawVideoTimelineDAO.listRawVideoTimelines(deviceId, startTimeWithBuffer,
+                            lastSegment ? segmentEndTime : segmentEndTime - 1, rawNextToken, consistentRead);
+
+            for (RawVideoTimeline rawVideoTimeline : paginatedListTimelineResponse.getResults()) {
+                if (!page.addTimeline(rawVideoTimeline.getLocation(), rawVideoTimeline.getTimestamp(),
+                        rawVideoTimeline.getTimestamp() + rawVideoTimeline.getDurationInMillis(),
+                        segmentStartTime, segmentEndTime)) {
+                    return false;
+                }
+                lastTimestamp = rawVideoTimeline.getTimestamp();
+            }
+            rawNextToken = paginatedListTimelineResponse.getNextToken();
+            // raw timelines are unique per timestamp, so the next page resumes right after the last one read, the
+            // timelines read again from the lookback buffer being stitched to the open intervals
+            if (rawNextToken != null && page.countRawPage() && lastTimestamp >= segmentStartTime) {
+                page.pause(lastTimestamp + 1);
+                return false;
+            }
+        } while (rawNextToken != null);
 
         LOG.info(String.format(
                 "Returning detailed timeline list for CLOUD with size=%d, and DEVICE with size=%d",
-                cloudTimelineList.size(),
-                deviceTimelineList.size()));
+                page.cloudTimelineList.size(),
+                page.deviceTimelineList.size()));
+        return true;
+    }
 
+    /**
+     * Adds the intervals of both locations in start time order, like raw timelines are read
+     * @return false if the page is full before the end of the segment
+     */
+    private boolean addCompactedTimelines(final DetailedTimelinePage page,
+                                          final CompactedVideoTimeline compactedVideoTimeline,
+                                          final long segmentStartTime, final long segmentEndTime) {
+        List<Timeline> cloudTimelines = compactedVideoTimeline.getCloudTimeline();
+        List<Timeline> deviceTimelines = compactedVideoTimeline.getDeviceTimeline();
+        int cloudIndex = 0;
+        int deviceIndex = 0;
+        while (cloudIndex < cloudTimelines.size() || deviceIndex < deviceTimelines.size()) {
+            boolean cloud = deviceIndex == deviceTimelines.size() || (cloudIndex < cloudTimelines.size()
+                    && cloudTimelines.get(cloudIndex).getStartTime() <= deviceTimelines.get(deviceIndex).getStartTime());
+            Timeline compactedTimeline = cloud ? cloudTimelines.get(cloudIndex++) : deviceTimelines.get(deviceIndex++);
+            if (compactedTimeline.getStartTime().longValue() >= segmentEndTime) {
+                break;
+            }
+            if (!page.addTimeline(cloud ? VideoDensityLocation.CLOUD : VideoDensityLocation.DEVICE,
+                    compactedTimeline.getStartTime().longValue(), compactedTimeline.getEndTime().longValue(),
+                    segmentStartTime, segmentEndTime)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static DetailedTimelinePaginatedResponse createResponse(final List<Timeline> cloudTimelineList,
+                                                                    final List<Timeline> deviceTimelineList,
+                                                                    final String nextToken) {
         return new DetailedTimelinePaginatedResponse(
                 cloudTimelineList,
                 deviceTimelineList,
-                paginatedListTimelineResponse.getNextToken()
+                nextToken
         );
     }
 
+    private static long toHourStartTime(final long timestampInMillis) {
+        return Math.floorDiv(timestampInMillis, MILLIS_PER_HOUR) * MILLIS_PER_HOUR;
+    }
+
     /**
      * Checks to make sure the current timeline immediately follows the last checked timeline
      * @param previousEndTime end time of the last checked timeline
      * @param currentStartTime start time of the current timeline
      * @return true if the timestamps are adjacent (within 1 second), false otherwise
      */
-    private boolean timestampsAreAdjacent(long previousEndTime, long currentStartTime) {
+    private static boolean timestampsAreAdjacent(long previousEndTime, long currentStartTime) {
         // truncate to second precisions from millisecond precision
         return (currentStartTime/1000) - (previousEndTime/1000) <= 1;
     }
-}
\ No newline at end of file
+
+    /**
+     * Merged intervals of one response. Timelines are added in start time order, so an interval is closed once a
+     * timeline of its location starts a new one, while the last interval of the other location may still grow.
+     */
+    private static final class DetailedTimelinePage {
+        private final List<Timeline> cloudTimelineList = new ArrayList<>();
+        private final List<Timeline> deviceTimelineList = new ArrayList<>();
+        private final int maxResults;
+        private final int maxRawPages;
+        private int rawPagesRead;
+        private Long resumeTime;
+        // null when the page stopped between raw pages, in which case the last interval of both locations is open
+        private VideoDensityLocation resumeLocation;
+
+        private DetailedTimelinePage(final int maxResults, final int maxRawPages) {
+            this.maxResults = maxResults;
+            this.maxRawPages = maxRawPages;
+        }
+
+        /**
+         * Restores the open intervals of the previous page
+         * @return time to resume from
+         */
+        private long resume(final Map<String, AttributeValue> nextToken) {
+            for (VideoDensityLocation location : List.of(VideoDensityLocation.CLOUD, VideoDensityLocation.DEVICE)) {
+                AttributeValue openIntervalStartTime = nextToken.get(OPEN_INTERVAL_START_TIME + location.name());
+                if (openIntervalStartTime != null) {
+                    getTimelineList(location).add(Timeline.builder()
+                            .startTime(Double.valueOf(openIntervalStartTime.n()))
+                            .endTime(Double.valueOf(nextToken.get(OPEN_INTERVAL_END_TIME + location.name()).n()))
+                            .build());
+                }
+            }
+            return Long.parseLong(nextToken.get(SchemaConst.TIMESTAMP).n());
+        }
+
+        /**
+         * Counts a raw page read for the page
+         * @return true if the page read its maximum number of raw pages
+         */
+        private boolean countRawPage() {
+            return ++rawPagesRead >= maxRawPages;
+        }
+
+        /**
+         * Stops the page between raw pages, the raw timelines from resumeTime on being left to the next page
+         */
+        private void pause(final long resumeTime) {
+            this.resumeTime = resumeTime;
+            this.resumeLocation = null;
+        }
+
+        /**
+         * Adds an interval clipped to the segment, stitching it to the last interval if they are adjacent
+         * @return false if the interval would start a new one while the page is full, nothing is added then
+         */
+        private boolean addTimeline(final VideoDensityLocation location, final long timelineStartTime,
+                                    final long timelineEndTime, final long segmentStartTime,
+                                    final long segmentEndTime) {
+            long startTime = timelineStartTime;
+            long endTime = timelineEndTime > segmentEndTime ? segmentEndTime : timelineEndTime;
+
+            // only include timestamps in the list for which end time is greater than start time
+            if (endTime <= segmentStartTime) {
+                return true;
+            }
+            // if start time of a timeline object is smaller than query start time, adjust it
+            if (startTime < segmentStartTime) {
+                startTime = segmentStartTime;
+            }
+
+            List<Timeline> targetList = getTimelineList(location);
+            // check to see if the timestamps are adjacent
+            boolean doStitchTimeline = !targetList.isEmpty() &&
+                    timestampsAreAdjacent(targetList.get(targetList.size() - 1).getEndTime().longValue(), startTime);
+
+            if (doStitchTimeline) {
+                Timeline lastTimeline = targetList.get(targetList.size() - 1);
+                lastTimeline.setEndTime(Math.max(lastTimeline.getEndTime(), endTime));
+                return true;
+            }
+            // the open interval of the other location is not returned, so at least one interval has to be closed
+            int size = cloudTimelineList.size() + deviceTimelineList.size();
+            int openSize = getTimelineList(otherLocation(location)).isEmpty() ? 0 : 1;
+            if (size >= maxResults && size > openSize) {
+                resumeTime = startTime;
+                resumeLocation = location;
+                return false;
+            }
+            targetList.add(Timeline.builder()
+                    .startTime(Double.valueOf(startTime))
+                    .endTime(Double.valueOf(endTime))
+                    .build());
+            return true;
+        }
+
+        private DetailedTimelinePaginatedResponse toResponse() {
+            if (resumeTime == null) {
+                return createResponse(cloudTimelineList, deviceTimelineList, null);
+            }
+            // a page stopped at a timeline starting a new interval closes the last interval of its location
+            Map<String, AttributeValue> nextToken = new HashMap<>();
+            nextToken.put(SchemaConst.TIMESTAMP, AttributeValue.fromN(Long.toString(resumeTime)));
+            for (VideoDensityLocation openLocation : resumeLocation == null
+                    ? List.of(VideoDensityLocation.CLOUD, VideoDensityLocation.DEVICE)
+                    : List.of(otherLocation(resumeLocation))) {
+                List<Timeline> openTimelineList = getTimelineList(openLocation);
+                if (!openTimelineList.isEmpty()) {
+                    Timeline openTimeline = openTimelineList.remove(openTimelineList.size() - 1);
+                    nextToken.put(OPEN_INTERVAL_START_TIME + openLocation.name(),
+                            AttributeValue.fromN(Long.toString(openTimeline.getStartTime().longValue())));
+                    nextToken.put(OPEN_INTERVAL_END_TIME + openLocation.name(),
+                            AttributeValue.fromN(Long.toString(openTimeline.getEndTime().longValue())));
+                }
+            }
+            return createResponse(cloudTimelineList, deviceTimelineList,
+                    GsonDDBNextTokenMarshaller.marshall(nextToken));
+        }
+
+        private List<Timeline> getTimelineList(final VideoDensityLocation location) {
+            return VideoDensityLocation.CLOUD.equals(location) ? cloudTimelineList : deviceTimelineList;
+        }
+
+        private static VideoDensityLocation otherLocation(final VideoDensityLocation location) {
+            return VideoDensityLocation.CLOUD.equals(location) ? VideoDensityLocation.DEVICE : VideoDensityLocation.CLOUD;
+        }
+    }
+}
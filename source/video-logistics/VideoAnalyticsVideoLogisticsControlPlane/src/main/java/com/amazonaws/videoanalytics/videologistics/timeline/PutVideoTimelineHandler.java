@@ -4,16 +4,19 @@ import com.amazonaws.videoanalytics.videologistics.client.s3.S3Proxy;
 import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.RawVideoTimelineDAO;
 import com.amazonaws.videoanalytics.videologistics.utils.S3BucketRegionalizer;
 import com.amazonaws.videoanalytics.videologistics.schema.SchemaConst;
-import com.amazonaws.services.lambda.runtime.LambdaLogger;
-import static com.amazonaws.services.lambda.runtime.LambdaRuntime.getLogger;
+import com.amazonaws.videoanalytics.videologistics.utils.logging.DeviceLogSampler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import javax.inject.Inject;
-import java.util.List;
 import java.util.UUID;
 
 public class PutVideoTimelineHandler {
+    // batches up to this size are written to DDB directly and show on the timeline within seconds, larger batches are
+    // written to S3 and saved by the scheduled export
+    static final int MAX_DIRECT_WRITE_TIMESTAMPS = 1000;
 
-    private final LambdaLogger logger = getLogger();
+    private static final Logger LOG = LogManager.getLogger(PutVideoTimelineHandler.class);
     private final TimestampListDeserializer timestampListDeserializer;
     private final S3Proxy s3Proxy;
     private final BatchTimelineMapper batchTimelineMapper;
@@ -37,41 +40,34 @@ public class PutVideoTimelineHandler {
     }
 
     public void addVideoTimelines(String deviceId, String timestamps, String location) {
-        logger.log(String.format("Starting to write timeline information for deviceId=%s", deviceId));
-        logger.log(String.format("Received timestamps: %s", timestamps));
-        logger.log(String.format("Received location: %s", location));
+        DeviceLogSampler.debug(LOG, deviceId, () -> String.format("Received timestamps: %s", timestamps));
 
         try {
-            List<TimestampInfo> timestampList = timestampListDeserializer.deserialize(timestamps);
-            logger.log(String.format("Deserialized timestamp list size: %d", timestampList.size()));
+            // timestamps and durations, interleaved, so that large payloads are not boxed
+            long[] timestampInfos = timestampListDeserializer.deserializeToArray(timestamps);
+            int timestampCount = timestampInfos.length / 2;
+            LOG.info(() -> String.format("Writing %d timestamps of %s on %s", timestampCount, deviceId, location));
 
-            if(!timestampList.isEmpty()) {
-                if (timestampList.size() == 1) {
-                    logger.log(String.format("Processing single timestamp for deviceId=%s", deviceId));
-                    rawVideoTimelineDAO.save(deviceId, timestampList.get(0), location);
+            if (timestampCount > 0) {
+                if (timestampCount == 1) {
+                    rawVideoTimelineDAO.save(deviceId, timestampInfos[0], timestampInfos[1], location);
+                } else if (timestampCount <= MAX_DIRECT_WRITE_TIMESTAMPS) {
+                    rawVideoTimelineDAO.saveAll(deviceId, timestampInfos, location);
                 } else {
-                    logger.log(String.format("Writing %d timestamps to S3...", timestampList.size()));
                     String bucketName = s3BucketRegionalizer.getRegionalizedBucketName("videoanalytics-timeline-bucket");
 
-                    BatchTimeline batchTimeline = BatchTimeline.builder()
-                            .deviceId(deviceId)
-                            .timestamps(timestampList)
-                            .location(location)
-                            .build();
-
                     s3Proxy.putObjectBytes(
                             bucketName,
                             videoTimelineUtils.generateS3Key(deviceId, UUID.randomUUID().toString()),
-                            batchTimelineMapper.serialize(batchTimeline)
+                            batchTimelineMapper.serialize(deviceId, location, timestampInfos)
                     );
-                    logger.log("Finished writing timeline information to s3...");
+                    DeviceLogSampler.debug(LOG, deviceId, () -> "Finished writing timeline information to s3...");
                 }
             } else {
-                logger.log("No timelines found, ignoring this request...");
+                LOG.info(() -> "No timelines found for " + deviceId + ", ignoring this request...");
             }
         } catch (Exception e) {
-            logger.log(String.format("Error processing timestamps: %s", timestamps));
-            logger.log(String.format("Error: %s", e.getMessage()));
+            LOG.error(() -> String.format("Error processing timestamps of deviceId=%s: %s", deviceId, timestamps), e);
             throw e;
         }
     }
@@ -0,0 +1,103 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.RawVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoDensityLocation;
+
+import javax.inject.Inject;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.CREATED_AT;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.DURATION_IN_MILLIS;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.EXPIRATION_TIMESTAMP;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.LAST_UPDATED;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.LOCATION;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.RAW_PARTITION_KEY;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.RAW_SORT_KEY;
+
+/**
+ * Maps DynamoDB stream images of the raw video timeline table onto {@link RawVideoTimeline}, so that stream
+ * consumers don't have to read back a row the stream record already carries.
+ */
+public class RawVideoTimelineStreamImageDecoder {
+    private final String partitionKeyName;
+    private final String sortKeyName;
+
+    /**
+     * Key names are resolved from the environment once, when the decoder is created for the container.
+     */
+    @Inject
+    public RawVideoTimelineStreamImageDecoder() {
+        this(System.getenv(RAW_PARTITION_KEY), System.getenv(RAW_SORT_KEY));
+    }
+
+    public RawVideoTimelineStreamImageDecoder(final String partitionKeyName, final String sortKeyName) {
+        this.partitionKeyName = partitionKeyName;
+        this.sortKeyName = sortKeyName;
+    }
+
+    public Optional<String> getPartitionKey(final Map<String, AttributeValue> image) {
+        return getAttribute(image, partitionKeyName)
+                .map(AttributeValue::getS);
+    }
+
+    public Optional<Long> getSortKey(final Map<String, AttributeValue> image) {
+        return getAttribute(image, sortKeyName)
+                .map(AttributeValue::getN)
+                .map(Long::valueOf);
+    }
+
+    /**
+     * Decodes a stream image into a raw video timeline
+     * @param image NewImage or OldImage of the stream record
+     * @return the decoded timeline, or empty if the image is missing or doesn't hold the attributes needed
+     * for aggregation (e.g. a KEYS_ONLY stream view)
+     */
+    public Optional<RawVideoTimeline> decode(final Map<String, AttributeValue> image) {
+        Optional<String> partitionKey = getPartitionKey(image);
+        Optional<Long> sortKey = getSortKey(image);
+        Optional<Long> durationInMillis = getLong(image, DURATION_IN_MILLIS);
+        Optional<VideoDensityLocation> location = getAttribute(image, LOCATION)
+                .map(AttributeValue::getS)
+                .map(VideoDensityLocation::valueOf);
+        if (partitionKey.isEmpty() || sortKey.isEmpty() || durationInMillis.isEmpty() || location.isEmpty()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(RawVideoTimeline.builder()
+                .deviceId(partitionKey.get())
+                .timestamp(sortKey.get())
+                .durationInMillis(durationInMillis.get())
+                .location(location.get())
+                .expirationTimestamp(getLong(image, EXPIRATION_TIMESTAMP).orElse(null))
+                .createdAt(getDate(image, CREATED_AT).orElse(null))
+                .lastUpdated(getDate(image, LAST_UPDATED).orElse(null))
+                .build());
+    }
+
+    private static Optional<AttributeValue> getAttribute(final Map<String, AttributeValue> image,
+                                                         final String attributeName) {
+        if (image == null || attributeName == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(image.get(attributeName));
+    }
+
+    private static Optional<Long> getLong(final Map<String, AttributeValue> image, final String attributeName) {
+        return getAttribute(image, attributeName)
+                .map(AttributeValue::getN)
+                .map(Long::valueOf);
+    }
+
+    // Dates are stored as ISO-8601 strings, see DateAttributeConverter
+    private static Optional<Date> getDate(final Map<String, AttributeValue> image, final String attributeName) {
+        return getAttribute(image, attributeName)
+                .map(AttributeValue::getS)
+                .map(Instant::parse)
+                .map(Date::from);
+    }
+}
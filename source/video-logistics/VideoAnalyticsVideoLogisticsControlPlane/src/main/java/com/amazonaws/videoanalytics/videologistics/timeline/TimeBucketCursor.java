@@ -0,0 +1,76 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
+
+/**
+ * Walks the time buckets a video fragment spans and the duration to be stored in each of them, using primitive epoch
+ * millisecond arithmetic only. A cursor can be reset and reused for any number of fragments, eg.
+ * <pre>
+ *     cursor.reset(TimeIncrementUnits.SECONDS, timestamp, durationInMillis);
+ *     while (cursor.next()) {
+ *         store(cursor.getBucketStartDate(), cursor.getDurationToBeStored());
+ *     }
+ * </pre>
+ * A cursor is not thread safe.
+ */
+public class TimeBucketCursor {
+    private long bucketDurationMillis;
+    private long rangeEnd;
+    private long remainingBuckets;
+    private long timestampToBeStored;
+    private long remainingDurationInMillis;
+    private long bucketStartDate;
+    private long durationToBeStored;
+
+    /**
+     * Positions the cursor before the first bucket of the given fragment
+     * @param timeIncrementUnits unit of the buckets
+     * @param timestampToBeStored start of the fragment in epoch milliseconds
+     * @param durationInMillis duration of the fragment
+     * @return this cursor
+     */
+    public TimeBucketCursor reset(TimeIncrementUnits timeIncrementUnits, long timestampToBeStored,
+                                  long durationInMillis) {
+        this.bucketDurationMillis = timeIncrementUnits.getBucketDurationMillis();
+        long rangeStart = timeIncrementUnits.getBucketStart(timestampToBeStored);
+        this.rangeEnd = timeIncrementUnits.getBucketStart(timestampToBeStored + durationInMillis);
+        this.remainingBuckets = (rangeEnd - rangeStart) / bucketDurationMillis + 1;
+        this.timestampToBeStored = timestampToBeStored;
+        this.remainingDurationInMillis = durationInMillis;
+        // the first call to next() moves to rangeStart
+        this.bucketStartDate = rangeStart - bucketDurationMillis;
+        this.durationToBeStored = 0L;
+        return this;
+    }
+
+    /**
+     * Moves to the next bucket
+     * @return false if all buckets of the fragment have been visited
+     */
+    public boolean next() {
+        if (remainingBuckets <= 0) {
+            return false;
+        }
+        remainingBuckets--;
+        bucketStartDate += bucketDurationMillis;
+        long bucketEndDate = bucketStartDate + bucketDurationMillis;
+
+        // amount of time in bucket, it can = the duration of the range
+        durationToBeStored = Math.min(bucketEndDate - timestampToBeStored, remainingDurationInMillis);
+        // overflow: time left to be accounted for spills over into the next bucket, starting at the end of this one
+        remainingDurationInMillis -= durationToBeStored;
+        timestampToBeStored = bucketEndDate;
+        if (remainingDurationInMillis <= 0 || timestampToBeStored > rangeEnd) {
+            remainingBuckets = 0;
+        }
+        return true;
+    }
+
+    public long getBucketStartDate() {
+        return bucketStartDate;
+    }
+
+    public long getDurationToBeStored() {
+        return durationToBeStored;
+    }
+}
@@ -12,37 +12,52 @@ import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeVal
 import com.amazonaws.services.lambda.runtime.events.models.dynamodb.OperationType;
 import com.amazonaws.services.lambda.runtime.events.models.dynamodb.StreamRecord;
 import lombok.SneakyThrows;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import software.amazon.awssdk.core.SdkBytes;
 import software.amazon.awssdk.services.kinesis.KinesisClient;
-import software.amazon.awssdk.services.kinesis.model.PutRecordRequest;
-import software.amazon.awssdk.services.kinesis.model.PutRecordResponse;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResultEntry;
 import javax.inject.Inject;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.KDS_PUT_RECORDS_ERROR;
 import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.NO_PARTITION_KEY_ERROR;
 import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.NO_SORT_KEY_ERROR;
-import static com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits.TIME_INCREMENT_UNITS_LIST;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.DURATION_IN_MILLIS;
 import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.LOCATION;
-import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.RAW_PARTITION_KEY;
-import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.RAW_SORT_KEY;
 import com.amazonaws.videoanalytics.videologistics.dagger.AWSVideoAnalyticsVLControlPlaneComponent;
 import com.amazonaws.videoanalytics.videologistics.dagger.DaggerAWSVideoAnalyticsVLControlPlaneComponent;
+import com.amazonaws.videoanalytics.videologistics.utils.RetryBackoff;
+import com.amazonaws.videoanalytics.videologistics.utils.Sleeper;
 import com.amazonaws.videoanalytics.videologistics.utils.annotations.ExcludeFromJacocoGeneratedReport;
+import com.amazonaws.videoanalytics.videologistics.utils.logging.DeviceLogSampler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 
 public class TimelineForwarderLambda implements RequestHandler<DynamodbEvent, Void> {
 
     private static final Logger LOG = LogManager.getLogger(TimelineForwarderLambda.class);
     private static final String KINESIS_DATA_STREAM_NAME = "TimelineKDS";
+    // PutRecords limits: https://docs.aws.amazon.com/kinesis/latest/APIReference/API_PutRecords.html
+    private static final int MAX_RECORDS_PER_BATCH = 500;
+    private static final long MAX_BYTES_PER_BATCH = 5L * 1024 * 1024;
+    private static final int MAX_PUT_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MILLIS = 100L;
+    private static final long MAX_BACKOFF_MILLIS = 2000L;
     private final RawVideoTimelineDAO rawVideoTimelineDAO;
     private final VideoTimelineDAO videoTimelineDAO;
     private final VideoTimelineAggregator videoTimelineAggregator;
     private final KinesisClient kinesisClient;
     private final TimelineKDSMetadataSerDe timelineKDSMetadataSerDe;
+    private final RawVideoTimelineStreamImageDecoder rawVideoTimelineStreamImageDecoder;
+    private final Sleeper sleeper;
 
     @ExcludeFromJacocoGeneratedReport
     public TimelineForwarderLambda() {
@@ -53,6 +68,8 @@ public class TimelineForwarderLambda implements RequestHandler<DynamodbEvent, Vo
         this.rawVideoTimelineDAO = component.getRawVideoTimelineDAO();
         this.videoTimelineDAO = component.getVideoTimelineDAO();
         this.videoTimelineAggregator = component.getVideoTimelineAggregator();
+        this.rawVideoTimelineStreamImageDecoder = component.getRawVideoTimelineStreamImageDecoder();
+        this.sleeper = Sleeper.THREAD_SLEEPER;
     }
 
     @Inject
@@ -61,100 +78,234 @@ public class TimelineForwarderLambda implements RequestHandler<DynamodbEvent, Vo
             final KinesisClient kinesisClient,
             final RawVideoTimelineDAO rawVideoTimelineDAO,
             final VideoTimelineDAO videoTimelineDAO,
-            final VideoTimelineAggregator videoTimelineAggregator) {
+            final VideoTimelineAggregator videoTimelineAggregator,
+            final RawVideoTimelineStreamImageDecoder rawVideoTimelineStreamImageDecoder) {
+        this(timelineKDSMetadataSerDe, kinesisClient, rawVideoTimelineDAO, videoTimelineDAO, videoTimelineAggregator,
+                rawVideoTimelineStreamImageDecoder, Sleeper.THREAD_SLEEPER);
+    }
+
+    TimelineForwarderLambda(
+            final TimelineKDSMetadataSerDe timelineKDSMetadataSerDe,
+            final KinesisClient kinesisClient,
+            final RawVideoTimelineDAO rawVideoTimelineDAO,
+            final VideoTimelineDAO videoTimelineDAO,
+            final VideoTimelineAggregator videoTimelineAggregator,
+            final RawVideoTimelineStreamImageDecoder rawVideoTimelineStreamImageDecoder,
+            final Sleeper sleeper) {
         this.timelineKDSMetadataSerDe = timelineKDSMetadataSerDe;
         this.kinesisClient = kinesisClient;
         this.rawVideoTimelineDAO = rawVideoTimelineDAO;
         this.videoTimelineDAO = videoTimelineDAO;
         this.videoTimelineAggregator = videoTimelineAggregator;
+        this.rawVideoTimelineStreamImageDecoder = rawVideoTimelineStreamImageDecoder;
+        this.sleeper = sleeper;
     }
 
     @Override
     public Void handleRequest(final DynamodbEvent event, final Context context) {
         final List<DynamodbEvent.DynamodbStreamRecord> ddbRecords = event.getRecords();
+        // entries for the whole event are gathered first so that they can be sent in as few PutRecords calls as possible
+        final List<PutRecordsRequestEntry> kdsEntries = new ArrayList<>();
         for (DynamodbEvent.DynamodbStreamRecord record : ddbRecords) {
             final OperationType recordEventType = OperationType.fromValue(record.getEventName());
             if (OperationType.INSERT == recordEventType) {
-                processTimeline(record, false);
+                processTimeline(record, false, kdsEntries);
             } else if (OperationType.MODIFY == recordEventType) {
                 AttributeValue newLocation = record.getDynamodb().getNewImage().get(LOCATION);
                 AttributeValue oldLocation = record.getDynamodb().getOldImage().get(LOCATION);
                 if (newLocation != null && oldLocation != null) {
                     if (newLocation.getS().equals(VideoDensityLocation.CLOUD.name())
                             && oldLocation.getS().equals(VideoDensityLocation.DEVICE.name())) {
-                        LOG.info(String.format("Location updated to %s from %s, starting catchup processing",
+                        LOG.debug(() -> String.format("Location updated to %s from %s, starting catchup processing",
                                 newLocation.getS(), oldLocation.getS()));
-                        processTimeline(record, true);
+                        processTimeline(record, true, kdsEntries);
+                    } else if (newLocation.getS().equals(VideoDensityLocation.CLOUD.name())
+                            && oldLocation.getS().equals(VideoDensityLocation.CLOUD.name())
+                            && isExtended(record)) {
+                        processTimelineExtension(record, kdsEntries);
                     } else {
-                        LOG.info(String.format("Location updated to %s from %s, ignoring this request as no action " +
-                                "needs to be taken in order to ensure idempotency", newLocation.getS(), oldLocation.getS()));
+                        LOG.debug(() -> String.format("Location updated to %s from %s, ignoring this request as no " +
+                                "action needs to be taken in order to ensure idempotency", newLocation.getS(),
+                                oldLocation.getS()));
                     }
                 }
             }
         }
+        putTimelinesToKDS(kdsEntries);
         return null;
     }
 
-    private Optional<String> getPKValueFromNewImage(final DynamodbEvent.DynamodbStreamRecord record,
-                                                    final String attributeKey) {
-        return Optional.ofNullable(record.getDynamodb())
-                .map(StreamRecord::getNewImage)
-                .map(attributes -> attributes.get(attributeKey))
-                .map(AttributeValue::getS);
-    }
-
-    private Optional<Long> getSKValueFromNewImage(final DynamodbEvent.DynamodbStreamRecord record,
-                                                  final String attributeKey) {
-        return Optional.ofNullable(record.getDynamodb())
+    /**
+     * Method processes incoming timeline information and collects the KDS entries needed to aggregate it
+     * @param record DynamoDB Stream record
+     * @param isCatchUp true/false
+     * @param kdsEntries list the KDS entries for this timeline are added to
+     */
+    private void processTimeline(DynamodbEvent.DynamodbStreamRecord record, boolean isCatchUp,
+                                 List<PutRecordsRequestEntry> kdsEntries) {
+        final Map<String, AttributeValue> newImage = Optional.ofNullable(record.getDynamodb())
                 .map(StreamRecord::getNewImage)
-                .map(attributes -> attributes.get(attributeKey))
-                .map(AttributeValue::getN)
-                .map(Long::valueOf);
+                .orElse(null);
+        final Optional<String> rawPartitionKey = rawVideoTimelineStreamImageDecoder.getPartitionKey(newImage);
+        final Optional<Long> rawSortKey = rawVideoTimelineStreamImageDecoder.getSortKey(newImage);
+        if(rawPartitionKey.isEmpty()) {
+            throw new RuntimeException(NO_PARTITION_KEY_ERROR);
+        }
+        if(rawSortKey.isEmpty()) {
+            throw new RuntimeException(NO_SORT_KEY_ERROR);
+        }
+        // the stream carries NEW_AND_OLD_IMAGES, so the row only has to be read back if the image is incomplete
+        RawVideoTimeline rawVideoTimeline = rawVideoTimelineStreamImageDecoder.decode(newImage)
+                .orElseGet(() -> rawVideoTimelineDAO.load(rawPartitionKey.get(), rawSortKey.get()));
+        DeviceLogSampler.debug(LOG, rawVideoTimeline.getDeviceId(),
+                () -> String.format("Collecting KDS records of raw timeline %d " +
+                "for catch up = %s", rawVideoTimeline.getTimestamp(), isCatchUp));
+        addTimelineKDSEntries(rawVideoTimeline, isCatchUp, kdsEntries);
     }
 
     /**
-     * Method processes incoming timeline information and forwards it to appropriate KDS streams to be aggregated
-     * @param record DynamoDB Stream record
-     * @param isCatchUp true/false
+     * Method collects the KDS entries for the video added to a CLOUD raw timeline that was extended in place by
+     * coalescing, the video it already had was counted before
+     * @param record DynamoDB Stream record of the update
+     * @param kdsEntries list the KDS entries for the added video are added to
      */
-    private void processTimeline(DynamodbEvent.DynamodbStreamRecord record, boolean isCatchUp) {
-        LOG.info(String.format("Starting density update for all time increments for catch up = %s", isCatchUp));
-        final Optional<String> rawPartitionKey = getPKValueFromNewImage(record, System.getenv(RAW_PARTITION_KEY));
-        final Optional<Long> rawSortKey = getSKValueFromNewImage(record, System.getenv(RAW_SORT_KEY));
+    private void processTimelineExtension(DynamodbEvent.DynamodbStreamRecord record,
+                                          List<PutRecordsRequestEntry> kdsEntries) {
+        final Map<String, AttributeValue> newImage = record.getDynamodb().getNewImage();
+        final Optional<String> rawPartitionKey = rawVideoTimelineStreamImageDecoder.getPartitionKey(newImage);
+        final Optional<Long> rawSortKey = rawVideoTimelineStreamImageDecoder.getSortKey(newImage);
         if(rawPartitionKey.isEmpty()) {
             throw new RuntimeException(NO_PARTITION_KEY_ERROR);
         }
         if(rawSortKey.isEmpty()) {
             throw new RuntimeException(NO_SORT_KEY_ERROR);
         }
-        LOG.info("Partition key from lambda: " + rawPartitionKey);
-        RawVideoTimeline rawVideoTimeline = rawVideoTimelineDAO.load(rawPartitionKey.get(), rawSortKey.get());
-        LOG.info("Forwarding to KDS for device ID " + rawVideoTimeline.getDeviceId());
-        putTimelineToKDS(rawVideoTimeline, isCatchUp);
-        LOG.info("Put information into KDS for processing...");
+        long oldEndTime = rawSortKey.get() + getDurationInMillis(record.getDynamodb().getOldImage());
+        long newEndTime = rawSortKey.get() + getDurationInMillis(newImage);
+        DeviceLogSampler.debug(LOG, rawPartitionKey.get(),
+                () -> String.format("Raw timeline %d on CLOUD extended, collecting KDS " +
+                "records from %d to %d", rawSortKey.get(), oldEndTime, newEndTime));
+        addTimelineKDSEntries(rawPartitionKey.get(), oldEndTime, newEndTime - oldEndTime, VideoDensityLocation.CLOUD,
+                false, kdsEntries);
     }
 
-    private void putTimelineToKDS(RawVideoTimeline rawVideoTimeline, boolean isCatchup) {
-
-        for (TimeIncrementUnits timeIncrementUnits : TIME_INCREMENT_UNITS_LIST) {
-            List<TimelineStorage> timelineStorageList = videoTimelineAggregator.getTimeBuckets(timeIncrementUnits,
-                    rawVideoTimeline.getTimestamp(),
-                    rawVideoTimeline.getDurationInMillis());
-            for(TimelineStorage timelineStorage: timelineStorageList) {
-                TimelineKDSMetadata timelineKDSMetadata = new TimelineKDSMetadata(
-                        rawVideoTimeline.getDeviceId(), timeIncrementUnits, timelineStorage.getBucketStartDate(),
-                        rawVideoTimeline.getTimestamp(), timelineStorage.getDurationToBeStored(),
-                        rawVideoTimeline.getLocation(), isCatchup);
-                PutRecordRequest request = PutRecordRequest.builder()
-                        .partitionKey(timelineKDSMetadata.getKDSPartitionKey())
-                        .streamName(KINESIS_DATA_STREAM_NAME)
-                        .data(SdkBytes.fromUtf8String(timelineKDSMetadataSerDe.serialize(timelineKDSMetadata)))
-                        .build();
-                PutRecordResponse response = kinesisClient.putRecord(request);
-                LOG.info("Completed to put timeline into shard {} with seqN {} for {} with KDS partition key {}",
-                        response.shardId(), response.sequenceNumber(), timelineKDSMetadata, timelineKDSMetadata.getKDSPartitionKey());
+    /**
+     * A raw timeline is extended if an update only made it longer, a shorter duration is not taken away from the
+     * density
+     */
+    private static boolean isExtended(DynamodbEvent.DynamodbStreamRecord record) {
+        AttributeValue newDuration = record.getDynamodb().getNewImage().get(DURATION_IN_MILLIS);
+        AttributeValue oldDuration = record.getDynamodb().getOldImage().get(DURATION_IN_MILLIS);
+        return newDuration != null && oldDuration != null
+                && getDurationInMillis(record.getDynamodb().getNewImage())
+                > getDurationInMillis(record.getDynamodb().getOldImage());
+    }
+
+    private static long getDurationInMillis(Map<String, AttributeValue> image) {
+        return Long.parseLong(image.get(DURATION_IN_MILLIS).getN());
+    }
+
+    /**
+     * Only SECONDS buckets are sent to KDS, the coarser units are rolled up from them by VideoDensityUpdateLambda
+     */
+    private void addTimelineKDSEntries(RawVideoTimeline rawVideoTimeline, boolean isCatchup,
+                                       List<PutRecordsRequestEntry> kdsEntries) {
+        addTimelineKDSEntries(rawVideoTimeline.getDeviceId(), rawVideoTimeline.getTimestamp(),
+                rawVideoTimeline.getDurationInMillis(), rawVideoTimeline.getLocation(), isCatchup, kdsEntries);
+    }
+
+    private void addTimelineKDSEntries(String deviceId, long startTime, long durationInMillis,
+                                       VideoDensityLocation location, boolean isCatchup,
+                                       List<PutRecordsRequestEntry> kdsEntries) {
+        List<TimelineStorage> timelineStorageList = videoTimelineAggregator.getTimeBuckets(TimeIncrementUnits.SECONDS,
+                startTime, durationInMillis);
+        for(TimelineStorage timelineStorage: timelineStorageList) {
+            TimelineKDSMetadata timelineKDSMetadata = new TimelineKDSMetadata(
+                    deviceId, TimeIncrementUnits.SECONDS, timelineStorage.getBucketStartDate(),
+                    startTime, timelineStorage.getDurationToBeStored(), location, isCatchup);
+            kdsEntries.add(PutRecordsRequestEntry.builder()
+                    .partitionKey(timelineKDSMetadata.getKDSPartitionKey())
+                    .data(SdkBytes.fromUtf8String(timelineKDSMetadataSerDe.serialize(timelineKDSMetadata)))
+                    .build());
+        }
+    }
+
+    /**
+     * Sends the given entries to KDS in PutRecords batches bounded by the per request record count and payload size
+     * @param kdsEntries entries to be put into KDS
+     */
+    private void putTimelinesToKDS(List<PutRecordsRequestEntry> kdsEntries) {
+        List<PutRecordsRequestEntry> batch = new ArrayList<>();
+        long batchSizeInBytes = 0;
+        for (PutRecordsRequestEntry entry : kdsEntries) {
+            long entrySizeInBytes = getEntrySizeInBytes(entry);
+            if (!batch.isEmpty() && (batch.size() >= MAX_RECORDS_PER_BATCH
+                    || batchSizeInBytes + entrySizeInBytes > MAX_BYTES_PER_BATCH)) {
+                putRecordsWithRetry(batch);
+                batch = new ArrayList<>();
+                batchSizeInBytes = 0;
             }
+            batch.add(entry);
+            batchSizeInBytes += entrySizeInBytes;
+        }
+        if (!batch.isEmpty()) {
+            putRecordsWithRetry(batch);
         }
+        LOG.info(() -> String.format("Put %d timeline records into KDS for processing...", kdsEntries.size()));
+    }
+
+    /**
+     * Puts a batch of entries into KDS, retrying only the failed entries with exponential backoff. Density updates
+     * are additive, so a retried entry landing after entries that were put later does not change the aggregate.
+     * @param batch entries within the PutRecords limits
+     */
+    private void putRecordsWithRetry(List<PutRecordsRequestEntry> batch) {
+        List<PutRecordsRequestEntry> pendingEntries = batch;
+        for (int attempt = 1; ; attempt++) {
+            PutRecordsResponse response = kinesisClient.putRecords(PutRecordsRequest.builder()
+                    .streamName(KINESIS_DATA_STREAM_NAME)
+                    .records(pendingEntries)
+                    .build());
+            if (response.failedRecordCount() == null || response.failedRecordCount() == 0) {
+                int completedEntries = pendingEntries.size();
+                int completedAttempt = attempt;
+                LOG.debug(() -> String.format("Completed to put %d timeline records into KDS on attempt %d",
+                        completedEntries, completedAttempt));
+                return;
+            }
+
+            // result entries are returned in the same order as the request entries
+            List<PutRecordsResultEntry> results = response.records();
+            List<PutRecordsRequestEntry> failedEntries = new ArrayList<>();
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i).errorCode() != null) {
+                    failedEntries.add(pendingEntries.get(i));
+                }
+            }
+            int failedCount = failedEntries.size();
+            int pendingCount = pendingEntries.size();
+            int failedAttempt = attempt;
+            LOG.warn(() -> String.format("Failed to put %d of %d timeline records into KDS on attempt %d, " +
+                    "sample error: %s", failedCount, pendingCount, failedAttempt, getFirstErrorMessage(results)));
+
+            if (attempt >= MAX_PUT_ATTEMPTS) {
+                throw new RuntimeException(String.format(KDS_PUT_RECORDS_ERROR, failedEntries.size(), attempt));
+            }
+            pendingEntries = failedEntries;
+            RetryBackoff.backoff(sleeper, attempt, BASE_BACKOFF_MILLIS, MAX_BACKOFF_MILLIS);
+        }
+    }
+
+    private static long getEntrySizeInBytes(PutRecordsRequestEntry entry) {
+        return entry.data().asByteArrayUnsafe().length
+                + entry.partitionKey().getBytes(StandardCharsets.UTF_8).length;
+    }
 
+    private static String getFirstErrorMessage(List<PutRecordsResultEntry> results) {
+        return results.stream()
+                .filter(result -> result.errorCode() != null)
+                .map(result -> String.format("%s: %s", result.errorCode(), result.errorMessage()))
+                .findFirst()
+                .orElse(null);
     }
 }
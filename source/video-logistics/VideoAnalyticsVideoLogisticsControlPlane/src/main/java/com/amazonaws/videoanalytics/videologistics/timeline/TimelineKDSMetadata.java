@@ -4,6 +4,9 @@ import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncr
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoDensityLocation;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
 public class TimelineKDSMetadata {
     @JsonProperty
     private String deviceId;
@@ -87,8 +90,10 @@ public class TimelineKDSMetadata {
     }
 
     public String getKDSPartitionKey() {
-        // Always have the same shard for a device
-        return String.format("%s#%s#%d", deviceId, timeIncrementUnits, bucketStartTime);
+        // All records of a device and day share a partition key, so that the buckets they are rolled up into are
+        // only ever updated in sequence number order, even with a parallelization factor on the event source
+        long dayStartTime = Instant.ofEpochMilli(bucketStartTime).truncatedTo(ChronoUnit.DAYS).toEpochMilli();
+        return String.format("%s#%d", deviceId, dayStartTime);
     }
 
     @Override
@@ -0,0 +1,172 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Decodes timestamps from request payloads straight into primitive arrays, validating every value while it is parsed.
+ * Timestamp lists come either Base64 encoded as comma separated epochs, or as a JSON array of objects with a timestamp
+ * and a duration which is read token by token.
+ */
+public final class TimestampDecoder {
+    static final String INVALID_ENCODED_TIMESTAMP = "Invalid encoded timestamp";
+    static final String INVALID_TIMESTAMP = "Invalid timestamp: %s";
+    static final String UNDECODABLE_TIMESTAMPS = "Unable to decode timestamps.";
+    static final String INVALID_TIMESTAMP_INFO = "Expected %s at %s";
+    private static final String TIMESTAMP = "timestamp";
+    private static final String DURATION = "duration";
+    private static final int INITIAL_CAPACITY = 64;
+
+    private TimestampDecoder() {
+    }
+
+    /**
+     * Decodes Base64 encoded, comma separated epochs. Like splitting the decoded string, trailing empty values are
+     * ignored.
+     * @param encodedTimestamps Base64 encoded timestamps
+     * @return timestamps in the order they were encoded
+     */
+    public static long[] decodeEncodedTimestamps(final String encodedTimestamps) {
+        if (encodedTimestamps == null || encodedTimestamps.isEmpty()) {
+            throw new RuntimeException(INVALID_ENCODED_TIMESTAMP);
+        }
+        byte[] decodedBytes;
+        try {
+            decodedBytes = Base64.getDecoder().decode(encodedTimestamps);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException(UNDECODABLE_TIMESTAMPS);
+        }
+
+        int end = decodedBytes.length;
+        while (end > 0 && decodedBytes[end - 1] == ',') {
+            end--;
+        }
+        if (end == 0 && decodedBytes.length > 0) {
+            return new long[0];
+        }
+        int count = 1;
+        for (int i = 0; i < end; i++) {
+            if (decodedBytes[i] == ',') {
+                count++;
+            }
+        }
+        long[] timestamps = new long[count];
+        int index = 0;
+        int start = 0;
+        for (int i = 0; i <= end; i++) {
+            if (i == end || decodedBytes[i] == ',') {
+                timestamps[index++] = parseLong(decodedBytes, start, i);
+                start = i + 1;
+            }
+        }
+        return timestamps;
+    }
+
+    /**
+     * Reads a JSON array of timestamp information objects, starting at the current token of the parser
+     * @param parser parser positioned on the start of the array
+     * @return timestamps and durations, interleaved
+     * @throws IOException if the JSON is malformed or a timestamp or duration is missing or not an integer
+     */
+    public static long[] readTimestampInfos(final JsonParser parser) throws IOException {
+        expect(parser, parser.currentToken() == JsonToken.START_ARRAY, "an array");
+        long[] timestampInfos = new long[INITIAL_CAPACITY];
+        int size = 0;
+        for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+            expect(parser, token == JsonToken.START_OBJECT, "an object");
+            boolean hasTimestamp = false;
+            boolean hasDuration = false;
+            if (size + 2 > timestampInfos.length) {
+                timestampInfos = Arrays.copyOf(timestampInfos, timestampInfos.length * 2);
+            }
+            for (String fieldName = parser.nextFieldName(); fieldName != null; fieldName = parser.nextFieldName()) {
+                parser.nextToken();
+                if (TIMESTAMP.equals(fieldName)) {
+                    timestampInfos[size] = readLong(parser);
+                    hasTimestamp = true;
+                } else if (DURATION.equals(fieldName)) {
+                    timestampInfos[size + 1] = readLong(parser);
+                    hasDuration = true;
+                } else {
+                    expect(parser, false, "timestamp or duration");
+                }
+            }
+            expect(parser, parser.currentToken() == JsonToken.END_OBJECT, "end of object");
+            expect(parser, hasTimestamp && hasDuration, "timestamp and duration");
+            size += 2;
+        }
+        return Arrays.copyOf(timestampInfos, size);
+    }
+
+    /**
+     * Integers are read by the parser, numeric strings are accepted as well and parsed from its text buffer
+     */
+    private static long readLong(final JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+        expect(parser, parser.currentToken() == JsonToken.VALUE_STRING, "an integer");
+        return parseLong(parser.getTextCharacters(), parser.getTextOffset(),
+                parser.getTextOffset() + parser.getTextLength());
+    }
+
+    private static void expect(final JsonParser parser, final boolean condition, final String expected)
+            throws IOException {
+        if (!condition) {
+            throw new IOException(String.format(INVALID_TIMESTAMP_INFO, expected, parser.currentLocation()));
+        }
+    }
+
+    static long parseLong(final byte[] bytes, final int start, final int end) {
+        return parseLong(i -> bytes[i], start, end, () -> new String(bytes, start, end - start, StandardCharsets.UTF_8));
+    }
+
+    static long parseLong(final char[] chars, final int start, final int end) {
+        return parseLong(i -> chars[i], start, end, () -> new String(chars, start, end - start));
+    }
+
+    /**
+     * Parses a signed decimal long like {@link Long#parseLong}, accumulating negatively so that the minimum value
+     * can be parsed without overflow
+     * @param charAt character at an index of the underlying buffer
+     * @param text the parsed range as a string, only built for the error message
+     */
+    private static long parseLong(final IntUnaryOperator charAt, final int start, final int end,
+                                  final Supplier<String> text) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (charAt.applyAsInt(i) == '-' || charAt.applyAsInt(i) == '+')) {
+            negative = charAt.applyAsInt(i) == '-';
+            i++;
+        }
+        if (i == end) {
+            throw invalidTimestamp(text.get());
+        }
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        for (; i < end; i++) {
+            int digit = charAt.applyAsInt(i) - '0';
+            if (digit < 0 || digit > 9 || result < multiplyLimit) {
+                throw invalidTimestamp(text.get());
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw invalidTimestamp(text.get());
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private static RuntimeException invalidTimestamp(final String timestamp) {
+        return new RuntimeException(String.format(INVALID_TIMESTAMP, timestamp));
+    }
+}
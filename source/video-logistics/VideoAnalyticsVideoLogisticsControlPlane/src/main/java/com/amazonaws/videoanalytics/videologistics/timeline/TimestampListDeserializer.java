@@ -1,32 +1,66 @@
 package com.amazonaws.videoanalytics.videologistics.timeline;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.inject.Inject;
 
 import com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 public class TimestampListDeserializer {
     private final ObjectMapper objectMapper;
-    private final TypeReference<List<TimestampInfo>> typeReference = new TypeReference<>() {};
     @Inject
     public TimestampListDeserializer(final ObjectMapper objectMapper) {
         this.objectMapper = objectMapper;
     }
 
     public List<TimestampInfo> deserialize(final String timestampListJson) {
-        try {
-            //parse as JsonNode to handle both direct JSON and string-encoded JSON
-            JsonNode jsonNode = objectMapper.readTree(timestampListJson);
-            if (jsonNode.isTextual()) {
-                return objectMapper.readValue(jsonNode.asText(), typeReference);
+        long[] timestampInfos = deserializeToArray(timestampListJson);
+        List<TimestampInfo> timestampList = new ArrayList<>(timestampInfos.length / 2);
+        for (int i = 0; i < timestampInfos.length; i += 2) {
+            timestampList.add(new TimestampInfo(timestampInfos[i], timestampInfos[i + 1]));
+        }
+        return timestampList;
+    }
+
+    /**
+     * Reads the timestamp list without building a JSON tree, see {@link TimestampDecoder#readTimestampInfos}
+     * @param timestampListJson JSON array, or a JSON string holding the array
+     * @return timestamps and durations, interleaved
+     */
+    public long[] deserializeToArray(final String timestampListJson) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(timestampListJson)) {
+            long[] timestampInfos;
+            //handle both direct JSON and string-encoded JSON
+            if (parser.nextToken() == JsonToken.VALUE_STRING) {
+                try (JsonParser encodedParser = objectMapper.getFactory().createParser(parser.getText())) {
+                    encodedParser.nextToken();
+                    timestampInfos = readToEnd(encodedParser);
+                }
+                expectEnd(parser);
+            } else {
+                timestampInfos = readToEnd(parser);
             }
-            return objectMapper.convertValue(jsonNode, typeReference);
+            return timestampInfos;
         } catch (Exception e) {
             throw new RuntimeException(String.format(VideoAnalyticsExceptionMessage.TIMELINE_DESERIALIZATION_ERROR, timestampListJson), e);
         }
     }
-}
\ No newline at end of file
+
+    private static long[] readToEnd(final JsonParser parser) throws IOException {
+        long[] timestampInfos = TimestampDecoder.readTimestampInfos(parser);
+        expectEnd(parser);
+        return timestampInfos;
+    }
+
+    private static void expectEnd(final JsonParser parser) throws IOException {
+        if (parser.nextToken() != null) {
+            throw new IOException(String.format("Unexpected content after timestamp list at %s",
+                    parser.currentLocation()));
+        }
+    }
+}
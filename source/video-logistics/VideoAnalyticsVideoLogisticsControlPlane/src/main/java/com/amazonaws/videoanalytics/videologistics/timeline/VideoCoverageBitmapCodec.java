@@ -0,0 +1,89 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.INVALID_COVERAGE_BITMAP;
+
+/**
+ * Compresses the per second coverage bitmap of a day for storage. Recording is mostly continuous, so a bitmap is
+ * stored as the varint lengths of its alternating runs of unrecorded and recorded seconds, starting with an unrecorded
+ * run, eg. a day recorded from 01:00:00 to 02:00:00 is [3600, 3600]. Bitmaps that are too fragmented for run lengths
+ * to pay off are stored as plain bits, which is at most 10800 bytes for a day.
+ */
+public final class VideoCoverageBitmapCodec {
+    public static final int SECONDS_PER_DAY = 24 * 60 * 60;
+    private static final byte RUN_LENGTH_FORMAT = 0;
+    private static final byte BITSET_FORMAT = 1;
+
+    private VideoCoverageBitmapCodec() {
+    }
+
+    public static byte[] encode(final BitSet coverage) {
+        ByteArrayOutputStream runLengths = new ByteArrayOutputStream();
+        runLengths.write(RUN_LENGTH_FORMAT);
+        int second = 0;
+        while (second < coverage.length()) {
+            int recordedStart = coverage.nextSetBit(second);
+            int recordedEnd = coverage.nextClearBit(recordedStart);
+            writeVarint(runLengths, recordedStart - second);
+            writeVarint(runLengths, recordedEnd - recordedStart);
+            second = recordedEnd;
+        }
+        byte[] bits = coverage.toByteArray();
+        if (runLengths.size() <= bits.length + 1) {
+            return runLengths.toByteArray();
+        }
+        byte[] encoded = new byte[bits.length + 1];
+        encoded[0] = BITSET_FORMAT;
+        System.arraycopy(bits, 0, encoded, 1, bits.length);
+        return encoded;
+    }
+
+    public static BitSet decode(final byte[] encoded) {
+        if (encoded == null || encoded.length == 0) {
+            return new BitSet(SECONDS_PER_DAY);
+        }
+        if (encoded[0] == BITSET_FORMAT) {
+            return BitSet.valueOf(Arrays.copyOfRange(encoded, 1, encoded.length));
+        }
+        if (encoded[0] != RUN_LENGTH_FORMAT) {
+            throw new IllegalArgumentException(String.format(INVALID_COVERAGE_BITMAP, encoded[0]));
+        }
+        BitSet coverage = new BitSet(SECONDS_PER_DAY);
+        int[] position = {1};
+        int second = 0;
+        while (position[0] < encoded.length) {
+            second += readVarint(encoded, position);
+            int recordedSeconds = readVarint(encoded, position);
+            coverage.set(second, second + recordedSeconds);
+            second += recordedSeconds;
+        }
+        return coverage;
+    }
+
+    static void writeVarint(final ByteArrayOutputStream out, final int value) {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.write((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.write(remaining);
+    }
+
+    static int readVarint(final byte[] encoded, final int[] position) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (position[0] >= encoded.length) {
+                break;
+            }
+            byte b = encoded[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException(String.format(INVALID_COVERAGE_BITMAP, RUN_LENGTH_FORMAT));
+    }
+}
@@ -0,0 +1,102 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoCoverage;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoDensityLocation;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+
+import static com.amazonaws.videoanalytics.videologistics.timeline.VideoCoverageBitmapCodec.SECONDS_PER_DAY;
+
+/**
+ * Change in the coverage bitmaps of a device for a single UTC day. Deltas for the same day can be merged in record
+ * order so that a batch of timeline updates costs one write per device and day.
+ * <p>
+ * Setting and clearing seconds is idempotent, so unlike density deltas a replayed record can be applied again.
+ */
+@Getter
+public class VideoCoverageDelta {
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private final String deviceId;
+    private final long dayStartTime;
+    private final BitSet cloudRecorded = new BitSet(SECONDS_PER_DAY);
+    private final BitSet deviceRecorded = new BitSet(SECONDS_PER_DAY);
+    // seconds moved from device to cloud by catch up
+    private final BitSet deviceRemoved = new BitSet(SECONDS_PER_DAY);
+    private String firstKinesisSequenceNumber;
+
+    public VideoCoverageDelta(final String deviceId, final long dayStartTime) {
+        this.deviceId = deviceId;
+        this.dayStartTime = dayStartTime;
+    }
+
+    /**
+     * Returns the coverage change described by a timeline update for a SECONDS bucket. The video in the bucket starts
+     * at the later of the bucket start and the fragment start.
+     */
+    public static VideoCoverageDelta fromKinesisRecord(final TimelineKDSMetadata timelineKDSMetadata,
+                                                       final String sequenceNumber) {
+        long bucketStartTime = timelineKDSMetadata.getBucketStartTime();
+        long bucketEndTime = bucketStartTime + timelineKDSMetadata.getTimeIncrementUnits().getBucketDurationMillis();
+        long startTime = Math.max(bucketStartTime, timelineKDSMetadata.getTimestampToBeStored());
+        long endTime = Math.min(bucketEndTime, startTime + timelineKDSMetadata.getDurationInMillis());
+        long dayStartTime = Instant.ofEpochMilli(bucketStartTime).truncatedTo(ChronoUnit.DAYS).toEpochMilli();
+
+        VideoCoverageDelta videoCoverageDelta = new VideoCoverageDelta(timelineKDSMetadata.getDeviceId(), dayStartTime);
+        videoCoverageDelta.firstKinesisSequenceNumber = sequenceNumber;
+        if (startTime >= endTime) {
+            return videoCoverageDelta;
+        }
+        int startSecond = (int) ((startTime - dayStartTime) / MILLIS_PER_SECOND);
+        int endSecond = (int) Math.min(SECONDS_PER_DAY,
+                (endTime - dayStartTime + MILLIS_PER_SECOND - 1) / MILLIS_PER_SECOND);
+        if (timelineKDSMetadata.isCatchup()) {
+            videoCoverageDelta.cloudRecorded.set(startSecond, endSecond);
+            videoCoverageDelta.deviceRemoved.set(startSecond, endSecond);
+        } else if (timelineKDSMetadata.getVideoDensityLocation() == VideoDensityLocation.CLOUD) {
+            videoCoverageDelta.cloudRecorded.set(startSecond, endSecond);
+        } else if (timelineKDSMetadata.getVideoDensityLocation() == VideoDensityLocation.DEVICE) {
+            videoCoverageDelta.deviceRecorded.set(startSecond, endSecond);
+        }
+        return videoCoverageDelta;
+    }
+
+    /**
+     * Key of the coverage item this delta applies to, deltas with the same key can be merged
+     */
+    public String getCoverageKey() {
+        return String.format("%s#%d", deviceId, dayStartTime);
+    }
+
+    /**
+     * Applies a later delta for the same day on top of this one
+     */
+    public void merge(final VideoCoverageDelta other) {
+        cloudRecorded.or(other.cloudRecorded);
+        deviceRecorded.andNot(other.deviceRemoved);
+        deviceRecorded.or(other.deviceRecorded);
+        deviceRemoved.andNot(other.deviceRecorded);
+        deviceRemoved.or(other.deviceRemoved);
+        if (firstKinesisSequenceNumber == null) {
+            firstKinesisSequenceNumber = other.firstKinesisSequenceNumber;
+        }
+    }
+
+    /**
+     * Returns the coverage of the day after this change
+     */
+    public VideoCoverage applyTo(final VideoCoverage videoCoverage) {
+        BitSet cloudCoverage = (BitSet) videoCoverage.getCloudCoverage().clone();
+        cloudCoverage.or(cloudRecorded);
+        BitSet deviceCoverage = (BitSet) videoCoverage.getDeviceCoverage().clone();
+        deviceCoverage.andNot(deviceRemoved);
+        deviceCoverage.or(deviceRecorded);
+        return new VideoCoverage(deviceId, dayStartTime, cloudCoverage, deviceCoverage, videoCoverage.getVersion() + 1);
+    }
+
+    public boolean isEmpty() {
+        return cloudRecorded.isEmpty() && deviceRecorded.isEmpty() && deviceRemoved.isEmpty();
+    }
+}
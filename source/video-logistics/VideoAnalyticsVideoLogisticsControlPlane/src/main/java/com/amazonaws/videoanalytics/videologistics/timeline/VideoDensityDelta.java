@@ -0,0 +1,122 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoDensityLocation;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Change in cloud and device density for a single aggregate timeline bucket. Deltas for the same bucket can be summed
+ * so that a batch of timeline updates costs one write per bucket.
+ * <p>
+ * Deltas read from KDS also carry the shard and the range of sequence numbers they were built from, which is used to
+ * detect records that have already been applied when a batch is replayed.
+ */
+@Getter
+@ToString
+public class VideoDensityDelta {
+    // Kinesis sequence numbers have up to 129 digits, padding makes them comparable as strings
+    private static final int SEQUENCE_NUMBER_LENGTH = 129;
+    private final String deviceId;
+    private final TimeIncrementUnits timeIncrementUnits;
+    private final Long bucketStartTime;
+    private long cloudDensityDelta;
+    private long deviceDensityDelta;
+    private String shardId;
+    private String firstSequenceNumber;
+    private String lastSequenceNumber;
+
+    public VideoDensityDelta(final String deviceId, final TimeIncrementUnits timeIncrementUnits,
+                             final Long bucketStartTime, final long cloudDensityDelta, final long deviceDensityDelta) {
+        this.deviceId = deviceId;
+        this.timeIncrementUnits = timeIncrementUnits;
+        this.bucketStartTime = bucketStartTime;
+        this.cloudDensityDelta = cloudDensityDelta;
+        this.deviceDensityDelta = deviceDensityDelta;
+    }
+
+    /**
+     * Returns the density change described by a timeline update. Catch up moves time from device to cloud.
+     */
+    public static VideoDensityDelta fromTimelineKDSMetadata(final TimelineKDSMetadata timelineKDSMetadata) {
+        long durationInMillis = timelineKDSMetadata.getDurationInMillis();
+        long cloudDensityDelta = 0L;
+        long deviceDensityDelta = 0L;
+        if (timelineKDSMetadata.isCatchup()) {
+            deviceDensityDelta = -durationInMillis;
+            cloudDensityDelta = durationInMillis;
+        } else if (timelineKDSMetadata.getVideoDensityLocation() == VideoDensityLocation.CLOUD) {
+            cloudDensityDelta = durationInMillis;
+        } else if (timelineKDSMetadata.getVideoDensityLocation() == VideoDensityLocation.DEVICE) {
+            deviceDensityDelta = durationInMillis;
+        }
+        return new VideoDensityDelta(timelineKDSMetadata.getDeviceId(), timelineKDSMetadata.getTimeIncrementUnits(),
+                timelineKDSMetadata.getBucketStartTime(), cloudDensityDelta, deviceDensityDelta);
+    }
+
+    /**
+     * Returns the density change described by a timeline update read from the given KDS shard
+     */
+    public static VideoDensityDelta fromKinesisRecord(final TimelineKDSMetadata timelineKDSMetadata,
+                                                      final String shardId, final String sequenceNumber) {
+        VideoDensityDelta videoDensityDelta = fromTimelineKDSMetadata(timelineKDSMetadata);
+        videoDensityDelta.shardId = shardId;
+        videoDensityDelta.firstSequenceNumber = toSortableSequenceNumber(sequenceNumber);
+        videoDensityDelta.lastSequenceNumber = videoDensityDelta.firstSequenceNumber;
+        return videoDensityDelta;
+    }
+
+    /**
+     * Returns the same density change, applied to the given bucket instead. The KDS shard and sequence numbers are
+     * kept so that the target bucket can detect replayed records as well.
+     */
+    public VideoDensityDelta toBucket(final TimeIncrementUnits timeIncrementUnits, final Long bucketStartTime) {
+        VideoDensityDelta videoDensityDelta = new VideoDensityDelta(deviceId, timeIncrementUnits, bucketStartTime,
+                cloudDensityDelta, deviceDensityDelta);
+        videoDensityDelta.shardId = shardId;
+        videoDensityDelta.firstSequenceNumber = firstSequenceNumber;
+        videoDensityDelta.lastSequenceNumber = lastSequenceNumber;
+        return videoDensityDelta;
+    }
+
+    /**
+     * Left pads a sequence number with zeros so that sequence numbers of a shard sort lexicographically
+     */
+    public static String toSortableSequenceNumber(final String sequenceNumber) {
+        return "0".repeat(Math.max(0, SEQUENCE_NUMBER_LENGTH - sequenceNumber.length())) + sequenceNumber;
+    }
+
+    /**
+     * Key of the bucket this delta applies to, deltas with the same key can be merged
+     */
+    public String getBucketKey() {
+        return String.format("%s#%s#%d", deviceId, timeIncrementUnits, bucketStartTime);
+    }
+
+    public void merge(final VideoDensityDelta other) {
+        this.cloudDensityDelta += other.cloudDensityDelta;
+        this.deviceDensityDelta += other.deviceDensityDelta;
+        if (other.firstSequenceNumber != null
+                && (firstSequenceNumber == null || other.firstSequenceNumber.compareTo(firstSequenceNumber) < 0)) {
+            this.firstSequenceNumber = other.firstSequenceNumber;
+        }
+        if (other.lastSequenceNumber != null
+                && (lastSequenceNumber == null || other.lastSequenceNumber.compareTo(lastSequenceNumber) > 0)) {
+            this.lastSequenceNumber = other.lastSequenceNumber;
+        }
+        if (shardId == null) {
+            this.shardId = other.shardId;
+        }
+    }
+
+    /**
+     * Returns the original (unpadded) sequence number of the first record in this delta, if read from KDS
+     */
+    public String getFirstKinesisSequenceNumber() {
+        return firstSequenceNumber == null ? null : firstSequenceNumber.replaceFirst("^0+(?=.)", "");
+    }
+
+    public boolean isEmpty() {
+        return cloudDensityDelta == 0L && deviceDensityDelta == 0L;
+    }
+}
@@ -1,33 +1,66 @@
 package com.amazonaws.videoanalytics.videologistics.timeline;
 
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.CompactedVideoTimelineDAO;
 import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.RawVideoTimelineDAO;
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.VideoCoverageDAO;
 import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.VideoTimelineDAO;
 import com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.KinesisEvent;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import com.amazonaws.services.lambda.runtime.events.StreamsEventResponse;
+import com.amazonaws.services.lambda.runtime.events.StreamsEventResponse.BatchItemFailure;
 import javax.inject.Inject;
 
+import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.COVERAGE_UPDATE_ERROR;
+import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.DENSITY_UPDATE_ERROR;
+
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import com.amazonaws.videoanalytics.videologistics.utils.annotations.ExcludeFromJacocoGeneratedReport;
 import com.amazonaws.videoanalytics.videologistics.dagger.AWSVideoAnalyticsVLControlPlaneComponent;
 import com.amazonaws.videoanalytics.videologistics.dagger.DaggerAWSVideoAnalyticsVLControlPlaneComponent;
+import com.amazonaws.videoanalytics.videologistics.utils.logging.DeviceLogSampler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import static com.amazonaws.videoanalytics.videologistics.timeline.CompactedTimelineCodec.MILLIS_PER_HOUR;
 
-public class VideoDensityUpdateLambda implements RequestHandler<KinesisEvent, Void> {
+public class VideoDensityUpdateLambda implements RequestHandler<KinesisEvent, StreamsEventResponse> {
 
     private static final Logger LOG = LogManager.getLogger(VideoDensityUpdateLambda.class);
+    private static final int MAX_SAVE_ATTEMPTS = 3;
     private final RawVideoTimelineDAO rawVideoTimelineDAO;
     private final VideoTimelineDAO videoTimelineDAO;
     private final TimelineKDSMetadataSerDe timelineKDSMetadataSerDe;
+    private final VideoTimelineAggregator videoTimelineAggregator;
+    private final VideoCoverageDAO videoCoverageDAO;
+    private final CompactedVideoTimelineDAO compactedVideoTimelineDAO;
+    // open hours this container already queued for compaction, so that they are queued once rather than per batch
+    private final Set<String> queuedOpenHours = new HashSet<>();
+    private long queuedOpenHourStartTime;
 
     @Inject
-    public VideoDensityUpdateLambda(RawVideoTimelineDAO rawVideoTimelineDAO, VideoTimelineDAO videoTimelineDAO, TimelineKDSMetadataSerDe timelineKDSMetadataSerDe) {
+    public VideoDensityUpdateLambda(RawVideoTimelineDAO rawVideoTimelineDAO, VideoTimelineDAO videoTimelineDAO,
+                                    TimelineKDSMetadataSerDe timelineKDSMetadataSerDe,
+                                    VideoTimelineAggregator videoTimelineAggregator,
+                                    VideoCoverageDAO videoCoverageDAO,
+                                    CompactedVideoTimelineDAO compactedVideoTimelineDAO) {
         this.rawVideoTimelineDAO = rawVideoTimelineDAO;
         this.videoTimelineDAO = videoTimelineDAO;
         this.timelineKDSMetadataSerDe = timelineKDSMetadataSerDe;
+        this.videoTimelineAggregator = videoTimelineAggregator;
+        this.videoCoverageDAO = videoCoverageDAO;
+        this.compactedVideoTimelineDAO = compactedVideoTimelineDAO;
     }
 
     @ExcludeFromJacocoGeneratedReport
@@ -37,42 +70,254 @@ public class VideoDensityUpdateLambda implements RequestHandler<KinesisEvent, Vo
         this.rawVideoTimelineDAO = component.getRawVideoTimelineDAO();
         this.videoTimelineDAO = component.getVideoTimelineDAO();
         this.timelineKDSMetadataSerDe = component.getTimelineKDSMetadataSerDe();
+        this.videoTimelineAggregator = component.getVideoTimelineAggregator();
+        this.videoCoverageDAO = component.getVideoCoverageDAO();
+        this.compactedVideoTimelineDAO = component.getCompactedVideoTimelineDAO();
     }
 
     @Override
-    public Void handleRequest(final KinesisEvent event, final Context context) {
+    public StreamsEventResponse handleRequest(final KinesisEvent event, final Context context) {
         if (event == null) {
             throw new IllegalArgumentException(VideoAnalyticsExceptionMessage.INVALID_INPUT);
         }
 
         List<KinesisEvent.KinesisEventRecord> kinesisEventRecords = event.getRecords();
-        LOG.info("Received {} timelines from KDS.", kinesisEventRecords.size());
+        LOG.info(() -> String.format("Received %d timelines from KDS.", kinesisEventRecords.size()));
+        // https://docs.aws.amazon.com/lambda/latest/dg/with-kinesis.html#services-kinesis-batchfailurereporting
+        List<BatchItemFailure> itemFailures = new ArrayList<>();
 
-        for (KinesisEvent.KinesisEventRecord kinesisEventRecord : kinesisEventRecords) {
+        // records for the same bucket are grouped first so that each bucket is written once per batch
+        Map<String, List<VideoDensityDelta>> densityDeltas = new LinkedHashMap<>();
+        // coverage changes are merged in record order into one bitmap update per device and day
+        Map<String, VideoCoverageDelta> coverageDeltas = new LinkedHashMap<>();
+        // hours touched by the records, with the sequence number of their first record
+        Map<String, CompactionHour> compactionHours = new LinkedHashMap<>();
+        for (int i = 0; i < kinesisEventRecords.size(); i++) {
+            KinesisEvent.KinesisEventRecord kinesisEventRecord = kinesisEventRecords.get(i);
             KinesisEvent.Record record = kinesisEventRecord.getKinesis();
             String kdsTimelineJson = new String(record.getData().array(), StandardCharsets.UTF_8);
             try {
                 TimelineKDSMetadata timelineKDSMetadata = timelineKDSMetadataSerDe.deserialize(kdsTimelineJson);
-                updateAggregatedTimeline(timelineKDSMetadata);
+                VideoDensityDelta videoDensityDelta = VideoDensityDelta.fromKinesisRecord(timelineKDSMetadata,
+                        getShardId(kinesisEventRecord), record.getSequenceNumber());
+                addDensityDelta(densityDeltas, videoDensityDelta);
+                VideoCoverageDelta videoCoverageDelta = VideoCoverageDelta.fromKinesisRecord(timelineKDSMetadata,
+                        record.getSequenceNumber());
+                coverageDeltas.merge(videoCoverageDelta.getCoverageKey(), videoCoverageDelta, (merged, delta) -> {
+                    merged.merge(delta);
+                    return merged;
+                });
+                addCompactionHours(compactionHours, timelineKDSMetadata, record.getSequenceNumber());
             } catch (Exception e) {
-                throw new RuntimeException(String.format("Failed to parse timeline for partition %s with SeqN %s",
+                // the batch is retried from this record, so the records after it are not applied in this invocation
+                LOG.error(() -> String.format("Failed to parse timeline for partition %s with SeqN %s",
                         record.getPartitionKey(), record.getSequenceNumber()), e);
+                for (int j = i; j < kinesisEventRecords.size(); j++) {
+                    itemFailures.add(BatchItemFailure.builder()
+                            .withItemIdentifier(kinesisEventRecords.get(j).getKinesis().getSequenceNumber())
+                            .build());
+                }
+                break;
+            }
+        }
+
+        LOG.info(() -> String.format("Coalesced %d timelines into %d bucket updates.", kinesisEventRecords.size(),
+                densityDeltas.size()));
+        for (List<VideoDensityDelta> bucketDeltas : densityDeltas.values()) {
+            try {
+                updateAggregatedTimeline(bucketDeltas);
+            } catch (Exception e) {
+                // buckets updated after this one are protected against double counting by their sequence watermark
+                String firstSequenceNumber = bucketDeltas.get(0).getFirstKinesisSequenceNumber();
+                LOG.error(() -> String.format("Failed to update video density for %s, retrying from SeqN %s",
+                        bucketDeltas.get(0).getBucketKey(), firstSequenceNumber), e);
+                itemFailures.add(BatchItemFailure.builder()
+                        .withItemIdentifier(firstSequenceNumber)
+                        .build());
+            }
+        }
+
+        for (VideoCoverageDelta videoCoverageDelta : coverageDeltas.values()) {
+            try {
+                updateVideoCoverage(videoCoverageDelta);
+            } catch (Exception e) {
+                // coverage updates are idempotent, so the records of the day can be replayed as a whole
+                LOG.error(() -> String.format("Failed to update video coverage for %s, retrying from SeqN %s",
+                        videoCoverageDelta.getCoverageKey(), videoCoverageDelta.getFirstKinesisSequenceNumber()), e);
+                itemFailures.add(BatchItemFailure.builder()
+                        .withItemIdentifier(videoCoverageDelta.getFirstKinesisSequenceNumber())
+                        .build());
+            }
+        }
+
+        long now = Instant.now().toEpochMilli();
+        for (CompactionHour compactionHour : compactionHours.values()) {
+            try {
+                updateCompaction(compactionHour, now);
+            } catch (Exception e) {
+                // invalidating and queueing an hour are idempotent, so its records can be replayed as a whole
+                LOG.error(() -> String.format("Failed to queue hour %d of %s for compaction, retrying from SeqN %s",
+                        compactionHour.hourStartTime, compactionHour.deviceId,
+                        compactionHour.firstSequenceNumber), e);
+                itemFailures.add(BatchItemFailure.builder()
+                        .withItemIdentifier(compactionHour.firstSequenceNumber)
+                        .build());
             }
         }
-        return null;
+
+        if (itemFailures.isEmpty()) {
+            return null;
+        }
+        LOG.info(() -> String.format("%d of %d KDS records were not processed and will be retried.",
+                itemFailures.size(), kinesisEventRecords.size()));
+        return StreamsEventResponse.builder()
+                .withBatchItemFailures(itemFailures)
+                .build();
     }
 
     /**
-     * Method updates all time increments for incoming video timestamp from KDS for a given time increment
+     * Method updates the aggregated timeline bucket with the summed up density change of the given records. If some
+     * of the records were already applied by a previous attempt of this batch, only the remaining ones are applied.
+     * @param bucketDeltas density changes of the records for one bucket, in sequence number order
      */
-    private void updateAggregatedTimeline (TimelineKDSMetadata timelineKDSMetadata) {
-        LOG.info(String.format("Starting density update for catch up = %s", timelineKDSMetadata.isCatchup()));
+    private void updateAggregatedTimeline(List<VideoDensityDelta> bucketDeltas) {
+        List<VideoDensityDelta> pendingDeltas = bucketDeltas;
+        for (int attempt = 1; attempt <= MAX_SAVE_ATTEMPTS; attempt++) {
+            VideoDensityDelta videoDensityDelta = coalesce(pendingDeltas);
+            if (videoDensityDelta.isEmpty()) {
+                DeviceLogSampler.debug(LOG, videoDensityDelta.getDeviceId(),
+                        () -> String.format("Skipping update for %s as density " +
+                        "changes cancel out", videoDensityDelta.getBucketKey()));
+                return;
+            }
+            DeviceLogSampler.debug(LOG, videoDensityDelta.getDeviceId(),
+                    () -> "Updating video density for " + videoDensityDelta);
+            if (videoTimelineDAO.save(videoDensityDelta)) {
+                return;
+            }
 
-        LOG.info("Updating video density for {}", timelineKDSMetadata);
+            String watermark = videoTimelineDAO.getSequenceWatermark(videoDensityDelta.getDeviceId(),
+                    videoDensityDelta.getTimeIncrementUnits(), videoDensityDelta.getBucketStartTime(),
+                    videoDensityDelta.getShardId()).orElse("");
+            pendingDeltas = pendingDeltas.stream()
+                    .filter(delta -> delta.getFirstSequenceNumber().compareTo(watermark) > 0)
+                    .collect(Collectors.toList());
+            int appliedDeltas = bucketDeltas.size() - pendingDeltas.size();
+            LOG.info(() -> String.format("%d of %d records for %s were already " +
+                    "applied", appliedDeltas, bucketDeltas.size(), videoDensityDelta.getBucketKey()));
+            if (pendingDeltas.isEmpty()) {
+                return;
+            }
+        }
+        throw new RuntimeException(String.format(DENSITY_UPDATE_ERROR, bucketDeltas.get(0).getBucketKey(),
+                MAX_SAVE_ATTEMPTS));
+    }
 
-        videoTimelineDAO.save(timelineKDSMetadata);
+    /**
+     * Method updates the coverage bitmaps of a device and day, retrying if they are updated concurrently
+     * @param videoCoverageDelta merged coverage changes of the records for one device and day
+     */
+    private void updateVideoCoverage(VideoCoverageDelta videoCoverageDelta) {
+        if (videoCoverageDelta.isEmpty()) {
+            return;
+        }
+        for (int attempt = 1; attempt <= MAX_SAVE_ATTEMPTS; attempt++) {
+            DeviceLogSampler.debug(LOG, videoCoverageDelta.getDeviceId(), () -> "Updating video coverage for " +
+                    videoCoverageDelta.getCoverageKey());
+            if (videoCoverageDAO.save(videoCoverageDelta)) {
+                return;
+            }
+        }
+        throw new RuntimeException(String.format(COVERAGE_UPDATE_ERROR, videoCoverageDelta.getCoverageKey(),
+                MAX_SAVE_ATTEMPTS));
     }
 
+    /**
+     * Method queues an hour of a device for compaction. A closed hour may already be compacted without the record, so
+     * its compacted intervals are invalidated first, open hours are only compacted after they close.
+     */
+    private void updateCompaction(CompactionHour compactionHour, long now) {
+        if (compactionHour.hourStartTime + MILLIS_PER_HOUR <= now) {
+            compactedVideoTimelineDAO.invalidate(compactionHour.deviceId, compactionHour.hourStartTime, now);
+            compactedVideoTimelineDAO.enqueueCompaction(compactionHour.deviceId, compactionHour.hourStartTime);
+            return;
+        }
+        if (compactionHour.hourStartTime != queuedOpenHourStartTime) {
+            queuedOpenHours.clear();
+            queuedOpenHourStartTime = compactionHour.hourStartTime;
+        }
+        String compactionKey = compactionHour.getCompactionKey();
+        if (!queuedOpenHours.contains(compactionKey)) {
+            compactedVideoTimelineDAO.enqueueCompaction(compactionHour.deviceId, compactionHour.hourStartTime);
+            queuedOpenHours.add(compactionKey);
+        }
+    }
 
+    /**
+     * Adds every hour the raw timeline of a record overlaps, so that a fragment running over the end of an hour
+     * invalidates both hours
+     */
+    private static void addCompactionHours(Map<String, CompactionHour> compactionHours,
+                                           TimelineKDSMetadata timelineKDSMetadata, String sequenceNumber) {
+        long startTime = timelineKDSMetadata.getTimestampToBeStored();
+        long endTime = startTime + Math.max(1L, timelineKDSMetadata.getDurationInMillis());
+        for (long hourStartTime = Math.floorDiv(startTime, MILLIS_PER_HOUR) * MILLIS_PER_HOUR; hourStartTime < endTime;
+             hourStartTime += MILLIS_PER_HOUR) {
+            CompactionHour compactionHour = new CompactionHour(timelineKDSMetadata.getDeviceId(), hourStartTime,
+                    sequenceNumber);
+            compactionHours.putIfAbsent(compactionHour.getCompactionKey(), compactionHour);
+        }
+    }
 
+    /**
+     * Adds the density change of a record to the bucket it is for. SECONDS records are also rolled up into the
+     * MINUTES, HOURS and DAYS buckets containing them, older records for coarser units are applied as they are.
+     */
+    private void addDensityDelta(Map<String, List<VideoDensityDelta>> densityDeltas,
+                                 VideoDensityDelta videoDensityDelta) {
+        densityDeltas.computeIfAbsent(videoDensityDelta.getBucketKey(), key -> new ArrayList<>())
+                .add(videoDensityDelta);
+        if (videoDensityDelta.getTimeIncrementUnits() != TimeIncrementUnits.SECONDS) {
+            return;
+        }
+        Optional<VideoDensityDelta> rolledUpDelta = videoTimelineAggregator.rollUp(videoDensityDelta);
+        while (rolledUpDelta.isPresent()) {
+            densityDeltas.computeIfAbsent(rolledUpDelta.get().getBucketKey(), key -> new ArrayList<>())
+                    .add(rolledUpDelta.get());
+            rolledUpDelta = videoTimelineAggregator.rollUp(rolledUpDelta.get());
+        }
+    }
+
+    private static VideoDensityDelta coalesce(List<VideoDensityDelta> deltas) {
+        VideoDensityDelta first = deltas.get(0);
+        VideoDensityDelta coalesced = new VideoDensityDelta(first.getDeviceId(), first.getTimeIncrementUnits(),
+                first.getBucketStartTime(), 0L, 0L);
+        deltas.forEach(coalesced::merge);
+        return coalesced;
+    }
+
+    // event IDs are of the form shardId-000000000000:<sequence number>
+    private static String getShardId(KinesisEvent.KinesisEventRecord kinesisEventRecord) {
+        String eventId = kinesisEventRecord.getEventID();
+        if (eventId == null || !eventId.contains(":")) {
+            return null;
+        }
+        return eventId.substring(0, eventId.indexOf(':'));
+    }
+
+    private static final class CompactionHour {
+        private final String deviceId;
+        private final long hourStartTime;
+        private final String firstSequenceNumber;
+
+        private CompactionHour(String deviceId, long hourStartTime, String firstSequenceNumber) {
+            this.deviceId = deviceId;
+            this.hourStartTime = hourStartTime;
+            this.firstSequenceNumber = firstSequenceNumber;
+        }
+
+        private String getCompactionKey() {
+            return deviceId + "#" + hourStartTime;
+        }
+    }
 }
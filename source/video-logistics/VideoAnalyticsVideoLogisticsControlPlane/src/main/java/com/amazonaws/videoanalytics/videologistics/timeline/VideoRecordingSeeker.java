@@ -0,0 +1,239 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.videoanalytics.videologistics.SeekDirection;
+import com.amazonaws.videoanalytics.videologistics.Timeline;
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.RawVideoTimelineDAO;
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.VideoCoverageDAO;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.RawVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoCoverage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.inject.Inject;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.amazonaws.videoanalytics.videologistics.timeline.DetailedVideoTimelineGenerator.MAX_KVS_FRAGMENT_DURATION_BUFFER;
+import static com.amazonaws.videoanalytics.videologistics.timeline.VideoCoverageBitmapCodec.SECONDS_PER_DAY;
+
+/**
+ * Finds the recorded segment of a device next to a timestamp, where a segment is a run of seconds with video in either
+ * location. Segments are located on the daily coverage bitmaps, skipping days without video with a single query, and
+ * their boundaries are then refined to milliseconds with one single item raw timeline query each, so a seek costs a
+ * bounded number of reads however far away the segment is. Video ingested before coverage was maintained is not found.
+ */
+public class VideoRecordingSeeker {
+    private static final Logger LOG = LogManager.getLogger(VideoRecordingSeeker.class);
+    // Coverage items read per seek. A segment running over more days than are left is cut at the last day read.
+    public static final int MAX_COVERAGE_READS = 8;
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long MILLIS_PER_DAY = SECONDS_PER_DAY * MILLIS_PER_SECOND;
+    private final VideoCoverageDAO videoCoverageDAO;
+    private final RawVideoTimelineDAO rawVideoTimelineDAO;
+
+    @Inject
+    public VideoRecordingSeeker(final VideoCoverageDAO videoCoverageDAO,
+                                final RawVideoTimelineDAO rawVideoTimelineDAO) {
+        this.videoCoverageDAO = videoCoverageDAO;
+        this.rawVideoTimelineDAO = rawVideoTimelineDAO;
+    }
+
+    /**
+     * Returns the first segment starting after the timestamp for NEXT, or the last segment starting at or before it
+     * for PREVIOUS (which may contain the timestamp). Start times are compared at second precision.
+     */
+    public Optional<Timeline> seek(final String deviceId, final long timestampInMillis,
+                                   final SeekDirection direction) {
+        CoverageReader coverageReader = new CoverageReader(deviceId);
+        long dayStartTime = Instant.ofEpochMilli(timestampInMillis).truncatedTo(ChronoUnit.DAYS).toEpochMilli();
+        int secondOfDay = (int) ((timestampInMillis - dayStartTime) / MILLIS_PER_SECOND);
+
+        Position segmentPosition = direction == SeekDirection.NEXT
+                ? findNextSegmentStart(coverageReader, dayStartTime, secondOfDay + 1)
+                : findPreviousRecordedSecond(coverageReader, dayStartTime, secondOfDay);
+        if (segmentPosition == null) {
+            LOG.info(String.format("No %s recording found after %d coverage reads", direction,
+                    coverageReader.reads));
+            return Optional.empty();
+        }
+
+        long startTime = findSegmentStart(coverageReader, segmentPosition).toTimestamp();
+        long endTime = findSegmentEnd(coverageReader, segmentPosition).toTimestamp();
+        LOG.info(String.format("Found %s recording from %d to %d after %d coverage reads", direction, startTime,
+                endTime, coverageReader.reads));
+        return Optional.of(Timeline.builder()
+                .startTime((double) refineStartTime(deviceId, startTime))
+                .endTime((double) refineEndTime(deviceId, endTime))
+                .build());
+    }
+
+    private static Position findNextSegmentStart(final CoverageReader coverageReader, final long dayStartTime,
+                                                 final int fromSecond) {
+        long day = dayStartTime;
+        BitSet coverage = coverageReader.get(day);
+        int start = nextSegmentStart(coverage, fromSecond, false);
+        while (start < 0) {
+            VideoCoverage laterCoverage = coverageReader.getAdjacent(day, true);
+            if (laterCoverage == null) {
+                return null;
+            }
+            // a segment running over midnight starts on the earlier day
+            boolean previousSecondRecorded = laterCoverage.getDayStartTime() == day + MILLIS_PER_DAY
+                    && coverage.get(SECONDS_PER_DAY - 1);
+            day = laterCoverage.getDayStartTime();
+            coverage = laterCoverage.getCoverage();
+            start = nextSegmentStart(coverage, 0, previousSecondRecorded);
+        }
+        return new Position(day, coverage, start);
+    }
+
+    private static int nextSegmentStart(final BitSet coverage, final int fromSecond,
+                                        final boolean previousSecondRecorded) {
+        if (fromSecond >= SECONDS_PER_DAY) {
+            return -1;
+        }
+        int second = coverage.nextSetBit(fromSecond);
+        boolean continuesSegment = second == fromSecond
+                && (fromSecond == 0 ? previousSecondRecorded : coverage.get(fromSecond - 1));
+        if (continuesSegment) {
+            second = coverage.nextSetBit(coverage.nextClearBit(fromSecond));
+        }
+        return second;
+    }
+
+    private static Position findPreviousRecordedSecond(final CoverageReader coverageReader, final long dayStartTime,
+                                                       final int fromSecond) {
+        long day = dayStartTime;
+        BitSet coverage = coverageReader.get(day);
+        int second = coverage.previousSetBit(fromSecond);
+        while (second < 0) {
+            VideoCoverage earlierCoverage = coverageReader.getAdjacent(day, false);
+            if (earlierCoverage == null) {
+                return null;
+            }
+            day = earlierCoverage.getDayStartTime();
+            coverage = earlierCoverage.getCoverage();
+            second = coverage.previousSetBit(SECONDS_PER_DAY - 1);
+        }
+        return new Position(day, coverage, second);
+    }
+
+    /**
+     * Walks back from a recorded second to the first second of its segment, following it into earlier days
+     */
+    private static Position findSegmentStart(final CoverageReader coverageReader, final Position recordedSecond) {
+        long day = recordedSecond.dayStartTime;
+        int start = recordedSecond.coverage.previousClearBit(recordedSecond.second) + 1;
+        while (start == 0) {
+            BitSet earlierCoverage = coverageReader.get(day - MILLIS_PER_DAY);
+            if (earlierCoverage == null || !earlierCoverage.get(SECONDS_PER_DAY - 1)) {
+                break;
+            }
+            day -= MILLIS_PER_DAY;
+            start = earlierCoverage.previousClearBit(SECONDS_PER_DAY - 1) + 1;
+        }
+        return new Position(day, null, start);
+    }
+
+    /**
+     * Walks forward from a recorded second to the second after its segment, following it into later days
+     */
+    private static Position findSegmentEnd(final CoverageReader coverageReader, final Position recordedSecond) {
+        long day = recordedSecond.dayStartTime;
+        int end = recordedSecond.coverage.nextClearBit(recordedSecond.second);
+        while (end >= SECONDS_PER_DAY) {
+            BitSet laterCoverage = coverageReader.get(day + MILLIS_PER_DAY);
+            if (laterCoverage == null || !laterCoverage.get(0)) {
+                break;
+            }
+            day += MILLIS_PER_DAY;
+            end = laterCoverage.nextClearBit(0);
+        }
+        return new Position(day, null, Math.min(end, SECONDS_PER_DAY));
+    }
+
+    /**
+     * The first fragment of a segment starts within its first recorded second
+     */
+    private long refineStartTime(final String deviceId, final long startTime) {
+        RawVideoTimeline firstFragment = rawVideoTimelineDAO.getFirstRawVideoTimeline(deviceId, startTime,
+                startTime + MILLIS_PER_SECOND - 1, true);
+        return firstFragment == null ? startTime : firstFragment.getTimestamp();
+    }
+
+    /**
+     * The last fragment of a segment ends within its last recorded second, and starts at most one fragment duration
+     * before
+     */
+    private long refineEndTime(final String deviceId, final long endTime) {
+        RawVideoTimeline lastFragment = rawVideoTimelineDAO.getFirstRawVideoTimeline(deviceId,
+                endTime - MAX_KVS_FRAGMENT_DURATION_BUFFER, endTime - 1, false);
+        if (lastFragment == null) {
+            return endTime;
+        }
+        long fragmentEndTime = lastFragment.getTimestamp() + lastFragment.getDurationInMillis();
+        return Math.max(endTime - MILLIS_PER_SECOND, Math.min(endTime, fragmentEndTime));
+    }
+
+    private static final class Position {
+        private final long dayStartTime;
+        private final BitSet coverage;
+        private final int second;
+
+        private Position(final long dayStartTime, final BitSet coverage, final int second) {
+            this.dayStartTime = dayStartTime;
+            this.coverage = coverage;
+            this.second = second;
+        }
+
+        private long toTimestamp() {
+            return dayStartTime + second * MILLIS_PER_SECOND;
+        }
+    }
+
+    /**
+     * Reads the coverage of each day at most once and stops reading after MAX_COVERAGE_READS
+     */
+    private final class CoverageReader {
+        private final String deviceId;
+        private final Map<Long, BitSet> coverageByDay = new HashMap<>();
+        private int reads;
+
+        private CoverageReader(final String deviceId) {
+            this.deviceId = deviceId;
+        }
+
+        /**
+         * @return null if the read limit was reached
+         */
+        private BitSet get(final long dayStartTime) {
+            BitSet coverage = coverageByDay.get(dayStartTime);
+            if (coverage == null && reads < MAX_COVERAGE_READS) {
+                reads++;
+                coverage = videoCoverageDAO.getVideoCoverage(deviceId, dayStartTime).getCoverage();
+                coverageByDay.put(dayStartTime, coverage);
+            }
+            return coverage;
+        }
+
+        /**
+         * @return null if there is no day with coverage in the direction or the read limit was reached
+         */
+        private VideoCoverage getAdjacent(final long dayStartTime, final boolean scanForward) {
+            if (reads >= MAX_COVERAGE_READS) {
+                return null;
+            }
+            reads++;
+            VideoCoverage videoCoverage = videoCoverageDAO.getAdjacentVideoCoverage(deviceId, dayStartTime,
+                    scanForward);
+            if (videoCoverage != null) {
+                coverageByDay.put(videoCoverage.getDayStartTime(), videoCoverage.getCoverage());
+            }
+            return videoCoverage;
+        }
+    }
+}
@@ -11,17 +11,16 @@ import org.apache.logging.log4j.Logger;
 import javax.validation.constraints.NotNull;
 
 import javax.inject.Inject;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+
+import static com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits.TIME_INCREMENT_UNITS_LIST;
 
 public class VideoTimelineAggregator {
     private static final Logger LOG = LogManager.getLogger(VideoTimelineAggregator.class);
 
-    private static final long SECONDS_BUCKET_DURATION = 5L;
-    private static final long UNIT_BUCKET_DURATION = 1L;
     private static final long KVS_TTL_DURATION = 7 * 24 * 60 * 60L; // 7 days in seconds
     private static final String DENSITY_TIME_MISMATCH_ERROR = 
         "Time mismatch found for bucket %d. Device density: %d, Time in bucket: %d";
@@ -41,38 +40,10 @@ public class VideoTimelineAggregator {
      * @return List of time buckets and duration to be stored in each bucket
      */
     public List<TimelineStorage> getTimeBuckets(TimeIncrementUnits timeIncrementUnits, Long timestampToBeStored, Long durationInMillis) {
-        Long rangeStart = videoTimelineUtils.getUnitTime(timeIncrementUnits, timestampToBeStored);
-        Instant rangeStartInstant = Instant.ofEpochMilli(rangeStart);
-        Long rangeEnd = videoTimelineUtils.getUnitTime(timeIncrementUnits, timestampToBeStored + durationInMillis);
+        TimeBucketCursor cursor = new TimeBucketCursor().reset(timeIncrementUnits, timestampToBeStored, durationInMillis);
         List<TimelineStorage> timestampList = new ArrayList<>();
-
-        // Calculates duration of each bucket in that unit, eg. 5s, 1hr, 1 min, 1 day
-        long durationStep = timeIncrementUnits.getChronoUnit() == ChronoUnit.SECONDS ?
-                SECONDS_BUCKET_DURATION : UNIT_BUCKET_DURATION;
-
-        ChronoUnit timeUnit = timeIncrementUnits.getChronoUnit();
-        long bucketDurationMillis = videoTimelineUtils.getBucketDuration(timeUnit);
-
-        // calculates number of buckets that would be required for the given time range to be stored
-        int numberOfBuckets = (int) (rangeStartInstant.until(Instant.ofEpochMilli(rangeEnd), timeUnit) / durationStep) + 1;
-
-        for (int i = 0; i < numberOfBuckets; i++) {
-            // Calculates bucket start date given a timestamp. eg. Bucket start date for storing 10:58:59pm in seconds
-            // would be 10:58:55pm for SECONDS, 10:58:00pm for MINUTES, 10:00:00pm for HOURS
-            long bucketStartDate = rangeStartInstant.
-                    plus(i * durationStep, timeIncrementUnits.getChronoUnit()).toEpochMilli();
-            long bucketEndDate = bucketStartDate + bucketDurationMillis;
-
-            // Calculates amount of time in bucket, it can = the duration of the range
-            long timeInBucket = Math.min(bucketEndDate - timestampToBeStored, durationInMillis);
-            timestampList.add(
-                    TimelineStorage.builder().bucketStartDate(bucketStartDate).durationToBeStored(timeInBucket).build()
-            );
-            // Overflow logic: when time to be stored spills over to the next bucket
-            durationInMillis -= timeInBucket; // indicates time left to be accounted for
-            // new start time of time to be stored will be the end time of the previous bucket
-            timestampToBeStored = bucketEndDate;
-            if(durationInMillis <= 0 || timestampToBeStored > rangeEnd) break;
+        while (cursor.next()) {
+            timestampList.add(new TimelineStorage(cursor.getBucketStartDate(), cursor.getDurationToBeStored()));
         }
         return timestampList;
     }
@@ -132,11 +103,7 @@ public class VideoTimelineAggregator {
             deviceDensityInMillis += timeInBucket;
         }
 
-        // This bucket should expire when all the "timestamps" in this bucket expire, ie, for an HOURS bucket with start
-        // time of 01-12-2024T11:00:00Z and KVS timeout of 3 months, the bucket expiration is 04-12-2024T11:00:00Z+1hr
-        // ie. 04-12-2024T12:00:00Z, etc. This timestamp should also be in order of epoch seconds (vs milliseconds for everything else)
-        Long expirationTimestamp = ((bucketStartDate +
-                videoTimelineUtils.getBucketDuration(timeIncrementUnits.getChronoUnit()))/1000) + KVS_TTL_DURATION;
+        Long expirationTimestamp = getExpirationTimestamp(timeIncrementUnits, bucketStartDate);
 
         Date currentDate = new Date();
         return AggregateVideoTimeline.builder()
@@ -151,6 +118,36 @@ public class VideoTimelineAggregator {
                 .build();
     }
 
+    /**
+     * Returns the density change of the next coarser bucket containing the given bucket, eg. the MINUTES bucket of a
+     * SECONDS bucket. A bucket never spans two buckets of a coarser unit, so the rolled up change, including catch up
+     * moving time from device to cloud, is the same as aggregating the raw timeline into the coarser unit directly.
+     * @param videoDensityDelta density change of a bucket
+     * @return density change of the containing bucket, or empty for DAYS
+     */
+    public Optional<VideoDensityDelta> rollUp(VideoDensityDelta videoDensityDelta) {
+        int unitIndex = TIME_INCREMENT_UNITS_LIST.indexOf(videoDensityDelta.getTimeIncrementUnits());
+        if (unitIndex < 0 || unitIndex == TIME_INCREMENT_UNITS_LIST.size() - 1) {
+            return Optional.empty();
+        }
+        TimeIncrementUnits coarserUnit = TIME_INCREMENT_UNITS_LIST.get(unitIndex + 1);
+        return Optional.of(videoDensityDelta.toBucket(coarserUnit,
+                coarserUnit.getBucketStart(videoDensityDelta.getBucketStartTime())));
+    }
+
+    /**
+     * Returns the TTL of a bucket in epoch seconds
+     * @param timeIncrementUnits
+     * @param bucketStartDate = start date of the bucket
+     * @return expiration timestamp of the bucket
+     */
+    public Long getExpirationTimestamp(TimeIncrementUnits timeIncrementUnits, long bucketStartDate) {
+        // This bucket should expire when all the "timestamps" in this bucket expire, ie, for an HOURS bucket with start
+        // time of 01-12-2024T11:00:00Z and KVS timeout of 3 months, the bucket expiration is 04-12-2024T11:00:00Z+1hr
+        // ie. 04-12-2024T12:00:00Z, etc. This timestamp should also be in order of epoch seconds (vs milliseconds for everything else)
+        return ((bucketStartDate + timeIncrementUnits.getBucketDurationMillis())/1000) + KVS_TTL_DURATION;
+    }
+
     @NotNull
     private static Long subtractTimeFromBucket(Long deviceDensity, long timeInBucket, long bucketStartDate) {
         long newTimeInBucket = deviceDensity - timeInBucket;
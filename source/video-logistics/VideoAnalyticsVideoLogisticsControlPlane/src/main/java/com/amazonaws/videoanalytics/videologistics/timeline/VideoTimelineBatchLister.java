@@ -0,0 +1,100 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.videoanalytics.videologistics.DeviceVideoTimelines;
+import com.amazonaws.videoanalytics.videologistics.VideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.VideoTimelineDAO;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.PaginatedListResponse;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.VIDEO_TIMELINE_BATCH_ERROR;
+import static com.amazonaws.videoanalytics.videologistics.utils.AWSVideoAnalyticsServiceLambdaConstants.VIDEO_TIMELINE_BATCH_EXECUTOR;
+
+/**
+ * Lists the first page of the video timelines of several devices over the same range, eg. for a video wall. Devices are
+ * read concurrently on a bounded executor, and a device that fails is returned with its error instead of failing the
+ * whole batch. The response holds at most MAX_VIDEO_TIMELINES_PER_RESPONSE periods split evenly between the devices,
+ * each device returning a next token for the rest of its range, so that the response stays within the 6MB payload
+ * limit of Lambda and API Gateway at any increment.
+ */
+public class VideoTimelineBatchLister {
+    private static final Logger LOG = LogManager.getLogger(VideoTimelineBatchLister.class);
+    // a period takes up to about 60 bytes of the escaped proxy response body, this keeps responses under 3MB
+    static final long MAX_VIDEO_TIMELINES_PER_RESPONSE = 48_000;
+
+    private final VideoTimelineDAO videoTimelineDAO;
+    private final ExecutorService batchExecutor;
+
+    @Inject
+    public VideoTimelineBatchLister(final VideoTimelineDAO videoTimelineDAO,
+                                    @Named(VIDEO_TIMELINE_BATCH_EXECUTOR) final ExecutorService batchExecutor) {
+        this.videoTimelineDAO = videoTimelineDAO;
+        this.batchExecutor = batchExecutor;
+    }
+
+    /**
+     * @return video timelines of each distinct device, in request order
+     */
+    public List<DeviceVideoTimelines> listVideoTimelines(final List<String> deviceIds,
+                                                         final Date startTime,
+                                                         final Date endTime,
+                                                         final Long timeIncrementInMillis,
+                                                         final TimeIncrementUnits timeIncrementUnits) {
+        List<String> distinctDeviceIds = deviceIds.stream().distinct().collect(Collectors.toList());
+        long maxPeriods = Math.max(1L, MAX_VIDEO_TIMELINES_PER_RESPONSE / Math.max(1, distinctDeviceIds.size()));
+        List<Callable<DeviceVideoTimelines>> devices = distinctDeviceIds.stream()
+                .map(deviceId -> (Callable<DeviceVideoTimelines>) () -> listDeviceVideoTimelines(deviceId, startTime,
+                        endTime, timeIncrementInMillis, timeIncrementUnits, maxPeriods))
+                .collect(Collectors.toList());
+
+        List<DeviceVideoTimelines> deviceVideoTimelinesList = new ArrayList<>();
+        try {
+            for (Future<DeviceVideoTimelines> device : batchExecutor.invokeAll(devices)) {
+                deviceVideoTimelinesList.add(device.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(String.format(VIDEO_TIMELINE_BATCH_ERROR, devices.size()), e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(String.format(VIDEO_TIMELINE_BATCH_ERROR, devices.size()), e.getCause());
+        }
+        LOG.info(String.format("Listed video timelines of %d devices", deviceVideoTimelinesList.size()));
+        return deviceVideoTimelinesList;
+    }
+
+    private DeviceVideoTimelines listDeviceVideoTimelines(final String deviceId,
+                                                          final Date startTime,
+                                                          final Date endTime,
+                                                          final Long timeIncrementInMillis,
+                                                          final TimeIncrementUnits timeIncrementUnits,
+                                                          final long maxPeriods) {
+        try {
+            PaginatedListResponse<VideoTimeline> paginatedListTimelineResponse =
+                    videoTimelineDAO.listVideoTimelines(deviceId, startTime, endTime, timeIncrementInMillis,
+                            timeIncrementUnits, null, maxPeriods);
+            return DeviceVideoTimelines.builder()
+                    .deviceId(deviceId)
+                    .videoTimelines(paginatedListTimelineResponse.getResults())
+                    .nextToken(paginatedListTimelineResponse.getNextToken())
+                    .build();
+        } catch (RuntimeException e) {
+            LOG.error(String.format("Error listing video timelines of %s", deviceId), e);
+            return DeviceVideoTimelines.builder()
+                    .deviceId(deviceId)
+                    .errorMessage(e.getMessage())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import javax.inject.Inject;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.ScheduledEvent;
+import com.amazonaws.videoanalytics.videologistics.dagger.AWSVideoAnalyticsVLControlPlaneComponent;
+import com.amazonaws.videoanalytics.videologistics.dagger.DaggerAWSVideoAnalyticsVLControlPlaneComponent;
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.CompactedVideoTimelineDAO;
+import com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.CompactedVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.utils.annotations.ExcludeFromJacocoGeneratedReport;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import static com.amazonaws.videoanalytics.videologistics.timeline.CompactedTimelineCodec.MILLIS_PER_HOUR;
+
+/**
+ * Compacts the queued hours of each device once they are closed. Hours are queued by the video density update lambda
+ * when raw timelines are ingested for them, and again whenever late raw timelines invalidate a compacted hour.
+ */
+public class VideoTimelineCompactionLambda implements RequestHandler<ScheduledEvent, Void> {
+
+    private static final Logger LOG = LogManager.getLogger(VideoTimelineCompactionLambda.class);
+    // raw timelines of an hour usually keep arriving for a little while after it ends
+    public static final long COMPACTION_DELAY_MILLIS = 10 * 60 * 1000L;
+    // time left for the compaction in progress when the lambda stops taking new hours
+    private static final long MIN_REMAINING_TIME_MILLIS = 30 * 1000L;
+
+    private final CompactedVideoTimelineDAO compactedVideoTimelineDAO;
+    private final DetailedVideoTimelineGenerator detailedVideoTimelineGenerator;
+
+    @ExcludeFromJacocoGeneratedReport
+    public VideoTimelineCompactionLambda() {
+        AWSVideoAnalyticsVLControlPlaneComponent component = DaggerAWSVideoAnalyticsVLControlPlaneComponent.create();
+        component.inject(this);
+        this.compactedVideoTimelineDAO = component.getCompactedVideoTimelineDAO();
+        this.detailedVideoTimelineGenerator = component.getDetailedVideoTimelineGenerator();
+    }
+
+    @Inject
+    public VideoTimelineCompactionLambda(CompactedVideoTimelineDAO compactedVideoTimelineDAO,
+                                         DetailedVideoTimelineGenerator detailedVideoTimelineGenerator) {
+        this.compactedVideoTimelineDAO = compactedVideoTimelineDAO;
+        this.detailedVideoTimelineGenerator = detailedVideoTimelineGenerator;
+    }
+
+    public Void handleRequest(ScheduledEvent scheduledEvent, Context context) {
+        if (scheduledEvent == null) {
+            throw new RuntimeException(VideoAnalyticsExceptionMessage.INVALID_INPUT);
+        }
+        long lastHourStartTime = Instant.now().toEpochMilli() - COMPACTION_DELAY_MILLIS - MILLIS_PER_HOUR;
+        SortedMap<Long, List<String>> pendingCompactions =
+                compactedVideoTimelineDAO.listPendingCompactions(lastHourStartTime);
+        LOG.info("Found {} hours waiting to be compacted", pendingCompactions.size());
+
+        int compactedHours = 0;
+        for (Map.Entry<Long, List<String>> pendingCompaction : pendingCompactions.entrySet()) {
+            for (String deviceId : pendingCompaction.getValue()) {
+                if (context.getRemainingTimeInMillis() < MIN_REMAINING_TIME_MILLIS) {
+                    LOG.info("Compacted {} hours, leaving the remaining hours to the next run", compactedHours);
+                    return null;
+                }
+                if (compact(deviceId, pendingCompaction.getKey())) {
+                    compactedHours++;
+                }
+            }
+        }
+        LOG.info("Compacted {} hours", compactedHours);
+        return null;
+    }
+
+    /**
+     * Method compacts an hour of a device. The hour is dequeued first, so that raw timelines arriving during the
+     * compaction queue it again, and it is queued again if the compaction fails. If the lambda stops in between, the
+     * hour is read from its raw timelines until they are updated again.
+     * @return true if the compacted hour was stored
+     */
+    private boolean compact(final String deviceId, final long hourStartTime) {
+        compactedVideoTimelineDAO.dequeueCompaction(deviceId, hourStartTime);
+        try {
+            CompactedVideoTimeline compactedVideoTimeline =
+                    detailedVideoTimelineGenerator.compact(deviceId, hourStartTime);
+            if (compactedVideoTimelineDAO.save(deviceId, hourStartTime, compactedVideoTimeline.getCloudTimeline(),
+                    compactedVideoTimeline.getDeviceTimeline(), compactedVideoTimeline.getCompactedAt())) {
+                return true;
+            }
+        } catch (Exception e) {
+            LOG.error(String.format("Failed to compact hour %d of %s", hourStartTime, deviceId), e);
+        }
+        compactedVideoTimelineDAO.enqueueCompaction(deviceId, hourStartTime);
+        return false;
+    }
+}
@@ -1,9 +1,13 @@
 package com.amazonaws.videoanalytics.videologistics.timeline;
 
+import com.amazonaws.videoanalytics.videologistics.ColumnarVideoTimelines;
 import com.amazonaws.videoanalytics.videologistics.VideoTimeline;
-import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoDensity;
+import com.google.common.primitives.Floats;
+import com.google.common.primitives.Ints;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,30 +32,25 @@ public class VideoTimelineListGenerator {
 
     /**
      * Given a list of aggregate timelines for a given time range and time increment, this method generates the final
-     * video timeline list that will have density or not based on aggregateVideoTimelines
-     * @param aggregateVideoTimelineList list of aggregated video timelines
+     * video timeline list that will have density or not based on aggregateVideoDensities
+     * @param aggregateVideoDensityList densities of aggregated video timelines
      * @param startTimeInMillis start time of periods in VideoTimeline
      * @param endTimeInMillis end time of last period of VideoTimeline
      * @param timeIncrementInMillis time range of periods
      * @return list of video densities for given periods
      */
-    public static List<VideoTimeline> buildVideoTimelineList(List<AggregateVideoTimeline> aggregateVideoTimelineList,
+    public static List<VideoTimeline> buildVideoTimelineList(List<AggregateVideoDensity> aggregateVideoDensityList,
                                                              Long startTimeInMillis,
                                                              Long endTimeInMillis,
                                                              Long timeIncrementInMillis) {
         // Initialize the map to store densities for each time period
         Map<Integer, VideoTimeline> periodDensities = new HashMap<>();
 
-        // Iterate through the aggregateVideoTimelineList and collate densities for each time period
-        for (AggregateVideoTimeline aggregateVideoTimeline : aggregateVideoTimelineList) {
-            Long unitTimestamp = aggregateVideoTimeline.getUnitTimestamp();
-            long cloudDensityInMillis = (aggregateVideoTimeline.getCloudDensityInMillis() != null &&
-                    aggregateVideoTimeline.getCloudDensityInMillis() >= 0) ?
-                    aggregateVideoTimeline.getCloudDensityInMillis() : 0L;
-
-            long deviceDensityInMillis = (aggregateVideoTimeline.getDeviceDensityInMillis()!= null &&
-                    aggregateVideoTimeline.getDeviceDensityInMillis() >= 0) ?
-                    aggregateVideoTimeline.getDeviceDensityInMillis() : 0L;
+        // Iterate through the aggregateVideoDensityList and collate densities for each time period
+        for (AggregateVideoDensity aggregateVideoDensity : aggregateVideoDensityList) {
+            long unitTimestamp = aggregateVideoDensity.getUnitTimestamp();
+            long cloudDensityInMillis = Math.max(0L, aggregateVideoDensity.getCloudDensityInMillis());
+            long deviceDensityInMillis = Math.max(0L, aggregateVideoDensity.getDeviceDensityInMillis());
 
             int period = getCurrentPeriod(startTimeInMillis, unitTimestamp, timeIncrementInMillis);
 
@@ -84,5 +83,64 @@ public class VideoTimelineListGenerator {
         }
         return videoTimelineList;
     }
-}
 
+    /**
+     * Builds the same densities as {@link #buildVideoTimelineList} in columns: the lengths of alternating stretches
+     * of periods without and with video, starting with periods without video, and the cloud and device densities of
+     * the periods with video. Densities are accumulated in primitive arrays, without an object per period.
+     * @param aggregateVideoDensityList densities of aggregated video timelines, ordered by unit timestamp as read from DDB
+     * @param startTimeInMillis start time of periods in VideoTimeline
+     * @param endTimeInMillis end time of last period of VideoTimeline
+     * @param timeIncrementInMillis time range of periods
+     * @return run lengths adding up to the number of periods, and densities of the periods with video
+     */
+    public static ColumnarVideoTimelines buildColumnarVideoTimelines(List<AggregateVideoDensity> aggregateVideoDensityList,
+                                                                    Long startTimeInMillis,
+                                                                    Long endTimeInMillis,
+                                                                    Long timeIncrementInMillis) {
+        int totalTimelines = (int) ((endTimeInMillis - startTimeInMillis + timeIncrementInMillis - 1) / timeIncrementInMillis);
+        int maxPeriodsWithVideo = Math.min(totalTimelines, aggregateVideoDensityList.size());
+        float[] cloudDensities = new float[maxPeriodsWithVideo];
+        float[] deviceDensities = new float[maxPeriodsWithVideo];
+        // each period with video adds at most a stretch without and a stretch with video, plus the trailing stretch
+        int[] runLengths = new int[2 * maxPeriodsWithVideo + 1];
+        int runCount = 0;
+        int periodsWithVideo = 0;
+        int previousPeriod = -1;
+
+        for (AggregateVideoDensity aggregateVideoDensity : aggregateVideoDensityList) {
+            int period = getCurrentPeriod(startTimeInMillis, aggregateVideoDensity.getUnitTimestamp(), timeIncrementInMillis);
+            if (period < previousPeriod || period >= totalTimelines) {
+                continue;
+            }
+            if (periodsWithVideo == 0 || period != previousPeriod) {
+                if (periodsWithVideo > 0 && period == previousPeriod + 1) {
+                    runLengths[runCount - 1]++;
+                } else {
+                    runLengths[runCount++] = period - previousPeriod - 1;
+                    runLengths[runCount++] = 1;
+                }
+                periodsWithVideo++;
+                previousPeriod = period;
+            }
+            if (aggregateVideoDensity.getCloudDensityInMillis() >= 0) {
+                cloudDensities[periodsWithVideo - 1] +=
+                        (float) aggregateVideoDensity.getCloudDensityInMillis() / timeIncrementInMillis;
+            }
+            if (aggregateVideoDensity.getDeviceDensityInMillis() >= 0) {
+                deviceDensities[periodsWithVideo - 1] +=
+                        (float) aggregateVideoDensity.getDeviceDensityInMillis() / timeIncrementInMillis;
+            }
+        }
+        if (totalTimelines - previousPeriod - 1 > 0) {
+            runLengths[runCount++] = totalTimelines - previousPeriod - 1;
+        }
+
+        // list views over the arrays, boxed one element at a time while serializing
+        return ColumnarVideoTimelines.builder()
+                .runLengths(Ints.asList(Arrays.copyOf(runLengths, runCount)))
+                .cloudDensities(Floats.asList(Arrays.copyOf(cloudDensities, periodsWithVideo)))
+                .deviceDensities(Floats.asList(Arrays.copyOf(deviceDensities, periodsWithVideo)))
+                .build();
+    }
+}
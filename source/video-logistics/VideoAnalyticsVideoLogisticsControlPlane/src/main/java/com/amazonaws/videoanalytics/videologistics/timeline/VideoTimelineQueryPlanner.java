@@ -0,0 +1,42 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
+
+import javax.inject.Inject;
+
+import static com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits.TIME_INCREMENT_UNITS_LIST;
+
+public class VideoTimelineQueryPlanner {
+
+    @Inject
+    public VideoTimelineQueryPlanner() {
+    }
+
+    /**
+     * Chooses the aggregate timeline unit to read for a ListVideoTimelines request. This is the coarsest unit whose
+     * buckets each fall entirely within one requested period, ie. the bucket duration evenly divides the time
+     * increment, and the start and end time are aligned to the bucket boundaries.
+     * eg. for a 10 minute increment from 04:00 to 06:00, MINUTES rows are read instead of SECONDS rows and for a 1 day
+     * increment over a month of UTC days, DAYS rows are read instead of HOURS rows.
+     * The unit only depends on the request, so the pages of a paginated request are all read from the same unit.
+     * @param requestedUnits finest unit the start and end time have been validated against
+     * @param startTimeInMillis start time of the first period
+     * @param endTimeInMillis end time of the last period
+     * @param timeIncrementInMillis duration of a period
+     * @return aggregate timeline unit to query, requestedUnits if no coarser unit can be used
+     */
+    public TimeIncrementUnits getStorageUnits(final TimeIncrementUnits requestedUnits,
+                                              final long startTimeInMillis,
+                                              final long endTimeInMillis,
+                                              final long timeIncrementInMillis) {
+        for (int i = TIME_INCREMENT_UNITS_LIST.size() - 1; i > TIME_INCREMENT_UNITS_LIST.indexOf(requestedUnits); i--) {
+            TimeIncrementUnits timeIncrementUnits = TIME_INCREMENT_UNITS_LIST.get(i);
+            if (timeIncrementInMillis % timeIncrementUnits.getBucketDurationMillis() == 0 &&
+                    timeIncrementUnits.getBucketStart(startTimeInMillis) == startTimeInMillis &&
+                    timeIncrementUnits.getBucketStart(endTimeInMillis) == endTimeInMillis) {
+                return timeIncrementUnits;
+            }
+        }
+        return requestedUnits;
+    }
+}
@@ -0,0 +1,145 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse.BatchItemFailure;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import com.amazonaws.videoanalytics.videologistics.client.s3.S3Proxy;
+import com.amazonaws.videoanalytics.videologistics.dagger.AWSVideoAnalyticsVLControlPlaneComponent;
+import com.amazonaws.videoanalytics.videologistics.dagger.DaggerAWSVideoAnalyticsVLControlPlaneComponent;
+import com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage;
+import com.amazonaws.videoanalytics.videologistics.utils.S3BucketRegionalizer;
+import com.amazonaws.videoanalytics.videologistics.utils.annotations.ExcludeFromJacocoGeneratedReport;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineS3ExportLambda.CHECKPOINT_KEY;
+import static com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineS3ExportLambda.DELETE_BATCH_SIZE;
+import static com.amazonaws.videoanalytics.videologistics.utils.AWSVideoAnalyticsServiceLambdaConstants.VIDEO_TIMELINE_EXPORT_EXECUTOR;
+
+/**
+ * Exports the timeline batches named by S3 object created notifications, delivered through SQS, from S3 into DDB.
+ * Messages of a batch are exported concurrently, and a message whose objects fail is reported back to SQS to be
+ * redelivered, while the objects of the other messages are removed with DeleteObjects.
+ */
+public class VideoTimelineS3EventExportLambda implements RequestHandler<SQSEvent, SQSBatchResponse> {
+
+    private static final Logger LOG = LogManager.getLogger(VideoTimelineS3EventExportLambda.class);
+
+    private final VideoTimelineS3Exporter videoTimelineS3Exporter;
+    private final S3Proxy s3Proxy;
+    private final S3BucketRegionalizer s3BucketRegionalizer;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService exportExecutor;
+
+    @ExcludeFromJacocoGeneratedReport
+    public VideoTimelineS3EventExportLambda() {
+        AWSVideoAnalyticsVLControlPlaneComponent component = DaggerAWSVideoAnalyticsVLControlPlaneComponent.create();
+        component.inject(this);
+        this.videoTimelineS3Exporter = component.getVideoTimelineS3Exporter();
+        this.s3Proxy = component.getS3Proxy();
+        this.s3BucketRegionalizer = component.getS3BucketRegionalizer();
+        this.objectMapper = component.getObjectMapper();
+        this.exportExecutor = component.getVideoTimelineExportExecutor();
+    }
+
+    @Inject
+    public VideoTimelineS3EventExportLambda(VideoTimelineS3Exporter videoTimelineS3Exporter,
+            S3Proxy s3Proxy,
+            S3BucketRegionalizer s3BucketRegionalizer,
+            ObjectMapper objectMapper,
+            @Named(VIDEO_TIMELINE_EXPORT_EXECUTOR) ExecutorService exportExecutor) {
+        this.videoTimelineS3Exporter = videoTimelineS3Exporter;
+        this.s3Proxy = s3Proxy;
+        this.s3BucketRegionalizer = s3BucketRegionalizer;
+        this.objectMapper = objectMapper;
+        this.exportExecutor = exportExecutor;
+    }
+
+    @Override
+    public SQSBatchResponse handleRequest(final SQSEvent event, final Context context) {
+        if (event == null) {
+            throw new IllegalArgumentException(VideoAnalyticsExceptionMessage.INVALID_INPUT);
+        }
+        String bucketName = s3BucketRegionalizer.getRegionalizedBucketName("videoanalytics-timeline-bucket");
+        List<SQSEvent.SQSMessage> messages = event.getRecords();
+        LOG.info(() -> String.format("Received %d timeline batch notifications.", messages.size()));
+
+        Map<String, Future<List<String>>> messageExports = new LinkedHashMap<>();
+        for (SQSEvent.SQSMessage message : messages) {
+            messageExports.put(message.getMessageId(),
+                    exportExecutor.submit(() -> exportMessage(bucketName, message.getBody())));
+        }
+
+        // https://docs.aws.amazon.com/lambda/latest/dg/services-sqs-errorhandling.html#services-sqs-batchfailurereporting
+        List<BatchItemFailure> itemFailures = new ArrayList<>();
+        List<String> exportedKeys = new ArrayList<>();
+        for (Map.Entry<String, Future<List<String>>> messageExport : messageExports.entrySet()) {
+            try {
+                exportedKeys.addAll(messageExport.getValue().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                itemFailures.add(BatchItemFailure.builder()
+                        .withItemIdentifier(messageExport.getKey())
+                        .build());
+            } catch (ExecutionException e) {
+                // objects of the message stay in the bucket and are exported again when it is redelivered
+                LOG.error(() -> String.format("Failed to export timeline batches of message %s", messageExport.getKey()),
+                        e.getCause());
+                itemFailures.add(BatchItemFailure.builder()
+                        .withItemIdentifier(messageExport.getKey())
+                        .build());
+            }
+        }
+
+        // keys S3 fails to delete are left to the sweeper, which exports them again
+        for (List<String> keys : Lists.partition(exportedKeys, DELETE_BATCH_SIZE)) {
+            s3Proxy.deleteObjects(bucketName, keys);
+        }
+
+        LOG.info(() -> String.format("Exported %d timeline batches.", exportedKeys.size()));
+        if (itemFailures.isEmpty()) {
+            return null;
+        }
+        LOG.info(() -> String.format("%d of %d notifications were not processed and will be retried.",
+                itemFailures.size(), messages.size()));
+        return SQSBatchResponse.builder()
+                .withBatchItemFailures(itemFailures)
+                .build();
+    }
+
+    /**
+     * @return keys of the exported objects the notification names
+     */
+    private List<String> exportMessage(final String bucketName, final String body) throws Exception {
+        List<String> keys = new ArrayList<>();
+        // test events sent when the notification is configured have no records
+        for (JsonNode record : objectMapper.readTree(body).path("Records")) {
+            // keys are url encoded in notifications
+            String key = URLDecoder.decode(record.path("s3").path("object").path("key").asText(),
+                    StandardCharsets.UTF_8);
+            if (CHECKPOINT_KEY.equals(key)) {
+                continue;
+            }
+            videoTimelineS3Exporter.exportObject(bucketName, key);
+            keys.add(key);
+        }
+        return keys;
+    }
+}
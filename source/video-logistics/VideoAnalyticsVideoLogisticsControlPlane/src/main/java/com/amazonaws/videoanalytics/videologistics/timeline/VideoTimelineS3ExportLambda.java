@@ -1,11 +1,18 @@
 package com.amazonaws.videoanalytics.videologistics.timeline;
 
-import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
 
 import javax.inject.Inject;
+import javax.inject.Named;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
@@ -13,85 +20,205 @@ import com.amazonaws.services.lambda.runtime.events.ScheduledEvent;
 import com.amazonaws.videoanalytics.videologistics.client.s3.S3Proxy;
 import com.amazonaws.videoanalytics.videologistics.dagger.AWSVideoAnalyticsVLControlPlaneComponent;
 import com.amazonaws.videoanalytics.videologistics.dagger.DaggerAWSVideoAnalyticsVLControlPlaneComponent;
-import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.RawVideoTimelineDAO;
 import com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage;
 import com.amazonaws.videoanalytics.videologistics.utils.S3BucketRegionalizer;
 import com.amazonaws.videoanalytics.videologistics.utils.annotations.ExcludeFromJacocoGeneratedReport;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
-import software.amazon.awssdk.core.ResponseBytes;
-import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.S3Object;
 
+import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.TIMELINE_EXPORT_ERROR;
+import static com.amazonaws.videoanalytics.videologistics.utils.AWSVideoAnalyticsServiceLambdaConstants.VIDEO_TIMELINE_EXPORT_EXECUTOR;
+
+/**
+ * Sweeps timeline batches that the notification driven {@link VideoTimelineS3EventExportLambda} did not export, eg.
+ * because their message ended up in the dead letter queue, from S3 into DDB. Only objects older than
+ * {@link #SWEEP_MIN_AGE} are exported, so batches whose notification is still on its way are left to it. Objects are
+ * fetched and written on a bounded executor, so the next objects are already being downloaded while earlier ones are
+ * written. Exported objects are removed with DeleteObjects, and a run that nears its timeout stops submitting and saves
+ * the last submitted key, so the next run resumes after it instead of starting over at the beginning of the bucket.
+ */
 public class VideoTimelineS3ExportLambda implements RequestHandler<ScheduledEvent, Void> {
 
     private static final Logger LOG = LogManager.getLogger(VideoTimelineS3ExportLambda.class);
 
-    private final RawVideoTimelineDAO rawVideoTimelineDAO;
-    private final BatchTimelineMapper batchTimelineMapper;
+    // batches are stored under deviceId/uuid, so a key without a delimiter can never collide with one
+    static final String CHECKPOINT_KEY = "export-checkpoint";
+    // DeleteObjects accepts at most 1000 keys per request
+    static final int DELETE_BATCH_SIZE = 1000;
+    // notifications are usually exported within seconds, anything older has most likely been missed
+    static final Duration SWEEP_MIN_AGE = Duration.ofMinutes(5);
+    // twice the export pool size, so every thread has an object queued behind the one it is working on
+    static final int MAX_IN_FLIGHT_OBJECTS = 32;
+    // stop submitting with enough time left to drain the objects in flight and flush their deletes
+    static final long DEADLINE_MARGIN_MILLIS = 2 * 60 * 1000;
+
+    private final VideoTimelineS3Exporter videoTimelineS3Exporter;
     private final S3Proxy s3Proxy;
     private final S3BucketRegionalizer s3BucketRegionalizer;
+    private final ExecutorService exportExecutor;
 
     @ExcludeFromJacocoGeneratedReport
     public VideoTimelineS3ExportLambda() {
         AWSVideoAnalyticsVLControlPlaneComponent component = DaggerAWSVideoAnalyticsVLControlPlaneComponent.create();
         component.inject(this);
-        this.rawVideoTimelineDAO = component.getRawVideoTimelineDAO();
-        this.batchTimelineMapper = component.getBatchTimelineMapper();
+        this.videoTimelineS3Exporter = component.getVideoTimelineS3Exporter();
         this.s3Proxy = component.getS3Proxy();
         this.s3BucketRegionalizer = component.getS3BucketRegionalizer();
+        this.exportExecutor = component.getVideoTimelineExportExecutor();
     }
 
     @Inject
-    public VideoTimelineS3ExportLambda(RawVideoTimelineDAO rawVideoTimelineDAO, 
-            BatchTimelineMapper batchTimelineMapper, 
-            S3Proxy s3Proxy, 
-            S3BucketRegionalizer s3BucketRegionalizer) {
-        this.rawVideoTimelineDAO = rawVideoTimelineDAO;
-        this.batchTimelineMapper = batchTimelineMapper;
+    public VideoTimelineS3ExportLambda(VideoTimelineS3Exporter videoTimelineS3Exporter,
+            S3Proxy s3Proxy,
+            S3BucketRegionalizer s3BucketRegionalizer,
+            @Named(VIDEO_TIMELINE_EXPORT_EXECUTOR) ExecutorService exportExecutor) {
+        this.videoTimelineS3Exporter = videoTimelineS3Exporter;
         this.s3Proxy = s3Proxy;
         this.s3BucketRegionalizer = s3BucketRegionalizer;
+        this.exportExecutor = exportExecutor;
     }
 
     public Void handleRequest(ScheduledEvent scheduledEvent, Context context) {
         if (scheduledEvent == null) {
             throw new RuntimeException(VideoAnalyticsExceptionMessage.INVALID_INPUT);
         }
-        LOG.info("Start migration to S3 for event: {}", scheduledEvent);
+        LOG.info(() -> "Start migration to S3 for event: " + scheduledEvent);
         String bucketName = s3BucketRegionalizer.getRegionalizedBucketName("videoanalytics-timeline-bucket");
-        String continuationToken = null;
+        String checkpoint = readCheckpoint(bucketName);
+        ExportRun run = new ExportRun(bucketName);
+        Instant sweepBefore = Instant.now().minus(SWEEP_MIN_AGE);
 
+        String continuationToken = null;
+        boolean nearDeadline = false;
         ListObjectsV2Response result;
         do {
-            result = s3Proxy.listS3Objects(bucketName, continuationToken);
-            // Potential Improvement: Add threading to parallelize these calls
+            // start after is only honoured on the first page, later pages carry it in the continuation token
+            result = s3Proxy.listS3Objects(bucketName, continuationToken,
+                    continuationToken == null ? checkpoint : null);
             for (S3Object s3Object : result.contents()) {
-                BatchTimeline batchTimeline;
-                try {
-                    ResponseBytes<GetObjectResponse> objectBytes = s3Proxy.getS3ObjectBytes(bucketName, s3Object.key());
-                    // size of this array is limited by MQTT payload size limit = 128KB
-                    batchTimeline = batchTimelineMapper.deserialize(objectBytes.asByteArray());
-                    LOG.info(String.format("Attempting to save %d timelines.", batchTimeline.getTimestamps().size()));
-                    for(TimestampInfo timestampInfo : batchTimeline.getTimestamps()) {
-                        rawVideoTimelineDAO.save(
-                            batchTimeline.getDeviceId(),
-                            timestampInfo,
-                            batchTimeline.getLocation()
-                        );
-                    }
-                } catch (IOException e) {
-                    LOG.info("Could not deserialize timestamp information, ignoring json...");
-                } catch (Exception e) {
-                    throw new RuntimeException("Error while exporting timestamp information", e);
+                if (CHECKPOINT_KEY.equals(s3Object.key()) || s3Object.lastModified().isAfter(sweepBefore)) {
+                    continue;
                 }
-                // Delete the object once all the timestamps have been read into DynamoDB/timestamp serialization fails
-                s3Proxy.deleteObject(bucketName, s3Object.key());
+                if (isNearDeadline(context)) {
+                    nearDeadline = true;
+                    break;
+                }
+                run.submit(s3Object.key());
             }
             continuationToken = result.nextContinuationToken();
-        } while(result.isTruncated());
+        } while (result.isTruncated() && !nearDeadline);
 
-        LOG.info("Completed migration from S3 for event: {}", scheduledEvent);
+        run.drain();
+
+        if (!nearDeadline) {
+            // the next run starts over from the beginning of the bucket, picking up devices listed before the checkpoint
+            if (checkpoint != null) {
+                s3Proxy.deleteObject(bucketName, CHECKPOINT_KEY);
+            }
+        } else if (run.lastSubmittedKey != null) {
+            String lastSubmittedKey = run.lastSubmittedKey;
+            LOG.info(() -> String.format("Stopping export before timeout, resuming after %s on the next run",
+                    lastSubmittedKey));
+            s3Proxy.putObjectBytes(bucketName, CHECKPOINT_KEY, run.lastSubmittedKey.getBytes(StandardCharsets.UTF_8));
+        }
+
+        LOG.info(() -> String.format("Exported %d timeline batches from S3, %d failed", run.submitted - run.failed,
+                run.failed));
+        if (run.failed > 0) {
+            throw new RuntimeException(String.format(TIMELINE_EXPORT_ERROR, run.failed, run.submitted));
+        }
+        LOG.info(() -> "Completed migration from S3 for event: " + scheduledEvent);
 
         return null;
     }
+
+    private String readCheckpoint(final String bucketName) {
+        try {
+            String checkpoint = s3Proxy.getS3ObjectBytes(bucketName, CHECKPOINT_KEY).asUtf8String();
+            if (checkpoint == null || checkpoint.isEmpty()) {
+                return null;
+            }
+            LOG.info(() -> "Resuming export after " + checkpoint);
+            return checkpoint;
+        } catch (NoSuchKeyException e) {
+            return null;
+        } catch (Exception e) {
+            LOG.warn(() -> "Could not read export checkpoint, starting from the beginning of the bucket", e);
+            return null;
+        }
+    }
+
+    private static boolean isNearDeadline(final Context context) {
+        return context != null && context.getRemainingTimeInMillis() < DEADLINE_MARGIN_MILLIS;
+    }
+
+    /**
+     * Objects of a single invocation, from submission to deletion. Only the handler thread touches this state, the
+     * export executor only runs {@link VideoTimelineS3Exporter#exportObject}.
+     */
+    private class ExportRun {
+        private final String bucketName;
+        private final CompletionService<String> completionService;
+        private final List<String> exportedKeys = new ArrayList<>();
+        private int inFlight;
+        private int submitted;
+        private int failed;
+        private String lastSubmittedKey;
+
+        ExportRun(final String bucketName) {
+            this.bucketName = bucketName;
+            this.completionService = new ExecutorCompletionService<>(exportExecutor);
+        }
+
+        void submit(final String key) {
+            while (inFlight >= MAX_IN_FLIGHT_OBJECTS) {
+                takeCompleted();
+            }
+            completionService.submit(() -> {
+                videoTimelineS3Exporter.exportObject(bucketName, key);
+                return key;
+            });
+            inFlight++;
+            submitted++;
+            lastSubmittedKey = key;
+        }
+
+        void drain() {
+            while (inFlight > 0) {
+                takeCompleted();
+            }
+            flushDeletes();
+        }
+
+        private void takeCompleted() {
+            try {
+                exportedKeys.add(completionService.take().get());
+                if (exportedKeys.size() >= DELETE_BATCH_SIZE) {
+                    flushDeletes();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while exporting timestamp information", e);
+            } catch (ExecutionException e) {
+                // the object is left in the bucket and retried by a later run
+                LOG.error(() -> "Error while exporting timestamp information", e.getCause());
+                failed++;
+            } finally {
+                inFlight--;
+            }
+        }
+
+        private void flushDeletes() {
+            if (exportedKeys.isEmpty()) {
+                return;
+            }
+            // keys S3 fails to delete are exported again by a later run, which the raw timeline writes tolerate
+            s3Proxy.deleteObjects(bucketName, List.copyOf(exportedKeys));
+            exportedKeys.clear();
+        }
+    }
 }
@@ -0,0 +1,60 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.videoanalytics.videologistics.client.s3.S3Proxy;
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.RawVideoTimelineDAO;
+import com.amazonaws.videoanalytics.videologistics.utils.logging.DeviceLogSampler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import javax.inject.Inject;
+import java.io.IOException;
+
+/**
+ * Writes the timestamps of a single timeline batch object in S3 into DDB. Shared by the export triggered by object
+ * notifications and the scheduled sweeper, which may both see the same object.
+ */
+public class VideoTimelineS3Exporter {
+    private static final Logger LOG = LogManager.getLogger(VideoTimelineS3Exporter.class);
+
+    private final RawVideoTimelineDAO rawVideoTimelineDAO;
+    private final BatchTimelineMapper batchTimelineMapper;
+    private final S3Proxy s3Proxy;
+
+    @Inject
+    public VideoTimelineS3Exporter(final RawVideoTimelineDAO rawVideoTimelineDAO,
+                                   final BatchTimelineMapper batchTimelineMapper,
+                                   final S3Proxy s3Proxy) {
+        this.rawVideoTimelineDAO = rawVideoTimelineDAO;
+        this.batchTimelineMapper = batchTimelineMapper;
+        this.s3Proxy = s3Proxy;
+    }
+
+    /**
+     * Exports a batch object, which can be deleted once this returns. An object that no longer exists was already
+     * exported by another invocation, and one that cannot be deserialized is skipped.
+     */
+    public void exportObject(final String bucketName, final String key) throws Exception {
+        ResponseBytes<GetObjectResponse> objectBytes;
+        try {
+            objectBytes = s3Proxy.getS3ObjectBytes(bucketName, key);
+        } catch (NoSuchKeyException e) {
+            LOG.debug(() -> "Timeline batch " + key + " was already exported");
+            return;
+        }
+        BatchTimeline batchTimeline;
+        try {
+            // size of this array is limited by MQTT payload size limit = 128KB
+            batchTimeline = batchTimelineMapper.deserialize(objectBytes.asByteArray());
+        } catch (IOException e) {
+            LOG.warn(() -> "Could not deserialize timestamp information of " + key + ", ignoring json...");
+            return;
+        }
+        DeviceLogSampler.debug(LOG, batchTimeline.getDeviceId(), () -> String.format("Attempting to save %d timelines.",
+                batchTimeline.getTimestamps().size()));
+        rawVideoTimelineDAO.saveAll(batchTimeline.getDeviceId(), batchTimeline.getTimestamps(),
+                batchTimeline.getLocation());
+    }
+}
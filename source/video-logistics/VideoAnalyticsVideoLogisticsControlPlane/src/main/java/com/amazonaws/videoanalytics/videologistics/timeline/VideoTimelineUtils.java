@@ -2,18 +2,12 @@ package com.amazonaws.videoanalytics.videologistics.timeline;
 
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
 import com.google.common.base.Strings;
+import com.google.common.primitives.Longs;
 
-import java.nio.charset.StandardCharsets;
-import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.Base64;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class VideoTimelineUtils {
-    private static final String INVALID_ENCODED_TIMESTAMP = "Invalid encoded timestamp";
-    private static final String INVALID_TIMESTAMP = "Invalid timestamp: %s";
     private static final long SECONDS_BUCKET_DURATION_MILLIS = 5000L;
     private static final long MILLIS_CONVERSION_UNIT = 1000L;
 
@@ -42,36 +36,13 @@ public class VideoTimelineUtils {
         return String.join("/", values);
     }
 
+    /**
+     * Decodes Base64 encoded, comma separated epochs, see {@link TimestampDecoder#decodeEncodedTimestamps}
+     * @param encodedTimestamps Base64 encoded timestamps
+     * @return view of the decoded timestamps
+     */
     public List<Long> encodedTimestampsToList(final String encodedTimestamps) {
-        if (encodedTimestamps == null || encodedTimestamps.isEmpty()) {
-            throw new RuntimeException(INVALID_ENCODED_TIMESTAMP);
-        }
-
-        try {
-            // Decode the base64 encoded string
-            byte[] decodedBytes = Base64.getDecoder().decode(encodedTimestamps);
-            String decodedString = new String(decodedBytes, StandardCharsets.UTF_8);
-
-            // Split the decoded string into a list of timestamps
-            String[] timestampArray = decodedString.split(",");
-
-            // Convert the array to a list of epochs (Long)
-            return Stream.of(timestampArray)
-                    .filter(VideoTimelineUtils::isValidLong)
-                    .map(Long::parseLong)
-                    .collect(Collectors.toList());
-        } catch (IllegalArgumentException e) {
-            throw new RuntimeException("Unable to decode timestamps.");
-        }
-    }
-
-    private static boolean isValidLong(String timestampStr) {
-        try {
-            Long.parseLong(timestampStr);
-            return true;
-        } catch (NumberFormatException e) {
-            throw new RuntimeException(String.format(INVALID_TIMESTAMP, timestampStr));
-        }
+        return Longs.asList(TimestampDecoder.decodeEncodedTimestamps(encodedTimestamps));
     }
 
     /**
@@ -94,15 +65,10 @@ public class VideoTimelineUtils {
      * eg. 09:59:58 gets truncated to 09:59:55 for seconds, 09:59:00 for minutes, 09:00:00 for hours etc.
      * @param timeIncrementUnits - Increment Unit to which time needs to be truncated
      * @param timestamp - start time for which density is to be stored
-     * @return Instant
+     * @return truncated time in epoch milliseconds
      */
     public Long getUnitTime(TimeIncrementUnits timeIncrementUnits, Long timestamp) {
-        if(timeIncrementUnits == TimeIncrementUnits.SECONDS) {
-            return (long) (5000 * (Math.floor((double) timestamp / 5000)));
-        } else {
-            Instant truncatedInstant = Instant.ofEpochMilli(timestamp).truncatedTo(timeIncrementUnits.getChronoUnit());
-            return truncatedInstant.toEpochMilli();
-        }
+        return timeIncrementUnits.getBucketStart(timestamp);
     }
 
     /**
@@ -6,6 +6,10 @@ public final class AWSVideoAnalyticsServiceLambdaConstants {
     public static final String CREDENTIALS_PROVIDER = "CREDENTIALS_PROVIDER";
     public static final String SERVICE_ENDPOINT ="SERVICE_ENDPOINT";
     public static final String HTTP_CLIENT = "HTTP_CLIENT";
+    public static final String VIDEO_TIMELINE_QUERY_EXECUTOR = "VIDEO_TIMELINE_QUERY_EXECUTOR";
+    public static final String VIDEO_TIMELINE_BATCH_EXECUTOR = "VIDEO_TIMELINE_BATCH_EXECUTOR";
+    public static final String VIDEO_TIMELINE_EXPORT_EXECUTOR = "VIDEO_TIMELINE_EXPORT_EXECUTOR";
+    public static final String THUMBNAIL_UPLOAD_EXECUTOR = "THUMBNAIL_UPLOAD_EXECUTOR";
     
     // body key for request and response
     public static final String PROXY_LAMBDA_BODY_KEY = "body";
@@ -0,0 +1,31 @@
+package com.amazonaws.videoanalytics.videologistics.utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with jitter between the attempts of a retried request
+ */
+public final class RetryBackoff {
+    private RetryBackoff() {
+    }
+
+    /**
+     * Sleeps for an exponentially growing, jittered amount of time before the next attempt, between half and all of
+     * the base delay doubled per attempt made, capped at the max delay
+     * @param sleeper sleeper to wait with
+     * @param attempt number of attempts made so far
+     * @param baseMillis delay after the first attempt
+     * @param maxMillis max delay
+     * @throws RuntimeException if interrupted, with the interrupt status of the thread restored
+     */
+    public static void backoff(final Sleeper sleeper, final int attempt, final long baseMillis, final long maxMillis) {
+        long maxDelay = Math.min(maxMillis, baseMillis << (attempt - 1));
+        try {
+            sleeper.sleep(ThreadLocalRandom.current().nextLong(maxDelay / 2, maxDelay + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(String.format("Interrupted while waiting to retry after attempt %d", attempt),
+                    e);
+        }
+    }
+}
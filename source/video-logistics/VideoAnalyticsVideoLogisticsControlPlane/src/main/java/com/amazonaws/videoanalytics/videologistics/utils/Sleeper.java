@@ -0,0 +1,11 @@
+package com.amazonaws.videoanalytics.videologistics.utils;
+
+/**
+ * Waits between retry attempts, so that tests can exercise retries without sleeping
+ */
+@FunctionalInterface
+public interface Sleeper {
+    Sleeper THREAD_SLEEPER = Thread::sleep;
+
+    void sleep(long millis) throws InterruptedException;
+}
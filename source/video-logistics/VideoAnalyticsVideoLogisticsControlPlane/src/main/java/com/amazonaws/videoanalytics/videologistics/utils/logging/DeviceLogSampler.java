@@ -0,0 +1,45 @@
+package com.amazonaws.videoanalytics.videologistics.utils.logging;
+
+import com.google.common.base.Strings;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.Supplier;
+
+/**
+ * Samples the per-device debug lines of the timeline paths, so that debug logging can be enabled on a busy stream.
+ * Devices are sampled by the hash of their id, so that every debug line of a sampled device is logged.
+ * VL_LOG_DEBUG_SAMPLE_RATE is the fraction of devices sampled, 0.01 by default.
+ */
+public final class DeviceLogSampler {
+    static final String DEBUG_SAMPLE_RATE_VARIABLE = "VL_LOG_DEBUG_SAMPLE_RATE";
+    static final double DEFAULT_DEBUG_SAMPLE_RATE = 0.01;
+    private static final double DEBUG_SAMPLE_RATE = parseSampleRate(System.getenv(DEBUG_SAMPLE_RATE_VARIABLE));
+
+    private DeviceLogSampler() {
+    }
+
+    /**
+     * Logs a debug line of a device, only building the message if debug is enabled and the device is sampled
+     */
+    public static void debug(final Logger logger, final String deviceId, final Supplier<?> message) {
+        if (logger.isDebugEnabled() && isSampled(deviceId, DEBUG_SAMPLE_RATE)) {
+            logger.debug(message);
+        }
+    }
+
+    static boolean isSampled(final String deviceId, final double sampleRate) {
+        int hash = deviceId.hashCode() * 0x9E3779B9;
+        return (hash >>> 16) < sampleRate * (1 << 16);
+    }
+
+    static double parseSampleRate(final String sampleRate) {
+        if (Strings.isNullOrEmpty(sampleRate)) {
+            return DEFAULT_DEBUG_SAMPLE_RATE;
+        }
+        try {
+            double rate = Double.parseDouble(sampleRate.trim());
+            return Double.isNaN(rate) ? DEFAULT_DEBUG_SAMPLE_RATE : Math.min(1.0, Math.max(0.0, rate));
+        } catch (NumberFormatException e) {
+            return DEFAULT_DEBUG_SAMPLE_RATE;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.amazonaws.videoanalytics.videologistics.utils.logging;
+
+import com.google.common.base.Strings;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.lookup.AbstractLookup;
+import org.apache.logging.log4j.core.lookup.StrLookup;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Logging settings in the lambda environment, read by {@link VideoLogisticsXmlConfiguration} for the levels and used
+ * by log4j2.xml as the ${vl:maxMessageLength} lookup. Values are validated here rather than in the configuration, so
+ * that a misconfigured environment falls back to the defaults instead of failing or silencing the logging:
+ * VL_LOG_LEVEL is the root level, WARN by default, so that the info lines of the lambdas are opt-in;
+ * VL_LOG_LEVELS overrides it per logger or package, eg.
+ * "com.amazonaws.videoanalytics.videologistics.dao.videotimeline.RawVideoTimelineDAO=DEBUG,
+ * com.amazonaws.videoanalytics.videologistics.timeline=INFO";
+ * VL_LOG_MAX_MESSAGE_LENGTH is the length string fields, including stack traces, are truncated to, 1024 by default.
+ */
+@Plugin(name = "vl", category = StrLookup.CATEGORY)
+public final class LogEnvironmentLookup extends AbstractLookup {
+    static final String MAX_MESSAGE_LENGTH = "maxMessageLength";
+    static final String LOG_LEVEL_VARIABLE = "VL_LOG_LEVEL";
+    static final String LOG_LEVELS_VARIABLE = "VL_LOG_LEVELS";
+    static final String MAX_MESSAGE_LENGTH_VARIABLE = "VL_LOG_MAX_MESSAGE_LENGTH";
+    static final int DEFAULT_MAX_MESSAGE_LENGTH = 1024;
+    // the JSON template layout requires a positive length
+    private static final int MIN_MESSAGE_LENGTH = 1;
+
+    private final Map<String, String> environment;
+
+    public LogEnvironmentLookup() {
+        this(System.getenv());
+    }
+
+    LogEnvironmentLookup(final Map<String, String> environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public String lookup(final LogEvent event, final String key) {
+        if (MAX_MESSAGE_LENGTH.equals(key)) {
+            return String.valueOf(getMaxMessageLength());
+        }
+        return null;
+    }
+
+    Level getLevel() {
+        return Level.toLevel(environment.get(LOG_LEVEL_VARIABLE), Level.WARN);
+    }
+
+    /**
+     * Reads the per-logger levels, entries without a name or with an invalid level are ignored
+     * @return levels by logger or package name
+     */
+    Map<String, Level> getLoggerLevels() {
+        String levels = environment.get(LOG_LEVELS_VARIABLE);
+        if (Strings.isNullOrEmpty(levels)) {
+            return Map.of();
+        }
+        Map<String, Level> loggerLevels = new LinkedHashMap<>();
+        for (String loggerLevel : levels.split(",")) {
+            String[] nameAndLevel = loggerLevel.split("=", 2);
+            if (nameAndLevel.length == 2 && !nameAndLevel[0].isBlank()) {
+                Level level = Level.getLevel(nameAndLevel[1].trim().toUpperCase(Locale.ROOT));
+                if (level != null) {
+                    loggerLevels.put(nameAndLevel[0].trim(), level);
+                }
+            }
+        }
+        return loggerLevels;
+    }
+
+    int getMaxMessageLength() {
+        String maxMessageLength = environment.get(MAX_MESSAGE_LENGTH_VARIABLE);
+        if (Strings.isNullOrEmpty(maxMessageLength)) {
+            return DEFAULT_MAX_MESSAGE_LENGTH;
+        }
+        try {
+            return Math.max(MIN_MESSAGE_LENGTH, Integer.parseInt(maxMessageLength.trim()));
+        } catch (NumberFormatException e) {
+            return DEFAULT_MAX_MESSAGE_LENGTH;
+        }
+    }
+}
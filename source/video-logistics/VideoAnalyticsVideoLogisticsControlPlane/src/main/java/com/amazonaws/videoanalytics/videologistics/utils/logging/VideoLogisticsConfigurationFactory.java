@@ -0,0 +1,27 @@
+package com.amazonaws.videoanalytics.videologistics.utils.logging;
+
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.ConfigurationFactory;
+import org.apache.logging.log4j.core.config.ConfigurationSource;
+import org.apache.logging.log4j.core.config.Order;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.xml.XmlConfigurationFactory;
+
+/**
+ * Loads log4j2.xml as a {@link VideoLogisticsXmlConfiguration}, ordered before log4j's own XML factory
+ */
+@Plugin(name = "VideoLogisticsConfigurationFactory", category = ConfigurationFactory.CATEGORY)
+@Order(10)
+public class VideoLogisticsConfigurationFactory extends ConfigurationFactory {
+
+    @Override
+    public Configuration getConfiguration(final LoggerContext loggerContext, final ConfigurationSource source) {
+        return new VideoLogisticsXmlConfiguration(loggerContext, source, System.getenv());
+    }
+
+    @Override
+    protected String[] getSupportedTypes() {
+        return XmlConfigurationFactory.SUFFIXES;
+    }
+}
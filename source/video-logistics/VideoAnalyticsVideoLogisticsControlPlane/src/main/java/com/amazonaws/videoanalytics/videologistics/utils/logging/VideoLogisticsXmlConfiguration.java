@@ -0,0 +1,57 @@
+package com.amazonaws.videoanalytics.videologistics.utils.logging;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.ConfigurationSource;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.config.xml.XmlConfiguration;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * XML configuration that applies the levels of VL_LOG_LEVEL and VL_LOG_LEVELS on top of log4j2.xml, so that a logger
+ * can be switched to debug by updating the lambda environment instead of redeploying. A logger missing from log4j2.xml
+ * is added without appenders of its own and logs through the root appender.
+ */
+public class VideoLogisticsXmlConfiguration extends XmlConfiguration {
+    private final Map<String, String> environment;
+
+    public VideoLogisticsXmlConfiguration(final LoggerContext loggerContext, final ConfigurationSource source,
+                                          final Map<String, String> environment) {
+        super(loggerContext, source);
+        this.environment = environment;
+    }
+
+    @Override
+    protected void doConfigure() {
+        super.doConfigure();
+        LogEnvironmentLookup lookup = new LogEnvironmentLookup(environment);
+        getRootLogger().setLevel(lookup.getLevel());
+        for (Map.Entry<String, Level> loggerLevel : lookup.getLoggerLevels().entrySet()) {
+            LoggerConfig loggerConfig = getLoggers().get(loggerLevel.getKey());
+            if (loggerConfig != null) {
+                loggerConfig.setLevel(loggerLevel.getValue());
+            } else {
+                addLogger(loggerLevel.getKey(), LoggerConfig.newBuilder()
+                        .withLoggerName(loggerLevel.getKey())
+                        .withLevel(loggerLevel.getValue())
+                        .withAdditivity(true)
+                        .withConfig(this)
+                        .build());
+            }
+        }
+    }
+
+    @Override
+    public Configuration reconfigure() {
+        try {
+            ConfigurationSource source = getConfigurationSource().resetInputStream();
+            return source == null ? null : new VideoLogisticsXmlConfiguration(getLoggerContext(), source, environment);
+        } catch (IOException e) {
+            LOGGER.error("Cannot locate file {}", getConfigurationSource(), e);
+            return null;
+        }
+    }
+}
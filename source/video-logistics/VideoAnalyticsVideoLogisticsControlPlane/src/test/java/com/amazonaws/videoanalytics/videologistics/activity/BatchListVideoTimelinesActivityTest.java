@@ -0,0 +1,129 @@
+package com.amazonaws.videoanalytics.videologistics.activity;
+
+import com.amazonaws.videoanalytics.videologistics.BatchListVideoTimelinesRequestContent;
+import com.amazonaws.videoanalytics.videologistics.BatchListVideoTimelinesResponseContent;
+import com.amazonaws.videoanalytics.videologistics.DeviceVideoTimelines;
+import com.amazonaws.videoanalytics.videologistics.TimeIncrementUnits;
+import com.amazonaws.videoanalytics.videologistics.VideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineBatchLister;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineQueryPlanner;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BatchListVideoTimelinesActivityTest {
+
+    @Mock
+    private VideoTimelineBatchLister videoTimelineBatchLister;
+
+    @Mock
+    private VideoTimelineUtils videoTimelineUtils;
+
+    @Spy
+    private VideoTimelineQueryPlanner videoTimelineQueryPlanner;
+
+    private BatchListVideoTimelinesActivity activity;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        activity = new BatchListVideoTimelinesActivity(videoTimelineBatchLister, videoTimelineUtils,
+                videoTimelineQueryPlanner);
+    }
+
+    @Test
+    void handleRequest_ValidInput_ReturnsTimelinesOfEachDevice() throws IOException {
+        when(videoTimelineUtils.getUnitTime(any(), anyLong())).thenAnswer(invocation -> invocation.getArgument(1));
+        List<DeviceVideoTimelines> deviceVideoTimelines = List.of(
+                DeviceVideoTimelines.builder()
+                        .deviceId("camera1")
+                        .videoTimelines(List.of(VideoTimeline.builder().cloudDensity(1f).deviceDensity(0f).build()))
+                        .build(),
+                DeviceVideoTimelines.builder()
+                        .deviceId("camera2")
+                        .errorMessage("Throttled")
+                        .build());
+        when(videoTimelineBatchLister.listVideoTimelines(eq(List.of("camera1", "camera2")), eq(new Date(0L)),
+                eq(new Date(60000L)), eq(60000L), any())).thenReturn(deviceVideoTimelines);
+
+        Map<String, Object> result = activity.handleRequest(createInput(List.of("camera1", "camera2"), 0L, 60000L,
+                1, TimeIncrementUnits.MINUTES), null);
+
+        assertEquals(200, result.get("statusCode"));
+        BatchListVideoTimelinesResponseContent response =
+                BatchListVideoTimelinesResponseContent.fromJson((String) result.get("body"));
+        assertEquals(2, response.getDeviceVideoTimelines().size());
+        assertEquals(deviceVideoTimelines.get(0), response.getDeviceVideoTimelines().get(0));
+        assertEquals("camera2", response.getDeviceVideoTimelines().get(1).getDeviceId());
+        assertEquals("Throttled", response.getDeviceVideoTimelines().get(1).getErrorMessage());
+    }
+
+    @Test
+    void handleRequest_NullInput_ReturnsBadRequest() {
+        Map<String, Object> result = activity.handleRequest(null, null);
+
+        assertEquals(400, result.get("statusCode"));
+    }
+
+    @Test
+    void handleRequest_TooManyDevices_ReturnsBadRequest() {
+        Map<String, Object> result = activity.handleRequest(createInput(Collections.nCopies(65, "camera"), 0L,
+                60000L, 1, TimeIncrementUnits.MINUTES), null);
+
+        assertEquals(400, result.get("statusCode"));
+        verify(videoTimelineBatchLister, never()).listVideoTimelines(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void handleRequest_NullDeviceIds_ReturnsBadRequest() {
+        Map<String, Object> input = createInput(List.of("camera1"), 0L, 60000L, 1, TimeIncrementUnits.MINUTES);
+        input.put("body", ((String) input.get("body")).replace("[\"camera1\"]", "null"));
+
+        Map<String, Object> result = activity.handleRequest(input, null);
+
+        assertEquals(400, result.get("statusCode"));
+        verify(videoTimelineBatchLister, never()).listVideoTimelines(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void handleRequest_InvalidSecondsIncrement_ReturnsBadRequest() {
+        when(videoTimelineUtils.getUnitTime(any(), anyLong())).thenAnswer(invocation -> invocation.getArgument(1));
+
+        Map<String, Object> result = activity.handleRequest(createInput(List.of("camera1"), 0L, 60000L, 3,
+                TimeIncrementUnits.SECONDS), null);
+
+        assertEquals(400, result.get("statusCode"));
+        verify(videoTimelineBatchLister, never()).listVideoTimelines(any(), any(), any(), any(), any());
+    }
+
+    private Map<String, Object> createInput(final List<String> deviceIds, final long startTime, final long endTime,
+                                            final int timeIncrement, final TimeIncrementUnits timeIncrementUnits) {
+        BatchListVideoTimelinesRequestContent request = BatchListVideoTimelinesRequestContent.builder()
+            .deviceIds(deviceIds)
+            .startTime(new Date(startTime))
+            .endTime(new Date(endTime))
+            .timeIncrement(BigDecimal.valueOf(timeIncrement))
+            .timeIncrementUnits(timeIncrementUnits)
+            .build();
+        Map<String, Object> input = new HashMap<>();
+        input.put("body", request.toJson());
+        return input;
+    }
+}
@@ -22,6 +22,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ListDetailedVideoTimelineActivityTest {
@@ -44,7 +47,7 @@ public class ListDetailedVideoTimelineActivityTest {
     @Test
     void handleRequest_validInput_returnsSuccessResponse() {
         Map<String, Object> input = createValidInput();
-        when(detailedVideoTimelineGenerator.getDetailedVideoTimeLine(anyString(), anyLong(), anyLong(), any()))
+        when(detailedVideoTimelineGenerator.getDetailedVideoTimeLine(anyString(), anyLong(), anyLong(), any(), any()))
                 .thenReturn(getDetailedVideoTimeline());
 
         Map<String, Object> response = activity.handleRequest(input, context);
@@ -52,6 +55,26 @@ public class ListDetailedVideoTimelineActivityTest {
         assertEquals(200, response.get("statusCode"));
     }
 
+    @Test
+    void handleRequest_maxResults_passedToGenerator() {
+        Map<String, Object> input = createMaxResultsInput(10);
+        when(detailedVideoTimelineGenerator.getDetailedVideoTimeLine(anyString(), anyLong(), anyLong(), any(), eq(10)))
+                .thenReturn(getDetailedVideoTimeline());
+
+        Map<String, Object> response = activity.handleRequest(input, context);
+
+        assertEquals(200, response.get("statusCode"));
+    }
+
+    @Test
+    void handleRequest_maxResultsOutOfRange_returnsErrorResponse() {
+        Map<String, Object> response = activity.handleRequest(createMaxResultsInput(1001), context);
+
+        assertEquals(400, response.get("statusCode"));
+        verify(detailedVideoTimelineGenerator, never()).getDetailedVideoTimeLine(anyString(), anyLong(), anyLong(),
+                any(), any());
+    }
+
     @Test
     void handleRequest_nullInput_returnsErrorResponse() {
         Map<String, Object> response = activity.handleRequest(null, context);
@@ -78,6 +101,16 @@ public class ListDetailedVideoTimelineActivityTest {
         return input;
     }
 
+    private Map<String, Object> createMaxResultsInput(final int maxResults) {
+        Map<String, Object> input = new HashMap<>();
+        String body = String.format(
+            "{\"deviceId\":\"%s\",\"startTime\":%d,\"endTime\":%d,\"maxResults\":%d}",
+            DEVICE_ID, 1696444405000L, 1696444421000L, maxResults
+        );
+        input.put("body", body);
+        return input;
+    }
+
     private Map<String, Object> createInvalidTimeInput() {
         Map<String, Object> input = new HashMap<>();
         String body = String.format(
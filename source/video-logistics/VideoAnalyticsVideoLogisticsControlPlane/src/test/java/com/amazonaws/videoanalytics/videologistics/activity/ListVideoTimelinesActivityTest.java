@@ -1,26 +1,40 @@
 package com.amazonaws.videoanalytics.videologistics.activity;
 
+import com.amazonaws.videoanalytics.videologistics.ColumnarVideoTimelines;
 import com.amazonaws.videoanalytics.videologistics.ListVideoTimelinesRequestContent;
+import com.amazonaws.videoanalytics.videologistics.ListVideoTimelinesResponseContent;
 import com.amazonaws.videoanalytics.videologistics.TimeIncrementUnits;
 import com.amazonaws.videoanalytics.videologistics.VideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.VideoTimelineFormat;
 import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.VideoTimelineDAO;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineQueryPlanner;
 import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineUtils;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.ColumnarTimelinePaginatedResponse;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.PaginatedListResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Date;
+import java.util.zip.GZIPInputStream;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ListVideoTimelinesActivityTest {
 
@@ -30,12 +44,15 @@ public class ListVideoTimelinesActivityTest {
     @Mock
     private VideoTimelineUtils videoTimelineUtils;
 
+    @Spy
+    private VideoTimelineQueryPlanner videoTimelineQueryPlanner;
+
     private ListVideoTimelinesActivity activity;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        activity = new ListVideoTimelinesActivity(videoTimelineDAO, videoTimelineUtils);
+        activity = new ListVideoTimelinesActivity(videoTimelineDAO, videoTimelineUtils, videoTimelineQueryPlanner);
     }
 
     @Test
@@ -107,4 +124,119 @@ public class ListVideoTimelinesActivityTest {
         assertNotNull(result);
         assertEquals(400, result.get("statusCode"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void handleRequest_DaysIncrementOverUtcDays_ReadsDaysTimelines() {
+        // 2023-10-01T00:00:00Z to 2023-10-31T00:00:00Z
+        long startTime = 1696118400000L;
+        long endTime = 1698710400000L;
+        ListVideoTimelinesRequestContent request = ListVideoTimelinesRequestContent.builder()
+            .deviceId("testDevice")
+            .startTime(new Date(startTime))
+            .endTime(new Date(endTime))
+            .timeIncrement(BigDecimal.valueOf(1))
+            .timeIncrementUnits(TimeIncrementUnits.DAYS)
+            .build();
+
+        when(videoTimelineUtils.getUnitTime(any(), eq(startTime))).thenReturn(startTime);
+        when(videoTimelineUtils.getUnitTime(any(), eq(endTime))).thenReturn(endTime);
+        when(videoTimelineDAO.listVideoTimelines(any(), any(), any(), any(), any(), any()))
+            .thenReturn(new PaginatedListResponse<>(new ArrayList<>(), null));
+
+        Map<String, Object> input = new HashMap<>();
+        input.put("body", request.toJson());
+        Map<String, Object> result = activity.handleRequest(input, null);
+
+        assertEquals(200, result.get("statusCode"));
+        assertTrue(((String) result.get("body")).contains("\"timeIncrement\":1"));
+        verify(videoTimelineDAO).listVideoTimelines(eq("testDevice"), eq(new Date(startTime)), eq(new Date(endTime)),
+            eq(24 * 60 * 60 * 1000L), eq(com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits.DAYS),
+            any());
+    }
+
+    @Test
+    void handleRequest_DaysIncrementOffsetFromUtc_ReadsHoursTimelines() {
+        // 2023-10-01T07:00:00Z to 2023-10-08T07:00:00Z, ie. a week of days starting at midnight PDT
+        long startTime = 1696143600000L;
+        long endTime = 1696748400000L;
+        ListVideoTimelinesRequestContent request = ListVideoTimelinesRequestContent.builder()
+            .deviceId("testDevice")
+            .startTime(new Date(startTime))
+            .endTime(new Date(endTime))
+            .timeIncrement(BigDecimal.valueOf(1))
+            .timeIncrementUnits(TimeIncrementUnits.DAYS)
+            .build();
+
+        when(videoTimelineUtils.getUnitTime(any(), eq(startTime))).thenReturn(startTime);
+        when(videoTimelineUtils.getUnitTime(any(), eq(endTime))).thenReturn(endTime);
+        when(videoTimelineDAO.listVideoTimelines(any(), any(), any(), any(), any(), any()))
+            .thenReturn(new PaginatedListResponse<>(new ArrayList<>(), null));
+
+        Map<String, Object> input = new HashMap<>();
+        input.put("body", request.toJson());
+        Map<String, Object> result = activity.handleRequest(input, null);
+
+        assertEquals(200, result.get("statusCode"));
+        verify(videoTimelineDAO).listVideoTimelines(eq("testDevice"), eq(new Date(startTime)), eq(new Date(endTime)),
+            eq(24 * 60 * 60 * 1000L), eq(com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits.HOURS),
+            any());
+    }
+
+    @Test
+    void handleRequest_ColumnarFormat_ReturnsColumnarTimelines() throws IOException {
+        Map<String, Object> result = activity.handleRequest(setUpColumnarRequest(VideoTimelineFormat.COLUMNAR), null);
+
+        assertEquals(200, result.get("statusCode"));
+        ListVideoTimelinesResponseContent response =
+            ListVideoTimelinesResponseContent.fromJson((String) result.get("body"));
+        assertEquals(getColumnarVideoTimelines(), response.getColumnarVideoTimelines());
+        assertTrue(response.getVideoTimelines().isEmpty());
+        assertNull(response.getCompressedColumnarVideoTimelines());
+        assertEquals("columnarNextToken", response.getNextToken());
+        verify(videoTimelineDAO, never()).listVideoTimelines(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void handleRequest_ColumnarGzipFormat_ReturnsCompressedColumnarTimelines() throws IOException {
+        Map<String, Object> result = activity.handleRequest(setUpColumnarRequest(VideoTimelineFormat.COLUMNAR_GZIP), null);
+
+        assertEquals(200, result.get("statusCode"));
+        ListVideoTimelinesResponseContent response =
+            ListVideoTimelinesResponseContent.fromJson((String) result.get("body"));
+        assertNull(response.getColumnarVideoTimelines());
+        try (GZIPInputStream gzipInputStream =
+                     new GZIPInputStream(new ByteArrayInputStream(response.getCompressedColumnarVideoTimelines()))) {
+            String columnarJson = new String(gzipInputStream.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals(getColumnarVideoTimelines(), ColumnarVideoTimelines.fromJson(columnarJson));
+        }
+        assertEquals("columnarNextToken", response.getNextToken());
+    }
+
+    private Map<String, Object> setUpColumnarRequest(VideoTimelineFormat timelineFormat) {
+        ListVideoTimelinesRequestContent request = ListVideoTimelinesRequestContent.builder()
+            .deviceId("testDevice")
+            .startTime(new Date(1000L))
+            .endTime(new Date(2000L))
+            .timeIncrement(BigDecimal.valueOf(5))
+            .timeIncrementUnits(TimeIncrementUnits.SECONDS)
+            .timelineFormat(timelineFormat)
+            .build();
+
+        when(videoTimelineUtils.getUnitTime(any(), eq(1000L))).thenReturn(1000L);
+        when(videoTimelineUtils.getUnitTime(any(), eq(2000L))).thenReturn(2000L);
+        when(videoTimelineDAO.listColumnarVideoTimelines(any(), any(), any(), any(), any(), any()))
+            .thenReturn(new ColumnarTimelinePaginatedResponse(getColumnarVideoTimelines(), "columnarNextToken"));
+
+        Map<String, Object> input = new HashMap<>();
+        input.put("body", request.toJson());
+        return input;
+    }
+
+    private ColumnarVideoTimelines getColumnarVideoTimelines() {
+        return ColumnarVideoTimelines.builder()
+            .runLengths(List.of(0, 1, 3, 2, 1))
+            .cloudDensities(List.of(0.4F, 1.0F, 0.2F))
+            .deviceDensities(List.of(0.0F, 0.0F, 0.6F))
+            .build();
+    }
+}
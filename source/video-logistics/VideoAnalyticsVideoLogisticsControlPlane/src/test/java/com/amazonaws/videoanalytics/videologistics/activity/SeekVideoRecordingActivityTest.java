@@ -0,0 +1,96 @@
+package com.amazonaws.videoanalytics.videologistics.activity;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.videoanalytics.videologistics.SeekDirection;
+import com.amazonaws.videoanalytics.videologistics.SeekVideoRecordingResponseContent;
+import com.amazonaws.videoanalytics.videologistics.Timeline;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoRecordingSeeker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+public class SeekVideoRecordingActivityTest {
+    private static final String DEVICE_ID = "dev123";
+    private static final long TIMESTAMP = 1696444405000L;
+
+    @Mock
+    private VideoRecordingSeeker videoRecordingSeeker;
+
+    @Mock
+    private Context context;
+
+    private SeekVideoRecordingActivity activity;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        activity = new SeekVideoRecordingActivity(videoRecordingSeeker);
+    }
+
+    @Test
+    void handleRequest_recordingFound_returnsRecording() throws IOException {
+        Timeline recording = Timeline.builder()
+                .startTime(Double.valueOf(1696444412000L))
+                .endTime(Double.valueOf(1696444418123L))
+                .build();
+        when(videoRecordingSeeker.seek(DEVICE_ID, TIMESTAMP, SeekDirection.NEXT)).thenReturn(Optional.of(recording));
+
+        Map<String, Object> response = activity.handleRequest(createInput("NEXT"), context);
+
+        assertEquals(200, response.get("statusCode"));
+        SeekVideoRecordingResponseContent responseContent =
+                SeekVideoRecordingResponseContent.fromJson((String) response.get("body"));
+        assertEquals(SeekDirection.NEXT, responseContent.getDirection());
+        assertEquals(recording, responseContent.getRecording());
+    }
+
+    @Test
+    void handleRequest_noRecording_returnsResponseWithoutRecording() throws IOException {
+        when(videoRecordingSeeker.seek(anyString(), anyLong(), eq(SeekDirection.PREVIOUS))).thenReturn(Optional.empty());
+
+        Map<String, Object> response = activity.handleRequest(createInput("PREVIOUS"), context);
+
+        assertEquals(200, response.get("statusCode"));
+        assertNull(SeekVideoRecordingResponseContent.fromJson((String) response.get("body")).getRecording());
+    }
+
+    @Test
+    void handleRequest_nullInput_returnsErrorResponse() {
+        Map<String, Object> response = activity.handleRequest(null, context);
+
+        assertEquals(400, response.get("statusCode"));
+    }
+
+    @Test
+    void handleRequest_missingDirection_returnsErrorResponse() {
+        Map<String, Object> input = new HashMap<>();
+        input.put("body", String.format("{\"deviceId\":\"%s\",\"timestamp\":%d}", DEVICE_ID, TIMESTAMP));
+
+        Map<String, Object> response = activity.handleRequest(input, context);
+
+        assertEquals(400, response.get("statusCode"));
+    }
+
+    private Map<String, Object> createInput(final String direction) {
+        Map<String, Object> input = new HashMap<>();
+        String body = String.format(
+            "{\"deviceId\":\"%s\",\"timestamp\":%d,\"direction\":\"%s\"}",
+            DEVICE_ID, TIMESTAMP, direction
+        );
+        input.put("body", body);
+        return input;
+    }
+}
@@ -0,0 +1,106 @@
+package com.amazonaws.videoanalytics.videologistics.client.s3;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.http.ExecutableHttpRequest;
+import software.amazon.awssdk.http.HttpExecuteRequest;
+import software.amazon.awssdk.http.HttpExecuteResponse;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpMethod;
+import software.amazon.awssdk.http.SdkHttpRequest;
+import software.amazon.awssdk.http.SdkHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ImageUploaderTest {
+    private static final byte[] PAYLOAD = "image".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    private SdkHttpClient httpClient;
+
+    @Mock
+    private ExecutableHttpRequest executableHttpRequest;
+
+    private ImageUploader imageUploader;
+    private URL uploadPath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        imageUploader = new ImageUploader(httpClient);
+        uploadPath = new URL("https://bucket.s3.amazonaws.com/device/image.jpeg?X-Amz-Signature=signature");
+        when(httpClient.prepareRequest(any(HttpExecuteRequest.class))).thenReturn(executableHttpRequest);
+    }
+
+    @Test
+    void upload_success_putsPayloadAndDrainsResponse() throws IOException {
+        ByteArrayInputStream responseBody = new ByteArrayInputStream("response".getBytes(StandardCharsets.UTF_8));
+        when(executableHttpRequest.call()).thenReturn(response(200, "OK", responseBody));
+
+        imageUploader.upload(uploadPath, PAYLOAD);
+
+        ArgumentCaptor<HttpExecuteRequest> captor = ArgumentCaptor.forClass(HttpExecuteRequest.class);
+        verify(httpClient).prepareRequest(captor.capture());
+        SdkHttpRequest request = captor.getValue().httpRequest();
+        assertEquals(SdkHttpMethod.PUT, request.method());
+        assertEquals(uploadPath.toString(), request.getUri().toString());
+        assertEquals("image/jpeg", request.firstMatchingHeader("Content-Type").orElseThrow());
+        assertEquals(String.valueOf(PAYLOAD.length), request.firstMatchingHeader("Content-Length").orElseThrow());
+        assertEquals(S3ChecksumCalculator.checksum256(PAYLOAD),
+                request.firstMatchingHeader("x-amz-checksum-sha256").orElseThrow());
+        try (InputStream content = captor.getValue().contentStreamProvider().orElseThrow().newStream()) {
+            assertArrayEquals(PAYLOAD, content.readAllBytes());
+        }
+        assertEquals(0, responseBody.available());
+    }
+
+    @Test
+    void upload_non2xxStatus_throwsIOException() throws IOException {
+        when(executableHttpRequest.call()).thenReturn(response(403, "Forbidden",
+                new ByteArrayInputStream(new byte[0])));
+
+        IOException e = assertThrows(IOException.class, () -> imageUploader.upload(uploadPath, PAYLOAD));
+
+        assertTrue(e.getMessage().contains("ERROR CODE: 403"));
+        assertTrue(e.getMessage().contains("ERROR MESSAGE: Forbidden"));
+    }
+
+    @Test
+    void upload_callFails_propagatesIOException() throws IOException {
+        IOException failure = new IOException("Connection reset");
+        when(executableHttpRequest.call()).thenThrow(failure);
+
+        IOException e = assertThrows(IOException.class, () -> imageUploader.upload(uploadPath, PAYLOAD));
+
+        assertSame(failure, e);
+    }
+
+    private static HttpExecuteResponse response(final int statusCode, final String statusText,
+                                                final InputStream body) {
+        return HttpExecuteResponse.builder()
+                .response(SdkHttpResponse.builder()
+                        .statusCode(statusCode)
+                        .statusText(statusText)
+                        .build())
+                .responseBody(AbortableInputStream.create(body))
+                .build();
+    }
+}
@@ -0,0 +1,157 @@
+package com.amazonaws.videoanalytics.videologistics.dao.videotimeline;
+
+import com.amazonaws.videoanalytics.videologistics.Timeline;
+import com.amazonaws.videoanalytics.videologistics.helper.ddb.DynamoDbEnhancedLocalExtension;
+import com.amazonaws.videoanalytics.videologistics.helper.ddb.Table;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.CompactedVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineAggregator;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.VIDEO_TIMELINE_TABLE_NAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(DynamoDbEnhancedLocalExtension.class)
+public class CompactedVideoTimelineDAOTest {
+    private static final String DEVICE_ID = "device123";
+    private static final String OTHER_DEVICE_ID = "device456";
+    // 2023-10-04T00:00:00Z
+    private static final long HOUR_START_TIME = 1696377600000L;
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+    private static final long COMPACTED_AT = 1696382000000L;
+
+    private final DynamoDbTable<AggregateVideoTimeline> videoTimelineTable;
+    private final CompactedVideoTimelineDAO compactedVideoTimelineDAO;
+
+    public CompactedVideoTimelineDAOTest(
+            final DynamoDbClient dynamoDbClient,
+            @Table(tableName = VIDEO_TIMELINE_TABLE_NAME) final DynamoDbTable<AggregateVideoTimeline> videoTimelineTable) {
+        VideoTimelineUtils videoTimelineUtils = new VideoTimelineUtils();
+        this.videoTimelineTable = videoTimelineTable;
+        this.compactedVideoTimelineDAO = new CompactedVideoTimelineDAO(dynamoDbClient, videoTimelineTable,
+                videoTimelineUtils, new VideoTimelineAggregator(videoTimelineUtils));
+    }
+
+    @Test
+    public void save_compactedHours_listedInOrder() {
+        List<Timeline> cloudTimeline = List.of(timeline(HOUR_START_TIME + 250L, HOUR_START_TIME + 60000L),
+                timeline(HOUR_START_TIME + 90000L, HOUR_START_TIME + HOUR_MILLIS));
+        List<Timeline> deviceTimeline = List.of(timeline(HOUR_START_TIME + 2 * HOUR_MILLIS,
+                HOUR_START_TIME + 3 * HOUR_MILLIS));
+        assertTrue(compactedVideoTimelineDAO.save(DEVICE_ID, HOUR_START_TIME, cloudTimeline, List.of(), COMPACTED_AT));
+        assertTrue(compactedVideoTimelineDAO.save(DEVICE_ID, HOUR_START_TIME + 2 * HOUR_MILLIS, List.of(),
+                deviceTimeline, COMPACTED_AT));
+        assertTrue(compactedVideoTimelineDAO.save(DEVICE_ID, HOUR_START_TIME + 5 * HOUR_MILLIS, List.of(),
+                List.of(), COMPACTED_AT));
+
+        List<CompactedVideoTimeline> compactedVideoTimelines = compactedVideoTimelineDAO.listCompactedVideoTimelines(
+                DEVICE_ID, HOUR_START_TIME, HOUR_START_TIME + 4 * HOUR_MILLIS);
+
+        assertEquals(2, compactedVideoTimelines.size());
+        assertEquals(HOUR_START_TIME, compactedVideoTimelines.get(0).getHourStartTime());
+        assertEquals(cloudTimeline, compactedVideoTimelines.get(0).getCloudTimeline());
+        assertTrue(compactedVideoTimelines.get(0).getDeviceTimeline().isEmpty());
+        assertTrue(compactedVideoTimelines.get(0).isValid());
+        assertEquals(deviceTimeline, compactedVideoTimelines.get(1).getDeviceTimeline());
+        assertTrue(compactedVideoTimelineDAO.listCompactedVideoTimelines(OTHER_DEVICE_ID, HOUR_START_TIME,
+                HOUR_START_TIME + 4 * HOUR_MILLIS).isEmpty());
+    }
+
+    @Test
+    public void invalidate_compactedHour_invalidUntilCompactedAgain() {
+        compactedVideoTimelineDAO.save(DEVICE_ID, HOUR_START_TIME, List.of(), List.of(), COMPACTED_AT);
+
+        compactedVideoTimelineDAO.invalidate(DEVICE_ID, HOUR_START_TIME, COMPACTED_AT + 1000L);
+        CompactedVideoTimeline invalidated = listHour();
+        // a compaction that started reading before the invalidation must not land
+        boolean savedStaleCompaction = compactedVideoTimelineDAO.save(DEVICE_ID, HOUR_START_TIME, List.of(),
+                List.of(), COMPACTED_AT + 500L);
+        boolean savedCompaction = compactedVideoTimelineDAO.save(DEVICE_ID, HOUR_START_TIME, List.of(), List.of(),
+                COMPACTED_AT + 2000L);
+
+        assertFalse(invalidated.isValid());
+        assertFalse(savedStaleCompaction);
+        assertTrue(savedCompaction);
+        assertTrue(listHour().isValid());
+    }
+
+    @Test
+    public void invalidate_hourNeverCompacted_invalid() {
+        compactedVideoTimelineDAO.invalidate(DEVICE_ID, HOUR_START_TIME, COMPACTED_AT);
+
+        CompactedVideoTimeline compactedVideoTimeline = listHour();
+
+        assertNull(compactedVideoTimeline.getCompactedAt());
+        assertFalse(compactedVideoTimeline.isValid());
+    }
+
+    @Test
+    public void enqueueCompaction_devicesAndHours_listedUpToLastHour() {
+        compactedVideoTimelineDAO.enqueueCompaction(DEVICE_ID, HOUR_START_TIME);
+        compactedVideoTimelineDAO.enqueueCompaction(DEVICE_ID, HOUR_START_TIME);
+        compactedVideoTimelineDAO.enqueueCompaction(OTHER_DEVICE_ID, HOUR_START_TIME);
+        compactedVideoTimelineDAO.enqueueCompaction(DEVICE_ID, HOUR_START_TIME + HOUR_MILLIS);
+        compactedVideoTimelineDAO.enqueueCompaction(DEVICE_ID, HOUR_START_TIME + 2 * HOUR_MILLIS);
+
+        Map<Long, List<String>> pendingCompactions =
+                compactedVideoTimelineDAO.listPendingCompactions(HOUR_START_TIME + HOUR_MILLIS);
+
+        assertEquals(List.of(HOUR_START_TIME, HOUR_START_TIME + HOUR_MILLIS),
+                List.copyOf(pendingCompactions.keySet()));
+        assertEquals(2, pendingCompactions.get(HOUR_START_TIME).size());
+        assertTrue(pendingCompactions.get(HOUR_START_TIME).containsAll(List.of(DEVICE_ID, OTHER_DEVICE_ID)));
+        assertEquals(List.of(DEVICE_ID), pendingCompactions.get(HOUR_START_TIME + HOUR_MILLIS));
+    }
+
+    @Test
+    public void dequeueCompaction_lastDeviceOfHour_removesQueueItem() {
+        compactedVideoTimelineDAO.enqueueCompaction(DEVICE_ID, HOUR_START_TIME);
+        compactedVideoTimelineDAO.enqueueCompaction(OTHER_DEVICE_ID, HOUR_START_TIME);
+        long itemsBefore = videoTimelineTable.scan().items().stream().count();
+
+        compactedVideoTimelineDAO.dequeueCompaction(DEVICE_ID, HOUR_START_TIME);
+        compactedVideoTimelineDAO.dequeueCompaction(OTHER_DEVICE_ID, HOUR_START_TIME);
+        compactedVideoTimelineDAO.dequeueCompaction(OTHER_DEVICE_ID, HOUR_START_TIME);
+
+        assertTrue(compactedVideoTimelineDAO.listPendingCompactions(HOUR_START_TIME).isEmpty());
+        assertTrue(itemsBefore > 0);
+        assertEquals(0L, videoTimelineTable.scan().items().stream().count());
+    }
+
+    @Test
+    public void enqueueCompaction_manyDevices_oneItemPerDeviceAndHour() {
+        List<String> deviceIds = IntStream.range(0, 100).mapToObj(i -> "device" + i).collect(Collectors.toList());
+        deviceIds.forEach(deviceId -> compactedVideoTimelineDAO.enqueueCompaction(deviceId, HOUR_START_TIME));
+
+        Map<Long, List<String>> pendingCompactions = compactedVideoTimelineDAO.listPendingCompactions(HOUR_START_TIME);
+
+        assertEquals(deviceIds.size(), videoTimelineTable.scan().items().stream().count());
+        assertEquals(Set.copyOf(deviceIds), Set.copyOf(pendingCompactions.get(HOUR_START_TIME)));
+        assertEquals(deviceIds.size(), pendingCompactions.get(HOUR_START_TIME).size());
+    }
+
+    private CompactedVideoTimeline listHour() {
+        return compactedVideoTimelineDAO.listCompactedVideoTimelines(DEVICE_ID, HOUR_START_TIME, HOUR_START_TIME)
+                .get(0);
+    }
+
+    private static Timeline timeline(final long startTime, final long endTime) {
+        return Timeline.builder()
+                .startTime((double) startTime)
+                .endTime((double) endTime)
+                .build();
+    }
+}
@@ -0,0 +1,279 @@
+package com.amazonaws.videoanalytics.videologistics.dao.videotimeline;
+
+import com.amazonaws.videoanalytics.videologistics.helper.ddb.DynamoDbEnhancedLocalExtension;
+import com.amazonaws.videoanalytics.videologistics.helper.ddb.Table;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.RawVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoDensityLocation;
+import com.amazonaws.videoanalytics.videologistics.timeline.TimestampInfo;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineUtils;
+import com.amazonaws.videoanalytics.videologistics.utils.Sleeper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.TransactWriteItemsEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.RAW_VIDEO_TIMELINE_TABLE_NAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(DynamoDbEnhancedLocalExtension.class)
+public class RawVideoTimelineDAOBatchWriteTest {
+    private static final String DEVICE_ID = "device123";
+    private static final long START_TIME = 1696444404123L;
+    private static final long DURATION = 4000L;
+    private static final long MAX_DURATION = RawVideoTimelineDAO.MAX_RAW_TIMELINE_DURATION_MILLIS;
+
+    private final VideoTimelineUtils videoTimelineUtils = new VideoTimelineUtils();
+    private final Sleeper sleeper = mock(Sleeper.class);
+    private final DynamoDbEnhancedClient localDdbClient;
+    private final DynamoDbEnhancedClient ddbClient;
+    private final DynamoDbTable<RawVideoTimeline> rawVideoTimelineTable;
+    private final RawVideoTimelineDAO rawVideoTimelineDAO;
+
+    public RawVideoTimelineDAOBatchWriteTest(
+            final DynamoDbEnhancedClient ddbClient,
+            @Table(tableName = RAW_VIDEO_TIMELINE_TABLE_NAME) final DynamoDbTable<RawVideoTimeline> rawVideoTimelineTable) {
+        this.localDdbClient = ddbClient;
+        this.ddbClient = mock(DynamoDbEnhancedClient.class, delegatesTo(ddbClient));
+        this.rawVideoTimelineTable = rawVideoTimelineTable;
+        this.rawVideoTimelineDAO = new RawVideoTimelineDAO(this.ddbClient, rawVideoTimelineTable, videoTimelineUtils,
+                sleeper);
+    }
+
+    @Test
+    public void saveAll_contiguousCloudTimestamps_coalescedIntoRows() {
+        List<TimestampInfo> timestamps = getTimestamps(60);
+        // duplicate timestamps cannot be in the same batch, the last one is kept
+        timestamps.add(new TimestampInfo(START_TIME, 2 * DURATION));
+        // a gap of at most a second is merged as well
+        timestamps.add(new TimestampInfo(START_TIME + 60 * DURATION + 1000L, DURATION));
+
+        rawVideoTimelineDAO.saveAll(DEVICE_ID, timestamps, VideoDensityLocation.CLOUD.name());
+
+        verify(ddbClient, times(1)).batchWriteItem(any(BatchWriteItemEnhancedRequest.class));
+        for (int i = 0; i < 4; i++) {
+            RawVideoTimeline rawVideoTimeline = load(START_TIME + i * MAX_DURATION);
+            assertEquals(VideoDensityLocation.CLOUD, rawVideoTimeline.getLocation());
+            assertEquals(MAX_DURATION, rawVideoTimeline.getDurationInMillis());
+            assertNotNull(rawVideoTimeline.getExpirationTimestamp());
+        }
+        assertEquals(DURATION + 1000L, load(START_TIME + 4 * MAX_DURATION).getDurationInMillis());
+        assertEquals(5, list(0, 100).size());
+    }
+
+    @Test
+    public void saveAll_cloudTimestampsWithGaps_writtenInBatchesOf25() {
+        List<TimestampInfo> timestamps = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            timestamps.add(new TimestampInfo(START_TIME + i * DURATION, DURATION / 2));
+        }
+
+        rawVideoTimelineDAO.saveAll(DEVICE_ID, timestamps, VideoDensityLocation.CLOUD.name());
+
+        verify(ddbClient, times(3)).batchWriteItem(any(BatchWriteItemEnhancedRequest.class));
+        for (int i = 0; i < 60; i++) {
+            assertEquals(DURATION / 2, load(START_TIME + i * DURATION).getDurationInMillis());
+        }
+    }
+
+    @Test
+    public void saveAll_unprocessedTimelines_retried() throws InterruptedException {
+        AtomicBoolean throttled = new AtomicBoolean();
+        doAnswer(invocation -> {
+            BatchWriteItemEnhancedRequest request = invocation.getArgument(0);
+            if (throttled.compareAndSet(false, true)) {
+                WriteBatch writeBatch = request.writeBatches().iterator().next();
+                return BatchWriteResult.builder()
+                        .unprocessedRequests(Map.of(writeBatch.tableName(), List.copyOf(writeBatch.writeRequests())))
+                        .build();
+            }
+            return localDdbClient.batchWriteItem(request);
+        }).when(ddbClient).batchWriteItem(any(BatchWriteItemEnhancedRequest.class));
+
+        rawVideoTimelineDAO.saveAll(DEVICE_ID, getTimestamps(10), VideoDensityLocation.CLOUD.name());
+
+        verify(ddbClient, times(2)).batchWriteItem(any(BatchWriteItemEnhancedRequest.class));
+        verify(sleeper, times(1)).sleep(anyLong());
+        assertEquals(10 * DURATION, load(START_TIME).getDurationInMillis());
+    }
+
+    @Test
+    public void saveAll_overlappingCloudTimestamps_extendsExistingRow() {
+        rawVideoTimelineDAO.saveAll(DEVICE_ID, getTimestamps(10), VideoDensityLocation.CLOUD.name());
+
+        rawVideoTimelineDAO.saveAll(DEVICE_ID, getTimestamps(5, 20), VideoDensityLocation.CLOUD.name());
+
+        assertEquals(MAX_DURATION, load(START_TIME).getDurationInMillis());
+        assertEquals(20 * DURATION - MAX_DURATION, load(START_TIME + MAX_DURATION).getDurationInMillis());
+        assertEquals(2, list(0, 20).size());
+
+        // saving video that is already on CLOUD again does not write anything
+        rawVideoTimelineDAO.saveAll(DEVICE_ID, getTimestamps(0, 20), VideoDensityLocation.CLOUD.name());
+
+        verify(ddbClient, times(2)).batchWriteItem(any(BatchWriteItemEnhancedRequest.class));
+        assertEquals(MAX_DURATION, load(START_TIME).getDurationInMillis());
+        assertEquals(2, list(0, 20).size());
+    }
+
+    @Test
+    public void saveAll_cloudTimestampsOnDevice_movedToCloudOneByOne() {
+        rawVideoTimelineDAO.saveAll(DEVICE_ID, getTimestamps(5), VideoDensityLocation.DEVICE.name());
+
+        rawVideoTimelineDAO.saveAll(DEVICE_ID, getTimestamps(10), VideoDensityLocation.CLOUD.name());
+
+        // the DEVICE rows are overwritten with their own timestamp, so that their video is caught up to CLOUD
+        for (int i = 0; i < 5; i++) {
+            RawVideoTimeline rawVideoTimeline = load(START_TIME + i * DURATION);
+            assertEquals(VideoDensityLocation.CLOUD, rawVideoTimeline.getLocation());
+            assertEquals(DURATION, rawVideoTimeline.getDurationInMillis());
+        }
+        assertEquals(5 * DURATION, load(START_TIME + 5 * DURATION).getDurationInMillis());
+        assertEquals(6, list(0, 10).size());
+    }
+
+    @Test
+    public void saveAll_deviceTimestampsWithinCloudRow_skipped() {
+        rawVideoTimelineDAO.saveAll(DEVICE_ID, getTimestamps(10), VideoDensityLocation.CLOUD.name());
+
+        rawVideoTimelineDAO.saveAll(DEVICE_ID, getTimestamps(15), VideoDensityLocation.DEVICE.name());
+        rawVideoTimelineDAO.save(DEVICE_ID, new TimestampInfo(START_TIME + 2 * DURATION, DURATION),
+                VideoDensityLocation.DEVICE.name());
+
+        assertEquals(VideoDensityLocation.CLOUD, load(START_TIME).getLocation());
+        assertEquals(10 * DURATION, load(START_TIME).getDurationInMillis());
+        for (int i = 1; i < 10; i++) {
+            assertNull(load(START_TIME + i * DURATION));
+        }
+        for (int i = 10; i < 15; i++) {
+            assertEquals(VideoDensityLocation.DEVICE, load(START_TIME + i * DURATION).getLocation());
+        }
+    }
+
+    @Test
+    public void saveAll_deviceTimestamps_skipsTimestampsOnCloud() {
+        rawVideoTimelineDAO.save(DEVICE_ID, new TimestampInfo(START_TIME + DURATION, DURATION),
+                VideoDensityLocation.CLOUD.name());
+        rawVideoTimelineDAO.save(DEVICE_ID, new TimestampInfo(START_TIME + 2 * DURATION, DURATION),
+                VideoDensityLocation.DEVICE.name());
+
+        rawVideoTimelineDAO.saveAll(DEVICE_ID, getTimestamps(150), VideoDensityLocation.DEVICE.name());
+
+        // two transactions of 100 and 50 timelines, the first one retried without the timeline on CLOUD
+        verify(ddbClient, times(3)).transactWriteItems(any(TransactWriteItemsEnhancedRequest.class));
+        assertEquals(VideoDensityLocation.CLOUD, load(START_TIME + DURATION).getLocation());
+        for (int i = 0; i < 150; i++) {
+            if (i != 1) {
+                assertEquals(VideoDensityLocation.DEVICE, load(START_TIME + i * DURATION).getLocation());
+            }
+        }
+        assertNull(load(START_TIME + 150 * DURATION));
+    }
+
+    @Test
+    public void saveAll_interleavedCloudTimestamps_coalescedIntoRow() {
+        long[] timestampInfos = new long[20];
+        for (int i = 0; i < 10; i++) {
+            timestampInfos[2 * i] = START_TIME + i * DURATION;
+            timestampInfos[2 * i + 1] = DURATION;
+        }
+
+        rawVideoTimelineDAO.saveAll(DEVICE_ID, timestampInfos, VideoDensityLocation.CLOUD.name());
+
+        assertEquals(10 * DURATION, load(START_TIME).getDurationInMillis());
+        assertEquals(1, list(0, 10).size());
+    }
+
+    @Test
+    public void save_interleavedDeviceTimestamp_persistsTimeline() {
+        rawVideoTimelineDAO.save(DEVICE_ID, START_TIME, DURATION, VideoDensityLocation.DEVICE.name());
+
+        assertEquals(VideoDensityLocation.DEVICE, load(START_TIME).getLocation());
+        assertEquals(DURATION, load(START_TIME).getDurationInMillis());
+    }
+
+    @Test
+    public void save_cloudTimestamp_persistsTimeline() {
+        rawVideoTimelineDAO.save(DEVICE_ID, new TimestampInfo(START_TIME, DURATION), VideoDensityLocation.CLOUD.name());
+
+        RawVideoTimeline rawVideoTimeline = load(START_TIME);
+        assertEquals(VideoDensityLocation.CLOUD, rawVideoTimeline.getLocation());
+        assertEquals(DURATION, rawVideoTimeline.getDurationInMillis());
+        assertNotNull(rawVideoTimeline.getExpirationTimestamp());
+    }
+
+    @Test
+    public void save_cloudFragments_coalescedIntoRow() {
+        for (int i = 0; i < 3; i++) {
+            rawVideoTimelineDAO.save(DEVICE_ID, new TimestampInfo(START_TIME + i * DURATION, DURATION),
+                    VideoDensityLocation.CLOUD.name());
+        }
+
+        assertEquals(3 * DURATION, load(START_TIME).getDurationInMillis());
+        assertEquals(1, list(0, 3).size());
+    }
+
+    @Test
+    public void save_cloudFragmentWithinCoalescedRow_notWritten() {
+        rawVideoTimelineDAO.saveAll(DEVICE_ID, getTimestamps(10), VideoDensityLocation.CLOUD.name());
+        RawVideoTimeline coalescedTimeline = load(START_TIME);
+
+        rawVideoTimelineDAO.save(DEVICE_ID, new TimestampInfo(START_TIME + 2 * DURATION, DURATION),
+                VideoDensityLocation.CLOUD.name());
+
+        verify(ddbClient, times(1)).batchWriteItem(any(BatchWriteItemEnhancedRequest.class));
+        assertEquals(coalescedTimeline.getLastUpdated(), load(START_TIME).getLastUpdated());
+        assertEquals(10 * DURATION, load(START_TIME).getDurationInMillis());
+        assertNull(load(START_TIME + 2 * DURATION));
+        assertEquals(1, list(0, 10).size());
+    }
+
+    @Test
+    public void save_cloudTimestampOnDevice_movedToCloud() {
+        rawVideoTimelineDAO.save(DEVICE_ID, new TimestampInfo(START_TIME, DURATION),
+                VideoDensityLocation.DEVICE.name());
+
+        rawVideoTimelineDAO.save(DEVICE_ID, new TimestampInfo(START_TIME, DURATION), VideoDensityLocation.CLOUD.name());
+
+        assertEquals(VideoDensityLocation.CLOUD, load(START_TIME).getLocation());
+        assertEquals(DURATION, load(START_TIME).getDurationInMillis());
+        assertEquals(1, list(0, 1).size());
+    }
+
+    private static List<TimestampInfo> getTimestamps(final int count) {
+        return getTimestamps(0, count);
+    }
+
+    private static List<TimestampInfo> getTimestamps(final int from, final int to) {
+        List<TimestampInfo> timestamps = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            timestamps.add(new TimestampInfo(START_TIME + i * DURATION, DURATION));
+        }
+        return timestamps;
+    }
+
+    private List<RawVideoTimeline> list(final int from, final int to) {
+        return rawVideoTimelineDAO.listRawVideoTimelines(DEVICE_ID, START_TIME + from * DURATION,
+                START_TIME + to * DURATION, null).getResults();
+    }
+
+    private RawVideoTimeline load(final long timestamp) {
+        return rawVideoTimelineDAO.load(videoTimelineUtils.generateRawPartitionKey(DEVICE_ID), timestamp);
+    }
+}
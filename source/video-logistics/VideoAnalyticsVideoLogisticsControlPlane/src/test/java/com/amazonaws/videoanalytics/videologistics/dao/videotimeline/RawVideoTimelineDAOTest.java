@@ -3,13 +3,13 @@ package com.amazonaws.videoanalytics.videologistics.dao.videotimeline;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.RawVideoTimeline;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.PaginatedListResponse;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoDensityLocation;
-import com.amazonaws.videoanalytics.videologistics.timeline.TimestampInfo;
 import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineUtils;
 import com.amazonaws.videoanalytics.videologistics.utils.GsonDDBNextTokenMarshaller;
+import com.amazonaws.videoanalytics.videologistics.utils.Sleeper;
 import com.amazonaws.videoanalytics.videologistics.schema.SchemaConst;
 
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
-import software.amazon.awssdk.enhanced.dynamodb.Key;
 import software.amazon.awssdk.enhanced.dynamodb.model.Page;
 import software.amazon.awssdk.enhanced.dynamodb.model.PageIterable;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
@@ -27,10 +27,12 @@ import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -41,32 +43,18 @@ public class RawVideoTimelineDAOTest {
     private static final Long TIMESTAMP = 1696444404123L;
     private static final Long DURATION = 4000L;
 
+    @Mock
+    private DynamoDbEnhancedClient ddbClient;
     @Mock
     private DynamoDbTable<RawVideoTimeline> videoTimelineTable;
+    @Mock
+    private Sleeper sleeper;
     private RawVideoTimelineDAO rawVideoTimelineDAO;
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
-        rawVideoTimelineDAO = new RawVideoTimelineDAO(videoTimelineTable, VIDEO_TIMELINE_UTILS);
-    }
-
-    @Test
-    void save_locationCloud_persistsTimeline() {
-        RawVideoTimeline expectedTimeline = RawVideoTimeline.builder()
-                .deviceId(DEVICE_ID)
-                .timestamp(TIMESTAMP)
-                .durationInMillis(DURATION)
-                .location(VideoDensityLocation.CLOUD)
-                .build();
-        when(videoTimelineTable.getItem(any(Key.class))).thenReturn(expectedTimeline);
-
-        rawVideoTimelineDAO.save(DEVICE_ID, new TimestampInfo(TIMESTAMP, DURATION), VideoDensityLocation.CLOUD.name());
-        
-        verify(videoTimelineTable).putItem(any(RawVideoTimeline.class));
-        RawVideoTimeline persistedTimeline = rawVideoTimelineDAO.load(DEVICE_ID, TIMESTAMP);
-        assertEquals(TIMESTAMP, persistedTimeline.getTimestamp());
-        assertEquals(VideoDensityLocation.CLOUD, persistedTimeline.getLocation());
+        rawVideoTimelineDAO = new RawVideoTimelineDAO(ddbClient, videoTimelineTable, VIDEO_TIMELINE_UTILS, sleeper);
     }
 
     @Test
@@ -105,6 +93,23 @@ public class RawVideoTimelineDAOTest {
         assertNull(response.getNextToken());
     }
 
+    @Test
+    void listRawVideoTimelines_consistentRead_queriesConsistently() {
+        Page<RawVideoTimeline> emptyPage = Page.builder(RawVideoTimeline.class)
+                .items(Collections.emptyList())
+                .build();
+        when(videoTimelineTable.query(any(QueryEnhancedRequest.class))).thenReturn(PageIterable.create(
+                () -> Collections.singletonList(emptyPage).iterator()));
+        ArgumentCaptor<QueryEnhancedRequest> queryCaptor = ArgumentCaptor.forClass(QueryEnhancedRequest.class);
+
+        rawVideoTimelineDAO.listRawVideoTimelines(DEVICE_ID, 0L, Long.MAX_VALUE, null, true);
+        rawVideoTimelineDAO.listRawVideoTimelines(DEVICE_ID, 0L, Long.MAX_VALUE, null);
+
+        verify(videoTimelineTable, times(2)).query(queryCaptor.capture());
+        assertTrue(queryCaptor.getAllValues().get(0).consistentRead());
+        assertFalse(queryCaptor.getAllValues().get(1).consistentRead());
+    }
+
     private List<RawVideoTimeline> createTestTimelines() {
         return List.of(
             RawVideoTimeline.builder()
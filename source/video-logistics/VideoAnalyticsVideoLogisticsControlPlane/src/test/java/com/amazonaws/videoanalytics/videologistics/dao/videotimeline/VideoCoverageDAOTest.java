@@ -0,0 +1,154 @@
+package com.amazonaws.videoanalytics.videologistics.dao.videotimeline;
+
+import com.amazonaws.videoanalytics.videologistics.Timeline;
+import com.amazonaws.videoanalytics.videologistics.helper.ddb.DynamoDbEnhancedLocalExtension;
+import com.amazonaws.videoanalytics.videologistics.helper.ddb.Table;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoCoverage;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoDensityLocation;
+import com.amazonaws.videoanalytics.videologistics.timeline.TimelineKDSMetadata;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoCoverageDelta;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineAggregator;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.UNIT_TIMESTAMP;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.VERSION;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.VIDEO_TIMELINE_PARTITION_KEY;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.VIDEO_TIMELINE_TABLE_NAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@ExtendWith(DynamoDbEnhancedLocalExtension.class)
+public class VideoCoverageDAOTest {
+    private static final String DEVICE_ID = "device123";
+    // 2023-10-04T00:00:00Z
+    private static final long DAY_START_TIME = 1696377600000L;
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+
+    private final VideoTimelineUtils videoTimelineUtils = new VideoTimelineUtils();
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbTable<AggregateVideoTimeline> videoTimelineTable;
+    private final VideoCoverageDAO videoCoverageDAO;
+
+    public VideoCoverageDAOTest(
+            final DynamoDbClient dynamoDbClient,
+            @Table(tableName = VIDEO_TIMELINE_TABLE_NAME) final DynamoDbTable<AggregateVideoTimeline> videoTimelineTable) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.videoTimelineTable = videoTimelineTable;
+        this.videoCoverageDAO = new VideoCoverageDAO(dynamoDbClient, videoTimelineTable, videoTimelineUtils,
+                new VideoTimelineAggregator(videoTimelineUtils));
+    }
+
+    @Test
+    public void getVideoCoverage_noCoverage_returnsEmptyCoverage() {
+        VideoCoverage videoCoverage = videoCoverageDAO.getVideoCoverage(DEVICE_ID, DAY_START_TIME + HOUR_MILLIS);
+
+        assertEquals(DAY_START_TIME, videoCoverage.getDayStartTime());
+        assertEquals(0L, videoCoverage.getVersion());
+        assertEquals(0F, videoCoverage.getRecordedPercentage(DAY_START_TIME, DAY_START_TIME + 24 * HOUR_MILLIS));
+    }
+
+    @Test
+    public void save_deltasForSameDay_accumulatedInOneItem() {
+        // device recording from 01:00 to 01:30, of which 01:00 to 01:10 is caught up, then cloud from 01:30 to 02:00
+        assertTrue(videoCoverageDAO.save(newDelta(HOUR_MILLIS, HOUR_MILLIS / 2, VideoDensityLocation.DEVICE, false)));
+        assertTrue(videoCoverageDAO.save(newDelta(HOUR_MILLIS, HOUR_MILLIS / 6, VideoDensityLocation.CLOUD, true)));
+        assertTrue(videoCoverageDAO.save(newDelta(3 * HOUR_MILLIS / 2, HOUR_MILLIS / 2, VideoDensityLocation.CLOUD,
+                false)));
+
+        VideoCoverage videoCoverage = videoCoverageDAO.getVideoCoverage(DEVICE_ID, DAY_START_TIME);
+        assertEquals(3L, videoCoverage.getVersion());
+        assertEquals(2400, videoCoverage.getCloudCoverage().cardinality());
+        assertEquals(1200, videoCoverage.getDeviceCoverage().cardinality());
+        assertTrue(videoCoverage.isRecordedAt(DAY_START_TIME + HOUR_MILLIS));
+        assertFalse(videoCoverage.isRecordedAt(DAY_START_TIME + 2 * HOUR_MILLIS));
+        assertEquals(HOUR_MILLIS, videoCoverage.getRecordedMillis(DAY_START_TIME, DAY_START_TIME + 24 * HOUR_MILLIS));
+        assertEquals(50F, videoCoverage.getRecordedPercentage(DAY_START_TIME + HOUR_MILLIS / 2,
+                DAY_START_TIME + 3 * HOUR_MILLIS / 2));
+        assertEquals(List.of(
+                        Timeline.builder()
+                                .startTime((double) DAY_START_TIME)
+                                .endTime((double) DAY_START_TIME + HOUR_MILLIS)
+                                .build(),
+                        Timeline.builder()
+                                .startTime((double) DAY_START_TIME + 2 * HOUR_MILLIS)
+                                .endTime((double) DAY_START_TIME + 3 * HOUR_MILLIS)
+                                .build()),
+                videoCoverage.getGaps(DAY_START_TIME, DAY_START_TIME + 3 * HOUR_MILLIS));
+    }
+
+    @Test
+    public void save_coverageUpdatedConcurrently_returnsFalse() {
+        VideoCoverageDelta videoCoverageDelta = newDelta(HOUR_MILLIS, 1000L, VideoDensityLocation.CLOUD, false);
+        assertTrue(videoCoverageDAO.save(videoCoverageDelta));
+        // another writer bumps the version between the read and the write of this one
+        DynamoDbClient racingDynamoDbClient = mock(DynamoDbClient.class, delegatesTo(dynamoDbClient));
+        doAnswer(invocation -> {
+            GetItemResponse response = dynamoDbClient.getItem(invocation.getArgument(0, GetItemRequest.class));
+            bumpVersion();
+            return response;
+        }).when(racingDynamoDbClient).getItem(any(GetItemRequest.class));
+        VideoCoverageDAO staleVideoCoverageDAO = new VideoCoverageDAO(racingDynamoDbClient, videoTimelineTable,
+                videoTimelineUtils, new VideoTimelineAggregator(videoTimelineUtils));
+
+        assertFalse(staleVideoCoverageDAO.save(newDelta(2 * HOUR_MILLIS, 1000L, VideoDensityLocation.CLOUD, false)));
+        assertEquals(1, videoCoverageDAO.getVideoCoverage(DEVICE_ID, DAY_START_TIME).getCloudCoverage().cardinality());
+    }
+
+    @Test
+    public void save_unchangedCoverage_skipsWrite() {
+        VideoCoverageDelta videoCoverageDelta = newDelta(HOUR_MILLIS, 1000L, VideoDensityLocation.CLOUD, false);
+        assertTrue(videoCoverageDAO.save(videoCoverageDelta));
+        assertTrue(videoCoverageDAO.save(videoCoverageDelta));
+
+        assertEquals(1L, videoCoverageDAO.getVideoCoverage(DEVICE_ID, DAY_START_TIME).getVersion());
+    }
+
+    private VideoCoverageDelta newDelta(final long offsetInMillis, final long durationInMillis,
+                                        final VideoDensityLocation location, final boolean isCatchup) {
+        VideoCoverageDelta merged = null;
+        // one record per 5s bucket, as sent to KDS
+        for (long bucketOffset = offsetInMillis; bucketOffset < offsetInMillis + durationInMillis;
+             bucketOffset += 5000L) {
+            long bucketStartTime = DAY_START_TIME + bucketOffset;
+            VideoCoverageDelta delta = VideoCoverageDelta.fromKinesisRecord(new TimelineKDSMetadata(DEVICE_ID,
+                    TimeIncrementUnits.SECONDS, bucketStartTime, bucketStartTime,
+                    Math.min(5000L, offsetInMillis + durationInMillis - bucketOffset), location, isCatchup), "1");
+            if (merged == null) {
+                merged = delta;
+            } else {
+                merged.merge(delta);
+            }
+        }
+        return merged;
+    }
+
+    private void bumpVersion() {
+        dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                .tableName(videoTimelineTable.tableName())
+                .key(Map.of(
+                        VIDEO_TIMELINE_PARTITION_KEY, AttributeValue.fromS(DEVICE_ID + "#COVERAGE"),
+                        UNIT_TIMESTAMP, AttributeValue.fromN(Long.toString(DAY_START_TIME))))
+                .updateExpression("ADD #version :one")
+                .expressionAttributeNames(Map.of("#version", VERSION))
+                .expressionAttributeValues(Map.of(":one", AttributeValue.fromN("1")))
+                .build());
+    }
+}
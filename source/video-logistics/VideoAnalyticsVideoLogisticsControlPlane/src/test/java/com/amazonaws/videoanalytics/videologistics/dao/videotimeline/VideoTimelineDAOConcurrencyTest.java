@@ -0,0 +1,191 @@
+package com.amazonaws.videoanalytics.videologistics.dao.videotimeline;
+
+import com.amazonaws.videoanalytics.videologistics.VideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.helper.ddb.DynamoDbEnhancedLocalExtension;
+import com.amazonaws.videoanalytics.videologistics.helper.ddb.Table;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoDensity;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.PaginatedListResponse;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoDensityLocation;
+import com.amazonaws.videoanalytics.videologistics.schema.util.AggregateVideoDensityTableSchema;
+import com.amazonaws.videoanalytics.videologistics.timeline.TimelineKDSMetadata;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoDensityDelta;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineAggregator;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineListGenerator;
+import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.VIDEO_TIMELINE_TABLE_NAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(DynamoDbEnhancedLocalExtension.class)
+public class VideoTimelineDAOConcurrencyTest {
+    private static final String DEVICE_ID = "device123";
+    private static final TimeIncrementUnits TIME_INCREMENT_UNITS = TimeIncrementUnits.HOURS;
+    private static final Long BUCKET_START_TIME = 1696442400000L;
+    private static final long DURATION_IN_MILLIS = 1000L;
+    private static final String SHARD_ID = "shardId-000000000000";
+    private static final int THREADS = 8;
+    private static final int UPDATES_PER_THREAD = 25;
+
+    private final VideoTimelineUtils videoTimelineUtils = new VideoTimelineUtils();
+    private final DynamoDbTable<AggregateVideoTimeline> videoTimelineTable;
+    private final VideoTimelineDAO videoTimelineDAO;
+
+    public VideoTimelineDAOConcurrencyTest(
+            final DynamoDbEnhancedClient ddbClient,
+            final DynamoDbClient dynamoDbClient,
+            @Table(tableName = VIDEO_TIMELINE_TABLE_NAME) final DynamoDbTable<AggregateVideoTimeline> videoTimelineTable) {
+        this.videoTimelineTable = videoTimelineTable;
+        this.videoTimelineDAO = new VideoTimelineDAO(ddbClient, dynamoDbClient, videoTimelineTable,
+                ddbClient.table(VIDEO_TIMELINE_TABLE_NAME, new AggregateVideoDensityTableSchema()), videoTimelineUtils,
+                new VideoTimelineAggregator(videoTimelineUtils), Executors.newFixedThreadPool(THREADS));
+    }
+
+    @Test
+    public void save_concurrentUpdatesToSameBucket_noIncrementsLost() throws Exception {
+        runConcurrently(i -> newMetadata(i % 2 == 0 ? VideoDensityLocation.CLOUD : VideoDensityLocation.DEVICE, false));
+
+        AggregateVideoTimeline timeline = loadBucket();
+        long expectedDensity = THREADS / 2 * UPDATES_PER_THREAD * DURATION_IN_MILLIS;
+        assertEquals(expectedDensity, timeline.getCloudDensityInMillis());
+        assertEquals(expectedDensity, timeline.getDeviceDensityInMillis());
+        assertEquals(TIME_INCREMENT_UNITS, timeline.getTimeIncrementUnits());
+        assertNotNull(timeline.getExpirationTimestamp());
+        assertNotNull(timeline.getCreatedAt());
+    }
+
+    @Test
+    public void save_concurrentCatchUps_movesAllDensityToCloud() throws Exception {
+        runConcurrently(i -> newMetadata(VideoDensityLocation.DEVICE, false));
+        runConcurrently(i -> newMetadata(VideoDensityLocation.CLOUD, true));
+
+        AggregateVideoTimeline timeline = loadBucket();
+        assertEquals(THREADS * UPDATES_PER_THREAD * DURATION_IN_MILLIS, timeline.getCloudDensityInMillis());
+        assertEquals(0L, timeline.getDeviceDensityInMillis());
+    }
+
+    @Test
+    public void save_catchUpOnMissingBucket_deviceDensityNotNegative() {
+        videoTimelineDAO.save(newMetadata(VideoDensityLocation.CLOUD, true));
+
+        AggregateVideoTimeline timeline = loadBucket();
+        assertEquals(DURATION_IN_MILLIS, timeline.getCloudDensityInMillis());
+        assertEquals(0L, timeline.getDeviceDensityInMillis());
+
+        videoTimelineDAO.save(newMetadata(VideoDensityLocation.DEVICE, false));
+        videoTimelineDAO.save(newMetadata(VideoDensityLocation.CLOUD, true));
+
+        timeline = loadBucket();
+        assertEquals(2 * DURATION_IN_MILLIS, timeline.getCloudDensityInMillis());
+        assertEquals(0L, timeline.getDeviceDensityInMillis());
+    }
+
+    @Test
+    public void save_replayedRecords_skippedBySequenceWatermark() {
+        VideoDensityDelta first = VideoDensityDelta.fromKinesisRecord(
+                newMetadata(VideoDensityLocation.CLOUD, false), SHARD_ID, "100");
+        VideoDensityDelta second = VideoDensityDelta.fromKinesisRecord(
+                newMetadata(VideoDensityLocation.CLOUD, false), SHARD_ID, "200");
+        first.merge(second);
+
+        assertTrue(videoTimelineDAO.save(first));
+        assertFalse(videoTimelineDAO.save(VideoDensityDelta.fromKinesisRecord(
+                newMetadata(VideoDensityLocation.CLOUD, false), SHARD_ID, "200")));
+        assertTrue(videoTimelineDAO.save(VideoDensityDelta.fromKinesisRecord(
+                newMetadata(VideoDensityLocation.CLOUD, false), SHARD_ID, "1000")));
+
+        assertEquals(3 * DURATION_IN_MILLIS, loadBucket().getCloudDensityInMillis());
+        assertEquals(Optional.of(VideoDensityDelta.toSortableSequenceNumber("1000")),
+                videoTimelineDAO.getSequenceWatermark(DEVICE_ID, TIME_INCREMENT_UNITS, BUCKET_START_TIME, SHARD_ID));
+    }
+
+    @Test
+    public void listVideoTimelines_dayOfSecondsBuckets_pagesMatchSingleBuild() {
+        long dayStart = TimeIncrementUnits.DAYS.getBucketStart(BUCKET_START_TIME);
+        long dayEnd = dayStart + TimeIncrementUnits.DAYS.getBucketDurationMillis();
+        long hour = TimeIncrementUnits.HOURS.getBucketDurationMillis();
+        String partitionKey = videoTimelineUtils.generateTimelinePartitionKey(DEVICE_ID, TimeIncrementUnits.SECONDS);
+        List<AggregateVideoDensity> buckets = new ArrayList<>();
+        for (long bucketStart = dayStart; bucketStart < dayEnd; bucketStart += 7 * 60 * 1000L) {
+            AggregateVideoTimeline bucket = AggregateVideoTimeline.builder()
+                    .deviceIdTimeUnit(partitionKey)
+                    .unitTimestamp(bucketStart)
+                    .timeIncrementUnits(TimeIncrementUnits.SECONDS)
+                    .cloudDensityInMillis(bucketStart / 1000 % 5000)
+                    .deviceDensityInMillis(bucketStart / 1000 % 3000)
+                    .build();
+            videoTimelineTable.putItem(bucket);
+            buckets.add(new AggregateVideoDensity(bucketStart, bucket.getCloudDensityInMillis(),
+                    bucket.getDeviceDensityInMillis()));
+        }
+
+        // a day of SECONDS buckets does not fit a single page, and each page is read in several slices
+        List<VideoTimeline> videoTimelines = new ArrayList<>();
+        String nextToken = null;
+        int pages = 0;
+        do {
+            PaginatedListResponse<VideoTimeline> response = videoTimelineDAO.listVideoTimelines(DEVICE_ID,
+                    new Date(dayStart), new Date(dayEnd), hour, TimeIncrementUnits.SECONDS, nextToken);
+            videoTimelines.addAll(response.getResults());
+            nextToken = response.getNextToken();
+            pages++;
+        } while (nextToken != null);
+
+        assertTrue(pages > 1);
+        assertEquals(VideoTimelineListGenerator.buildVideoTimelineList(buckets, dayStart, dayEnd, hour),
+                videoTimelines);
+    }
+
+    private void runConcurrently(final MetadataFactory metadataFactory) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                final int threadIndex = thread;
+                tasks.add(() -> {
+                    for (int update = 0; update < UPDATES_PER_THREAD; update++) {
+                        videoTimelineDAO.save(metadataFactory.create(threadIndex));
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> future : executorService.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private AggregateVideoTimeline loadBucket() {
+        return videoTimelineDAO.load(
+                videoTimelineUtils.generateTimelinePartitionKey(DEVICE_ID, TIME_INCREMENT_UNITS), BUCKET_START_TIME);
+    }
+
+    private static TimelineKDSMetadata newMetadata(final VideoDensityLocation location, final boolean isCatchUp) {
+        return new TimelineKDSMetadata(DEVICE_ID, TIME_INCREMENT_UNITS, BUCKET_START_TIME, BUCKET_START_TIME,
+                DURATION_IN_MILLIS, location, isCatchUp);
+    }
+
+    private interface MetadataFactory {
+        TimelineKDSMetadata create(int threadIndex);
+    }
+}
@@ -1,23 +1,49 @@
 package com.amazonaws.videoanalytics.videologistics.dao.videotimeline;
 
+import com.amazonaws.videoanalytics.videologistics.VideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoDensity;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.PaginatedListResponse;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoDensityLocation;
+import com.amazonaws.videoanalytics.videologistics.schema.util.AggregateVideoDensityTableSchema;
 import com.amazonaws.videoanalytics.videologistics.timeline.TimelineKDSMetadata;
 import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineAggregator;
 import com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineUtils;
+import com.amazonaws.videoanalytics.videologistics.utils.GsonDDBNextTokenMarshaller;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.PageIterable;
 import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
 
+import java.time.Instant;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.UNIT_TIMESTAMP;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.VIDEO_TIMELINE_PARTITION_KEY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -27,6 +53,9 @@ public class VideoTimelineDAOTest {
     
     @Mock
     private DynamoDbTable<AggregateVideoTimeline> videoTimelineTable;
+
+    @Mock
+    private DynamoDbTable<AggregateVideoDensity> videoDensityTable;
     
     @Mock
     private VideoTimelineUtils videoTimelineUtils;
@@ -34,58 +63,64 @@ public class VideoTimelineDAOTest {
     @Mock
     private VideoTimelineAggregator videoTimelineAggregator;
 
+    @Mock
+    private DynamoDbClient dynamoDbClient;
+
+    @Captor
+    private ArgumentCaptor<UpdateItemRequest> updateItemRequestCaptor;
+
+    @Captor
+    private ArgumentCaptor<QueryEnhancedRequest> queryRequestCaptor;
+
     private VideoTimelineDAO videoTimelineDAO;
 
+    private static final String DEVICE_ID = "device123";
+    private static final TimeIncrementUnits TIME_INCREMENT_UNITS = TimeIncrementUnits.HOURS;
+    private static final String PARTITION_KEY = "device123#HOURS";
+    private static final String TABLE_NAME = "VideoTimelineTable";
+    private static final Long BUCKET_START_TIME = 1696442400000L;
+    private static final Long DURATION_IN_MILLIS = 3600000L;
+    private static final Long EXPIRATION_TIMESTAMP = 1697050800L;
+
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
-        videoTimelineDAO = new VideoTimelineDAO(ddbClient, videoTimelineTable, videoTimelineUtils, videoTimelineAggregator);
+        videoTimelineDAO = new VideoTimelineDAO(ddbClient, dynamoDbClient, videoTimelineTable, videoDensityTable,
+                videoTimelineUtils, videoTimelineAggregator, MoreExecutors.newDirectExecutorService());
+        when(videoTimelineUtils.generateTimelinePartitionKey(DEVICE_ID, TIME_INCREMENT_UNITS))
+                .thenReturn(PARTITION_KEY);
+        when(videoTimelineTable.tableName()).thenReturn(TABLE_NAME);
+        when(videoTimelineAggregator.getExpirationTimestamp(TIME_INCREMENT_UNITS, BUCKET_START_TIME))
+                .thenReturn(EXPIRATION_TIMESTAMP);
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class)))
+                .thenReturn(UpdateItemResponse.builder().attributes(Map.of()).build());
     }
 
     @Test
-    public void save_newTimelineData_savesToDynamoDB() {
-        String deviceId = "device123";
-        TimeIncrementUnits timeIncrementUnits = TimeIncrementUnits.HOURS;
-        String partitionKey = "device123#HOURS";
-        Long bucketStartTime = 1696442400000L;
-        Long durationInMillis = 3600000L;
-
+    public void save_cloudTimelineData_addsCloudDensity() {
         TimelineKDSMetadata metadata = new TimelineKDSMetadata(
-                deviceId,
-                timeIncrementUnits,
-                bucketStartTime,
-                bucketStartTime,
-                durationInMillis,
+                DEVICE_ID,
+                TIME_INCREMENT_UNITS,
+                BUCKET_START_TIME,
+                BUCKET_START_TIME,
+                DURATION_IN_MILLIS,
                 VideoDensityLocation.CLOUD,
                 false
         );
 
-        when(videoTimelineUtils.generateTimelinePartitionKey(deviceId, timeIncrementUnits))
-                .thenReturn(partitionKey);
-
-        AggregateVideoTimeline newTimeline = AggregateVideoTimeline.builder()
-                .deviceIdTimeUnit(partitionKey)
-                .timeIncrementUnits(timeIncrementUnits)
-                .cloudDensityInMillis(durationInMillis)
-                .deviceDensityInMillis(0L)
-                .unitTimestamp(bucketStartTime)
-                .createdAt(new Date())
-                .lastUpdated(new Date())
-                .build();
-
-        when(videoTimelineAggregator.getUpdatedVideoTimeline(
-                timeIncrementUnits,
-                bucketStartTime,
-                durationInMillis,
-                partitionKey,
-                null,
-                VideoDensityLocation.CLOUD,
-                false
-        )).thenReturn(newTimeline);
-
         videoTimelineDAO.save(metadata);
 
-        verify(videoTimelineTable).putItem(any(PutItemEnhancedRequest.class));
+        verify(dynamoDbClient).updateItem(updateItemRequestCaptor.capture());
+        UpdateItemRequest request = updateItemRequestCaptor.getValue();
+        assertEquals(TABLE_NAME, request.tableName());
+        assertEquals(PARTITION_KEY, request.key().get(VIDEO_TIMELINE_PARTITION_KEY).s());
+        assertEquals(BUCKET_START_TIME.toString(), request.key().get(UNIT_TIMESTAMP).n());
+        assertTrue(request.updateExpression().startsWith("ADD "));
+        assertEquals(DURATION_IN_MILLIS.toString(), request.expressionAttributeValues().get(":cloudDelta").n());
+        assertEquals("0", request.expressionAttributeValues().get(":deviceDelta").n());
+        assertEquals(EXPIRATION_TIMESTAMP.toString(), request.expressionAttributeValues().get(":expiration").n());
+        verify(videoTimelineTable, never()).getItem(any(Key.class));
+        verify(videoTimelineTable, never()).putItem(any(PutItemEnhancedRequest.class));
     }
 
     @Test
@@ -102,60 +137,101 @@ public class VideoTimelineDAOTest {
     }
 
     @Test
-    public void save_existingTimelineUpdate_updatesInDynamoDB() {
-        String deviceId = "device123";
-        TimeIncrementUnits timeIncrementUnits = TimeIncrementUnits.HOURS;
-        String partitionKey = "device123#HOURS";
-        Long bucketStartTime = 1696442400000L;
-        Long durationInMillis = 3600000L;
-
+    public void save_deviceTimelineData_addsDeviceDensity() {
         TimelineKDSMetadata metadata = new TimelineKDSMetadata(
-                deviceId,
-                timeIncrementUnits,
-                bucketStartTime,
-                bucketStartTime,
-                durationInMillis,
+                DEVICE_ID,
+                TIME_INCREMENT_UNITS,
+                BUCKET_START_TIME,
+                BUCKET_START_TIME,
+                DURATION_IN_MILLIS,
                 VideoDensityLocation.DEVICE,
                 false
         );
 
-        when(videoTimelineUtils.generateTimelinePartitionKey(deviceId, timeIncrementUnits))
-                .thenReturn(partitionKey);
-
-        AggregateVideoTimeline existingTimeline = AggregateVideoTimeline.builder()
-                .deviceIdTimeUnit(partitionKey)
-                .timeIncrementUnits(timeIncrementUnits)
-                .cloudDensityInMillis(0L)
-                .deviceDensityInMillis(1800000L)
-                .unitTimestamp(bucketStartTime)
-                .createdAt(new Date())
-                .lastUpdated(new Date())
-                .build();
-
-        when(videoTimelineTable.getItem(any(Key.class))).thenReturn(existingTimeline);
-
-        AggregateVideoTimeline updatedTimeline = AggregateVideoTimeline.builder()
-                .deviceIdTimeUnit(partitionKey)
-                .timeIncrementUnits(timeIncrementUnits)
-                .cloudDensityInMillis(0L)
-                .deviceDensityInMillis(5400000L)
-                .unitTimestamp(bucketStartTime)
-                .createdAt(existingTimeline.getCreatedAt())
-                .lastUpdated(new Date())
-                .build();
-
-        when(videoTimelineAggregator.getUpdatedVideoTimeline(
-                timeIncrementUnits,
-                bucketStartTime,
-                durationInMillis,
-                partitionKey,
-                existingTimeline,
-                VideoDensityLocation.DEVICE,
-                false
-        )).thenReturn(updatedTimeline);
+        videoTimelineDAO.save(metadata);
+
+        verify(dynamoDbClient).updateItem(updateItemRequestCaptor.capture());
+        Map<String, AttributeValue> values = updateItemRequestCaptor.getValue().expressionAttributeValues();
+        assertEquals("0", values.get(":cloudDelta").n());
+        assertEquals(DURATION_IN_MILLIS.toString(), values.get(":deviceDelta").n());
+    }
+
+    @Test
+    public void save_catchUp_movesDensityFromDeviceToCloud() {
+        TimelineKDSMetadata metadata = new TimelineKDSMetadata(
+                DEVICE_ID,
+                TIME_INCREMENT_UNITS,
+                BUCKET_START_TIME,
+                BUCKET_START_TIME,
+                DURATION_IN_MILLIS,
+                VideoDensityLocation.CLOUD,
+                true
+        );
 
         videoTimelineDAO.save(metadata);
 
-        verify(videoTimelineTable).putItem(any(PutItemEnhancedRequest.class));
+        verify(dynamoDbClient).updateItem(updateItemRequestCaptor.capture());
+        Map<String, AttributeValue> values = updateItemRequestCaptor.getValue().expressionAttributeValues();
+        assertEquals(DURATION_IN_MILLIS.toString(), values.get(":cloudDelta").n());
+        assertEquals(Long.toString(-DURATION_IN_MILLIS), values.get(":deviceDelta").n());
+        assertEquals(DURATION_IN_MILLIS.toString(), values.get(":deviceBase").n());
+    }
+
+    @Test
+    public void listVideoTimelines_closedBuckets_queriedWithEventuallyConsistentReads() {
+        when(videoDensityTable.query(any(QueryEnhancedRequest.class))).thenReturn(emptyQueryResult());
+
+        videoTimelineDAO.listVideoTimelines(DEVICE_ID, new Date(BUCKET_START_TIME),
+                new Date(BUCKET_START_TIME + 24 * DURATION_IN_MILLIS), DURATION_IN_MILLIS, TIME_INCREMENT_UNITS, null);
+
+        verify(videoDensityTable).query(queryRequestCaptor.capture());
+        assertFalse(queryRequestCaptor.getValue().consistentRead());
+    }
+
+    @Test
+    public void listVideoTimelines_buckets_onlyDensitiesProjected() {
+        when(videoDensityTable.query(any(QueryEnhancedRequest.class))).thenReturn(emptyQueryResult());
+
+        videoTimelineDAO.listColumnarVideoTimelines(DEVICE_ID, new Date(BUCKET_START_TIME),
+                new Date(BUCKET_START_TIME + 24 * DURATION_IN_MILLIS), DURATION_IN_MILLIS, TIME_INCREMENT_UNITS, null);
+
+        verify(videoDensityTable).query(queryRequestCaptor.capture());
+        assertEquals(AggregateVideoDensityTableSchema.ATTRIBUTE_NAMES, queryRequestCaptor.getValue().attributesToProject());
+        verify(videoTimelineTable, never()).query(any(QueryEnhancedRequest.class));
+    }
+
+    @Test
+    public void listVideoTimelines_openBuckets_queriedWithConsistentReads() {
+        when(videoDensityTable.query(any(QueryEnhancedRequest.class))).thenReturn(emptyQueryResult());
+        long currentHour = TIME_INCREMENT_UNITS.getBucketStart(Instant.now().toEpochMilli());
+
+        PaginatedListResponse<VideoTimeline> response = videoTimelineDAO.listVideoTimelines(DEVICE_ID,
+                new Date(currentHour - 72 * DURATION_IN_MILLIS), new Date(currentHour + DURATION_IN_MILLIS),
+                DURATION_IN_MILLIS, TIME_INCREMENT_UNITS, null);
+
+        assertEquals(73, response.getResults().size());
+        assertNull(response.getNextToken());
+
+        verify(videoDensityTable, times(2)).query(queryRequestCaptor.capture());
+        List<QueryEnhancedRequest> requests = queryRequestCaptor.getAllValues();
+        assertFalse(requests.get(0).consistentRead());
+        assertTrue(requests.get(1).consistentRead());
+    }
+
+    @Test
+    public void listVideoTimelines_maxPeriods_pageLimited() {
+        when(videoDensityTable.query(any(QueryEnhancedRequest.class))).thenReturn(emptyQueryResult());
+
+        PaginatedListResponse<VideoTimeline> response = videoTimelineDAO.listVideoTimelines(DEVICE_ID,
+                new Date(BUCKET_START_TIME), new Date(BUCKET_START_TIME + 24 * DURATION_IN_MILLIS), DURATION_IN_MILLIS,
+                TIME_INCREMENT_UNITS, null, 10L);
+
+        assertEquals(10, response.getResults().size());
+        assertEquals(BUCKET_START_TIME + 9 * DURATION_IN_MILLIS, Long.parseLong(GsonDDBNextTokenMarshaller
+                .unmarshall(response.getNextToken()).get(UNIT_TIMESTAMP).n()));
+    }
+
+    private static PageIterable<AggregateVideoDensity> emptyQueryResult() {
+        return PageIterable.create(() -> List.of(Page.create(List.<AggregateVideoDensity>of())).iterator());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,130 @@
+package com.amazonaws.videoanalytics.videologistics.helper.s3;
+
+import com.amazonaws.videoanalytics.videologistics.client.s3.S3Proxy;
+import com.amazonaws.videoanalytics.videologistics.helper.sqs.InMemorySqsQueue;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * S3 fake for the object operations of {@link S3Proxy}. Objects are listed in key order like S3 does, and every
+ * object created is announced to the notification queue, if one is set, with the body S3 sends to SQS.
+ */
+public class InMemoryS3Proxy extends S3Proxy {
+    private final int pageSize;
+    private final Map<String, NavigableMap<String, StoredObject>> buckets = new ConcurrentSkipListMap<>();
+    private InMemorySqsQueue notificationQueue;
+
+    public InMemoryS3Proxy(final int pageSize) {
+        super(null);
+        this.pageSize = pageSize;
+    }
+
+    public void setNotificationQueue(final InMemorySqsQueue notificationQueue) {
+        this.notificationQueue = notificationQueue;
+    }
+
+    public void putObjectBytes(final String bucketName, final String key, final byte[] requestBody,
+                               final Instant lastModified) {
+        bucket(bucketName).put(key, new StoredObject(requestBody, lastModified));
+        if (notificationQueue != null) {
+            notificationQueue.sendMessage(String.format("{\"Records\":[{\"eventSource\":\"aws:s3\","
+                    + "\"eventName\":\"ObjectCreated:Put\",\"s3\":{\"bucket\":{\"name\":\"%s\"},"
+                    + "\"object\":{\"key\":\"%s\",\"size\":%d}}}]}", bucketName,
+                    URLEncoder.encode(key, StandardCharsets.UTF_8).replace("%2F", "/"), requestBody.length));
+        }
+    }
+
+    @Override
+    public void putObjectBytes(final String bucketName, final String key, final byte[] requestBody) {
+        putObjectBytes(bucketName, key, requestBody, Instant.now());
+    }
+
+    @Override
+    public ResponseBytes<GetObjectResponse> getS3ObjectBytes(final String bucketName, final String key) {
+        StoredObject storedObject = bucket(bucketName).get(key);
+        if (storedObject == null) {
+            throw NoSuchKeyException.builder().message(String.format("No object at s3://%s/%s", bucketName, key))
+                    .build();
+        }
+        return ResponseBytes.fromByteArray(GetObjectResponse.builder().build(), storedObject.bytes);
+    }
+
+    @Override
+    public ListObjectsV2Response listS3Objects(final String bucketName, final String continuationToken) {
+        return listS3Objects(bucketName, continuationToken, null);
+    }
+
+    /**
+     * The continuation token is the last key of the previous page, which lists the same as start after.
+     */
+    @Override
+    public ListObjectsV2Response listS3Objects(final String bucketName, final String continuationToken,
+                                               final String startAfter) {
+        String after = continuationToken != null ? continuationToken : startAfter;
+        NavigableMap<String, StoredObject> objects = after == null
+                ? bucket(bucketName)
+                : bucket(bucketName).tailMap(after, false);
+        List<S3Object> contents = new ArrayList<>();
+        for (Map.Entry<String, StoredObject> object : objects.entrySet()) {
+            if (contents.size() == pageSize) {
+                break;
+            }
+            contents.add(S3Object.builder()
+                    .key(object.getKey())
+                    .size((long) object.getValue().bytes.length)
+                    .lastModified(object.getValue().lastModified)
+                    .build());
+        }
+        boolean truncated = !contents.isEmpty()
+                && objects.higherKey(contents.get(contents.size() - 1).key()) != null;
+        return ListObjectsV2Response.builder()
+                .contents(contents)
+                .isTruncated(truncated)
+                .nextContinuationToken(truncated ? contents.get(contents.size() - 1).key() : null)
+                .build();
+    }
+
+    @Override
+    public void deleteObject(final String bucketName, final String keyPrefix) {
+        bucket(bucketName).remove(keyPrefix);
+    }
+
+    @Override
+    public List<String> deleteObjects(final String bucketName, final List<String> keys) {
+        if (keys.size() > 1000) {
+            throw new IllegalArgumentException("DeleteObjects accepts at most 1000 keys");
+        }
+        keys.forEach(bucket(bucketName)::remove);
+        return List.of();
+    }
+
+    public List<String> getKeys(final String bucketName) {
+        return List.copyOf(bucket(bucketName).keySet());
+    }
+
+    private NavigableMap<String, StoredObject> bucket(final String bucketName) {
+        return buckets.computeIfAbsent(bucketName, name -> new ConcurrentSkipListMap<>());
+    }
+
+    private static class StoredObject {
+        private final byte[] bytes;
+        private final Instant lastModified;
+
+        StoredObject(final byte[] bytes, final Instant lastModified) {
+            this.bytes = bytes;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.amazonaws.videoanalytics.videologistics.helper.sqs;
+
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Queue fake that hands messages to a lambda the way an SQS event source mapping with batch item failure reporting
+ * does. Messages that are reported as failed go back to the queue, until they are moved to the dead letter queue after
+ * maxReceiveCount receives.
+ */
+public class InMemorySqsQueue {
+    private final int maxReceiveCount;
+    private final Deque<SQSEvent.SQSMessage> messages = new ArrayDeque<>();
+    private final Map<String, SQSEvent.SQSMessage> inFlightMessages = new HashMap<>();
+    private final Map<String, Integer> receiveCounts = new HashMap<>();
+    private final List<SQSEvent.SQSMessage> deadLetters = new ArrayList<>();
+
+    public InMemorySqsQueue(final int maxReceiveCount) {
+        this.maxReceiveCount = maxReceiveCount;
+    }
+
+    public synchronized String sendMessage(final String body) {
+        SQSEvent.SQSMessage message = new SQSEvent.SQSMessage();
+        message.setMessageId(UUID.randomUUID().toString());
+        message.setBody(body);
+        messages.add(message);
+        return message.getMessageId();
+    }
+
+    /**
+     * Receives up to maxMessages messages, which stay in flight until the batch is completed.
+     */
+    public synchronized SQSEvent receive(final int maxMessages) {
+        List<SQSEvent.SQSMessage> received = new ArrayList<>();
+        while (received.size() < maxMessages && !messages.isEmpty()) {
+            SQSEvent.SQSMessage message = messages.poll();
+            receiveCounts.merge(message.getMessageId(), 1, Integer::sum);
+            inFlightMessages.put(message.getMessageId(), message);
+            received.add(message);
+        }
+        SQSEvent event = new SQSEvent();
+        event.setRecords(received);
+        return event;
+    }
+
+    /**
+     * Deletes the messages of a received batch, except those the lambda reported as failed. A null response means
+     * every message was processed.
+     */
+    public synchronized void complete(final SQSEvent event, final SQSBatchResponse response) {
+        Set<String> failedMessageIds = response == null ? Set.of() : response.getBatchItemFailures().stream()
+                .map(SQSBatchResponse.BatchItemFailure::getItemIdentifier)
+                .collect(Collectors.toSet());
+        for (SQSEvent.SQSMessage message : event.getRecords()) {
+            inFlightMessages.remove(message.getMessageId());
+            if (!failedMessageIds.contains(message.getMessageId())) {
+                receiveCounts.remove(message.getMessageId());
+            } else if (receiveCounts.get(message.getMessageId()) >= maxReceiveCount) {
+                deadLetters.add(message);
+            } else {
+                messages.add(message);
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return messages.size() + inFlightMessages.size();
+    }
+
+    public synchronized List<SQSEvent.SQSMessage> getDeadLetters() {
+        return List.copyOf(deadLetters);
+    }
+}
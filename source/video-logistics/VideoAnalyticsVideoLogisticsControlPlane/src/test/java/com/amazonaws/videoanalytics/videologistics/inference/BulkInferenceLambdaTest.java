@@ -14,8 +14,10 @@ import static com.amazonaws.videoanalytics.videologistics.utils.InferenceTestUti
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -30,6 +32,10 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Rule;
 import org.junit.contrib.java.lang.system.EnvironmentVariables;
@@ -61,6 +67,7 @@ import com.amazonaws.videoanalytics.videologistics.client.s3.ThumbnailS3Presigne
 import com.amazonaws.videoanalytics.videologistics.client.s3.ThumbnailS3PresignerFactory;
 import com.amazonaws.videoanalytics.videologistics.utils.InferenceTestUtils;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.MoreExecutors;
 
 import software.amazon.awssdk.regions.Region;
 
@@ -124,7 +131,9 @@ public class BulkInferenceLambdaTest {
         when(s3Presigner.generateImageUploadURL(any(String.class))).thenReturn(new URL("https://" + THUMBNAIL_UPLOAD_PATH));
         when(s3PresignerFactory.create(any(), any(), any(),
                 any(), any(), any(), any())).thenReturn(s3Presigner);
-        bulkInferenceLambda = new BulkInferenceLambda(openSearchClientProvider, serializer, deserializer, Region.of(MOCK_AWS_REGION), MOCK_ACCOUNT_ID, s3PresignerFactory, imageUploader);
+        // uploads run on the calling thread, in record order
+        bulkInferenceLambda = new BulkInferenceLambda(openSearchClientProvider, serializer, deserializer, Region.of(MOCK_AWS_REGION), MOCK_ACCOUNT_ID, s3PresignerFactory, imageUploader,
+                MoreExecutors.newDirectExecutorService());
     }
 
     @Test
@@ -269,6 +278,68 @@ public class BulkInferenceLambdaTest {
         assertEquals(expectedResponse, actualResponse);
     }
 
+    @Test
+    public void bulkInferenceTest_imageUploadFailuresOfOneRecord_reportedOnce() throws IOException {
+        KinesisEvent event = getKinesisEvent(Lists.newArrayList(KDS_INFERENCE_1, KDS_INFERENCE_2));
+        when(deserializer.deserialize(anyString()))
+                .thenReturn(InferenceTestUtils.getKdsInference(KDS_INFERENCE_1))
+                .thenReturn(InferenceTestUtils.getKdsInference(KDS_INFERENCE_2));
+        when(serializer.serialize(any()))
+                .thenReturn(OPEN_SEARCH_INFERENCE_JSON_1)
+                .thenReturn(OPEN_SEARCH_INFERENCE_JSON_2);
+        when(openSearchClient.bulkIndex(any()))
+                .thenReturn(bulkResponse);
+        when(bulkResponse.hasFailures()).thenReturn(false);
+
+        // Both images of the second record fail, one with an unchecked exception
+        doNothing().doThrow(IOException.class).doThrow(RuntimeException.class)
+                .when(imageUploader).upload(any(), any());
+
+        StreamsEventResponse actualResponse = bulkInferenceLambda.handleRequest(event, context);
+
+        StreamsEventResponse expectedResponse = StreamsEventResponse.builder()
+                .withBatchItemFailures(Lists.newArrayList(
+                        StreamsEventResponse.BatchItemFailure.builder().withItemIdentifier("2").build()))
+                .build();
+        verify(openSearchClient, times(1)).bulkIndex(any());
+        assertEquals(expectedResponse, actualResponse);
+    }
+
+    @Test
+    public void bulkInferenceTest_imageUploads_concurrent() throws Exception {
+        ExecutorService uploadExecutor = Executors.newFixedThreadPool(3);
+        bulkInferenceLambda = new BulkInferenceLambda(openSearchClientProvider, serializer, deserializer, Region.of(MOCK_AWS_REGION), MOCK_ACCOUNT_ID, s3PresignerFactory, imageUploader,
+                uploadExecutor);
+        KinesisEvent event = getKinesisEvent(Lists.newArrayList(KDS_INFERENCE_1, KDS_INFERENCE_2));
+        when(deserializer.deserialize(anyString()))
+                .thenReturn(InferenceTestUtils.getKdsInference(KDS_INFERENCE_1))
+                .thenReturn(InferenceTestUtils.getKdsInference(KDS_INFERENCE_2));
+        when(serializer.serialize(any()))
+                .thenReturn(OPEN_SEARCH_INFERENCE_JSON_1)
+                .thenReturn(OPEN_SEARCH_INFERENCE_JSON_2);
+        when(openSearchClient.bulkIndex(any()))
+                .thenReturn(bulkResponse);
+        when(bulkResponse.hasFailures()).thenReturn(false);
+
+        // each upload only completes once all three are in flight
+        CountDownLatch inFlightUploads = new CountDownLatch(3);
+        doAnswer(invocation -> {
+            inFlightUploads.countDown();
+            if (!inFlightUploads.await(10, TimeUnit.SECONDS)) {
+                throw new IOException("Uploads were not concurrent");
+            }
+            return null;
+        }).when(imageUploader).upload(any(), any());
+
+        try {
+            assertNull(bulkInferenceLambda.handleRequest(event, context));
+            assertTrue(inFlightUploads.await(0, TimeUnit.SECONDS));
+            verify(imageUploader, times(3)).upload(any(), any());
+        } finally {
+            uploadExecutor.shutdownNow();
+        }
+    }
+
     @Test
     public void bulkInferenceTest_bulkAPIFailure() throws Exception {
         KinesisEvent event = getKinesisEvent(Lists.newArrayList(KDS_INFERENCE_1, KDS_INFERENCE_2, KDS_INFERENCE_3, KDS_INFERENCE_4));
@@ -0,0 +1,53 @@
+package com.amazonaws.videoanalytics.videologistics.schema.util;
+
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoDensity;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.enhanced.dynamodb.TableMetadata;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.CLOUD_DENSITY_IN_MILLIS;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.DEVICE_DENSITY_IN_MILLIS;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.UNIT_TIMESTAMP;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.VIDEO_TIMELINE_PARTITION_KEY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AggregateVideoDensityTableSchemaTest {
+
+    private final AggregateVideoDensityTableSchema tableSchema = new AggregateVideoDensityTableSchema();
+
+    @Test
+    public void mapToItem_projectedItem_correctDensities() {
+        AggregateVideoDensity density = tableSchema.mapToItem(Map.of(
+                UNIT_TIMESTAMP, AttributeValue.fromN("1696444405000"),
+                CLOUD_DENSITY_IN_MILLIS, AttributeValue.fromN("2000"),
+                DEVICE_DENSITY_IN_MILLIS, AttributeValue.fromN("-900")));
+
+        assertEquals(new AggregateVideoDensity(1696444405000L, 2000L, -900L), density);
+    }
+
+    @Test
+    public void mapToItem_missingDensity_readAsZero() {
+        AggregateVideoDensity density = tableSchema.mapToItem(Map.of(
+                UNIT_TIMESTAMP, AttributeValue.fromN("1696444405000"),
+                CLOUD_DENSITY_IN_MILLIS, AttributeValue.fromN("2000")));
+
+        assertEquals(new AggregateVideoDensity(1696444405000L, 2000L, 0L), density);
+    }
+
+    @Test
+    public void itemToMap_density_roundTrips() {
+        AggregateVideoDensity density = new AggregateVideoDensity(1696444405000L, 2000L, 4000L);
+
+        assertEquals(density, tableSchema.mapToItem(tableSchema.itemToMap(density, true)));
+    }
+
+    @Test
+    public void tableMetadata_always_videoTimelineTableKeys() {
+        assertEquals(VIDEO_TIMELINE_PARTITION_KEY, tableSchema.tableMetadata().primaryPartitionKey());
+        assertEquals(UNIT_TIMESTAMP, tableSchema.tableMetadata().primarySortKey().get());
+        assertEquals(UNIT_TIMESTAMP,
+                tableSchema.tableMetadata().indexSortKey(TableMetadata.primaryIndexName()).get());
+    }
+}
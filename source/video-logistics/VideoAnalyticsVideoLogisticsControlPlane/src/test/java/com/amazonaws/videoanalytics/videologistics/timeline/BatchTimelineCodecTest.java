@@ -0,0 +1,132 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchTimelineCodecTest {
+    private static final long TIMESTAMP = 1696444408123L;
+
+    @Test
+    public void encode_singleTimestamp_storesHeaderAndDeltas() {
+        BatchTimeline batchTimeline = BatchTimeline.builder()
+                .deviceId("d1")
+                .location("CLOUD")
+                .timestamps(List.of(new TimestampInfo(1L, 2L)))
+                .build();
+
+        byte[] encoded = BatchTimelineCodec.encode(batchTimeline);
+
+        // magic, format, null customer id, "d1", "CLOUD", one timestamp, then 1 and 2 zigzag encoded
+        assertArrayEquals(new byte[] {(byte) 0xB7, 1, 0, 3, 'd', '1', 6, 'C', 'L', 'O', 'U', 'D', 1, 2, 4}, encoded);
+    }
+
+    @Test
+    public void encode_continuousRecording_roundTripsAndIsSmallerThanJson() throws Exception {
+        List<TimestampInfo> timestamps = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            timestamps.add(new TimestampInfo(TIMESTAMP + i * 2000L, 2000L));
+        }
+        BatchTimeline batchTimeline = BatchTimeline.builder()
+                .customerId("c1")
+                .deviceId("d1")
+                .location("DEVICE")
+                .timestamps(timestamps)
+                .build();
+
+        byte[] encoded = BatchTimelineCodec.encode(batchTimeline);
+        BatchTimeline decoded = BatchTimelineCodec.decode(encoded);
+
+        assertBatchTimelineEquals(batchTimeline, decoded);
+        assertTrue(encoded.length * 10 < new ObjectMapper().writeValueAsBytes(batchTimeline).length);
+    }
+
+    @Test
+    public void encode_unorderedTimestamps_roundTrips() {
+        BatchTimeline batchTimeline = BatchTimeline.builder()
+                .deviceId("dévice 1")
+                .timestamps(List.of(
+                        new TimestampInfo(TIMESTAMP, 4000L),
+                        new TimestampInfo(TIMESTAMP - 60000L, 10000L),
+                        new TimestampInfo(TIMESTAMP + 1L, 0L),
+                        new TimestampInfo(0L, Long.MAX_VALUE)))
+                .build();
+
+        BatchTimeline decoded = BatchTimelineCodec.decode(BatchTimelineCodec.encode(batchTimeline));
+
+        assertBatchTimelineEquals(batchTimeline, decoded);
+        assertNull(decoded.getCustomerId());
+        assertNull(decoded.getLocation());
+    }
+
+    @Test
+    public void encode_interleavedTimestamps_sameAsBatchTimeline() {
+        BatchTimeline batchTimeline = BatchTimeline.builder()
+                .deviceId("d1")
+                .location("CLOUD")
+                .timestamps(List.of(new TimestampInfo(TIMESTAMP, 4000L), new TimestampInfo(TIMESTAMP + 4000L, 2000L)))
+                .build();
+
+        byte[] encoded = BatchTimelineCodec.encode(null, "d1", "CLOUD",
+                new long[] {TIMESTAMP, 4000L, TIMESTAMP + 4000L, 2000L});
+
+        assertArrayEquals(BatchTimelineCodec.encode(batchTimeline), encoded);
+        assertBatchTimelineEquals(batchTimeline, BatchTimelineCodec.decode(encoded));
+    }
+
+    @Test
+    public void encode_timestampWithoutDuration_throwsException() {
+        BatchTimeline batchTimeline = BatchTimeline.builder()
+                .deviceId("d1")
+                .timestamps(List.of(new TimestampInfo(TIMESTAMP, null)))
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> BatchTimelineCodec.encode(batchTimeline));
+    }
+
+    @Test
+    public void isEncoded_json_returnsFalse() {
+        assertFalse(BatchTimelineCodec.isEncoded("{\"deviceId\":\"d1\"}".getBytes()));
+        assertFalse(BatchTimelineCodec.isEncoded(new byte[0]));
+        assertFalse(BatchTimelineCodec.isEncoded(null));
+    }
+
+    @Test
+    public void decode_truncatedOrUnknownFormat_throwsException() {
+        byte[] encoded = BatchTimelineCodec.encode(BatchTimeline.builder()
+                .deviceId("d1")
+                .timestamps(List.of(new TimestampInfo(TIMESTAMP, 4000L), new TimestampInfo(TIMESTAMP + 4000L, 4000L)))
+                .build());
+
+        for (int length = 1; length < encoded.length; length++) {
+            byte[] truncated = Arrays.copyOf(encoded, length);
+            assertThrows(IllegalArgumentException.class, () -> BatchTimelineCodec.decode(truncated));
+        }
+        byte[] trailing = Arrays.copyOf(encoded, encoded.length + 1);
+        assertThrows(IllegalArgumentException.class, () -> BatchTimelineCodec.decode(trailing));
+        byte[] unknownFormat = encoded.clone();
+        unknownFormat[1] = 2;
+        assertThrows(IllegalArgumentException.class, () -> BatchTimelineCodec.decode(unknownFormat));
+    }
+
+    private static void assertBatchTimelineEquals(final BatchTimeline expected, final BatchTimeline actual) {
+        assertEquals(expected.getCustomerId(), actual.getCustomerId());
+        assertEquals(expected.getDeviceId(), actual.getDeviceId());
+        assertEquals(expected.getLocation(), actual.getLocation());
+        assertEquals(expected.getTimestamps().size(), actual.getTimestamps().size());
+        for (int i = 0; i < expected.getTimestamps().size(); i++) {
+            assertEquals(expected.getTimestamps().get(i).getTimestamp(), actual.getTimestamps().get(i).getTimestamp());
+            assertEquals(expected.getTimestamps().get(i).getDuration(), actual.getTimestamps().get(i).getDuration());
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.amazonaws.videoanalytics.videologistics.timeline;
 
 import com.amazonaws.videoanalytics.videologistics.ValidationExceptionResponseContent;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,11 +10,11 @@ import org.mockito.MockitoAnnotations;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage.BATCH_TIMELINE_DESERIALIZATION_ERROR;
 
 public class BatchTimelineMapperTest {
@@ -46,12 +45,45 @@ public class BatchTimelineMapperTest {
     }
 
     @Test
-    public void serialize_ProcessingError_ThrowsRuntimeException() throws JsonProcessingException {
-        doThrow(JsonProcessingException.class).when(mockObjectMapper).writeValueAsBytes(any());
-        Exception exception = assertThrows(RuntimeException.class, () -> mockBatchTimelineMapper.serialize(any()));
+    public void serialize_TimestampWithoutDuration_ThrowsRuntimeException() {
+        BatchTimeline batchTimeline = BatchTimeline.builder()
+                .deviceId("d123")
+                .timestamps(List.of(new TimestampInfo(1696444408123L, null)))
+                .build();
+        Exception exception = assertThrows(RuntimeException.class, () -> batchTimelineMapper.serialize(batchTimeline));
         assertEquals(BATCH_TIMELINE_DESERIALIZATION_ERROR, exception.getMessage());
     }
 
+    @Test
+    public void serialize_ValidBatchTimeline_RoundTripsThroughBinaryFormat() throws IOException {
+        BatchTimeline batchTimeline = BatchTimeline.builder()
+                .deviceId("d123")
+                .location("CLOUD")
+                .timestamps(List.of(new TimestampInfo(1696444408123L, 4000L),
+                        new TimestampInfo(1696444412123L, 4000L)))
+                .build();
+
+        byte[] serializedBatchTimeline = mockBatchTimelineMapper.serialize(batchTimeline);
+        BatchTimeline deserializedBatchTimeline = mockBatchTimelineMapper.deserialize(serializedBatchTimeline);
+
+        assertTrue(BatchTimelineCodec.isEncoded(serializedBatchTimeline));
+        assertEquals("d123", deserializedBatchTimeline.getDeviceId());
+        assertEquals("CLOUD", deserializedBatchTimeline.getLocation());
+        assertEquals(1696444412123L, deserializedBatchTimeline.getTimestamps().get(1).getTimestamp());
+        verifyNoInteractions(mockObjectMapper);
+    }
+
+    @Test
+    public void deserialize_CorruptedBinary_ThrowsIOException() {
+        byte[] serializedBatchTimeline = batchTimelineMapper.serialize(BatchTimeline.builder()
+                .deviceId("d123")
+                .timestamps(List.of(new TimestampInfo(1696444408123L, 4000L)))
+                .build());
+        byte[] truncated = Arrays.copyOf(serializedBatchTimeline, serializedBatchTimeline.length - 1);
+
+        assertThrows(IOException.class, () -> batchTimelineMapper.deserialize(truncated));
+    }
+
     @Test
     public void deserialize_SingleTimestamp_ReturnsValidBatchTimeline() throws IOException {
         String json = "{\"customerId\": \"c123\", \"deviceId\": \"d123\"," +
@@ -0,0 +1,71 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.videoanalytics.videologistics.Timeline;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.amazonaws.videoanalytics.videologistics.timeline.CompactedTimelineCodec.MILLIS_PER_HOUR;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompactedTimelineCodecTest {
+    // 2023-10-04T01:00:00Z
+    private static final long HOUR_START_TIME = 1696381200000L;
+
+    @Test
+    public void encode_continuousHour_storesGapAndLength() {
+        List<Timeline> intervals = List.of(timeline(HOUR_START_TIME, HOUR_START_TIME + MILLIS_PER_HOUR));
+
+        byte[] encoded = CompactedTimelineCodec.encode(intervals, HOUR_START_TIME);
+
+        // format, gap of 0, then 3600000 as a four byte varint
+        assertArrayEquals(new byte[] {0, 0, (byte) 0x80, (byte) 0xDD, (byte) 0xDB, 0x01}, encoded);
+        assertEquals(intervals, CompactedTimelineCodec.decode(encoded, HOUR_START_TIME));
+    }
+
+    @Test
+    public void encode_intervalsWithGaps_roundTrips() {
+        List<Timeline> intervals = new ArrayList<>();
+        for (long startTime = HOUR_START_TIME + 123L; startTime < HOUR_START_TIME + MILLIS_PER_HOUR;
+             startTime += 10 * 60 * 1000L) {
+            intervals.add(timeline(startTime, startTime + 9 * 60 * 1000L + 456L));
+        }
+
+        byte[] encoded = CompactedTimelineCodec.encode(intervals, HOUR_START_TIME);
+
+        assertTrue(encoded.length <= 1 + 6 * 6);
+        assertEquals(intervals, CompactedTimelineCodec.decode(encoded, HOUR_START_TIME));
+    }
+
+    @Test
+    public void decode_emptyOrMissing_returnsNoIntervals() {
+        assertTrue(CompactedTimelineCodec.decode(CompactedTimelineCodec.encode(List.of(), HOUR_START_TIME),
+                HOUR_START_TIME).isEmpty());
+        assertTrue(CompactedTimelineCodec.decode(null, HOUR_START_TIME).isEmpty());
+    }
+
+    @Test
+    public void encode_intervalOutsideOfHour_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> CompactedTimelineCodec.encode(
+                List.of(timeline(HOUR_START_TIME - 1000L, HOUR_START_TIME + 1000L)), HOUR_START_TIME));
+        assertThrows(IllegalArgumentException.class, () -> CompactedTimelineCodec.encode(
+                List.of(timeline(HOUR_START_TIME, HOUR_START_TIME + MILLIS_PER_HOUR + 1L)), HOUR_START_TIME));
+    }
+
+    @Test
+    public void decode_unknownFormat_throwsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CompactedTimelineCodec.decode(new byte[] {7, 0, 0}, HOUR_START_TIME));
+    }
+
+    private static Timeline timeline(final long startTime, final long endTime) {
+        return Timeline.builder()
+                .startTime((double) startTime)
+                .endTime((double) endTime)
+                .build();
+    }
+}
@@ -2,28 +2,49 @@ package com.amazonaws.videoanalytics.videologistics.timeline;
 
 import com.amazonaws.videoanalytics.videologistics.Timeline;
 import com.amazonaws.videoanalytics.videologistics.DetailedVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.CompactedVideoTimelineDAO;
 import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.RawVideoTimelineDAO;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.CompactedVideoTimeline;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.PaginatedListResponse;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.RawVideoTimeline;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.DetailedTimelinePaginatedResponse;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoDensityLocation;
+import com.amazonaws.videoanalytics.videologistics.utils.GsonDDBNextTokenMarshaller;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.TIMESTAMP;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class DetailedVideoTimelineGeneratorTest {
     private static final String DEVICE_ID = "dev123";
     private static final Long START_TIME = 1696444405000L;
     private static final Long END_TIME = 1696444420000L;
+    // 2023-10-04T00:00:00Z
+    private static final long HOUR_START_TIME = 1696377600000L;
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+    private static final long MINUTE_MILLIS = 60 * 1000L;
+    private static final long BUFFER = DetailedVideoTimelineGenerator.MAX_KVS_FRAGMENT_DURATION_BUFFER;
     private final List<RawVideoTimeline> rawVideoTimelineList = getRawVideoTimelineList();
     private final PaginatedListResponse<RawVideoTimeline> paginatedListTimelineResponse = 
             new PaginatedListResponse<>(rawVideoTimelineList, "next_token");
@@ -31,6 +52,9 @@ public class DetailedVideoTimelineGeneratorTest {
     @Mock
     private RawVideoTimelineDAO rawVideoTimelineDAO;
 
+    @Mock
+    private CompactedVideoTimelineDAO compactedVideoTimelineDAO;
+
     @InjectMocks
     private DetailedVideoTimelineGenerator detailedVideoTimelineGenerator;
 
@@ -42,13 +66,15 @@ public class DetailedVideoTimelineGeneratorTest {
     @Test
     void getDetailedVideoTimeLine_WithinTimeRange_ReturnsFullTimeline() {
         Long startTime = START_TIME - DetailedVideoTimelineGenerator.MAX_KVS_FRAGMENT_DURATION_BUFFER;
-        when(rawVideoTimelineDAO.listRawVideoTimelines(DEVICE_ID, startTime, END_TIME, null))
-                .thenReturn(paginatedListTimelineResponse);
+        when(rawVideoTimelineDAO.listRawVideoTimelines(DEVICE_ID, startTime, END_TIME, null, false))
+                .thenReturn(new PaginatedListResponse<>(rawVideoTimelineList.subList(0, 3), "next_token"));
+        when(rawVideoTimelineDAO.listRawVideoTimelines(DEVICE_ID, startTime, END_TIME, "next_token", false))
+                .thenReturn(new PaginatedListResponse<>(rawVideoTimelineList.subList(3, 6), null));
 
         DetailedTimelinePaginatedResponse response = 
                 detailedVideoTimelineGenerator.getDetailedVideoTimeLine(DEVICE_ID, START_TIME, END_TIME, null);
 
-        assertEquals("next_token", response.getNextToken());
+        assertNull(response.getNextToken());
         assertIterableEquals(getDetailedVideoTimeline().getCloud(), response.getCloudTimeline());
         assertIterableEquals(getDetailedVideoTimeline().getDevice(), response.getDeviceTimeline());
     }
@@ -57,8 +83,10 @@ public class DetailedVideoTimelineGeneratorTest {
     void getDetailedVideoTimeLine_TruncatedEndTime_ReturnsTruncatedTimeline() {
         Long startTime = START_TIME - DetailedVideoTimelineGenerator.MAX_KVS_FRAGMENT_DURATION_BUFFER;
         Long truncatedEndTime = 1696444417123L;
-        when(rawVideoTimelineDAO.listRawVideoTimelines(DEVICE_ID, startTime, truncatedEndTime, null))
+        when(rawVideoTimelineDAO.listRawVideoTimelines(DEVICE_ID, startTime, truncatedEndTime, null, false))
                 .thenReturn(paginatedListTimelineResponse);
+        when(rawVideoTimelineDAO.listRawVideoTimelines(DEVICE_ID, startTime, truncatedEndTime, "next_token", false))
+                .thenReturn(new PaginatedListResponse<>(List.of(), null));
 
         DetailedTimelinePaginatedResponse response = 
                 detailedVideoTimelineGenerator.getDetailedVideoTimeLine(DEVICE_ID, START_TIME, truncatedEndTime, null);
@@ -67,6 +95,243 @@ public class DetailedVideoTimelineGeneratorTest {
         assertIterableEquals(getDetailedVideoTimelineTruncated().getDevice(), response.getDeviceTimeline());
     }
 
+    @Test
+    void getDetailedVideoTimeLine_CompactedHours_ReadsRawTimelinesOfOtherHoursOnly() {
+        long startTime = HOUR_START_TIME + 30 * MINUTE_MILLIS;
+        long endTime = HOUR_START_TIME + 3 * HOUR_MILLIS + 10 * MINUTE_MILLIS;
+        when(compactedVideoTimelineDAO.listCompactedVideoTimelines(DEVICE_ID, HOUR_START_TIME,
+                HOUR_START_TIME + 3 * HOUR_MILLIS)).thenReturn(List.of(
+                compacted(HOUR_START_TIME + HOUR_MILLIS, List.of(
+                        timeline(HOUR_START_TIME + HOUR_MILLIS, HOUR_START_TIME + HOUR_MILLIS + 30 * MINUTE_MILLIS),
+                        timeline(HOUR_START_TIME + HOUR_MILLIS + 40 * MINUTE_MILLIS,
+                                HOUR_START_TIME + 2 * HOUR_MILLIS)), 2L, null),
+                compacted(HOUR_START_TIME + 2 * HOUR_MILLIS, List.of(
+                        timeline(HOUR_START_TIME + 2 * HOUR_MILLIS,
+                                HOUR_START_TIME + 2 * HOUR_MILLIS + 10 * MINUTE_MILLIS)), 2L, 1L)));
+        when(rawVideoTimelineDAO.listRawVideoTimelines(DEVICE_ID, startTime - BUFFER,
+                HOUR_START_TIME + HOUR_MILLIS - 1, null, false))
+                .thenReturn(new PaginatedListResponse<>(List.of(getRawVideoTimeline(
+                        HOUR_START_TIME + HOUR_MILLIS - 4000L, 4000L, VideoDensityLocation.CLOUD)), null));
+        when(rawVideoTimelineDAO.listRawVideoTimelines(DEVICE_ID, HOUR_START_TIME + 3 * HOUR_MILLIS - BUFFER,
+                endTime, null, false))
+                .thenReturn(new PaginatedListResponse<>(List.of(
+                        getRawVideoTimeline(HOUR_START_TIME + 3 * HOUR_MILLIS + 1000L, 5000L,
+                                VideoDensityLocation.CLOUD),
+                        getRawVideoTimeline(HOUR_START_TIME + 3 * HOUR_MILLIS + 8000L, 2000L,
+                                VideoDensityLocation.DEVICE)), null));
+
+        DetailedTimelinePaginatedResponse response =
+                detailedVideoTimelineGenerator.getDetailedVideoTimeLine(DEVICE_ID, startTime, endTime, null);
+
+        assertNull(response.getNextToken());
+        assertIterableEquals(List.of(
+                timeline(HOUR_START_TIME + HOUR_MILLIS - 4000L, HOUR_START_TIME + HOUR_MILLIS + 30 * MINUTE_MILLIS),
+                timeline(HOUR_START_TIME + HOUR_MILLIS + 40 * MINUTE_MILLIS,
+                        HOUR_START_TIME + 2 * HOUR_MILLIS + 10 * MINUTE_MILLIS),
+                timeline(HOUR_START_TIME + 3 * HOUR_MILLIS + 1000L, HOUR_START_TIME + 3 * HOUR_MILLIS + 6000L)),
+                response.getCloudTimeline());
+        assertIterableEquals(List.of(
+                timeline(HOUR_START_TIME + 3 * HOUR_MILLIS + 8000L, HOUR_START_TIME + 3 * HOUR_MILLIS + 10000L)),
+                response.getDeviceTimeline());
+    }
+
+    @Test
+    void getDetailedVideoTimeLine_InvalidatedHour_ReadsRawTimelines() {
+        long endTime = HOUR_START_TIME + 2 * HOUR_MILLIS;
+        when(compactedVideoTimelineDAO.listCompactedVideoTimelines(DEVICE_ID, HOUR_START_TIME,
+                HOUR_START_TIME + HOUR_MILLIS)).thenReturn(List.of(
+                compacted(HOUR_START_TIME, List.of(timeline(HOUR_START_TIME, HOUR_START_TIME + 1000L)), 1L, 2L)));
+        when(rawVideoTimelineDAO.listRawVideoTimelines(DEVICE_ID, HOUR_START_TIME - BUFFER, endTime, null, false))
+                .thenReturn(new PaginatedListResponse<>(rawVideoTimelineList, null));
+
+        detailedVideoTimelineGenerator.getDetailedVideoTimeLine(DEVICE_ID, HOUR_START_TIME, endTime, null);
+
+        verify(rawVideoTimelineDAO).listRawVideoTimelines(DEVICE_ID, HOUR_START_TIME - BUFFER, endTime, null, false);
+    }
+
+    @Test
+    void getDetailedVideoTimeLine_MaxResults_StitchesOpenIntervalAcrossPages() {
+        long endTime = HOUR_START_TIME + HOUR_MILLIS;
+        mockRawVideoTimelines(List.of(
+                getRawVideoTimeline(HOUR_START_TIME, 4000L, VideoDensityLocation.CLOUD),
+                getRawVideoTimeline(HOUR_START_TIME + 10000L, 4000L, VideoDensityLocation.CLOUD),
+                getRawVideoTimeline(HOUR_START_TIME + 11000L, 5000L, VideoDensityLocation.DEVICE),
+                getRawVideoTimeline(HOUR_START_TIME + 16000L, 5000L, VideoDensityLocation.DEVICE),
+                getRawVideoTimeline(HOUR_START_TIME + 20000L, 4000L, VideoDensityLocation.CLOUD),
+                getRawVideoTimeline(HOUR_START_TIME + 21000L, 5000L, VideoDensityLocation.DEVICE),
+                getRawVideoTimeline(HOUR_START_TIME + 26000L, 4000L, VideoDensityLocation.DEVICE)));
+
+        DetailedTimelinePaginatedResponse firstPage = detailedVideoTimelineGenerator.getDetailedVideoTimeLine(
+                DEVICE_ID, HOUR_START_TIME, endTime, null, 2);
+        DetailedTimelinePaginatedResponse secondPage = detailedVideoTimelineGenerator.getDetailedVideoTimeLine(
+                DEVICE_ID, HOUR_START_TIME, endTime, firstPage.getNextToken(), 2);
+        DetailedTimelinePaginatedResponse thirdPage = detailedVideoTimelineGenerator.getDetailedVideoTimeLine(
+                DEVICE_ID, HOUR_START_TIME, endTime, secondPage.getNextToken(), 2);
+
+        // the interval still open when a page is full is returned by the page that closes it
+        assertIterableEquals(List.of(timeline(HOUR_START_TIME, HOUR_START_TIME + 4000L)),
+                firstPage.getCloudTimeline());
+        assertIterableEquals(List.of(), firstPage.getDeviceTimeline());
+        assertIterableEquals(List.of(timeline(HOUR_START_TIME + 10000L, HOUR_START_TIME + 14000L)),
+                secondPage.getCloudTimeline());
+        assertIterableEquals(List.of(), secondPage.getDeviceTimeline());
+        assertIterableEquals(List.of(timeline(HOUR_START_TIME + 20000L, HOUR_START_TIME + 24000L)),
+                thirdPage.getCloudTimeline());
+        assertIterableEquals(List.of(timeline(HOUR_START_TIME + 11000L, HOUR_START_TIME + 30000L)),
+                thirdPage.getDeviceTimeline());
+        assertNull(thirdPage.getNextToken());
+    }
+
+    @Test
+    void getDetailedVideoTimeLine_MaxResults_ResumesWithinCompactedHour() {
+        long endTime = HOUR_START_TIME + 2 * HOUR_MILLIS;
+        when(compactedVideoTimelineDAO.listCompactedVideoTimelines(anyString(), anyLong(), anyLong()))
+                .thenReturn(List.of(compacted(HOUR_START_TIME + HOUR_MILLIS, List.of(
+                        timeline(HOUR_START_TIME + HOUR_MILLIS, HOUR_START_TIME + HOUR_MILLIS + 10 * MINUTE_MILLIS),
+                        timeline(HOUR_START_TIME + HOUR_MILLIS + 20 * MINUTE_MILLIS,
+                                HOUR_START_TIME + HOUR_MILLIS + 30 * MINUTE_MILLIS)), 1L, null)));
+        mockRawVideoTimelines(List.of(
+                getRawVideoTimeline(HOUR_START_TIME + 5 * MINUTE_MILLIS, 5000L, VideoDensityLocation.DEVICE),
+                getRawVideoTimeline(HOUR_START_TIME + HOUR_MILLIS - 4000L, 4000L, VideoDensityLocation.CLOUD)));
+
+        DetailedTimelinePaginatedResponse firstPage = detailedVideoTimelineGenerator.getDetailedVideoTimeLine(
+                DEVICE_ID, HOUR_START_TIME, endTime, null, 1);
+        DetailedTimelinePaginatedResponse secondPage = detailedVideoTimelineGenerator.getDetailedVideoTimeLine(
+                DEVICE_ID, HOUR_START_TIME, endTime, firstPage.getNextToken(), 1);
+
+        Map<String, AttributeValue> nextToken = GsonDDBNextTokenMarshaller.unmarshall(firstPage.getNextToken());
+        assertEquals(Long.toString(HOUR_START_TIME + HOUR_MILLIS + 20 * MINUTE_MILLIS), nextToken.get(TIMESTAMP).n());
+        assertEquals(Set.of(TIMESTAMP, "OpenIntervalStartTime_DEVICE", "OpenIntervalEndTime_DEVICE"),
+                nextToken.keySet());
+        assertIterableEquals(List.of(timeline(HOUR_START_TIME + HOUR_MILLIS - 4000L,
+                HOUR_START_TIME + HOUR_MILLIS + 10 * MINUTE_MILLIS)), firstPage.getCloudTimeline());
+        assertIterableEquals(List.of(), firstPage.getDeviceTimeline());
+        assertIterableEquals(List.of(timeline(HOUR_START_TIME + HOUR_MILLIS + 20 * MINUTE_MILLIS,
+                HOUR_START_TIME + HOUR_MILLIS + 30 * MINUTE_MILLIS)), secondPage.getCloudTimeline());
+        assertIterableEquals(List.of(timeline(HOUR_START_TIME + 5 * MINUTE_MILLIS,
+                HOUR_START_TIME + 5 * MINUTE_MILLIS + 5000L)), secondPage.getDeviceTimeline());
+        assertNull(secondPage.getNextToken());
+        verify(rawVideoTimelineDAO).listRawVideoTimelines(anyString(), anyLong(), anyLong(), any(), anyBoolean());
+    }
+
+    @Test
+    void getDetailedVideoTimeLine_OpenHour_CompactedHoursNotLookedUp() {
+        long startTime = System.currentTimeMillis();
+        when(rawVideoTimelineDAO.listRawVideoTimelines(anyString(), anyLong(), anyLong(), any(), anyBoolean()))
+                .thenReturn(new PaginatedListResponse<>(List.of(), null));
+
+        detailedVideoTimelineGenerator.getDetailedVideoTimeLine(DEVICE_ID, startTime, startTime + 1000L, null);
+
+        verify(compactedVideoTimelineDAO, never()).listCompactedVideoTimelines(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void getDetailedVideoTimeLine_RawPageLimit_ResumesWithOpenIntervals() {
+        List<RawVideoTimeline> rawVideoTimelines = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            rawVideoTimelines.add(getRawVideoTimeline(HOUR_START_TIME + i * 20000L, 20000L,
+                    VideoDensityLocation.CLOUD));
+            rawVideoTimelines.add(getRawVideoTimeline(HOUR_START_TIME + i * 20000L + 10000L, 20000L,
+                    VideoDensityLocation.DEVICE));
+        }
+        mockRawVideoTimelinePages(rawVideoTimelines);
+        long endTime = HOUR_START_TIME + HOUR_MILLIS;
+
+        DetailedTimelinePaginatedResponse firstPage = detailedVideoTimelineGenerator.getDetailedVideoTimeLine(
+                DEVICE_ID, HOUR_START_TIME, endTime, null);
+        verify(rawVideoTimelineDAO, times(DetailedVideoTimelineGenerator.MAX_RAW_PAGES_PER_RESPONSE))
+                .listRawVideoTimelines(anyString(), anyLong(), anyLong(), any(), anyBoolean());
+        List<Timeline> cloudTimelines = new ArrayList<>();
+        List<Timeline> deviceTimelines = new ArrayList<>();
+        DetailedTimelinePaginatedResponse page = firstPage;
+        while (page.getNextToken() != null) {
+            page = detailedVideoTimelineGenerator.getDetailedVideoTimeLine(DEVICE_ID, HOUR_START_TIME, endTime,
+                    page.getNextToken());
+            cloudTimelines.addAll(page.getCloudTimeline());
+            deviceTimelines.addAll(page.getDeviceTimeline());
+        }
+
+        // continuous recording is a single interval per location, left open until the last page
+        assertIterableEquals(List.of(), firstPage.getCloudTimeline());
+        assertIterableEquals(List.of(), firstPage.getDeviceTimeline());
+        assertIterableEquals(List.of(timeline(HOUR_START_TIME, HOUR_START_TIME + 600000L)), cloudTimelines);
+        assertIterableEquals(List.of(timeline(HOUR_START_TIME + 10000L, HOUR_START_TIME + 610000L)),
+                deviceTimelines);
+    }
+
+    @Test
+    void compact_RawTimelinesOfHour_ClippedToHourAcrossPages() {
+        when(rawVideoTimelineDAO.listRawVideoTimelines(DEVICE_ID, HOUR_START_TIME - BUFFER,
+                HOUR_START_TIME + HOUR_MILLIS - 1, null, true))
+                .thenReturn(new PaginatedListResponse<>(List.of(
+                        getRawVideoTimeline(HOUR_START_TIME - 3000L, 4000L, VideoDensityLocation.CLOUD),
+                        getRawVideoTimeline(HOUR_START_TIME + 1000L, 4000L, VideoDensityLocation.CLOUD)),
+                        "next_token"));
+        when(rawVideoTimelineDAO.listRawVideoTimelines(DEVICE_ID, HOUR_START_TIME - BUFFER,
+                HOUR_START_TIME + HOUR_MILLIS - 1, "next_token", true))
+                .thenReturn(new PaginatedListResponse<>(List.of(
+                        getRawVideoTimeline(HOUR_START_TIME + HOUR_MILLIS - 1000L, 4000L,
+                                VideoDensityLocation.DEVICE)), null));
+
+        CompactedVideoTimeline compactedVideoTimeline = detailedVideoTimelineGenerator.compact(DEVICE_ID,
+                HOUR_START_TIME);
+
+        assertIterableEquals(List.of(timeline(HOUR_START_TIME, HOUR_START_TIME + 5000L)),
+                compactedVideoTimeline.getCloudTimeline());
+        assertIterableEquals(List.of(timeline(HOUR_START_TIME + HOUR_MILLIS - 1000L, HOUR_START_TIME + HOUR_MILLIS)),
+                compactedVideoTimeline.getDeviceTimeline());
+    }
+
+    /**
+     * Serves the raw timelines starting within the queried range as a single page
+     */
+    private void mockRawVideoTimelines(final List<RawVideoTimeline> rawVideoTimelines) {
+        when(rawVideoTimelineDAO.listRawVideoTimelines(anyString(), anyLong(), anyLong(), any(), anyBoolean()))
+                .thenAnswer(invocation -> {
+                    long startTime = invocation.getArgument(1);
+                    long endTime = invocation.getArgument(2);
+                    return new PaginatedListResponse<>(rawVideoTimelines.stream()
+                            .filter(rawVideoTimeline -> rawVideoTimeline.getTimestamp() >= startTime
+                                    && rawVideoTimeline.getTimestamp() <= endTime)
+                            .collect(Collectors.toList()), null);
+                });
+    }
+
+    /**
+     * Serves the raw timelines starting within the queried range one per page
+     */
+    private void mockRawVideoTimelinePages(final List<RawVideoTimeline> rawVideoTimelines) {
+        when(rawVideoTimelineDAO.listRawVideoTimelines(anyString(), anyLong(), anyLong(), any(), anyBoolean()))
+                .thenAnswer(invocation -> {
+                    long startTime = invocation.getArgument(1);
+                    long endTime = invocation.getArgument(2);
+                    String nextToken = invocation.getArgument(3);
+                    List<RawVideoTimeline> inRange = rawVideoTimelines.stream()
+                            .filter(rawVideoTimeline -> rawVideoTimeline.getTimestamp() >= startTime
+                                    && rawVideoTimeline.getTimestamp() <= endTime)
+                            .collect(Collectors.toList());
+                    int index = nextToken == null ? 0 : Integer.parseInt(nextToken);
+                    if (index >= inRange.size()) {
+                        return new PaginatedListResponse<>(List.of(), null);
+                    }
+                    return new PaginatedListResponse<>(List.of(inRange.get(index)),
+                            index + 1 < inRange.size() ? Integer.toString(index + 1) : null);
+                });
+    }
+
+    private static CompactedVideoTimeline compacted(final long hourStartTime, final List<Timeline> cloudTimeline,
+                                                    final Long compactedAt, final Long invalidatedAt) {
+        return new CompactedVideoTimeline(DEVICE_ID, hourStartTime, cloudTimeline, List.of(), compactedAt,
+                invalidatedAt);
+    }
+
+    private static Timeline timeline(final long startTime, final long endTime) {
+        return Timeline.builder()
+                .startTime((double) startTime)
+                .endTime((double) endTime)
+                .build();
+    }
+
     private DetailedVideoTimeline getDetailedVideoTimeline() {
         return DetailedVideoTimeline.builder()
                 .cloud(List.of(Timeline.builder()
@@ -10,10 +10,8 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
-import java.util.List;
-
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -50,57 +48,57 @@ public class PutVideoTimelineHandlerTest {
     @Test
     public void addVideoTimelines_singleTimestamp_savesToDAO() {
         String singleTimestamp = "{\"timestamps\":[{\"timestamp\":1696444408123,\"duration\":4000}]}";
-        byte[] exampleByteArray = {72, 101, 108, 108, 111, 32, 87, 111, 114, 108, 100, 33};
-        List<TimestampInfo> timestampList = List.of(
-                new TimestampInfo(1696444408123L, 4000L)
-        );
-        BatchTimeline batchTimeline = BatchTimeline.builder()
-                .deviceId(DEVICE_ID)
-                .timestamps(timestampList)
-                .location(VideoDensityLocation.CLOUD.name())
-                .build();
 
-        when(s3BucketRegionalizer.getRegionalizedBucketName(SchemaConst.VIDEO_TIMELINE_TABLE_NAME))
-                .thenReturn(SchemaConst.VIDEO_TIMELINE_TABLE_NAME);
-        when(timestampListDeserializer.deserialize(singleTimestamp)).thenReturn(timestampList);
-        when(batchTimelineMapper.serialize(batchTimeline)).thenReturn(exampleByteArray);
+        when(timestampListDeserializer.deserializeToArray(singleTimestamp))
+                .thenReturn(new long[] {1696444408123L, 4000L});
 
         putVideoTimelineHandler.addVideoTimelines(DEVICE_ID, singleTimestamp, VideoDensityLocation.CLOUD.name());
 
-        verify(rawVideoTimelineDAO, times(1)).save(anyString(), any(), any());
+        verify(rawVideoTimelineDAO, times(1)).save(DEVICE_ID, 1696444408123L, 4000L,
+                VideoDensityLocation.CLOUD.name());
         verify(s3Proxy, times(0)).putObjectBytes(any(), any(), any());
     }
 
     @Test
-    public void addVideoTimelines_multipleTimestamps_savesToS3() {
+    public void addVideoTimelines_multipleTimestamps_savesToDAO() {
         String multipleTimestamps = "{\"timestamps\":[{\"timestamp\":1696444408123,\"duration\":4000},{\"timestamp\":1696444412123,\"duration\":4000}]}";
+        long[] timestampInfos = {1696444408123L, 4000L, 1696444412123L, 4000L};
+
+        when(timestampListDeserializer.deserializeToArray(multipleTimestamps)).thenReturn(timestampInfos);
+
+        putVideoTimelineHandler.addVideoTimelines(DEVICE_ID, multipleTimestamps, VideoDensityLocation.DEVICE.name());
+
+        verify(rawVideoTimelineDAO, times(1)).saveAll(DEVICE_ID, timestampInfos, VideoDensityLocation.DEVICE.name());
+        verify(s3Proxy, times(0)).putObjectBytes(any(), any(), any());
+    }
+
+    @Test
+    public void addVideoTimelines_timestampsOverDirectWriteLimit_savesToS3() {
+        String multipleTimestamps = "{\"timestamps\":[...]}";
         byte[] exampleByteArray = {72, 101, 108, 108, 111, 32, 87, 111, 114, 108, 100, 33};
-        List<TimestampInfo> timestampList = List.of(
-                new TimestampInfo(1696444408123L, 4000L),
-                new TimestampInfo(1696444412123L, 4000L)
-        );
-        BatchTimeline batchTimeline = BatchTimeline.builder()
-                .deviceId(DEVICE_ID)
-                .timestamps(timestampList)
-                .location(VideoDensityLocation.CLOUD.name())
-                .build();
+        long[] timestampInfos = new long[2 * (PutVideoTimelineHandler.MAX_DIRECT_WRITE_TIMESTAMPS + 1)];
+        for (int i = 0; i < timestampInfos.length; i += 2) {
+            timestampInfos[i] = 1696444408123L + i * 2000L;
+            timestampInfos[i + 1] = 4000L;
+        }
 
         when(s3BucketRegionalizer.getRegionalizedBucketName(SchemaConst.VIDEO_TIMELINE_TABLE_NAME))
                 .thenReturn(SchemaConst.VIDEO_TIMELINE_TABLE_NAME);
-        when(timestampListDeserializer.deserialize(multipleTimestamps)).thenReturn(timestampList);
-        when(batchTimelineMapper.serialize(batchTimeline)).thenReturn(exampleByteArray);
+        when(timestampListDeserializer.deserializeToArray(multipleTimestamps)).thenReturn(timestampInfos);
+        when(batchTimelineMapper.serialize(DEVICE_ID, VideoDensityLocation.CLOUD.name(), timestampInfos))
+                .thenReturn(exampleByteArray);
 
         putVideoTimelineHandler.addVideoTimelines(DEVICE_ID, multipleTimestamps, VideoDensityLocation.CLOUD.name());
 
-        verify(s3Proxy, times(1)).putObjectBytes(any(), any(), any());
+        verify(s3Proxy, times(1)).putObjectBytes(any(), any(), eq(exampleByteArray));
+        verify(rawVideoTimelineDAO, times(0)).saveAll(any(), any(long[].class), any());
     }
 
     @Test
     public void addVideoTimelines_emptyTimestamps_noAction() {
         String emptyTimestamps = "{\"timestamps\":[]}";
-        List<TimestampInfo> timestampList = List.of();
 
-        when(timestampListDeserializer.deserialize(emptyTimestamps)).thenReturn(timestampList);
+        when(timestampListDeserializer.deserializeToArray(emptyTimestamps)).thenReturn(new long[0]);
         
         putVideoTimelineHandler.addVideoTimelines(DEVICE_ID, emptyTimestamps, VideoDensityLocation.CLOUD.name());
 
@@ -0,0 +1,69 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.RawVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoDensityLocation;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.CREATED_AT;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.DEVICE_ID;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.DURATION_IN_MILLIS;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.EXPIRATION_TIMESTAMP;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.LOCATION;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.TIMESTAMP;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RawVideoTimelineStreamImageDecoderTest {
+    private static final String PARTITION_KEY_VALUE = "account123#device123";
+    private static final Long TIMESTAMP_VALUE = 1696444408000L;
+    private static final String CREATED_AT_VALUE = "2023-10-04T18:33:28Z";
+
+    private final RawVideoTimelineStreamImageDecoder decoder = new RawVideoTimelineStreamImageDecoder(DEVICE_ID, TIMESTAMP);
+
+    @Test
+    public void decode_fullImage_returnsRawVideoTimeline() {
+        Map<String, AttributeValue> image = Map.of(
+                DEVICE_ID, new AttributeValue().withS(PARTITION_KEY_VALUE),
+                TIMESTAMP, new AttributeValue().withN(TIMESTAMP_VALUE.toString()),
+                DURATION_IN_MILLIS, new AttributeValue().withN("2000"),
+                LOCATION, new AttributeValue().withS(VideoDensityLocation.DEVICE.name()),
+                EXPIRATION_TIMESTAMP, new AttributeValue().withN("1704220408"),
+                CREATED_AT, new AttributeValue().withS(CREATED_AT_VALUE)
+        );
+
+        RawVideoTimeline rawVideoTimeline = decoder.decode(image).orElseThrow();
+
+        assertEquals(PARTITION_KEY_VALUE, rawVideoTimeline.getDeviceId());
+        assertEquals(TIMESTAMP_VALUE, rawVideoTimeline.getTimestamp());
+        assertEquals(2000L, rawVideoTimeline.getDurationInMillis());
+        assertEquals(VideoDensityLocation.DEVICE, rawVideoTimeline.getLocation());
+        assertEquals(1704220408L, rawVideoTimeline.getExpirationTimestamp());
+        assertEquals(Date.from(Instant.parse(CREATED_AT_VALUE)), rawVideoTimeline.getCreatedAt());
+        assertNull(rawVideoTimeline.getLastUpdated());
+    }
+
+    @Test
+    public void decode_keysOnlyImage_returnsEmpty() {
+        Map<String, AttributeValue> image = Map.of(
+                DEVICE_ID, new AttributeValue().withS(PARTITION_KEY_VALUE),
+                TIMESTAMP, new AttributeValue().withN(TIMESTAMP_VALUE.toString())
+        );
+
+        assertTrue(decoder.decode(image).isEmpty());
+        assertEquals(Optional.of(PARTITION_KEY_VALUE), decoder.getPartitionKey(image));
+        assertEquals(Optional.of(TIMESTAMP_VALUE), decoder.getSortKey(image));
+    }
+
+    @Test
+    public void decode_missingImage_returnsEmpty() {
+        assertTrue(decoder.decode(null).isEmpty());
+        assertTrue(new RawVideoTimelineStreamImageDecoder(null, null).getPartitionKey(Map.of()).isEmpty());
+    }
+}
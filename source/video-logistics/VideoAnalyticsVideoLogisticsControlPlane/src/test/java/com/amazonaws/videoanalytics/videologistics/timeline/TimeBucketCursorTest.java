@@ -0,0 +1,113 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimeBucketCursorTest {
+    private static final long TIMESTAMP = 1696444404000L;
+
+    private final TimeBucketCursor cursor = new TimeBucketCursor();
+
+    @Test
+    public void next_fragmentSpanningTwoBuckets_splitsDuration() {
+        cursor.reset(TimeIncrementUnits.SECONDS, TIMESTAMP, 4000L);
+
+        assertTrue(cursor.next());
+        assertEquals(1696444400000L, cursor.getBucketStartDate());
+        assertEquals(1000L, cursor.getDurationToBeStored());
+        assertTrue(cursor.next());
+        assertEquals(1696444405000L, cursor.getBucketStartDate());
+        assertEquals(3000L, cursor.getDurationToBeStored());
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    public void reset_afterUse_startsOver() {
+        cursor.reset(TimeIncrementUnits.HOURS, TIMESTAMP, 4000L);
+        while (cursor.next()) {
+            // drain
+        }
+
+        cursor.reset(TimeIncrementUnits.MINUTES, TIMESTAMP, 4000L);
+
+        assertTrue(cursor.next());
+        assertEquals(1696444380000L, cursor.getBucketStartDate());
+        assertEquals(4000L, cursor.getDurationToBeStored());
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    public void next_randomFragments_matchesInstantBasedBucketing() {
+        Random random = new Random(42L);
+        for (int i = 0; i < 10_000; i++) {
+            TimeIncrementUnits unit = TimeIncrementUnits.values()[random.nextInt(TimeIncrementUnits.values().length)];
+            long timestamp = TIMESTAMP + random.nextInt(Integer.MAX_VALUE);
+            long durationInMillis = random.nextInt(3) == 0 ? random.nextInt(10_000) : random.nextInt(200_000_000);
+
+            List<long[]> buckets = new ArrayList<>();
+            cursor.reset(unit, timestamp, durationInMillis);
+            while (cursor.next()) {
+                buckets.add(new long[]{cursor.getBucketStartDate(), cursor.getDurationToBeStored()});
+            }
+
+            List<long[]> expected = getInstantBasedBuckets(unit, timestamp, durationInMillis);
+            assertEquals(expected.size(), buckets.size());
+            for (int j = 0; j < expected.size(); j++) {
+                assertEquals(expected.get(j)[0], buckets.get(j)[0]);
+                assertEquals(expected.get(j)[1], buckets.get(j)[1]);
+            }
+        }
+    }
+
+    @Test
+    public void getBucketStart_randomTimestamps_matchesInstantTruncation() {
+        Random random = new Random(7L);
+        for (int i = 0; i < 10_000; i++) {
+            long timestamp = random.nextLong() % 4_102_444_800_000L;
+            for (TimeIncrementUnits unit : TimeIncrementUnits.values()) {
+                assertEquals(getInstantBasedUnitTime(unit, timestamp), unit.getBucketStart(timestamp));
+            }
+        }
+    }
+
+    // bucketing as previously done by VideoTimelineAggregator.getTimeBuckets
+    private static List<long[]> getInstantBasedBuckets(TimeIncrementUnits unit, long timestampToBeStored,
+                                                      long durationInMillis) {
+        long rangeStart = getInstantBasedUnitTime(unit, timestampToBeStored);
+        Instant rangeStartInstant = Instant.ofEpochMilli(rangeStart);
+        long rangeEnd = getInstantBasedUnitTime(unit, timestampToBeStored + durationInMillis);
+        long durationStep = unit == TimeIncrementUnits.SECONDS ? 5L : 1L;
+        long bucketDurationMillis = new VideoTimelineUtils().getBucketDuration(unit.getChronoUnit());
+        int numberOfBuckets = (int) (rangeStartInstant.until(Instant.ofEpochMilli(rangeEnd), unit.getChronoUnit())
+                / durationStep) + 1;
+
+        List<long[]> buckets = new ArrayList<>();
+        for (int i = 0; i < numberOfBuckets; i++) {
+            long bucketStartDate = rangeStartInstant.plus(i * durationStep, unit.getChronoUnit()).toEpochMilli();
+            long bucketEndDate = bucketStartDate + bucketDurationMillis;
+            long timeInBucket = Math.min(bucketEndDate - timestampToBeStored, durationInMillis);
+            buckets.add(new long[]{bucketStartDate, timeInBucket});
+            durationInMillis -= timeInBucket;
+            timestampToBeStored = bucketEndDate;
+            if (durationInMillis <= 0 || timestampToBeStored > rangeEnd) break;
+        }
+        return buckets;
+    }
+
+    // truncation as previously done by VideoTimelineUtils.getUnitTime
+    private static long getInstantBasedUnitTime(TimeIncrementUnits unit, long timestamp) {
+        if (unit == TimeIncrementUnits.SECONDS) {
+            return (long) (5000 * (Math.floor((double) timestamp / 5000)));
+        }
+        return Instant.ofEpochMilli(timestamp).truncatedTo(unit.getChronoUnit()).toEpochMilli();
+    }
+}
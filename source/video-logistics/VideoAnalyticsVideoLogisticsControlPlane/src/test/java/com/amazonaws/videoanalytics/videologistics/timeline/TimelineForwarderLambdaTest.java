@@ -3,35 +3,37 @@ package com.amazonaws.videoanalytics.videologistics.timeline;
 import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.RawVideoTimelineDAO;
 import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.VideoTimelineDAO;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.RawVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoDensityLocation;
+import com.amazonaws.videoanalytics.videologistics.utils.Sleeper;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
 import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
 import com.amazonaws.services.lambda.runtime.events.models.dynamodb.OperationType;
 import com.amazonaws.services.lambda.runtime.events.models.dynamodb.StreamRecord;
-import org.junit.Rule;
-import org.junit.contrib.java.lang.system.EnvironmentVariables;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import software.amazon.awssdk.services.kinesis.KinesisClient;
-import software.amazon.awssdk.services.kinesis.model.PutRecordRequest;
-import software.amazon.awssdk.services.kinesis.model.PutRecordResponse;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResultEntry;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.DURATION_IN_MILLIS;
 import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.LOCATION;
-import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.RAW_PARTITION_KEY;
-import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.RAW_SORT_KEY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -57,21 +59,18 @@ public class TimelineForwarderLambdaTest {
     private KinesisClient kinesisClient;
     @Mock
     private TimelineKDSMetadataSerDe timelineKDSMetadataSerDe;
+    @Mock
+    private Sleeper sleeper;
 
     @Captor
-    private ArgumentCaptor<PutRecordRequest> putRecordRequestCaptor;
-
-    @Rule
-    public final EnvironmentVariables environmentVariables = new EnvironmentVariables();
+    private ArgumentCaptor<PutRecordsRequest> putRecordsRequestCaptor;
 
-    @InjectMocks
     private TimelineForwarderLambda timelineForwarderLambda;
 
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
-        environmentVariables.set(RAW_PARTITION_KEY, "partitionKey");
-        environmentVariables.set(RAW_SORT_KEY, "sortKey");
+        timelineForwarderLambda = createLambda(new RawVideoTimelineStreamImageDecoder("partitionKey", "sortKey"));
         ddbEvent = new DynamodbEvent();
 
         RawVideoTimeline rawVideoTimeline = RawVideoTimeline.builder()
@@ -101,7 +100,9 @@ public class TimelineForwarderLambdaTest {
         timelineForwarderLambda.handleRequest(ddbEvent, context);
 
         verify(rawVideoTimelineDAO, times(1)).load(RAW_PARTITION_KEY_VALUE, RAW_SORT_KEY_VALUE);
-        verify(kinesisClient, times(4)).putRecord(any(PutRecordRequest.class));
+        verify(videoTimelineAggregator, times(1)).getTimeBuckets(eq(TimeIncrementUnits.SECONDS), anyLong(), anyLong());
+        verify(kinesisClient, times(1)).putRecords(putRecordsRequestCaptor.capture());
+        assertEquals(1, putRecordsRequestCaptor.getValue().records().size());
     }
 
     @Test
@@ -120,7 +121,65 @@ public class TimelineForwarderLambdaTest {
         timelineForwarderLambda.handleRequest(ddbEvent, context);
 
         verify(rawVideoTimelineDAO, times(1)).load(RAW_PARTITION_KEY_VALUE, RAW_SORT_KEY_VALUE);
-        verify(kinesisClient, times(4)).putRecord(any(PutRecordRequest.class));
+        verify(kinesisClient, times(1)).putRecords(any(PutRecordsRequest.class));
+    }
+
+    @Test
+    public void handleRequest_partialPutFailure_retriesFailedRecords() {
+        TimelineStorage timelineStorage = TimelineStorage.builder()
+                .bucketStartDate(1234567890L)
+                .durationToBeStored(4000L)
+                .build();
+
+        setupStreamRecord(OperationType.INSERT);
+        when(videoTimelineAggregator.getTimeBuckets(any(), anyLong(), anyLong()))
+                .thenReturn(List.of(timelineStorage, timelineStorage, timelineStorage, timelineStorage));
+        when(timelineKDSMetadataSerDe.serialize(any())).thenReturn(TIMELINE_KDS_METADATA);
+        PutRecordsResponse partialFailure = PutRecordsResponse.builder()
+                .failedRecordCount(1)
+                .records(successResult(),
+                        PutRecordsResultEntry.builder()
+                                .errorCode("ProvisionedThroughputExceededException")
+                                .errorMessage("Rate exceeded")
+                                .build(),
+                        successResult(),
+                        successResult())
+                .build();
+        when(kinesisClient.putRecords(any(PutRecordsRequest.class)))
+                .thenReturn(partialFailure)
+                .thenReturn(PutRecordsResponse.builder().failedRecordCount(0).records(successResult()).build());
+
+        timelineForwarderLambda.handleRequest(ddbEvent, context);
+
+        verify(kinesisClient, times(2)).putRecords(putRecordsRequestCaptor.capture());
+        assertEquals(4, putRecordsRequestCaptor.getAllValues().get(0).records().size());
+        assertEquals(1, putRecordsRequestCaptor.getAllValues().get(1).records().size());
+    }
+
+    @Test
+    public void handleRequest_putFailsOnAllAttempts_throwsException() throws InterruptedException {
+        TimelineStorage timelineStorage = TimelineStorage.builder()
+                .bucketStartDate(1234567890L)
+                .durationToBeStored(4000L)
+                .build();
+
+        setupStreamRecord(OperationType.INSERT);
+        when(videoTimelineAggregator.getTimeBuckets(any(), anyLong(), anyLong()))
+                .thenReturn(List.of(timelineStorage, timelineStorage, timelineStorage, timelineStorage));
+        when(timelineKDSMetadataSerDe.serialize(any())).thenReturn(TIMELINE_KDS_METADATA);
+        PutRecordsResultEntry failedResult = PutRecordsResultEntry.builder()
+                .errorCode("InternalFailure")
+                .errorMessage("Internal service failure")
+                .build();
+        when(kinesisClient.putRecords(any(PutRecordsRequest.class))).thenReturn(PutRecordsResponse.builder()
+                .failedRecordCount(4)
+                .records(failedResult, failedResult, failedResult, failedResult)
+                .build());
+
+        assertThrows(RuntimeException.class, () ->
+            timelineForwarderLambda.handleRequest(ddbEvent, context));
+        verify(kinesisClient, times(5)).putRecords(any(PutRecordsRequest.class));
+        verify(sleeper, times(4)).sleep(anyLong());
     }
 
     @Test
@@ -131,18 +190,92 @@ public class TimelineForwarderLambdaTest {
         timelineForwarderLambda.handleRequest(ddbEvent, context);
 
         verify(rawVideoTimelineDAO, times(0)).load(any(), any());
-        verify(kinesisClient, times(0)).putRecord(any(PutRecordRequest.class));
+        verify(kinesisClient, times(0)).putRecords(any(PutRecordsRequest.class));
+    }
+
+    @Test
+    public void handleRequest_modifyEventCloudExtended_processesAddedDuration() {
+        TimelineStorage timelineStorage = TimelineStorage.builder()
+                .bucketStartDate(RAW_SORT_KEY_VALUE + DURATION_MS)
+                .durationToBeStored(1000L)
+                .build();
+        setupModifyStreamRecord(VideoDensityLocation.CLOUD.name(), VideoDensityLocation.CLOUD.name());
+        dynamodbStreamRecord.getDynamodb().setNewImage(withDuration(dynamodbStreamRecord.getDynamodb().getNewImage(),
+                DURATION_MS + 4000L));
+        dynamodbStreamRecord.getDynamodb().setOldImage(withDuration(dynamodbStreamRecord.getDynamodb().getOldImage(),
+                DURATION_MS));
+        setupKinesisResponse();
+        when(videoTimelineAggregator.getTimeBuckets(any(), anyLong(), anyLong()))
+                .thenReturn(List.of(timelineStorage));
+        when(timelineKDSMetadataSerDe.serialize(any())).thenReturn(TIMELINE_KDS_METADATA);
+
+        timelineForwarderLambda.handleRequest(ddbEvent, context);
+
+        verify(rawVideoTimelineDAO, times(0)).load(any(), any());
+        verify(videoTimelineAggregator, times(1))
+                .getTimeBuckets(TimeIncrementUnits.SECONDS, RAW_SORT_KEY_VALUE + DURATION_MS, 4000L);
+        verify(kinesisClient, times(1)).putRecords(any(PutRecordsRequest.class));
+    }
+
+    @Test
+    public void handleRequest_modifyEventCloudShortened_skipsProcessing() {
+        setupModifyStreamRecord(VideoDensityLocation.CLOUD.name(), VideoDensityLocation.CLOUD.name());
+        dynamodbStreamRecord.getDynamodb().setNewImage(withDuration(dynamodbStreamRecord.getDynamodb().getNewImage(),
+                DURATION_MS));
+        dynamodbStreamRecord.getDynamodb().setOldImage(withDuration(dynamodbStreamRecord.getDynamodb().getOldImage(),
+                DURATION_MS + 4000L));
+
+        timelineForwarderLambda.handleRequest(ddbEvent, context);
+
+        verify(kinesisClient, times(0)).putRecords(any(PutRecordsRequest.class));
+    }
+
+    @Test
+    public void handleRequest_insertEventWithFullImage_skipsRead() {
+        TimelineStorage timelineStorage = TimelineStorage.builder()
+                .bucketStartDate(1234567890L)
+                .durationToBeStored(4000L)
+                .build();
+
+        Map<String, AttributeValue> newImage = Map.of(
+            "partitionKey", new AttributeValue().withS(RAW_PARTITION_KEY_VALUE),
+            "sortKey", new AttributeValue().withN(RAW_SORT_KEY_VALUE.toString()),
+            DURATION_IN_MILLIS, new AttributeValue().withN(DURATION_MS.toString()),
+            LOCATION, new AttributeValue().withS(VideoDensityLocation.CLOUD.name())
+        );
+        StreamRecord streamRecord = new StreamRecord();
+        streamRecord.setNewImage(newImage);
+        dynamodbStreamRecord = new DynamodbEvent.DynamodbStreamRecord();
+        dynamodbStreamRecord.setEventName(OperationType.INSERT.toString());
+        dynamodbStreamRecord.setDynamodb(streamRecord);
+        ddbEvent.setRecords(Collections.singletonList(dynamodbStreamRecord));
+        setupKinesisResponse();
+        when(videoTimelineAggregator.getTimeBuckets(any(), anyLong(), anyLong()))
+                .thenReturn(List.of(timelineStorage));
+        when(timelineKDSMetadataSerDe.serialize(any())).thenReturn(TIMELINE_KDS_METADATA);
+
+        timelineForwarderLambda.handleRequest(ddbEvent, context);
+
+        verify(rawVideoTimelineDAO, times(0)).load(any(), any());
+        verify(videoTimelineAggregator, times(1))
+                .getTimeBuckets(TimeIncrementUnits.SECONDS, RAW_SORT_KEY_VALUE, DURATION_MS);
+        verify(kinesisClient, times(1)).putRecords(any(PutRecordsRequest.class));
     }
 
     @Test
     public void handleRequest_noPartitionKey_throwsException() {
-        environmentVariables.set(RAW_PARTITION_KEY, "");
+        timelineForwarderLambda = createLambda(new RawVideoTimelineStreamImageDecoder("", "sortKey"));
         setupStreamRecord(OperationType.INSERT);
 
         assertThrows(RuntimeException.class, () -> 
             timelineForwarderLambda.handleRequest(ddbEvent, context));
     }
 
+    private TimelineForwarderLambda createLambda(RawVideoTimelineStreamImageDecoder decoder) {
+        return new TimelineForwarderLambda(timelineKDSMetadataSerDe, kinesisClient, rawVideoTimelineDAO,
+                videoTimelineDAO, videoTimelineAggregator, decoder, sleeper);
+    }
+
     private void setupStreamRecord(OperationType operationType) {
         Map<String, AttributeValue> newImage = Map.of(
             "partitionKey", new AttributeValue().withS(RAW_PARTITION_KEY_VALUE),
@@ -183,11 +316,24 @@ public class TimelineForwarderLambdaTest {
         ddbEvent.setRecords(Collections.singletonList(dynamodbStreamRecord));
     }
 
+    private static Map<String, AttributeValue> withDuration(Map<String, AttributeValue> image, long durationInMillis) {
+        Map<String, AttributeValue> imageWithDuration = new HashMap<>(image);
+        imageWithDuration.put(DURATION_IN_MILLIS, new AttributeValue().withN(Long.toString(durationInMillis)));
+        return imageWithDuration;
+    }
+
     private void setupKinesisResponse() {
-        PutRecordResponse response = PutRecordResponse.builder()
+        PutRecordsResponse response = PutRecordsResponse.builder()
+                .failedRecordCount(0)
+                .records(successResult())
+                .build();
+        when(kinesisClient.putRecords(any(PutRecordsRequest.class))).thenReturn(response);
+    }
+
+    private static PutRecordsResultEntry successResult() {
+        return PutRecordsResultEntry.builder()
                 .shardId("shard123")
                 .sequenceNumber("seq1")
                 .build();
-        when(kinesisClient.putRecord(any(PutRecordRequest.class))).thenReturn(response);
     }
 }
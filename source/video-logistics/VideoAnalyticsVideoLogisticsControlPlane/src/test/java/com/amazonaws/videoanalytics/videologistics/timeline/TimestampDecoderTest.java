@@ -0,0 +1,96 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TimestampDecoderTest {
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Test
+    public void decodeEncodedTimestamps_validInput_returnsTimestamps() {
+        assertArrayEquals(new long[] {1696444408123L, -5L, 7L, Long.MAX_VALUE, Long.MIN_VALUE},
+                TimestampDecoder.decodeEncodedTimestamps(encode("1696444408123,-5,+7,9223372036854775807,"
+                        + "-9223372036854775808")));
+    }
+
+    @Test
+    public void decodeEncodedTimestamps_trailingCommas_ignored() {
+        assertArrayEquals(new long[] {1L, 2L}, TimestampDecoder.decodeEncodedTimestamps(encode("1,2,,")));
+        assertArrayEquals(new long[0], TimestampDecoder.decodeEncodedTimestamps(encode(",")));
+    }
+
+    @Test
+    public void decodeEncodedTimestamps_invalidTimestamp_throwsException() {
+        Map<String, String> invalidTimestamps = Map.of(
+                "1,,2", "",
+                "1,a2", "a2",
+                "1, 2", " 2",
+                "1,9223372036854775808", "9223372036854775808",
+                "-", "-",
+                "1.5", "1.5");
+        invalidTimestamps.forEach((timestamps, invalidTimestamp) -> {
+            RuntimeException exception = assertThrows(RuntimeException.class,
+                    () -> TimestampDecoder.decodeEncodedTimestamps(encode(timestamps)));
+            assertEquals(String.format(TimestampDecoder.INVALID_TIMESTAMP, invalidTimestamp), exception.getMessage());
+        });
+    }
+
+    @Test
+    public void decodeEncodedTimestamps_invalidEncoding_throwsException() {
+        assertEquals(TimestampDecoder.INVALID_ENCODED_TIMESTAMP, assertThrows(RuntimeException.class,
+                () -> TimestampDecoder.decodeEncodedTimestamps("")).getMessage());
+        assertEquals(TimestampDecoder.UNDECODABLE_TIMESTAMPS, assertThrows(RuntimeException.class,
+                () -> TimestampDecoder.decodeEncodedTimestamps("not base64!")).getMessage());
+    }
+
+    @Test
+    public void readTimestampInfos_validArray_returnsInterleavedValues() throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 100; i++) {
+            json.append(i == 0 ? "" : ",").append(String.format("{\"duration\":%d,\"timestamp\":\"%d\"}", i, 1000L * i));
+        }
+        long[] timestampInfos = readTimestampInfos(json.append("]").toString());
+
+        assertEquals(200, timestampInfos.length);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(1000L * i, timestampInfos[2 * i]);
+            assertEquals(i, timestampInfos[2 * i + 1]);
+        }
+    }
+
+    @Test
+    public void readTimestampInfos_invalidTimestampInfo_throwsException() {
+        for (String invalid : new String[] {
+                "{}",
+                "[{\"timestamp\":1}]",
+                "[{\"timestamp\":1,\"duration\":null}]",
+                "[{\"timestamp\":1.5,\"duration\":2}]",
+                "[{\"timestamp\":1,\"duration\":2,\"location\":\"CLOUD\"}]",
+                "[{\"timestamp\":99999999999999999999,\"duration\":2}]",
+                "[1,2]"}) {
+            assertThrows(IOException.class, () -> readTimestampInfos(invalid), invalid);
+        }
+        assertThrows(RuntimeException.class, () -> readTimestampInfos("[{\"timestamp\":\"1x\",\"duration\":2}]"));
+    }
+
+    private long[] readTimestampInfos(final String json) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            parser.nextToken();
+            return TimestampDecoder.readTimestampInfos(parser);
+        }
+    }
+
+    private static String encode(final String timestamps) {
+        return Base64.getEncoder().encodeToString(timestamps.getBytes(StandardCharsets.UTF_8));
+    }
+}
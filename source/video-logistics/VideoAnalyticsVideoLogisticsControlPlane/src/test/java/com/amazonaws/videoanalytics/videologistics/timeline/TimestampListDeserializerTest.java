@@ -1,5 +1,6 @@
 package com.amazonaws.videoanalytics.videologistics.timeline;
 
+import com.amazonaws.videoanalytics.videologistics.dagger.modules.AWSVideoAnalyticsVLControlPlaneModule;
 import com.amazonaws.videoanalytics.videologistics.exceptions.VideoAnalyticsExceptionMessage;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,6 +8,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -57,4 +59,35 @@ class TimestampListDeserializerTest {
         assertEquals(1234567890L, result.get(0).getTimestamp());
         assertEquals(5000L, result.get(0).getDuration());
     }
-}
\ No newline at end of file
+
+    @Test
+    void deserialize_singleQuotedJson_returnsTimestampList() {
+        deserializer = new TimestampListDeserializer(
+                new AWSVideoAnalyticsVLControlPlaneModule().provideObjectMapper());
+
+        List<TimestampInfo> result = deserializer.deserialize("[{'timestamp':1234567890,'duration':5000}]");
+
+        assertEquals(1, result.size());
+        assertEquals(5000L, result.get(0).getDuration());
+    }
+
+    @Test
+    void deserialize_timestampWithoutDuration_throwsRuntimeException() {
+        String json = "[{\"timestamp\":1234567890,\"duration\":null}]";
+
+        assertThrows(RuntimeException.class, () -> deserializer.deserialize(json));
+    }
+
+    @Test
+    void deserialize_trailingContent_throwsRuntimeException() {
+        assertThrows(RuntimeException.class, () -> deserializer.deserialize("[] []"));
+        assertThrows(RuntimeException.class, () -> deserializer.deserialize("\"[] []\""));
+    }
+
+    @Test
+    void deserializeToArray_validJson_returnsInterleavedValues() {
+        String json = "[{\"timestamp\":1234567890,\"duration\":5000},{\"timestamp\":1234572890,\"duration\":4000}]";
+
+        assertArrayEquals(new long[] {1234567890L, 5000L, 1234572890L, 4000L}, deserializer.deserializeToArray(json));
+    }
+}
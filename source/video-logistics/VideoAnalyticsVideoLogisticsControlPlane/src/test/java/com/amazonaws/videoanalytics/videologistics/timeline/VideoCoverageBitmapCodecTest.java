@@ -0,0 +1,66 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static com.amazonaws.videoanalytics.videologistics.timeline.VideoCoverageBitmapCodec.SECONDS_PER_DAY;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VideoCoverageBitmapCodecTest {
+
+    @Test
+    public void encode_continuousRecording_storesRunLengths() {
+        BitSet coverage = new BitSet(SECONDS_PER_DAY);
+        coverage.set(3600, 7200);
+
+        byte[] encoded = VideoCoverageBitmapCodec.encode(coverage);
+
+        // format, then 3600 and 3600 as two byte varints
+        assertArrayEquals(new byte[] {0, (byte) 0x90, 0x1C, (byte) 0x90, 0x1C}, encoded);
+        assertEquals(coverage, VideoCoverageBitmapCodec.decode(encoded));
+    }
+
+    @Test
+    public void encode_recordingWithGaps_roundTrips() {
+        BitSet coverage = new BitSet(SECONDS_PER_DAY);
+        for (int second = 0; second < SECONDS_PER_DAY; second += 600) {
+            coverage.set(second, second + 570);
+        }
+
+        byte[] encoded = VideoCoverageBitmapCodec.encode(coverage);
+
+        assertTrue(encoded.length < 1000);
+        assertEquals(coverage, VideoCoverageBitmapCodec.decode(encoded));
+    }
+
+    @Test
+    public void encode_fragmentedRecording_storesBits() {
+        BitSet coverage = new BitSet(SECONDS_PER_DAY);
+        for (int second = 0; second < SECONDS_PER_DAY; second += 2) {
+            coverage.set(second);
+        }
+
+        byte[] encoded = VideoCoverageBitmapCodec.encode(coverage);
+
+        assertEquals(1 + SECONDS_PER_DAY / 8, encoded.length);
+        assertEquals(coverage, VideoCoverageBitmapCodec.decode(encoded));
+    }
+
+    @Test
+    public void encode_noRecording_roundTrips() {
+        byte[] encoded = VideoCoverageBitmapCodec.encode(new BitSet(SECONDS_PER_DAY));
+
+        assertArrayEquals(new byte[] {0}, encoded);
+        assertTrue(VideoCoverageBitmapCodec.decode(encoded).isEmpty());
+        assertTrue(VideoCoverageBitmapCodec.decode(null).isEmpty());
+    }
+
+    @Test
+    public void decode_unknownFormat_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> VideoCoverageBitmapCodec.decode(new byte[] {7, 1}));
+    }
+}
@@ -1,34 +1,50 @@
 package com.amazonaws.videoanalytics.videologistics.timeline;
 
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.CompactedVideoTimelineDAO;
 import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.RawVideoTimelineDAO;
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.VideoCoverageDAO;
 import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.VideoTimelineDAO;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.RawVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoDensityLocation;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.events.KinesisEvent;
+import com.amazonaws.services.lambda.runtime.events.StreamsEventResponse;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Rule;
 import org.junit.contrib.java.lang.system.EnvironmentVariables;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.RAW_PARTITION_KEY;
 import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.RAW_SORT_KEY;
 import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.RAW_VIDEO_TIMELINE_PARTITION_KEY;
 import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.TIMESTAMP;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -38,14 +54,27 @@ public class VideoDensityUpdateLambdaTest {
     private static final Long DURATION_IN_MILLIS = 60000L;
     private static final Long TIMESTAMP_VALUE = 1696444408000L;
     private static final String DEVICE_ID = "d234";
+    private static final String SHARD_ID = "shardId-000000000000";
     
     @Mock
     private VideoTimelineDAO videoTimelineDAO;
     @Mock
+    private VideoCoverageDAO videoCoverageDAO;
+    @Mock
+    private CompactedVideoTimelineDAO compactedVideoTimelineDAO;
+    @Mock
     private Context context;
     @Mock
     private TimelineKDSMetadataSerDe timelineKDSMetadataSerDe;
 
+    @Spy
+    private VideoTimelineAggregator videoTimelineAggregator = new VideoTimelineAggregator(new VideoTimelineUtils());
+
+    @Captor
+    private ArgumentCaptor<VideoDensityDelta> videoDensityDeltaCaptor;
+    @Captor
+    private ArgumentCaptor<VideoCoverageDelta> videoCoverageDeltaCaptor;
+
     @Rule
     public final EnvironmentVariables environmentVariables = new EnvironmentVariables();
     
@@ -55,6 +84,8 @@ public class VideoDensityUpdateLambdaTest {
     private static final ObjectMapper objectMapper = new ObjectMapper();
     private static final TimelineKDSMetadataSerDe deserializer = new TimelineKDSMetadataSerDe(objectMapper);
     private static final String TIMELINE_KDS_DATA_1 = "{\"deviceId\":\"device_001\",\"timeIncrementUnits\":\"SECONDS\",\"bucketStartTime\":1622505600000,\"timestampToBeStored\":1622505660000,\"durationInMillis\":60000,\"videoDensityLocation\":\"CLOUD\",\"isCatchup\":true}";
+    // 2.5s of video from 2021-06-01T00:00:02.500Z, in seconds 2 to 4 of the day
+    private static final String TIMELINE_KDS_DATA_IN_BUCKET = "{\"deviceId\":\"device_001\",\"timeIncrementUnits\":\"SECONDS\",\"bucketStartTime\":1622505600000,\"timestampToBeStored\":1622505602500,\"durationInMillis\":2500,\"videoDensityLocation\":\"DEVICE\",\"isCatchup\":false}";
     private static final String TIMELINE_KDS_DATA_2 = "{\"deviceId\":\"device_001\",\"timeIncrementUnits\":\"SECONDS\",\"bucketStartTime\":1622505605000,\"timestampToBeStored\":1622505660000,\"durationInMillis\":60000,\"videoDensityLocation\":\"CLOUD\",\"isCatchup\":true}";
 
     @BeforeEach
@@ -63,26 +94,231 @@ public class VideoDensityUpdateLambdaTest {
         environmentVariables.set(RAW_PARTITION_KEY, RAW_VIDEO_TIMELINE_PARTITION_KEY);
         environmentVariables.set(RAW_SORT_KEY, TIMESTAMP);
         objectMapper.configure(JsonParser.Feature.ALLOW_SINGLE_QUOTES, true);
+        when(videoTimelineDAO.save(any(VideoDensityDelta.class))).thenReturn(true);
+        when(videoCoverageDAO.save(any(VideoCoverageDelta.class))).thenReturn(true);
     }
 
     @Test
-    public void handleRequest_validKinesisEvents_saveTimelineTwice() {
+    public void handleRequest_validKinesisEvents_savesSecondsAndRolledUpBuckets() {
         KinesisEvent event = createKinesisEvent(List.of(TIMELINE_KDS_DATA_1, TIMELINE_KDS_DATA_2));
         when(timelineKDSMetadataSerDe.deserialize(anyString()))
                 .thenReturn(deserializer.deserialize(TIMELINE_KDS_DATA_1))
                 .thenReturn(deserializer.deserialize(TIMELINE_KDS_DATA_2));
 
+        StreamsEventResponse response = videoDensityUpdateLambda.handleRequest(event, context);
+        // two SECONDS buckets of the same minute, plus their MINUTES, HOURS and DAYS buckets
+        verify(videoTimelineDAO, times(5)).save(any(VideoDensityDelta.class));
+        assertNull(response);
+    }
+
+    @Test
+    public void handleRequest_recordsForSameBucket_coalescedIntoOneSave() {
+        String cloudRecord = TIMELINE_KDS_DATA_1.replace("\"isCatchup\":true", "\"isCatchup\":false");
+        String deviceRecord = cloudRecord.replace("CLOUD", "DEVICE");
+        KinesisEvent event = createKinesisEvent(List.of(cloudRecord, cloudRecord, deviceRecord, TIMELINE_KDS_DATA_2));
+        when(timelineKDSMetadataSerDe.deserialize(anyString()))
+                .thenAnswer(invocation -> deserializer.deserialize(invocation.getArgument(0)));
+
         videoDensityUpdateLambda.handleRequest(event, context);
-        verify(videoTimelineDAO, times(2)).save(any());
+
+        verify(videoTimelineDAO, times(5)).save(videoDensityDeltaCaptor.capture());
+        VideoDensityDelta firstBucket = videoDensityDeltaCaptor.getAllValues().get(0);
+        assertEquals(1622505600000L, firstBucket.getBucketStartTime());
+        assertEquals(2 * DURATION_IN_MILLIS, firstBucket.getCloudDensityDelta());
+        assertEquals(DURATION_IN_MILLIS, firstBucket.getDeviceDensityDelta());
+        VideoDensityDelta minuteBucket = videoDensityDeltaCaptor.getAllValues().get(1);
+        assertEquals(TimeIncrementUnits.MINUTES, minuteBucket.getTimeIncrementUnits());
+        assertEquals(3 * DURATION_IN_MILLIS, minuteBucket.getCloudDensityDelta());
+        assertEquals(0L, minuteBucket.getDeviceDensityDelta());
+        VideoDensityDelta secondBucket = videoDensityDeltaCaptor.getAllValues().get(4);
+        assertEquals(1622505605000L, secondBucket.getBucketStartTime());
+        assertEquals(DURATION_IN_MILLIS, secondBucket.getCloudDensityDelta());
+        assertEquals(-DURATION_IN_MILLIS, secondBucket.getDeviceDensityDelta());
     }
 
     @Test
-    public void handleRequest_deserializationFails_throwsException() {
-        KinesisEvent event = createKinesisEvent(List.of(TIMELINE_KDS_DATA_1, TIMELINE_KDS_DATA_2));
-        when(timelineKDSMetadataSerDe.deserialize(TIMELINE_KDS_DATA_1))
+    public void handleRequest_deserializationFails_reportsRemainingRecordsAsFailures() {
+        KinesisEvent event = createKinesisEvent(List.of(TIMELINE_KDS_DATA_1, TIMELINE_KDS_DATA_2, TIMELINE_KDS_DATA_1));
+        when(timelineKDSMetadataSerDe.deserialize(anyString()))
+                .thenReturn(deserializer.deserialize(TIMELINE_KDS_DATA_1))
                 .thenThrow(new RuntimeException("Deserialization failed"));
 
-        assertThrows(RuntimeException.class, () -> videoDensityUpdateLambda.handleRequest(event, context));
+        StreamsEventResponse response = videoDensityUpdateLambda.handleRequest(event, context);
+
+        verify(videoTimelineDAO, times(4)).save(any(VideoDensityDelta.class));
+        assertEquals(List.of("2", "3"), getFailedSequenceNumbers(response));
+    }
+
+    @Test
+    public void handleRequest_saveFails_reportsFirstRecordOfBucket() {
+        KinesisEvent event = createKinesisEvent(List.of(TIMELINE_KDS_DATA_1, TIMELINE_KDS_DATA_2, TIMELINE_KDS_DATA_2));
+        when(timelineKDSMetadataSerDe.deserialize(anyString()))
+                .thenAnswer(invocation -> deserializer.deserialize(invocation.getArgument(0)));
+        when(videoTimelineDAO.save(argThat((VideoDensityDelta delta) -> delta != null && delta.getBucketStartTime() == 1622505605000L)))
+                .thenThrow(new RuntimeException("Throttled"));
+
+        StreamsEventResponse response = videoDensityUpdateLambda.handleRequest(event, context);
+
+        verify(videoTimelineDAO, times(5)).save(any(VideoDensityDelta.class));
+        assertEquals(List.of("2"), getFailedSequenceNumbers(response));
+    }
+
+    @Test
+    public void handleRequest_replayedRecords_onlyNewRecordsApplied() {
+        KinesisEvent event = createKinesisEvent(List.of(TIMELINE_KDS_DATA_1, TIMELINE_KDS_DATA_1, TIMELINE_KDS_DATA_1));
+        when(timelineKDSMetadataSerDe.deserialize(anyString()))
+                .thenAnswer(invocation -> deserializer.deserialize(invocation.getArgument(0)));
+        when(videoTimelineDAO.save(any(VideoDensityDelta.class)))
+                .thenReturn(false)
+                .thenReturn(true);
+        when(videoTimelineDAO.getSequenceWatermark(any(), any(), any(), eq(SHARD_ID)))
+                .thenReturn(Optional.of(VideoDensityDelta.toSortableSequenceNumber("2")));
+
+        StreamsEventResponse response = videoDensityUpdateLambda.handleRequest(event, context);
+
+        verify(videoTimelineDAO, times(5)).save(videoDensityDeltaCaptor.capture());
+        VideoDensityDelta replayed = videoDensityDeltaCaptor.getAllValues().get(1);
+        assertEquals(DURATION_IN_MILLIS, replayed.getCloudDensityDelta());
+        assertEquals("3", replayed.getFirstKinesisSequenceNumber());
+        assertNull(response);
+    }
+
+    @Test
+    public void handleRequest_catchUpRecord_rolledUpIntoEveryCoarserUnit() {
+        KinesisEvent event = createKinesisEvent(List.of(TIMELINE_KDS_DATA_2));
+        when(timelineKDSMetadataSerDe.deserialize(anyString()))
+                .thenAnswer(invocation -> deserializer.deserialize(invocation.getArgument(0)));
+
+        videoDensityUpdateLambda.handleRequest(event, context);
+
+        verify(videoTimelineDAO, times(4)).save(videoDensityDeltaCaptor.capture());
+        List<VideoDensityDelta> deltas = videoDensityDeltaCaptor.getAllValues();
+        assertEquals(List.of(TimeIncrementUnits.SECONDS, TimeIncrementUnits.MINUTES, TimeIncrementUnits.HOURS,
+                TimeIncrementUnits.DAYS), deltas.stream().map(VideoDensityDelta::getTimeIncrementUnits)
+                .collect(Collectors.toList()));
+        // 2021-06-01T00:00:05Z is in the first minute, hour and day of 2021-06-01
+        assertEquals(List.of(1622505605000L, 1622505600000L, 1622505600000L, 1622505600000L),
+                deltas.stream().map(VideoDensityDelta::getBucketStartTime).collect(Collectors.toList()));
+        for (VideoDensityDelta delta : deltas) {
+            assertEquals(DURATION_IN_MILLIS, delta.getCloudDensityDelta());
+            assertEquals(-DURATION_IN_MILLIS, delta.getDeviceDensityDelta());
+        }
+    }
+
+    @Test
+    public void handleRequest_coarserUnitRecord_notRolledUp() {
+        KinesisEvent event = createKinesisEvent(List.of(TIMELINE_KDS_DATA_1.replace("SECONDS", "HOURS")));
+        when(timelineKDSMetadataSerDe.deserialize(anyString()))
+                .thenAnswer(invocation -> deserializer.deserialize(invocation.getArgument(0)));
+
+        videoDensityUpdateLambda.handleRequest(event, context);
+
+        verify(videoTimelineDAO, times(1)).save(videoDensityDeltaCaptor.capture());
+        assertEquals(TimeIncrementUnits.HOURS, videoDensityDeltaCaptor.getValue().getTimeIncrementUnits());
+    }
+
+    @Test
+    public void handleRequest_recordsForSameDay_mergedIntoOneCoverageUpdate() {
+        String cloudRecord = TIMELINE_KDS_DATA_IN_BUCKET.replace("DEVICE", "CLOUD")
+                .replace("1622505602500", "1622505600000");
+        String catchUpRecord = TIMELINE_KDS_DATA_IN_BUCKET.replace("\"isCatchup\":false", "\"isCatchup\":true")
+                .replace("\"durationInMillis\":2500", "\"durationInMillis\":1000");
+        KinesisEvent event = createKinesisEvent(List.of(TIMELINE_KDS_DATA_IN_BUCKET, cloudRecord, catchUpRecord));
+        when(timelineKDSMetadataSerDe.deserialize(anyString()))
+                .thenAnswer(invocation -> deserializer.deserialize(invocation.getArgument(0)));
+
+        StreamsEventResponse response = videoDensityUpdateLambda.handleRequest(event, context);
+
+        verify(videoCoverageDAO, times(1)).save(videoCoverageDeltaCaptor.capture());
+        VideoCoverageDelta videoCoverageDelta = videoCoverageDeltaCaptor.getValue();
+        assertEquals(1622505600000L, videoCoverageDelta.getDayStartTime());
+        assertEquals(bitSet(0, 4), videoCoverageDelta.getCloudRecorded());
+        // the catch up of seconds 2 and 3 moves them from device to cloud
+        assertEquals(bitSet(4, 5), videoCoverageDelta.getDeviceRecorded());
+        assertEquals(bitSet(2, 4), videoCoverageDelta.getDeviceRemoved());
+        assertNull(response);
+    }
+
+    @Test
+    public void handleRequest_recordOutsideOfItsBucket_noCoverageUpdate() {
+        KinesisEvent event = createKinesisEvent(List.of(TIMELINE_KDS_DATA_1));
+        when(timelineKDSMetadataSerDe.deserialize(anyString()))
+                .thenAnswer(invocation -> deserializer.deserialize(invocation.getArgument(0)));
+
+        videoDensityUpdateLambda.handleRequest(event, context);
+
+        verify(videoCoverageDAO, never()).save(any(VideoCoverageDelta.class));
+    }
+
+    @Test
+    public void handleRequest_coverageUpdateConflicts_reportsFirstRecordOfDay() {
+        KinesisEvent event = createKinesisEvent(List.of(TIMELINE_KDS_DATA_1, TIMELINE_KDS_DATA_IN_BUCKET));
+        when(timelineKDSMetadataSerDe.deserialize(anyString()))
+                .thenAnswer(invocation -> deserializer.deserialize(invocation.getArgument(0)));
+        when(videoCoverageDAO.save(any(VideoCoverageDelta.class))).thenReturn(false);
+
+        StreamsEventResponse response = videoDensityUpdateLambda.handleRequest(event, context);
+
+        verify(videoCoverageDAO, times(3)).save(any(VideoCoverageDelta.class));
+        assertEquals(List.of("1"), getFailedSequenceNumbers(response));
+    }
+
+    @Test
+    public void handleRequest_recordsForClosedHours_invalidatesAndQueuesEveryHourOfTheRecord() {
+        // 2s of video from 2021-06-01T00:59:59Z, running into the next hour
+        String record = TIMELINE_KDS_DATA_IN_BUCKET.replace("1622505602500", "1622509199000")
+                .replace("\"durationInMillis\":2500", "\"durationInMillis\":2000");
+        KinesisEvent event = createKinesisEvent(List.of(record, record));
+        when(timelineKDSMetadataSerDe.deserialize(anyString()))
+                .thenAnswer(invocation -> deserializer.deserialize(invocation.getArgument(0)));
+
+        StreamsEventResponse response = videoDensityUpdateLambda.handleRequest(event, context);
+
+        assertNull(response);
+        for (long hourStartTime : List.of(1622505600000L, 1622509200000L)) {
+            verify(compactedVideoTimelineDAO).invalidate(eq("device_001"), eq(hourStartTime), anyLong());
+            verify(compactedVideoTimelineDAO).enqueueCompaction("device_001", hourStartTime);
+        }
+    }
+
+    @Test
+    public void handleRequest_recordsForOpenHour_queuedOncePerContainer() {
+        long now = System.currentTimeMillis();
+        String record = TIMELINE_KDS_DATA_IN_BUCKET.replace("1622505602500", Long.toString(now))
+                .replace("\"durationInMillis\":2500", "\"durationInMillis\":1");
+        when(timelineKDSMetadataSerDe.deserialize(anyString()))
+                .thenAnswer(invocation -> deserializer.deserialize(invocation.getArgument(0)));
+
+        videoDensityUpdateLambda.handleRequest(createKinesisEvent(List.of(record)), context);
+        videoDensityUpdateLambda.handleRequest(createKinesisEvent(List.of(record)), context);
+
+        verify(compactedVideoTimelineDAO, times(1)).enqueueCompaction("device_001", now - now % 3600000L);
+        verify(compactedVideoTimelineDAO, never()).invalidate(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void handleRequest_compactionQueueFails_reportsFirstRecordOfHour() {
+        KinesisEvent event = createKinesisEvent(List.of(TIMELINE_KDS_DATA_1, TIMELINE_KDS_DATA_IN_BUCKET));
+        when(timelineKDSMetadataSerDe.deserialize(anyString()))
+                .thenAnswer(invocation -> deserializer.deserialize(invocation.getArgument(0)));
+        doThrow(new RuntimeException("Throttled")).when(compactedVideoTimelineDAO)
+                .enqueueCompaction(anyString(), anyLong());
+
+        StreamsEventResponse response = videoDensityUpdateLambda.handleRequest(event, context);
+
+        assertEquals(List.of("1"), getFailedSequenceNumbers(response));
+    }
+
+    private static BitSet bitSet(int fromIndex, int toIndex) {
+        BitSet bitSet = new BitSet();
+        bitSet.set(fromIndex, toIndex);
+        return bitSet;
+    }
+
+    private static List<String> getFailedSequenceNumbers(StreamsEventResponse response) {
+        return response.getBatchItemFailures().stream()
+                .map(StreamsEventResponse.BatchItemFailure::getItemIdentifier)
+                .collect(Collectors.toList());
     }
 
     private KinesisEvent createKinesisEvent(List<String> timelineJsonList) {
@@ -100,6 +336,7 @@ public class VideoDensityUpdateLambdaTest {
             kinesisRecord.setApproximateArrivalTimestamp(new Date());
 
             record.setKinesis(kinesisRecord);
+            record.setEventID(SHARD_ID + ":" + kinesisRecord.getSequenceNumber());
             records.add(record);
         }
 
@@ -0,0 +1,153 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.videoanalytics.videologistics.SeekDirection;
+import com.amazonaws.videoanalytics.videologistics.Timeline;
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.RawVideoTimelineDAO;
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.VideoCoverageDAO;
+import com.amazonaws.videoanalytics.videologistics.helper.ddb.DynamoDbEnhancedLocalExtension;
+import com.amazonaws.videoanalytics.videologistics.helper.ddb.Table;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.RawVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoDensityLocation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.RAW_VIDEO_TIMELINE_TABLE_NAME;
+import static com.amazonaws.videoanalytics.videologistics.schema.SchemaConst.VIDEO_TIMELINE_TABLE_NAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(DynamoDbEnhancedLocalExtension.class)
+public class VideoRecordingSeekerTest {
+    private static final String DEVICE_ID = "device123";
+    // 2023-10-04T00:00:00Z
+    private static final long DAY_START_TIME = 1696377600000L;
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+    private static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+    private static final long FRAGMENT_DURATION = 5000L;
+
+    private final VideoTimelineUtils videoTimelineUtils = new VideoTimelineUtils();
+    private final DynamoDbTable<RawVideoTimeline> rawVideoTimelineTable;
+    private final VideoCoverageDAO videoCoverageDAO;
+    private final VideoRecordingSeeker videoRecordingSeeker;
+
+    public VideoRecordingSeekerTest(
+            final DynamoDbEnhancedClient ddbClient,
+            final DynamoDbClient dynamoDbClient,
+            @Table(tableName = VIDEO_TIMELINE_TABLE_NAME) final DynamoDbTable<AggregateVideoTimeline> videoTimelineTable,
+            @Table(tableName = RAW_VIDEO_TIMELINE_TABLE_NAME) final DynamoDbTable<RawVideoTimeline> rawVideoTimelineTable) {
+        this.rawVideoTimelineTable = rawVideoTimelineTable;
+        this.videoCoverageDAO = spy(new VideoCoverageDAO(dynamoDbClient, videoTimelineTable, videoTimelineUtils,
+                new VideoTimelineAggregator(videoTimelineUtils)));
+        this.videoRecordingSeeker = new VideoRecordingSeeker(videoCoverageDAO,
+                new RawVideoTimelineDAO(ddbClient, rawVideoTimelineTable, videoTimelineUtils, millis -> { }));
+    }
+
+    @Test
+    public void seek_nextFromGap_returnsFollowingSegment() {
+        record(DAY_START_TIME + HOUR_MILLIS + 300L, 10 * 60 * 1000L);
+
+        Optional<Timeline> recording = videoRecordingSeeker.seek(DEVICE_ID, DAY_START_TIME, SeekDirection.NEXT);
+
+        assertEquals(Optional.of(timeline(DAY_START_TIME + HOUR_MILLIS + 300L,
+                DAY_START_TIME + HOUR_MILLIS + 10 * 60 * 1000L + 300L)), recording);
+    }
+
+    @Test
+    public void seek_nextFromSegment_skipsDaysWithoutVideo() {
+        record(DAY_START_TIME + HOUR_MILLIS, HOUR_MILLIS);
+        record(DAY_START_TIME + 3 * DAY_MILLIS + 2 * HOUR_MILLIS + 1234L, 60 * 1000L);
+
+        Optional<Timeline> recording = videoRecordingSeeker.seek(DEVICE_ID, DAY_START_TIME + HOUR_MILLIS + 1000L,
+                SeekDirection.NEXT);
+
+        assertEquals(Optional.of(timeline(DAY_START_TIME + 3 * DAY_MILLIS + 2 * HOUR_MILLIS + 1234L,
+                DAY_START_TIME + 3 * DAY_MILLIS + 2 * HOUR_MILLIS + 61234L)), recording);
+        verify(videoCoverageDAO, times(1)).getAdjacentVideoCoverage(anyString(), anyLong(), anyBoolean());
+    }
+
+    @Test
+    public void seek_previousFromSegment_returnsContainingSegment() {
+        record(DAY_START_TIME + HOUR_MILLIS, 20 * 1000L);
+        record(DAY_START_TIME + 2 * HOUR_MILLIS + 700L, 30 * 1000L);
+
+        Optional<Timeline> recording = videoRecordingSeeker.seek(DEVICE_ID, DAY_START_TIME + 2 * HOUR_MILLIS + 10000L,
+                SeekDirection.PREVIOUS);
+
+        assertEquals(Optional.of(timeline(DAY_START_TIME + 2 * HOUR_MILLIS + 700L,
+                DAY_START_TIME + 2 * HOUR_MILLIS + 30700L)), recording);
+    }
+
+    @Test
+    public void seek_previousFromLaterDay_returnsSegmentAcrossMidnight() {
+        record(DAY_START_TIME + DAY_MILLIS - 30 * 1000L, 60 * 1000L);
+
+        Optional<Timeline> recording = videoRecordingSeeker.seek(DEVICE_ID, DAY_START_TIME + 5 * DAY_MILLIS,
+                SeekDirection.PREVIOUS);
+
+        assertEquals(Optional.of(timeline(DAY_START_TIME + DAY_MILLIS - 30 * 1000L,
+                DAY_START_TIME + DAY_MILLIS + 30 * 1000L)), recording);
+        assertEquals(recording, videoRecordingSeeker.seek(DEVICE_ID, DAY_START_TIME, SeekDirection.NEXT));
+    }
+
+    @Test
+    public void seek_noRecording_returnsEmpty() {
+        record(DAY_START_TIME + HOUR_MILLIS, 20 * 1000L);
+
+        assertTrue(videoRecordingSeeker.seek(DEVICE_ID, DAY_START_TIME + 2 * HOUR_MILLIS, SeekDirection.NEXT)
+                .isEmpty());
+        assertTrue(videoRecordingSeeker.seek(DEVICE_ID, DAY_START_TIME + HOUR_MILLIS - 1000L, SeekDirection.PREVIOUS)
+                .isEmpty());
+    }
+
+    /**
+     * Stores the raw timelines and coverage of continuous cloud video, as ingested in fragments of 5s
+     */
+    private void record(final long startTime, final long durationInMillis) {
+        long endTime = startTime + durationInMillis;
+        for (long fragmentStartTime = startTime; fragmentStartTime < endTime; fragmentStartTime += FRAGMENT_DURATION) {
+            rawVideoTimelineTable.putItem(RawVideoTimeline.builder()
+                    .deviceId(videoTimelineUtils.generateRawPartitionKey(DEVICE_ID))
+                    .timestamp(fragmentStartTime)
+                    .durationInMillis(Math.min(FRAGMENT_DURATION, endTime - fragmentStartTime))
+                    .location(VideoDensityLocation.CLOUD)
+                    .build());
+        }
+
+        Map<String, VideoCoverageDelta> deltas = new LinkedHashMap<>();
+        for (long bucketStartTime = startTime - startTime % FRAGMENT_DURATION; bucketStartTime < endTime;
+             bucketStartTime += FRAGMENT_DURATION) {
+            long timestampToBeStored = Math.max(bucketStartTime, startTime);
+            VideoCoverageDelta delta = VideoCoverageDelta.fromKinesisRecord(new TimelineKDSMetadata(DEVICE_ID,
+                    TimeIncrementUnits.SECONDS, bucketStartTime, timestampToBeStored,
+                    Math.min(FRAGMENT_DURATION, endTime - timestampToBeStored), VideoDensityLocation.CLOUD, false),
+                    "1");
+            deltas.merge(delta.getCoverageKey(), delta, (merged, next) -> {
+                merged.merge(next);
+                return merged;
+            });
+        }
+        deltas.values().forEach(videoCoverageDAO::save);
+    }
+
+    private static Timeline timeline(final long startTime, final long endTime) {
+        return Timeline.builder()
+                .startTime((double) startTime)
+                .endTime((double) endTime)
+                .build();
+    }
+}
@@ -9,11 +9,14 @@ import org.junit.jupiter.api.Test;
 import org.mockito.MockitoAnnotations;
 
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.List;
 import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class VideoTimelineAggregatorTest {
     private static final VideoTimelineUtils VIDEO_TIMELINE_UTILS = new VideoTimelineUtils();
@@ -153,4 +156,34 @@ public class VideoTimelineAggregatorTest {
         assertEquals(10000L, result.getDeviceDensityInMillis());
         assertEquals("1234#d123#HOURS", result.getDeviceIdTimeUnit());
     }
+
+    @Test
+    public void rollUp_secondsCatchUpDelta_matchesDirectAggregationIntoEachUnit() {
+        long bucketStartTime = 1696444405000L;
+        VideoDensityDelta secondsDelta = VideoDensityDelta.fromKinesisRecord(new TimelineKDSMetadata("d123",
+                TimeIncrementUnits.SECONDS, bucketStartTime, bucketStartTime, 4000L,
+                VideoDensityLocation.CLOUD, true), "shardId-000000000000", "42");
+
+        // 2023-10-04T18:33:25Z rolls up into 18:33:00, 18:00:00 and 2023-10-04T00:00:00Z
+        Map<TimeIncrementUnits, Long> expectedBucketStartTimes = new LinkedHashMap<>();
+        expectedBucketStartTimes.put(TimeIncrementUnits.MINUTES, 1696444380000L);
+        expectedBucketStartTimes.put(TimeIncrementUnits.HOURS, 1696442400000L);
+        expectedBucketStartTimes.put(TimeIncrementUnits.DAYS, 1696377600000L);
+
+        VideoDensityDelta delta = secondsDelta;
+        for (Map.Entry<TimeIncrementUnits, Long> expectedBucket : expectedBucketStartTimes.entrySet()) {
+            delta = videoTimelineAggregator.rollUp(delta).orElseThrow();
+            AggregateVideoTimeline expected = videoTimelineAggregator.getUpdatedVideoTimeline(expectedBucket.getKey(),
+                    expectedBucket.getValue(), 4000L, "d123#" + expectedBucket.getKey(),
+                    videoTimelineBuilder(1000L, 6000L), VideoDensityLocation.CLOUD, true);
+
+            assertEquals(expectedBucket.getKey(), delta.getTimeIncrementUnits());
+            assertEquals(expectedBucket.getValue(), delta.getBucketStartTime());
+            assertEquals(expected.getCloudDensityInMillis(), 1000L + delta.getCloudDensityDelta());
+            assertEquals(expected.getDeviceDensityInMillis(), 6000L + delta.getDeviceDensityDelta());
+            assertEquals(secondsDelta.getShardId(), delta.getShardId());
+            assertEquals(secondsDelta.getFirstSequenceNumber(), delta.getFirstSequenceNumber());
+        }
+        assertTrue(videoTimelineAggregator.rollUp(delta).isEmpty());
+    }
 }
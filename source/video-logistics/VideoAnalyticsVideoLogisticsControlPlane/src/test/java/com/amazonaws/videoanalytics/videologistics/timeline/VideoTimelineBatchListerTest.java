@@ -0,0 +1,134 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.videoanalytics.videologistics.DeviceVideoTimelines;
+import com.amazonaws.videoanalytics.videologistics.VideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.VideoTimelineDAO;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.PaginatedListResponse;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class VideoTimelineBatchListerTest {
+    private static final Date START_TIME = new Date(1696377600000L);
+    private static final Date END_TIME = new Date(1696381200000L);
+    private static final Long TIME_INCREMENT_MILLIS = 60 * 1000L;
+
+    @Mock
+    private VideoTimelineDAO videoTimelineDAO;
+
+    private ExecutorService batchExecutor;
+    private VideoTimelineBatchLister videoTimelineBatchLister;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        batchExecutor = Executors.newFixedThreadPool(4);
+        videoTimelineBatchLister = new VideoTimelineBatchLister(videoTimelineDAO, batchExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchExecutor.shutdownNow();
+    }
+
+    @Test
+    void listVideoTimelines_DeviceFails_ReturnsErrorOfDeviceOnly() {
+        List<VideoTimeline> videoTimelines = List.of(VideoTimeline.builder().cloudDensity(0.5f).build());
+        when(videoTimelineDAO.listVideoTimelines(eq("camera1"), any(), any(), any(), any(), any(), anyLong()))
+                .thenReturn(new PaginatedListResponse<>(videoTimelines, "next_token"));
+        when(videoTimelineDAO.listVideoTimelines(eq("camera2"), any(), any(), any(), any(), any(), anyLong()))
+                .thenThrow(new RuntimeException("Throttled"));
+
+        List<DeviceVideoTimelines> deviceVideoTimelines = videoTimelineBatchLister.listVideoTimelines(
+                List.of("camera1", "camera2"), START_TIME, END_TIME, TIME_INCREMENT_MILLIS,
+                TimeIncrementUnits.MINUTES);
+
+        assertEquals(List.of(
+                DeviceVideoTimelines.builder()
+                        .deviceId("camera1")
+                        .videoTimelines(videoTimelines)
+                        .nextToken("next_token")
+                        .build(),
+                DeviceVideoTimelines.builder()
+                        .deviceId("camera2")
+                        .errorMessage("Throttled")
+                        .build()), deviceVideoTimelines);
+        assertNull(deviceVideoTimelines.get(1).getVideoTimelines());
+    }
+
+    @Test
+    void listVideoTimelines_Devices_ListedConcurrentlyInRequestOrder() throws InterruptedException {
+        // every device waits for all others, which only completes if they are listed at the same time
+        CountDownLatch listing = new CountDownLatch(4);
+        when(videoTimelineDAO.listVideoTimelines(any(), eq(START_TIME), eq(END_TIME), eq(TIME_INCREMENT_MILLIS),
+                eq(TimeIncrementUnits.MINUTES), eq(null), anyLong())).thenAnswer(invocation -> {
+                    listing.countDown();
+                    assertTrue(listing.await(10, TimeUnit.SECONDS));
+                    return new PaginatedListResponse<>(List.of(), null);
+                });
+
+        List<DeviceVideoTimelines> deviceVideoTimelines = videoTimelineBatchLister.listVideoTimelines(
+                List.of("camera4", "camera2", "camera3", "camera2", "camera1"), START_TIME, END_TIME,
+                TIME_INCREMENT_MILLIS, TimeIncrementUnits.MINUTES);
+
+        assertEquals(List.of("camera4", "camera2", "camera3", "camera1"),
+                deviceVideoTimelines.stream().map(DeviceVideoTimelines::getDeviceId).toList());
+        verify(videoTimelineDAO, times(4)).listVideoTimelines(any(), any(), any(), any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void listVideoTimelines_MaxDevices_ShareResponseBudget() {
+        List<String> deviceIds = IntStream.range(0, 64).mapToObj(i -> "camera" + i).collect(Collectors.toList());
+        long maxPeriods = VideoTimelineBatchLister.MAX_VIDEO_TIMELINES_PER_RESPONSE / deviceIds.size();
+        // a day of minutes is more than the share of each device, which is returned a next token for the rest
+        Date endTime = new Date(START_TIME.getTime() + 24 * 60 * TIME_INCREMENT_MILLIS);
+        when(videoTimelineDAO.listVideoTimelines(any(), any(), any(), any(), any(), any(), anyLong()))
+                .thenAnswer(invocation -> new PaginatedListResponse<>(
+                        Collections.nCopies((int) (long) invocation.getArgument(6), VideoTimeline.builder().build()),
+                        "next_token"));
+
+        List<DeviceVideoTimelines> deviceVideoTimelines = videoTimelineBatchLister.listVideoTimelines(deviceIds,
+                START_TIME, endTime, TIME_INCREMENT_MILLIS, TimeIncrementUnits.MINUTES);
+
+        verify(videoTimelineDAO, times(64)).listVideoTimelines(any(), eq(START_TIME), eq(endTime),
+                eq(TIME_INCREMENT_MILLIS), eq(TimeIncrementUnits.MINUTES), eq(null), eq(maxPeriods));
+        assertTrue(deviceVideoTimelines.stream().mapToLong(device -> device.getVideoTimelines().size()).sum()
+                <= VideoTimelineBatchLister.MAX_VIDEO_TIMELINES_PER_RESPONSE);
+        assertTrue(deviceVideoTimelines.stream().allMatch(device -> "next_token".equals(device.getNextToken())));
+    }
+
+    @Test
+    void listVideoTimelines_SingleDevice_WholeBudget() {
+        when(videoTimelineDAO.listVideoTimelines(any(), any(), any(), any(), any(), any(), anyLong()))
+                .thenReturn(new PaginatedListResponse<>(List.of(), null));
+
+        videoTimelineBatchLister.listVideoTimelines(List.of("camera1", "camera1"), START_TIME, END_TIME,
+                TIME_INCREMENT_MILLIS, TimeIncrementUnits.MINUTES);
+
+        verify(videoTimelineDAO).listVideoTimelines(eq("camera1"), any(), any(), any(), any(), any(),
+                eq(VideoTimelineBatchLister.MAX_VIDEO_TIMELINES_PER_RESPONSE));
+    }
+}
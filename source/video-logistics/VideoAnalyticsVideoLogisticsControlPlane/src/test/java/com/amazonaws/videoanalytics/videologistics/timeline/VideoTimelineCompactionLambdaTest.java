@@ -0,0 +1,112 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.videoanalytics.videologistics.Timeline;
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.CompactedVideoTimelineDAO;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.CompactedVideoTimeline;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.ScheduledEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VideoTimelineCompactionLambdaTest {
+    private static final String DEVICE_ID = "dev123";
+    private static final String OTHER_DEVICE_ID = "dev456";
+    // 2023-10-04T00:00:00Z
+    private static final long HOUR_START_TIME = 1696377600000L;
+    private static final long COMPACTED_AT = 1696382000000L;
+    private static final List<Timeline> CLOUD_TIMELINE = List.of(Timeline.builder()
+            .startTime((double) HOUR_START_TIME)
+            .endTime((double) HOUR_START_TIME + 4000L)
+            .build());
+
+    @Mock
+    private CompactedVideoTimelineDAO compactedVideoTimelineDAO;
+    @Mock
+    private DetailedVideoTimelineGenerator detailedVideoTimelineGenerator;
+    @Mock
+    private Context context;
+
+    @InjectMocks
+    private VideoTimelineCompactionLambda videoTimelineCompactionLambda;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(context.getRemainingTimeInMillis()).thenReturn(600000);
+        TreeMap<Long, List<String>> pendingCompactions = new TreeMap<>();
+        pendingCompactions.put(HOUR_START_TIME, List.of(DEVICE_ID, OTHER_DEVICE_ID));
+        when(compactedVideoTimelineDAO.listPendingCompactions(anyLong())).thenReturn(pendingCompactions);
+        when(detailedVideoTimelineGenerator.compact(anyString(), anyLong())).thenAnswer(invocation ->
+                new CompactedVideoTimeline(invocation.getArgument(0), invocation.getArgument(1), CLOUD_TIMELINE,
+                        List.of(), COMPACTED_AT, null));
+        when(compactedVideoTimelineDAO.save(anyString(), anyLong(), any(), any(), anyLong())).thenReturn(true);
+    }
+
+    @Test
+    void handleRequest_pendingHours_dequeuedAndCompacted() {
+        videoTimelineCompactionLambda.handleRequest(new ScheduledEvent(), context);
+
+        InOrder inOrder = inOrder(compactedVideoTimelineDAO, detailedVideoTimelineGenerator);
+        for (String deviceId : List.of(DEVICE_ID, OTHER_DEVICE_ID)) {
+            inOrder.verify(compactedVideoTimelineDAO).dequeueCompaction(deviceId, HOUR_START_TIME);
+            inOrder.verify(detailedVideoTimelineGenerator).compact(deviceId, HOUR_START_TIME);
+            inOrder.verify(compactedVideoTimelineDAO).save(deviceId, HOUR_START_TIME, CLOUD_TIMELINE, List.of(),
+                    COMPACTED_AT);
+        }
+        verify(compactedVideoTimelineDAO, never()).enqueueCompaction(anyString(), anyLong());
+    }
+
+    @Test
+    void handleRequest_hourInvalidatedDuringCompaction_queuedAgain() {
+        when(compactedVideoTimelineDAO.save(eq(DEVICE_ID), anyLong(), any(), any(), anyLong())).thenReturn(false);
+
+        videoTimelineCompactionLambda.handleRequest(new ScheduledEvent(), context);
+
+        verify(compactedVideoTimelineDAO).enqueueCompaction(DEVICE_ID, HOUR_START_TIME);
+        verify(compactedVideoTimelineDAO, never()).enqueueCompaction(OTHER_DEVICE_ID, HOUR_START_TIME);
+    }
+
+    @Test
+    void handleRequest_compactionFails_queuedAgainAndNextHourCompacted() {
+        when(detailedVideoTimelineGenerator.compact(DEVICE_ID, HOUR_START_TIME))
+                .thenThrow(new RuntimeException("Throttled"));
+
+        videoTimelineCompactionLambda.handleRequest(new ScheduledEvent(), context);
+
+        verify(compactedVideoTimelineDAO).enqueueCompaction(DEVICE_ID, HOUR_START_TIME);
+        verify(compactedVideoTimelineDAO).save(OTHER_DEVICE_ID, HOUR_START_TIME, CLOUD_TIMELINE, List.of(),
+                COMPACTED_AT);
+    }
+
+    @Test
+    void handleRequest_lambdaAboutToTimeOut_leavesHoursQueued() {
+        when(context.getRemainingTimeInMillis()).thenReturn(1000);
+
+        videoTimelineCompactionLambda.handleRequest(new ScheduledEvent(), context);
+
+        verify(compactedVideoTimelineDAO, never()).dequeueCompaction(anyString(), anyLong());
+        verify(detailedVideoTimelineGenerator, never()).compact(anyString(), anyLong());
+    }
+
+    @Test
+    void handleRequest_nullEvent_throwsException() {
+        assertThrows(RuntimeException.class, () -> videoTimelineCompactionLambda.handleRequest(null, context));
+    }
+}
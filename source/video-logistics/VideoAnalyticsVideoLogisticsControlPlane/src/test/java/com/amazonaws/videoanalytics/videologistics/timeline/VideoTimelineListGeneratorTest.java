@@ -1,11 +1,13 @@
 package com.amazonaws.videoanalytics.videologistics.timeline;
 
+import com.amazonaws.videoanalytics.videologistics.ColumnarVideoTimelines;
 import com.amazonaws.videoanalytics.videologistics.VideoTimeline;
-import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoTimeline;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.AggregateVideoDensity;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockitoAnnotations;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -62,33 +64,67 @@ public class VideoTimelineListGeneratorTest {
         assertIterableEquals(expectedVideoTimelineList, response);
     }
 
-    private List<AggregateVideoTimeline> buildAggregateVideoTimelineList() {
+    @Test
+    public void buildColumnarVideoTimelines_withValidAggregateTimelines_returnsRunLengthEncodedDensities() {
+        ColumnarVideoTimelines response = VideoTimelineListGenerator.buildColumnarVideoTimelines(
+                buildAggregateVideoTimelineList(),
+                1696444405000L,
+                1696444470000L,
+                10000L
+        );
+
+        // periods 0, 2, 4 and 5 of 7 have video
+        assertIterableEquals(List.of(0, 1, 1, 1, 1, 2, 1), response.getRunLengths());
+        assertIterableEquals(List.of(0.4F, 0.2F, 0.4F, 0.2F), response.getCloudDensities());
+        assertIterableEquals(List.of(0.0F, 0.0F, 0.4F, 0.0F), response.getDeviceDensities());
+    }
+
+    @Test
+    public void buildColumnarVideoTimelines_withValidAggregateTimelines_expandsToDensityList() {
+        List<AggregateVideoDensity> aggregateVideoTimelineList = buildAggregateVideoTimelineList();
+        ColumnarVideoTimelines response = VideoTimelineListGenerator.buildColumnarVideoTimelines(
+                aggregateVideoTimelineList, 1696444400000L, 1696444465000L, 5000L);
+
+        assertIterableEquals(VideoTimelineListGenerator.buildVideoTimelineList(aggregateVideoTimelineList,
+                1696444400000L, 1696444465000L, 5000L), expand(response));
+    }
+
+    @Test
+    public void buildColumnarVideoTimelines_withNoAggregateTimelines_returnsSingleRunWithoutVideo() {
+        ColumnarVideoTimelines response = VideoTimelineListGenerator.buildColumnarVideoTimelines(
+                List.of(), 1696444405000L, 1696444470000L, 10000L);
+
+        assertIterableEquals(List.of(7), response.getRunLengths());
+        assertEquals(0, response.getCloudDensities().size());
+        assertEquals(0, response.getDeviceDensities().size());
+    }
+
+    private List<VideoTimeline> expand(ColumnarVideoTimelines columnarVideoTimelines) {
+        List<VideoTimeline> videoTimelineList = new ArrayList<>();
+        int periodWithVideo = 0;
+        for (int run = 0; run < columnarVideoTimelines.getRunLengths().size(); run++) {
+            for (int i = 0; i < columnarVideoTimelines.getRunLengths().get(run); i++) {
+                if (run % 2 == 0) {
+                    videoTimelineList.add(VideoTimeline.builder().cloudDensity(0F).deviceDensity(0F).build());
+                } else {
+                    videoTimelineList.add(VideoTimeline.builder()
+                            .cloudDensity(columnarVideoTimelines.getCloudDensities().get(periodWithVideo))
+                            .deviceDensity(columnarVideoTimelines.getDeviceDensities().get(periodWithVideo))
+                            .build());
+                    periodWithVideo++;
+                }
+            }
+        }
+        return videoTimelineList;
+    }
+
+    private List<AggregateVideoDensity> buildAggregateVideoTimelineList() {
         return List.of(
-                AggregateVideoTimeline.builder()
-                        .unitTimestamp(1696444405000L)
-                        .cloudDensityInMillis(2000L)
-                        .deviceDensityInMillis(0L)
-                        .build(),
-                AggregateVideoTimeline.builder()
-                        .unitTimestamp(1696444410000L)
-                        .cloudDensityInMillis(2000L)
-                        .deviceDensityInMillis(-900L)
-                        .build(),
-                AggregateVideoTimeline.builder()
-                        .unitTimestamp(1696444430000L)
-                        .cloudDensityInMillis(2000L)
-                        .deviceDensityInMillis(0L)
-                        .build(),
-                AggregateVideoTimeline.builder()
-                        .unitTimestamp(1696444445000L)
-                        .cloudDensityInMillis(4000L)
-                        .deviceDensityInMillis(4000L)
-                        .build(),
-                AggregateVideoTimeline.builder()
-                        .unitTimestamp(1696444455000L)
-                        .cloudDensityInMillis(2000L)
-                        .deviceDensityInMillis(-2350L)
-                        .build()
+                new AggregateVideoDensity(1696444405000L, 2000L, 0L),
+                new AggregateVideoDensity(1696444410000L, 2000L, -900L),
+                new AggregateVideoDensity(1696444430000L, 2000L, 0L),
+                new AggregateVideoDensity(1696444445000L, 4000L, 4000L),
+                new AggregateVideoDensity(1696444455000L, 2000L, -2350L)
         );
     }
 }
\ No newline at end of file
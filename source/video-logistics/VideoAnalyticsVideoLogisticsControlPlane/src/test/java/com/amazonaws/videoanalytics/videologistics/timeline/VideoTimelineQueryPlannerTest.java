@@ -0,0 +1,59 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.TimeIncrementUnits;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class VideoTimelineQueryPlannerTest {
+    // 2023-10-04T00:00:00Z
+    private static final long DAY_START = 1696377600000L;
+    private static final long SECOND = 1000L;
+    private static final long MINUTE = 60 * SECOND;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    private final VideoTimelineQueryPlanner videoTimelineQueryPlanner = new VideoTimelineQueryPlanner();
+
+    @Test
+    public void getStorageUnits_tenMinuteIncrementOverWeek_readsMinutes() {
+        assertEquals(TimeIncrementUnits.MINUTES, videoTimelineQueryPlanner.getStorageUnits(TimeIncrementUnits.SECONDS,
+                DAY_START, DAY_START + 7 * DAY, 10 * MINUTE));
+    }
+
+    @Test
+    public void getStorageUnits_hourlyIncrementRequestedInMinutes_readsHours() {
+        assertEquals(TimeIncrementUnits.HOURS, videoTimelineQueryPlanner.getStorageUnits(TimeIncrementUnits.MINUTES,
+                DAY_START + HOUR, DAY_START + 5 * HOUR, 60 * MINUTE));
+    }
+
+    @Test
+    public void getStorageUnits_dailyIncrementOverUtcDays_readsDays() {
+        assertEquals(TimeIncrementUnits.DAYS, videoTimelineQueryPlanner.getStorageUnits(TimeIncrementUnits.HOURS,
+                DAY_START, DAY_START + 30 * DAY, DAY));
+    }
+
+    @Test
+    public void getStorageUnits_dailyIncrementOffsetFromUtc_readsHours() {
+        assertEquals(TimeIncrementUnits.HOURS, videoTimelineQueryPlanner.getStorageUnits(TimeIncrementUnits.HOURS,
+                DAY_START + 7 * HOUR, DAY_START + 7 * HOUR + 30 * DAY, DAY));
+    }
+
+    @Test
+    public void getStorageUnits_endTimeNotAligned_readsFinerUnit() {
+        assertEquals(TimeIncrementUnits.MINUTES, videoTimelineQueryPlanner.getStorageUnits(TimeIncrementUnits.MINUTES,
+                DAY_START, DAY_START + 90 * MINUTE, HOUR));
+    }
+
+    @Test
+    public void getStorageUnits_incrementNotMultipleOfCoarserUnit_readsRequestedUnit() {
+        assertEquals(TimeIncrementUnits.SECONDS, videoTimelineQueryPlanner.getStorageUnits(TimeIncrementUnits.SECONDS,
+                DAY_START, DAY_START + HOUR, 45 * SECOND));
+    }
+
+    @Test
+    public void getStorageUnits_neverFinerThanRequestedUnit() {
+        assertEquals(TimeIncrementUnits.HOURS, videoTimelineQueryPlanner.getStorageUnits(TimeIncrementUnits.HOURS,
+                DAY_START + HOUR, DAY_START + 3 * HOUR, 30 * MINUTE));
+    }
+}
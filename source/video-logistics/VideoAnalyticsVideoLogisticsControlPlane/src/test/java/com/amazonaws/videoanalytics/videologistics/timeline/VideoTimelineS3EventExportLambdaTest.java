@@ -0,0 +1,198 @@
+package com.amazonaws.videoanalytics.videologistics.timeline;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent;
+import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.RawVideoTimelineDAO;
+import com.amazonaws.videoanalytics.videologistics.helper.s3.InMemoryS3Proxy;
+import com.amazonaws.videoanalytics.videologistics.helper.sqs.InMemorySqsQueue;
+import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoDensityLocation;
+import com.amazonaws.videoanalytics.videologistics.utils.S3BucketRegionalizer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineS3ExportLambda.CHECKPOINT_KEY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VideoTimelineS3EventExportLambdaTest {
+    private static final String TIMELINE_BUCKET = "videoanalytics-timeline-bucket-us-west-2-123456789012";
+    private static final List<TimestampInfo> TIMESTAMPS = List.of(
+            new TimestampInfo(1696444408123L, 4000L),
+            new TimestampInfo(1696444412123L, 4000L)
+    );
+
+    @Mock
+    private RawVideoTimelineDAO rawVideoTimelineDAO;
+    @Mock
+    private S3BucketRegionalizer s3BucketRegionalizer;
+    @Mock
+    private Context context;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BatchTimelineMapper batchTimelineMapper = new BatchTimelineMapper(objectMapper);
+    private InMemoryS3Proxy s3Proxy;
+    private InMemorySqsQueue notificationQueue;
+    private ExecutorService exportExecutor;
+    private VideoTimelineS3EventExportLambda videoTimelineS3EventExportLambda;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        s3Proxy = new InMemoryS3Proxy(1000);
+        notificationQueue = new InMemorySqsQueue(3);
+        s3Proxy.setNotificationQueue(notificationQueue);
+        exportExecutor = Executors.newFixedThreadPool(4);
+        videoTimelineS3EventExportLambda = new VideoTimelineS3EventExportLambda(
+                new VideoTimelineS3Exporter(rawVideoTimelineDAO, batchTimelineMapper, s3Proxy),
+                s3Proxy, s3BucketRegionalizer, objectMapper, exportExecutor);
+        when(s3BucketRegionalizer.getRegionalizedBucketName("videoanalytics-timeline-bucket"))
+                .thenReturn(TIMELINE_BUCKET);
+    }
+
+    @AfterEach
+    void tearDown() {
+        exportExecutor.shutdownNow();
+    }
+
+    @Test
+    void handleRequest_nullEvent_throwsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> videoTimelineS3EventExportLambda.handleRequest(null, context));
+    }
+
+    @Test
+    void handleRequest_notifiedObjects_exportedAndDeleted() {
+        putBatchTimeline("dev1/batch1", "dev1");
+        putBatchTimeline("dev2/batch1", "dev2");
+        // an object that was written before the notification was configured is left to the sweeper
+        s3Proxy.setNotificationQueue(null);
+        putBatchTimeline("dev3/batch1", "dev3");
+
+        SQSEvent event = notificationQueue.receive(10);
+        SQSBatchResponse response = videoTimelineS3EventExportLambda.handleRequest(event, context);
+        notificationQueue.complete(event, response);
+
+        assertNull(response);
+        assertEquals(0, notificationQueue.size());
+        assertEquals(List.of("dev3/batch1"), s3Proxy.getKeys(TIMELINE_BUCKET));
+        verify(rawVideoTimelineDAO, times(1)).saveAll(eq("dev1"), anyList(), eq(VideoDensityLocation.CLOUD.name()));
+        verify(rawVideoTimelineDAO, times(1)).saveAll(eq("dev2"), anyList(), eq(VideoDensityLocation.CLOUD.name()));
+        verify(rawVideoTimelineDAO, never()).saveAll(eq("dev3"), anyList(), any());
+    }
+
+    @Test
+    void handleRequest_saveFails_onlyFailedMessageRedelivered() {
+        putBatchTimeline("dev1/batch1", "dev1");
+        putBatchTimeline("dev2/batch1", "dev2");
+        doThrow(new RuntimeException("Throttled")).when(rawVideoTimelineDAO).saveAll(eq("dev2"), anyList(), any());
+
+        SQSEvent event = notificationQueue.receive(10);
+        SQSBatchResponse response = videoTimelineS3EventExportLambda.handleRequest(event, context);
+        notificationQueue.complete(event, response);
+
+        assertEquals(1, response.getBatchItemFailures().size());
+        assertEquals(1, notificationQueue.size());
+        assertEquals(List.of("dev2/batch1"), s3Proxy.getKeys(TIMELINE_BUCKET));
+
+        doNothing().when(rawVideoTimelineDAO).saveAll(eq("dev2"), anyList(), any());
+        SQSEvent redelivered = notificationQueue.receive(10);
+        notificationQueue.complete(redelivered,
+                videoTimelineS3EventExportLambda.handleRequest(redelivered, context));
+
+        assertEquals(0, notificationQueue.size());
+        assertTrue(s3Proxy.getKeys(TIMELINE_BUCKET).isEmpty());
+        verify(rawVideoTimelineDAO, times(2)).saveAll(eq("dev2"), anyList(), any());
+    }
+
+    @Test
+    void handleRequest_alwaysFails_movedToDeadLetters() {
+        putBatchTimeline("dev1/batch1", "dev1");
+        doThrow(new RuntimeException("Throttled")).when(rawVideoTimelineDAO).saveAll(any(), anyList(), any());
+
+        for (int i = 0; i < 3; i++) {
+            SQSEvent event = notificationQueue.receive(10);
+            notificationQueue.complete(event, videoTimelineS3EventExportLambda.handleRequest(event, context));
+        }
+
+        assertEquals(0, notificationQueue.size());
+        assertEquals(1, notificationQueue.getDeadLetters().size());
+        assertEquals(List.of("dev1/batch1"), s3Proxy.getKeys(TIMELINE_BUCKET));
+    }
+
+    @Test
+    void handleRequest_objectAlreadySwept_acknowledged() {
+        putBatchTimeline("dev1/batch1", "dev1");
+        s3Proxy.deleteObject(TIMELINE_BUCKET, "dev1/batch1");
+
+        SQSEvent event = notificationQueue.receive(10);
+        SQSBatchResponse response = videoTimelineS3EventExportLambda.handleRequest(event, context);
+
+        assertNull(response);
+        verify(rawVideoTimelineDAO, never()).saveAll(any(), anyList(), any());
+    }
+
+    @Test
+    void handleRequest_checkpointAndTestEvents_ignored() {
+        s3Proxy.putObjectBytes(TIMELINE_BUCKET, CHECKPOINT_KEY, "dev1/batch1".getBytes(StandardCharsets.UTF_8));
+        notificationQueue.sendMessage("{\"Service\":\"Amazon S3\",\"Event\":\"s3:TestEvent\"}");
+
+        SQSEvent event = notificationQueue.receive(10);
+        SQSBatchResponse response = videoTimelineS3EventExportLambda.handleRequest(event, context);
+
+        assertNull(response);
+        assertEquals(List.of(CHECKPOINT_KEY), s3Proxy.getKeys(TIMELINE_BUCKET));
+        verify(rawVideoTimelineDAO, never()).saveAll(any(), anyList(), any());
+    }
+
+    @Test
+    void handleRequest_encodedKey_decodedBeforeExport() {
+        putBatchTimeline("dev 1/batch+1", "dev 1");
+
+        SQSEvent event = notificationQueue.receive(10);
+        SQSBatchResponse response = videoTimelineS3EventExportLambda.handleRequest(event, context);
+
+        assertNull(response);
+        assertTrue(s3Proxy.getKeys(TIMELINE_BUCKET).isEmpty());
+        verify(rawVideoTimelineDAO, times(1)).saveAll(eq("dev 1"), anyList(), eq(VideoDensityLocation.CLOUD.name()));
+    }
+
+    @Test
+    void handleRequest_malformedNotification_reportedAsFailure() {
+        String messageId = notificationQueue.sendMessage("not json");
+
+        SQSEvent event = notificationQueue.receive(10);
+        SQSBatchResponse response = videoTimelineS3EventExportLambda.handleRequest(event, context);
+
+        assertEquals(messageId, response.getBatchItemFailures().get(0).getItemIdentifier());
+    }
+
+    private void putBatchTimeline(final String key, final String deviceId) {
+        BatchTimeline batchTimeline = BatchTimeline.builder()
+                .deviceId(deviceId)
+                .timestamps(TIMESTAMPS)
+                .location(VideoDensityLocation.CLOUD.name())
+                .build();
+        s3Proxy.putObjectBytes(TIMELINE_BUCKET, key, batchTimelineMapper.serialize(batchTimeline));
+    }
+}
@@ -2,32 +2,50 @@ package com.amazonaws.videoanalytics.videologistics.timeline;
 
 import com.amazonaws.videoanalytics.videologistics.client.s3.S3Proxy;
 import com.amazonaws.videoanalytics.videologistics.dao.videotimeline.RawVideoTimelineDAO;
+import com.amazonaws.videoanalytics.videologistics.helper.s3.InMemoryS3Proxy;
 import com.amazonaws.videoanalytics.videologistics.schema.VideoTimeline.VideoDensityLocation;
 import com.amazonaws.videoanalytics.videologistics.utils.S3BucketRegionalizer;
 import com.amazonaws.videoanalytics.videologistics.schema.SchemaConst;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.events.ScheduledEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.joda.time.DateTime;
 import software.amazon.awssdk.core.ResponseBytes;
 import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
 import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.awssdk.services.s3.model.S3Object;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineS3ExportLambda.CHECKPOINT_KEY;
+import static com.amazonaws.videoanalytics.videologistics.timeline.VideoTimelineS3ExportLambda.DEADLINE_MARGIN_MILLIS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -38,6 +56,7 @@ class VideoTimelineS3ExportLambdaTest {
     private static final String VIDEO_TIMELINE_TABLE = "video-timeline-table";
     private static final Date CURRENT_DATE = new Date();
     private static final Date FUTURE_DATE = new Date(CURRENT_DATE.getTime() + 180000);
+    private static final Instant LAST_MODIFIED = Instant.now().minus(Duration.ofHours(1));
     private static final ScheduledEvent EVENT = new ScheduledEvent()
             .withAccount(CUSTOMER_ACCOUNT_ID)
             .withTime(new DateTime(FUTURE_DATE.getTime()))
@@ -54,16 +73,32 @@ class VideoTimelineS3ExportLambdaTest {
     @Mock
     private ResponseBytes responseBytes;
     @Mock
+    private ResponseBytes checkpointBytes;
+    @Mock
+    private ResponseBytes failingBytes;
+    @Mock
     private Context context;
 
-    @InjectMocks
+    private ExecutorService exportExecutor;
     private VideoTimelineS3ExportLambda videoTimelineS3ExportLambda;
 
     @BeforeEach
-    void setUp() {
+    void setUp() throws Exception {
         MockitoAnnotations.openMocks(this);
+        exportExecutor = Executors.newFixedThreadPool(4);
+        videoTimelineS3ExportLambda = new VideoTimelineS3ExportLambda(
+                new VideoTimelineS3Exporter(rawVideoTimelineDAO, batchTimelineMapper, s3Proxy),
+                s3Proxy, s3BucketRegionalizer, exportExecutor);
         when(s3BucketRegionalizer.getRegionalizedBucketName("videoanalytics-timeline-bucket"))
                 .thenReturn(VIDEO_TIMELINE_TABLE);
+        when(s3Proxy.getS3ObjectBytes(VIDEO_TIMELINE_TABLE, CHECKPOINT_KEY))
+                .thenThrow(NoSuchKeyException.builder().build());
+        when(context.getRemainingTimeInMillis()).thenReturn((int) DEADLINE_MARGIN_MILLIS * 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        exportExecutor.shutdownNow();
     }
 
     @Test
@@ -74,7 +109,8 @@ class VideoTimelineS3ExportLambdaTest {
         );
 
         S3Object s3Object = S3Object.builder()
-                .key("file1")
+                .key(DEVICE_ID + "/file1")
+                .lastModified(LAST_MODIFIED)
                 .build();
 
         ListObjectsV2Response mockResponse = ListObjectsV2Response.builder()
@@ -88,14 +124,16 @@ class VideoTimelineS3ExportLambdaTest {
                 .location(VideoDensityLocation.CLOUD.name())
                 .build();
 
-        when(s3Proxy.listS3Objects(VIDEO_TIMELINE_TABLE, null)).thenReturn(mockResponse);
-        when(s3Proxy.getS3ObjectBytes(anyString(), anyString())).thenReturn(responseBytes);
+        when(s3Proxy.listS3Objects(VIDEO_TIMELINE_TABLE, null, null)).thenReturn(mockResponse);
+        when(s3Proxy.getS3ObjectBytes(eq(VIDEO_TIMELINE_TABLE), startsWith(DEVICE_ID))).thenReturn(responseBytes);
         when(batchTimelineMapper.deserialize(any())).thenReturn(batchTimeline);
 
         videoTimelineS3ExportLambda.handleRequest(EVENT, context);
 
-        verify(s3Proxy, times(1)).deleteObject(any(), any());
-        verify(rawVideoTimelineDAO, times(2)).save(any(), any(), any());
+        verify(s3Proxy, times(1)).deleteObjects(VIDEO_TIMELINE_TABLE, List.of(DEVICE_ID + "/file1"));
+        verify(rawVideoTimelineDAO, times(1)).saveAll(DEVICE_ID, timestampList, VideoDensityLocation.CLOUD.name());
+        verify(s3Proxy, never()).deleteObject(any(), any());
+        verify(s3Proxy, never()).putObjectBytes(any(), any(), any());
     }
 
     @Test
@@ -107,15 +145,15 @@ class VideoTimelineS3ExportLambdaTest {
 
         ListObjectsV2Response firstResponse = ListObjectsV2Response.builder()
                 .contents(List.of(
-                    S3Object.builder().key("file1").build(),
-                    S3Object.builder().key("file2").build()
+                    S3Object.builder().key(DEVICE_ID + "/file1").lastModified(LAST_MODIFIED).build(),
+                    S3Object.builder().key(DEVICE_ID + "/file2").lastModified(LAST_MODIFIED).build()
                 ))
                 .nextContinuationToken("token")
                 .isTruncated(true)
                 .build();
 
         ListObjectsV2Response secondResponse = ListObjectsV2Response.builder()
-                .contents(List.of(S3Object.builder().key("file3").build()))
+                .contents(List.of(S3Object.builder().key(DEVICE_ID + "/file3").lastModified(LAST_MODIFIED).build()))
                 .isTruncated(false)
                 .build();
 
@@ -125,15 +163,18 @@ class VideoTimelineS3ExportLambdaTest {
                 .location(VideoDensityLocation.CLOUD.name())
                 .build();
 
-        when(s3Proxy.listS3Objects(VIDEO_TIMELINE_TABLE, null)).thenReturn(firstResponse);
-        when(s3Proxy.listS3Objects(VIDEO_TIMELINE_TABLE, "token")).thenReturn(secondResponse);
-        when(s3Proxy.getS3ObjectBytes(anyString(), anyString())).thenReturn(responseBytes);
+        when(s3Proxy.listS3Objects(VIDEO_TIMELINE_TABLE, null, null)).thenReturn(firstResponse);
+        when(s3Proxy.listS3Objects(VIDEO_TIMELINE_TABLE, "token", null)).thenReturn(secondResponse);
+        when(s3Proxy.getS3ObjectBytes(eq(VIDEO_TIMELINE_TABLE), startsWith(DEVICE_ID))).thenReturn(responseBytes);
         when(batchTimelineMapper.deserialize(any())).thenReturn(batchTimeline);
 
         videoTimelineS3ExportLambda.handleRequest(EVENT, context);
 
-        verify(s3Proxy, times(3)).deleteObject(any(), any());
-        verify(rawVideoTimelineDAO, times(6)).save(any(), any(), any());
+        ArgumentCaptor<List<String>> deletedKeys = ArgumentCaptor.forClass(List.class);
+        verify(s3Proxy, times(1)).deleteObjects(eq(VIDEO_TIMELINE_TABLE), deletedKeys.capture());
+        assertEquals(List.of(DEVICE_ID + "/file1", DEVICE_ID + "/file2", DEVICE_ID + "/file3"),
+                deletedKeys.getValue().stream().sorted().collect(Collectors.toList()));
+        verify(rawVideoTimelineDAO, times(3)).saveAll(DEVICE_ID, timestampList, VideoDensityLocation.CLOUD.name());
     }
 
     @Test
@@ -143,29 +184,177 @@ class VideoTimelineS3ExportLambdaTest {
                 .isTruncated(false)
                 .build();
 
-        when(s3Proxy.listS3Objects(VIDEO_TIMELINE_TABLE, null)).thenReturn(mockResponse);
+        when(s3Proxy.listS3Objects(VIDEO_TIMELINE_TABLE, null, null)).thenReturn(mockResponse);
 
         videoTimelineS3ExportLambda.handleRequest(EVENT, context);
 
-        verify(s3Proxy, times(0)).getS3ObjectBytes(any(), any());
-        verify(s3Proxy, times(0)).deleteObject(any(), any());
-        verify(rawVideoTimelineDAO, times(0)).save(any(), any(), any());
+        verify(s3Proxy, times(0)).getS3ObjectBytes(eq(VIDEO_TIMELINE_TABLE), startsWith(DEVICE_ID));
+        verify(s3Proxy, times(0)).deleteObjects(any(), anyList());
+        verify(rawVideoTimelineDAO, times(0)).saveAll(any(), anyList(), any());
     }
 
     @Test
     void handleRequest_deserializationFails_objectDeleted() throws Exception {
         ListObjectsV2Response mockResponse = ListObjectsV2Response.builder()
-                .contents(List.of(S3Object.builder().key("file1").build()))
+                .contents(List.of(S3Object.builder().key(DEVICE_ID + "/file1").lastModified(LAST_MODIFIED).build()))
                 .isTruncated(false)
                 .build();
 
-        when(s3Proxy.listS3Objects(VIDEO_TIMELINE_TABLE, null)).thenReturn(mockResponse);
-        when(s3Proxy.getS3ObjectBytes(anyString(), anyString())).thenReturn(responseBytes);
+        when(s3Proxy.listS3Objects(VIDEO_TIMELINE_TABLE, null, null)).thenReturn(mockResponse);
+        when(s3Proxy.getS3ObjectBytes(eq(VIDEO_TIMELINE_TABLE), startsWith(DEVICE_ID))).thenReturn(responseBytes);
         doThrow(new IOException("Failed to deserialize")).when(batchTimelineMapper).deserialize(any());
 
         videoTimelineS3ExportLambda.handleRequest(EVENT, context);
 
-        verify(s3Proxy, times(1)).deleteObject(VIDEO_TIMELINE_TABLE, "file1");
-        verify(rawVideoTimelineDAO, times(0)).save(any(), any(), any());
+        verify(s3Proxy, times(1)).deleteObjects(VIDEO_TIMELINE_TABLE, List.of(DEVICE_ID + "/file1"));
+        verify(rawVideoTimelineDAO, times(0)).saveAll(any(), anyList(), any());
+    }
+
+    @Test
+    void handleRequest_saveFails_otherObjectsDeletedAndThrows() throws Exception {
+        List<TimestampInfo> timestampList = List.of(new TimestampInfo(1696444408123L, 4000L));
+        ListObjectsV2Response mockResponse = ListObjectsV2Response.builder()
+                .contents(List.of(
+                    S3Object.builder().key(DEVICE_ID + "/file1").lastModified(LAST_MODIFIED).build(),
+                    S3Object.builder().key("failing/file2").lastModified(LAST_MODIFIED).build()
+                ))
+                .isTruncated(false)
+                .build();
+        BatchTimeline batchTimeline = BatchTimeline.builder()
+                .deviceId(DEVICE_ID)
+                .timestamps(timestampList)
+                .location(VideoDensityLocation.CLOUD.name())
+                .build();
+        BatchTimeline failingBatchTimeline = BatchTimeline.builder()
+                .deviceId("failing")
+                .timestamps(timestampList)
+                .location(VideoDensityLocation.CLOUD.name())
+                .build();
+        byte[] failingPayload = new byte[] {1};
+
+        when(s3Proxy.listS3Objects(VIDEO_TIMELINE_TABLE, null, null)).thenReturn(mockResponse);
+        when(s3Proxy.getS3ObjectBytes(eq(VIDEO_TIMELINE_TABLE), startsWith(DEVICE_ID))).thenReturn(responseBytes);
+        when(s3Proxy.getS3ObjectBytes(VIDEO_TIMELINE_TABLE, "failing/file2")).thenReturn(failingBytes);
+        when(failingBytes.asByteArray()).thenReturn(failingPayload);
+        when(batchTimelineMapper.deserialize(any())).thenReturn(batchTimeline);
+        when(batchTimelineMapper.deserialize(failingPayload)).thenReturn(failingBatchTimeline);
+        doThrow(new RuntimeException("Throttled")).when(rawVideoTimelineDAO)
+                .saveAll(eq("failing"), anyList(), any());
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> videoTimelineS3ExportLambda.handleRequest(EVENT, context));
+
+        assertEquals("Failed to export 1 of 2 timeline batches from S3.", exception.getMessage());
+        verify(s3Proxy, times(1)).deleteObjects(VIDEO_TIMELINE_TABLE, List.of(DEVICE_ID + "/file1"));
+    }
+
+    @Test
+    void handleRequest_nearDeadline_stopsAndWritesCheckpoint() throws Exception {
+        ListObjectsV2Response firstResponse = ListObjectsV2Response.builder()
+                .contents(List.of(
+                    S3Object.builder().key(DEVICE_ID + "/file1").lastModified(LAST_MODIFIED).build(),
+                    S3Object.builder().key(DEVICE_ID + "/file2").lastModified(LAST_MODIFIED).build()
+                ))
+                .nextContinuationToken("token")
+                .isTruncated(true)
+                .build();
+        BatchTimeline batchTimeline = BatchTimeline.builder()
+                .deviceId(DEVICE_ID)
+                .timestamps(List.of(new TimestampInfo(1696444408123L, 4000L)))
+                .location(VideoDensityLocation.CLOUD.name())
+                .build();
+
+        when(context.getRemainingTimeInMillis()).thenReturn((int) DEADLINE_MARGIN_MILLIS * 5, 1000);
+        when(s3Proxy.listS3Objects(VIDEO_TIMELINE_TABLE, null, null)).thenReturn(firstResponse);
+        when(s3Proxy.getS3ObjectBytes(eq(VIDEO_TIMELINE_TABLE), startsWith(DEVICE_ID))).thenReturn(responseBytes);
+        when(batchTimelineMapper.deserialize(any())).thenReturn(batchTimeline);
+
+        videoTimelineS3ExportLambda.handleRequest(EVENT, context);
+
+        verify(rawVideoTimelineDAO, times(1)).saveAll(any(), anyList(), any());
+        verify(s3Proxy, times(1)).deleteObjects(VIDEO_TIMELINE_TABLE, List.of(DEVICE_ID + "/file1"));
+        verify(s3Proxy, never()).listS3Objects(VIDEO_TIMELINE_TABLE, "token", null);
+        verify(s3Proxy, times(1)).putObjectBytes(VIDEO_TIMELINE_TABLE, CHECKPOINT_KEY,
+                (DEVICE_ID + "/file1").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void handleRequest_checkpoint_resumesAfterItAndClearsIt() throws Exception {
+        ListObjectsV2Response mockResponse = ListObjectsV2Response.builder()
+                .contents(List.of(
+                    S3Object.builder().key(DEVICE_ID + "/file2").lastModified(LAST_MODIFIED).build(),
+                    S3Object.builder().key(CHECKPOINT_KEY).lastModified(LAST_MODIFIED).build()
+                ))
+                .isTruncated(false)
+                .build();
+        BatchTimeline batchTimeline = BatchTimeline.builder()
+                .deviceId(DEVICE_ID)
+                .timestamps(List.of(new TimestampInfo(1696444408123L, 4000L)))
+                .location(VideoDensityLocation.CLOUD.name())
+                .build();
+
+        doReturn(checkpointBytes).when(s3Proxy).getS3ObjectBytes(VIDEO_TIMELINE_TABLE, CHECKPOINT_KEY);
+        when(checkpointBytes.asUtf8String()).thenReturn(DEVICE_ID + "/file1");
+        when(s3Proxy.listS3Objects(VIDEO_TIMELINE_TABLE, null, DEVICE_ID + "/file1")).thenReturn(mockResponse);
+        when(s3Proxy.getS3ObjectBytes(eq(VIDEO_TIMELINE_TABLE), startsWith(DEVICE_ID))).thenReturn(responseBytes);
+        when(batchTimelineMapper.deserialize(any())).thenReturn(batchTimeline);
+
+        videoTimelineS3ExportLambda.handleRequest(EVENT, context);
+
+        verify(rawVideoTimelineDAO, times(1)).saveAll(any(), anyList(), any());
+        verify(s3Proxy, times(1)).deleteObjects(VIDEO_TIMELINE_TABLE, List.of(DEVICE_ID + "/file2"));
+        verify(s3Proxy, times(1)).deleteObject(VIDEO_TIMELINE_TABLE, CHECKPOINT_KEY);
+    }
+
+    @Test
+    void handleRequest_manyObjects_deletesInBatchesOfAThousand() throws Exception {
+        List<S3Object> s3Objects = IntStream.range(0, 1001)
+                .mapToObj(i -> S3Object.builder().key(DEVICE_ID + "/file" + i).lastModified(LAST_MODIFIED).build())
+                .collect(Collectors.toList());
+        ListObjectsV2Response mockResponse = ListObjectsV2Response.builder()
+                .contents(s3Objects)
+                .isTruncated(false)
+                .build();
+        BatchTimeline batchTimeline = BatchTimeline.builder()
+                .deviceId(DEVICE_ID)
+                .timestamps(List.of(new TimestampInfo(1696444408123L, 4000L)))
+                .location(VideoDensityLocation.CLOUD.name())
+                .build();
+
+        when(s3Proxy.listS3Objects(VIDEO_TIMELINE_TABLE, null, null)).thenReturn(mockResponse);
+        when(s3Proxy.getS3ObjectBytes(eq(VIDEO_TIMELINE_TABLE), startsWith(DEVICE_ID))).thenReturn(responseBytes);
+        when(batchTimelineMapper.deserialize(any())).thenReturn(batchTimeline);
+
+        videoTimelineS3ExportLambda.handleRequest(EVENT, context);
+
+        ArgumentCaptor<List<String>> deletedKeys = ArgumentCaptor.forClass(List.class);
+        verify(s3Proxy, times(2)).deleteObjects(eq(VIDEO_TIMELINE_TABLE), deletedKeys.capture());
+        assertEquals(1000, deletedKeys.getAllValues().get(0).size());
+        assertEquals(1, deletedKeys.getAllValues().get(1).size());
+        verify(rawVideoTimelineDAO, times(1001)).saveAll(any(), anyList(), any());
+    }
+
+    @Test
+    void handleRequest_inMemoryBucket_sweepsOnlyStragglers() {
+        InMemoryS3Proxy inMemoryS3Proxy = new InMemoryS3Proxy(2);
+        BatchTimelineMapper batchMapper = new BatchTimelineMapper(new ObjectMapper());
+        VideoTimelineS3ExportLambda sweeper = new VideoTimelineS3ExportLambda(
+                new VideoTimelineS3Exporter(rawVideoTimelineDAO, batchMapper, inMemoryS3Proxy),
+                inMemoryS3Proxy, s3BucketRegionalizer, exportExecutor);
+        byte[] batch = batchMapper.serialize(BatchTimeline.builder()
+                .deviceId(DEVICE_ID)
+                .timestamps(List.of(new TimestampInfo(1696444408123L, 4000L)))
+                .location(VideoDensityLocation.CLOUD.name())
+                .build());
+        for (int i = 0; i < 5; i++) {
+            inMemoryS3Proxy.putObjectBytes(VIDEO_TIMELINE_TABLE, DEVICE_ID + "/stale" + i, batch, LAST_MODIFIED);
+        }
+        // still expected to be exported by its notification
+        inMemoryS3Proxy.putObjectBytes(VIDEO_TIMELINE_TABLE, DEVICE_ID + "/recent", batch, Instant.now());
+
+        sweeper.handleRequest(EVENT, context);
+
+        assertEquals(List.of(DEVICE_ID + "/recent"), inMemoryS3Proxy.getKeys(VIDEO_TIMELINE_TABLE));
+        verify(rawVideoTimelineDAO, times(5)).saveAll(any(), anyList(), any());
     }
 }
@@ -0,0 +1,58 @@
+package com.amazonaws.videoanalytics.videologistics.utils.logging;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.Supplier;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DeviceLogSamplerTest {
+    private static final String DEVICE_ID = "testDevice";
+
+    @Test
+    public void isSampled_sampleRateBounds() {
+        assertFalse(DeviceLogSampler.isSampled(DEVICE_ID, 0.0));
+        assertTrue(DeviceLogSampler.isSampled(DEVICE_ID, 1.0));
+    }
+
+    @Test
+    public void isSampled_sameDevice_sameDecision() {
+        int sampledDevices = 0;
+        for (int i = 0; i < 1000; i++) {
+            boolean sampled = DeviceLogSampler.isSampled("device" + i, 0.5);
+            assertEquals(sampled, DeviceLogSampler.isSampled("device" + i, 0.5));
+            sampledDevices += sampled ? 1 : 0;
+        }
+        assertTrue(sampledDevices > 400 && sampledDevices < 600, "sampled " + sampledDevices + " of 1000 devices");
+    }
+
+    @Test
+    public void parseSampleRate_invalidValues_clampedOrDefault() {
+        assertEquals(0.5, DeviceLogSampler.parseSampleRate(" 0.5 "));
+        assertEquals(0.0, DeviceLogSampler.parseSampleRate("-1"));
+        assertEquals(1.0, DeviceLogSampler.parseSampleRate("2"));
+        assertEquals(DeviceLogSampler.DEFAULT_DEBUG_SAMPLE_RATE, DeviceLogSampler.parseSampleRate(null));
+        assertEquals(DeviceLogSampler.DEFAULT_DEBUG_SAMPLE_RATE, DeviceLogSampler.parseSampleRate("NaN"));
+        assertEquals(DeviceLogSampler.DEFAULT_DEBUG_SAMPLE_RATE, DeviceLogSampler.parseSampleRate("not a number"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void debug_debugDisabled_messageNotBuilt() {
+        Logger logger = mock(Logger.class);
+        Supplier<String> message = mock(Supplier.class);
+        when(logger.isDebugEnabled()).thenReturn(false);
+
+        DeviceLogSampler.debug(logger, DEVICE_ID, message);
+
+        verify(message, never()).get();
+        verify(logger, never()).debug(any(Supplier.class));
+    }
+}
@@ -0,0 +1,83 @@
+package com.amazonaws.videoanalytics.videologistics.utils.logging;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LogEnvironmentLookupTest {
+    private static final int DEFAULT_LENGTH = LogEnvironmentLookup.DEFAULT_MAX_MESSAGE_LENGTH;
+
+    @Test
+    public void lookup_emptyEnvironment_defaults() {
+        LogEnvironmentLookup lookup = new LogEnvironmentLookup(Map.of());
+
+        assertEquals(Level.WARN, lookup.getLevel());
+        assertEquals(String.valueOf(DEFAULT_LENGTH), lookup.lookup(LogEnvironmentLookup.MAX_MESSAGE_LENGTH));
+        assertNull(lookup.lookup("unknown"));
+    }
+
+    @Test
+    public void getLevel_readFromEnvironment() {
+        assertEquals(Level.DEBUG, new LogEnvironmentLookup(Map.of(LogEnvironmentLookup.LOG_LEVEL_VARIABLE, "debug"))
+                .getLevel());
+        assertEquals(Level.WARN, new LogEnvironmentLookup(Map.of(LogEnvironmentLookup.LOG_LEVEL_VARIABLE, "verbose"))
+                .getLevel());
+    }
+
+    @Test
+    public void getLoggerLevels_invalidEntries_ignored() {
+        LogEnvironmentLookup lookup = new LogEnvironmentLookup(Map.of(LogEnvironmentLookup.LOG_LEVELS_VARIABLE,
+                "com.example.Dao=debug, com.example.timeline = ERROR,invalid,=INFO,com.example.Other=verbose"));
+
+        assertEquals(Map.of("com.example.Dao", Level.DEBUG, "com.example.timeline", Level.ERROR),
+                lookup.getLoggerLevels());
+        assertEquals(Map.of(), new LogEnvironmentLookup(Map.of()).getLoggerLevels());
+    }
+
+    @Test
+    public void getMaxMessageLength_invalidValues_clampedOrDefault() {
+        assertEquals(200, maxMessageLength("200"));
+        assertEquals(1, maxMessageLength("-5"));
+        assertEquals(1, maxMessageLength("0"));
+        assertEquals(DEFAULT_LENGTH, maxMessageLength(""));
+        assertEquals(DEFAULT_LENGTH, maxMessageLength("not a number"));
+    }
+
+    @Test
+    public void layout_longMessageAndStackTrace_truncated() throws Exception {
+        Layout<?> layout = ((LoggerContext) LogManager.getContext(false)).getConfiguration()
+                .getAppender("Lambda").getLayout();
+        String longText = "x".repeat(2 * DEFAULT_LENGTH);
+
+        String line = (String) layout.toSerializable(Log4jLogEvent.newBuilder()
+                .setLoggerName("RawVideoTimelineDAO")
+                .setLevel(Level.WARN)
+                .setMessage(new SimpleMessage(longText))
+                .setThrown(new RuntimeException(longText))
+                .build());
+
+        JsonNode json = new ObjectMapper().readTree(line);
+        assertEquals("WARN", json.get("level").asText());
+        assertEquals("RawVideoTimelineDAO", json.get("logger").asText());
+        assertTrue(json.get("message").asText().length() <= DEFAULT_LENGTH + 1);
+        assertTrue(json.get("exception").asText().startsWith("java.lang.RuntimeException: xxx"));
+        assertTrue(json.get("exception").asText().length() <= DEFAULT_LENGTH + 1);
+    }
+
+    private static int maxMessageLength(final String value) {
+        return new LogEnvironmentLookup(Map.of(LogEnvironmentLookup.MAX_MESSAGE_LENGTH_VARIABLE, value))
+                .getMaxMessageLength();
+    }
+}
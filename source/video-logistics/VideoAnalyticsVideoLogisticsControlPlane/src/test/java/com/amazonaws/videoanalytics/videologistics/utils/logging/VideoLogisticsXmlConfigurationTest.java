@@ -0,0 +1,61 @@
+package com.amazonaws.videoanalytics.videologistics.utils.logging;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.ConfigurationSource;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VideoLogisticsXmlConfigurationTest {
+    private static final String TIMELINE_PACKAGE = "com.amazonaws.videoanalytics.videologistics.timeline";
+    private static final String RAW_DAO_LOGGER =
+            "com.amazonaws.videoanalytics.videologistics.dao.videotimeline.RawVideoTimelineDAO";
+
+    @Test
+    public void doConfigure_loggerLevels_appliedFromEnvironment() throws IOException {
+        Configuration configuration = configuration(Map.of(
+                LogEnvironmentLookup.LOG_LEVEL_VARIABLE, "ERROR",
+                LogEnvironmentLookup.LOG_LEVELS_VARIABLE, RAW_DAO_LOGGER + "=DEBUG," + TIMELINE_PACKAGE + "=INFO"));
+
+        assertEquals(Level.ERROR, configuration.getRootLogger().getLevel());
+        assertEquals(Level.DEBUG, configuration.getLoggerConfig(RAW_DAO_LOGGER).getLevel());
+        assertEquals(Level.INFO, configuration.getLoggerConfig(TIMELINE_PACKAGE + ".TimelineForwarderLambda")
+                .getLevel());
+        assertEquals(Level.ERROR, configuration.getLoggerConfig(
+                "com.amazonaws.videoanalytics.videologistics.dao.videotimeline.VideoTimelineDAO").getLevel());
+        assertTrue(configuration.getLoggerConfig(RAW_DAO_LOGGER).isAdditive());
+    }
+
+    @Test
+    public void doConfigure_emptyEnvironment_warnOnly() throws IOException {
+        Configuration configuration = configuration(Map.of());
+
+        assertEquals(Level.WARN, configuration.getRootLogger().getLevel());
+        assertEquals(Level.WARN, configuration.getLoggerConfig(RAW_DAO_LOGGER).getLevel());
+    }
+
+    @Test
+    public void getContext_log4j2Xml_loadedByFactory() {
+        Configuration configuration = ((LoggerContext) LogManager.getContext(false)).getConfiguration();
+
+        assertInstanceOf(VideoLogisticsXmlConfiguration.class, configuration);
+        assertEquals("com.amazonaws.services.lambda.runtime.log4j2.LambdaAppender",
+                configuration.getAppender("Lambda").getClass().getName());
+    }
+
+    private static Configuration configuration(final Map<String, String> environment) throws IOException {
+        ClassLoader classLoader = VideoLogisticsXmlConfigurationTest.class.getClassLoader();
+        VideoLogisticsXmlConfiguration configuration = new VideoLogisticsXmlConfiguration(new LoggerContext("test"),
+                ConfigurationSource.fromResource("log4j2.xml", classLoader), environment);
+        configuration.initialize();
+        return configuration;
+    }
+}
@@ -20,6 +20,7 @@ import com.google.gson.annotations.SerializedName;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.util.Arrays;
 
 import com.google.gson.Gson;
@@ -68,6 +69,10 @@ public class ListDetailedVideoTimelineRequestContent {
   @SerializedName(SERIALIZED_NAME_NEXT_TOKEN)
   private String nextToken;
 
+  public static final String SERIALIZED_NAME_MAX_RESULTS = "maxResults";
+  @SerializedName(SERIALIZED_NAME_MAX_RESULTS)
+  private BigDecimal maxResults;
+
   public ListDetailedVideoTimelineRequestContent() {
   }
 
@@ -147,6 +152,27 @@ public class ListDetailedVideoTimelineRequestContent {
   }
 
 
+  public ListDetailedVideoTimelineRequestContent maxResults(BigDecimal maxResults) {
+    this.maxResults = maxResults;
+    return this;
+  }
+
+  /**
+   * Get maxResults
+   * minimum: 1
+   * maximum: 1000
+   * @return maxResults
+   */
+  @javax.annotation.Nullable
+  public BigDecimal getMaxResults() {
+    return maxResults;
+  }
+
+  public void setMaxResults(BigDecimal maxResults) {
+    this.maxResults = maxResults;
+  }
+
+
 
   @Override
   public boolean equals(Object o) {
@@ -160,12 +186,13 @@ public class ListDetailedVideoTimelineRequestContent {
     return Objects.equals(this.deviceId, listDetailedVideoTimelineRequestContent.deviceId) &&
         Objects.equals(this.startTime, listDetailedVideoTimelineRequestContent.startTime) &&
         Objects.equals(this.endTime, listDetailedVideoTimelineRequestContent.endTime) &&
-        Objects.equals(this.nextToken, listDetailedVideoTimelineRequestContent.nextToken);
+        Objects.equals(this.nextToken, listDetailedVideoTimelineRequestContent.nextToken) &&
+        Objects.equals(this.maxResults, listDetailedVideoTimelineRequestContent.maxResults);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(deviceId, startTime, endTime, nextToken);
+    return Objects.hash(deviceId, startTime, endTime, nextToken, maxResults);
   }
 
   @Override
@@ -176,6 +203,7 @@ public class ListDetailedVideoTimelineRequestContent {
     sb.append("    startTime: ").append(toIndentedString(startTime)).append("\n");
     sb.append("    endTime: ").append(toIndentedString(endTime)).append("\n");
     sb.append("    nextToken: ").append(toIndentedString(nextToken)).append("\n");
+    sb.append("    maxResults: ").append(toIndentedString(maxResults)).append("\n");
     sb.append("}");
     return sb.toString();
   }
@@ -202,6 +230,7 @@ public class ListDetailedVideoTimelineRequestContent {
     openapiFields.add("startTime");
     openapiFields.add("endTime");
     openapiFields.add("nextToken");
+    openapiFields.add("maxResults");
 
     // a set of required properties/fields (JSON key names)
     openapiRequiredFields = new HashSet<String>();
@@ -15,6 +15,7 @@ package com.amazonaws.videoanalytics.videologistics;
 
 import java.util.Objects;
 import com.amazonaws.videoanalytics.videologistics.TimeIncrementUnits;
+import com.amazonaws.videoanalytics.videologistics.VideoTimelineFormat;
 import com.google.gson.TypeAdapter;
 import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
@@ -79,6 +80,10 @@ public class ListVideoTimelinesRequestContent {
   @SerializedName(SERIALIZED_NAME_NEXT_TOKEN)
   private String nextToken;
 
+  public static final String SERIALIZED_NAME_TIMELINE_FORMAT = "timelineFormat";
+  @SerializedName(SERIALIZED_NAME_TIMELINE_FORMAT)
+  private VideoTimelineFormat timelineFormat;
+
   public ListVideoTimelinesRequestContent() {
   }
 
@@ -196,6 +201,25 @@ public class ListVideoTimelinesRequestContent {
   }
 
 
+  public ListVideoTimelinesRequestContent timelineFormat(VideoTimelineFormat timelineFormat) {
+    this.timelineFormat = timelineFormat;
+    return this;
+  }
+
+  /**
+   * Get timelineFormat
+   * @return timelineFormat
+   */
+  @javax.annotation.Nullable
+  public VideoTimelineFormat getTimelineFormat() {
+    return timelineFormat;
+  }
+
+  public void setTimelineFormat(VideoTimelineFormat timelineFormat) {
+    this.timelineFormat = timelineFormat;
+  }
+
+
 
   @Override
   public boolean equals(Object o) {
@@ -211,12 +235,13 @@ public class ListVideoTimelinesRequestContent {
         Objects.equals(this.endTime, listVideoTimelinesRequestContent.endTime) &&
         Objects.equals(this.timeIncrement, listVideoTimelinesRequestContent.timeIncrement) &&
         Objects.equals(this.timeIncrementUnits, listVideoTimelinesRequestContent.timeIncrementUnits) &&
-        Objects.equals(this.nextToken, listVideoTimelinesRequestContent.nextToken);
+        Objects.equals(this.nextToken, listVideoTimelinesRequestContent.nextToken) &&
+        Objects.equals(this.timelineFormat, listVideoTimelinesRequestContent.timelineFormat);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(deviceId, startTime, endTime, timeIncrement, timeIncrementUnits, nextToken);
+    return Objects.hash(deviceId, startTime, endTime, timeIncrement, timeIncrementUnits, nextToken, timelineFormat);
   }
 
   @Override
@@ -229,6 +254,7 @@ public class ListVideoTimelinesRequestContent {
     sb.append("    timeIncrement: ").append(toIndentedString(timeIncrement)).append("\n");
     sb.append("    timeIncrementUnits: ").append(toIndentedString(timeIncrementUnits)).append("\n");
     sb.append("    nextToken: ").append(toIndentedString(nextToken)).append("\n");
+    sb.append("    timelineFormat: ").append(toIndentedString(timelineFormat)).append("\n");
     sb.append("}");
     return sb.toString();
   }
@@ -257,6 +283,7 @@ public class ListVideoTimelinesRequestContent {
     openapiFields.add("timeIncrement");
     openapiFields.add("timeIncrementUnits");
     openapiFields.add("nextToken");
+    openapiFields.add("timelineFormat");
 
     // a set of required properties/fields (JSON key names)
     openapiRequiredFields = new HashSet<String>();
@@ -303,6 +330,10 @@ public class ListVideoTimelinesRequestContent {
       if ((jsonObj.get("nextToken") != null && !jsonObj.get("nextToken").isJsonNull()) && !jsonObj.get("nextToken").isJsonPrimitive()) {
         throw new IllegalArgumentException(String.format("Expected the field `nextToken` to be a primitive type in the JSON string but got `%s`", jsonObj.get("nextToken").toString()));
       }
+      // validate the optional field `timelineFormat`
+      if (jsonObj.get("timelineFormat") != null && !jsonObj.get("timelineFormat").isJsonNull()) {
+        VideoTimelineFormat.validateJsonElement(jsonObj.get("timelineFormat"));
+      }
   }
 
   public static class CustomTypeAdapterFactory implements TypeAdapterFactory {
@@ -14,6 +14,7 @@
 package com.amazonaws.videoanalytics.videologistics;
 
 import java.util.Objects;
+import com.amazonaws.videoanalytics.videologistics.ColumnarVideoTimelines;
 import com.amazonaws.videoanalytics.videologistics.TimeIncrementUnits;
 import com.amazonaws.videoanalytics.videologistics.VideoTimeline;
 import com.google.gson.TypeAdapter;
@@ -86,6 +87,14 @@ public class ListVideoTimelinesResponseContent {
   @SerializedName(SERIALIZED_NAME_NEXT_TOKEN)
   private String nextToken;
 
+  public static final String SERIALIZED_NAME_COLUMNAR_VIDEO_TIMELINES = "columnarVideoTimelines";
+  @SerializedName(SERIALIZED_NAME_COLUMNAR_VIDEO_TIMELINES)
+  private ColumnarVideoTimelines columnarVideoTimelines;
+
+  public static final String SERIALIZED_NAME_COMPRESSED_COLUMNAR_VIDEO_TIMELINES = "compressedColumnarVideoTimelines";
+  @SerializedName(SERIALIZED_NAME_COMPRESSED_COLUMNAR_VIDEO_TIMELINES)
+  private byte[] compressedColumnarVideoTimelines;
+
   public ListVideoTimelinesResponseContent() {
   }
 
@@ -230,6 +239,44 @@ public class ListVideoTimelinesResponseContent {
   }
 
 
+  public ListVideoTimelinesResponseContent columnarVideoTimelines(ColumnarVideoTimelines columnarVideoTimelines) {
+    this.columnarVideoTimelines = columnarVideoTimelines;
+    return this;
+  }
+
+  /**
+   * Get columnarVideoTimelines
+   * @return columnarVideoTimelines
+   */
+  @javax.annotation.Nullable
+  public ColumnarVideoTimelines getColumnarVideoTimelines() {
+    return columnarVideoTimelines;
+  }
+
+  public void setColumnarVideoTimelines(ColumnarVideoTimelines columnarVideoTimelines) {
+    this.columnarVideoTimelines = columnarVideoTimelines;
+  }
+
+
+  public ListVideoTimelinesResponseContent compressedColumnarVideoTimelines(byte[] compressedColumnarVideoTimelines) {
+    this.compressedColumnarVideoTimelines = compressedColumnarVideoTimelines;
+    return this;
+  }
+
+  /**
+   * Get compressedColumnarVideoTimelines
+   * @return compressedColumnarVideoTimelines
+   */
+  @javax.annotation.Nullable
+  public byte[] getCompressedColumnarVideoTimelines() {
+    return compressedColumnarVideoTimelines;
+  }
+
+  public void setCompressedColumnarVideoTimelines(byte[] compressedColumnarVideoTimelines) {
+    this.compressedColumnarVideoTimelines = compressedColumnarVideoTimelines;
+  }
+
+
 
   @Override
   public boolean equals(Object o) {
@@ -246,12 +293,14 @@ public class ListVideoTimelinesResponseContent {
         Objects.equals(this.timeIncrement, listVideoTimelinesResponseContent.timeIncrement) &&
         Objects.equals(this.timeIncrementUnits, listVideoTimelinesResponseContent.timeIncrementUnits) &&
         Objects.equals(this.videoTimelines, listVideoTimelinesResponseContent.videoTimelines) &&
-        Objects.equals(this.nextToken, listVideoTimelinesResponseContent.nextToken);
+        Objects.equals(this.nextToken, listVideoTimelinesResponseContent.nextToken) &&
+        Objects.equals(this.columnarVideoTimelines, listVideoTimelinesResponseContent.columnarVideoTimelines) &&
+        Arrays.equals(this.compressedColumnarVideoTimelines, listVideoTimelinesResponseContent.compressedColumnarVideoTimelines);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(deviceId, startTime, endTime, timeIncrement, timeIncrementUnits, videoTimelines, nextToken);
+    return Objects.hash(deviceId, startTime, endTime, timeIncrement, timeIncrementUnits, videoTimelines, nextToken, columnarVideoTimelines, Arrays.hashCode(compressedColumnarVideoTimelines));
   }
 
   @Override
@@ -265,6 +314,8 @@ public class ListVideoTimelinesResponseContent {
     sb.append("    timeIncrementUnits: ").append(toIndentedString(timeIncrementUnits)).append("\n");
     sb.append("    videoTimelines: ").append(toIndentedString(videoTimelines)).append("\n");
     sb.append("    nextToken: ").append(toIndentedString(nextToken)).append("\n");
+    sb.append("    columnarVideoTimelines: ").append(toIndentedString(columnarVideoTimelines)).append("\n");
+    sb.append("    compressedColumnarVideoTimelines: ").append(toIndentedString(compressedColumnarVideoTimelines)).append("\n");
     sb.append("}");
     return sb.toString();
   }
@@ -294,6 +345,8 @@ public class ListVideoTimelinesResponseContent {
     openapiFields.add("timeIncrementUnits");
     openapiFields.add("videoTimelines");
     openapiFields.add("nextToken");
+    openapiFields.add("columnarVideoTimelines");
+    openapiFields.add("compressedColumnarVideoTimelines");
 
     // a set of required properties/fields (JSON key names)
     openapiRequiredFields = new HashSet<String>();
@@ -344,6 +397,10 @@ public class ListVideoTimelinesResponseContent {
       if ((jsonObj.get("nextToken") != null && !jsonObj.get("nextToken").isJsonNull()) && !jsonObj.get("nextToken").isJsonPrimitive()) {
         throw new IllegalArgumentException(String.format("Expected the field `nextToken` to be a primitive type in the JSON string but got `%s`", jsonObj.get("nextToken").toString()));
       }
+      // validate the optional field `columnarVideoTimelines`
+      if (jsonObj.get("columnarVideoTimelines") != null && !jsonObj.get("columnarVideoTimelines").isJsonNull()) {
+        ColumnarVideoTimelines.validateJsonElement(jsonObj.get("columnarVideoTimelines"));
+      }
   }
 
   public static class CustomTypeAdapterFactory implements TypeAdapterFactory {